@@ -0,0 +1,61 @@
+package com.kraken.api.benchmark;
+
+import com.kraken.api.core.packet.BufferEncoder;
+import com.kraken.api.core.packet.BufferUtils;
+import com.kraken.api.core.packet.BufferWriter;
+import com.kraken.api.core.packet.ObfuscatedNames;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks encoding a multi-field packet (OPNPCT, i.e. use item on NPC) into a buffer, once through a single
+ * {@link BufferWriter} with pre-compiled encoders and once through the per-field {@link BufferUtils} helpers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BufferEncoderBenchmark {
+
+    /**
+     * Stands in for the client's packet buffer. The field names must match
+     * {@link ObfuscatedNames#bufferOffsetField} and {@link ObfuscatedNames#bufferArrayField}.
+     */
+    public static final class FakeBuffer {
+        public int ai;
+        public byte[] av = new byte[256];
+    }
+
+    private final String[][] descriptions = ObfuscatedNames.OPNPCT_WRITES;
+    private final Object[] values = {4512, 11840, 12, 9764875, 0};
+    private BufferEncoder[][] encoders;
+    private FakeBuffer buffer;
+
+    @Setup
+    public void setup() {
+        encoders = BufferEncoder.compile(descriptions);
+        buffer = new FakeBuffer();
+    }
+
+    @Benchmark
+    public FakeBuffer compiledWriter() {
+        buffer.ai = 0;
+        BufferWriter writer = BufferWriter.open(buffer);
+        for (int i = 0; i < encoders.length; i++) {
+            writer.write(encoders[i], values[i]);
+        }
+        writer.commit();
+        return buffer;
+    }
+
+    @Benchmark
+    public FakeBuffer perFieldWrites() {
+        buffer.ai = 0;
+        for (int i = 0; i < descriptions.length; i++) {
+            for (String description : descriptions[i]) {
+                BufferUtils.writeValue(description, (Integer) values[i], buffer);
+            }
+        }
+        return buffer;
+    }
+}
@@ -0,0 +1,96 @@
+package com.kraken.api.benchmark;
+
+import com.kraken.api.service.pathfinding.LocalPathfinder;
+import com.kraken.api.service.tile.DistanceGrid;
+import com.kraken.api.service.tile.ReachabilityCache;
+import com.kraken.api.service.tile.TileService;
+import net.runelite.api.coords.WorldPoint;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the scene pathfinding and reachability searches over a synthetic 104x104 collision map. The uncached
+ * benchmarks invalidate the {@link ReachabilityCache} first so each measures a full search.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PathfindingBenchmark {
+
+    @Param({"0.1", "0.3"})
+    public double density;
+
+    private LocalPathfinder pathfinder;
+    private LocalPathfinder jumpPointPathfinder;
+    private TileService tileService;
+    private ReachabilityCache reachabilityCache;
+    private WorldPoint start;
+    private WorldPoint target;
+
+    @Setup
+    public void setup() {
+        SyntheticScene scene = new SyntheticScene(42, density);
+        pathfinder = new LocalPathfinder();
+        SyntheticScene.inject(pathfinder, "ctx", scene.context());
+        SyntheticScene.inject(pathfinder, "client", scene.client());
+        jumpPointPathfinder = new LocalPathfinder();
+        SyntheticScene.inject(jumpPointPathfinder, "ctx", scene.context());
+        SyntheticScene.inject(jumpPointPathfinder, "client", scene.client());
+        jumpPointPathfinder.setJumpPointSearch(true);
+        tileService = scene.context().getTileService();
+        reachabilityCache = scene.context().getReachabilityCache();
+
+        Random random = new Random(7);
+        start = scene.randomWalkable(random);
+        target = scene.randomWalkable(random);
+    }
+
+    @Benchmark
+    public List<WorldPoint> findPath() {
+        reachabilityCache.invalidate();
+        return pathfinder.findPath(start, target);
+    }
+
+    @Benchmark
+    public List<WorldPoint> findPathJumpPoints() {
+        reachabilityCache.invalidate();
+        return jumpPointPathfinder.findPath(start, target);
+    }
+
+    @Benchmark
+    public List<WorldPoint> findApproximatePathWithBackoff() {
+        return pathfinder.findApproximatePathWithBackoff(start, target, 3);
+    }
+
+    @Benchmark
+    public List<WorldPoint> reachableTiles() {
+        reachabilityCache.invalidate();
+        return pathfinder.reachableTiles(start);
+    }
+
+    @Benchmark
+    public HashMap<WorldPoint, Integer> reachableTilesFromTile() {
+        reachabilityCache.invalidate();
+        return tileService.getReachableTilesFromTile(start, 15, false);
+    }
+
+    @Benchmark
+    public DistanceGrid reachableGrid() {
+        reachabilityCache.invalidate();
+        return tileService.getReachableTiles(start, 15, false);
+    }
+
+    @Benchmark
+    public List<WorldPoint> findPathCached() {
+        return pathfinder.findPath(start, target);
+    }
+
+    @Benchmark
+    public DistanceGrid reachableGridCached() {
+        return tileService.getReachableTiles(start, 15, false);
+    }
+}
@@ -0,0 +1,126 @@
+package com.kraken.api.benchmark;
+
+import com.kraken.api.Context;
+import com.kraken.api.core.AbstractQuery;
+import com.kraken.api.core.FilterCost;
+import com.kraken.api.core.Interactable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks the {@link AbstractQuery} filter, sort and terminal operation pipeline over synthetic entities.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QueryBenchmark {
+    private static final Comparator<FakeEntity> BY_DISTANCE = Comparator.comparingInt(FakeEntity::getDistance);
+
+    @Param({"200", "2000"})
+    public int entityCount;
+
+    private Context context;
+    private List<FakeEntity> entities;
+
+    @Setup
+    public void setup() {
+        context = new SyntheticScene(42, 0.1).context();
+        Random random = new Random(3);
+        entities = new ArrayList<>(entityCount);
+        for (int i = 0; i < entityCount; i++) {
+            entities.add(new FakeEntity(random.nextInt(50), "entity" + random.nextInt(20), random.nextInt(100)));
+        }
+    }
+
+    @Benchmark
+    public List<FakeEntity> filterList() {
+        return new FakeQuery(context, entities)
+                .filter(e -> e.getDistance() < 50)
+                .filter(e -> e.getName().endsWith("1"), FilterCost.EXPENSIVE)
+                .withId(7)
+                .list();
+    }
+
+    @Benchmark
+    public FakeEntity sortedFirst() {
+        return new FakeQuery(context, entities)
+                .filter(e -> e.getId() % 3 != 0)
+                .sorted(BY_DISTANCE)
+                .first();
+    }
+
+    @Benchmark
+    public List<FakeEntity> sortedTake() {
+        return new FakeQuery(context, entities)
+                .except(e -> e.getId() == 4)
+                .sorted(BY_DISTANCE)
+                .take(5);
+    }
+
+    @Benchmark
+    public long count() {
+        return new FakeQuery(context, entities).withName("entity3").count();
+    }
+
+    public static final class FakeEntity implements Interactable<Integer> {
+        private final int id;
+        private final String name;
+        private final int distance;
+
+        FakeEntity(int id, String name, int distance) {
+            this.id = id;
+            this.name = name;
+            this.distance = distance;
+        }
+
+        public int getDistance() {
+            return distance;
+        }
+
+        @Override
+        public boolean interact(String action) {
+            return false;
+        }
+
+        @Override
+        public Integer raw() {
+            return id;
+        }
+
+        @Override
+        public int getId() {
+            return id;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public boolean isNull() {
+            return false;
+        }
+    }
+
+    static final class FakeQuery extends AbstractQuery<FakeEntity, FakeQuery, Integer> {
+        private final List<FakeEntity> entities;
+
+        FakeQuery(Context ctx, List<FakeEntity> entities) {
+            super(ctx);
+            this.entities = entities;
+        }
+
+        @Override
+        protected Supplier<Stream<FakeEntity>> source() {
+            return entities::stream;
+        }
+    }
+}
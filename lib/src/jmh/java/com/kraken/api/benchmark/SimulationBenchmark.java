@@ -0,0 +1,87 @@
+package com.kraken.api.benchmark;
+
+import com.kraken.api.sim.CollisionMap;
+import com.kraken.api.sim.engine.SimulationEngine;
+import com.kraken.api.sim.model.AttackStyle;
+import com.kraken.api.sim.model.SimNpc;
+import com.kraken.api.sim.model.SimPlayer;
+import net.runelite.api.coords.WorldPoint;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Stack;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a single {@link SimulationEngine#tick()} with a number of pathfinding NPCs chasing the player, with and
+ * without flow field pathing. NPC positions are reset before every invocation so each tick does the same amount of work.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SimulationBenchmark {
+
+    @Param({"5", "25"})
+    public int npcCount;
+
+    @Param({"true", "false"})
+    public boolean flowField;
+
+    private SimulationEngine engine;
+    private List<SimNpc> npcs;
+    private List<Point> spawns;
+
+    @Setup
+    public void setup() {
+        SyntheticScene scene = new SyntheticScene(42, 0.15);
+        int[][] flags = scene.flags();
+
+        // The simulation stores collision data as [y][x]
+        int[][] data = new int[SyntheticScene.SIZE][SyntheticScene.SIZE];
+        for (int x = 0; x < SyntheticScene.SIZE; x++) {
+            for (int y = 0; y < SyntheticScene.SIZE; y++) {
+                data[y][x] = flags[x][y];
+            }
+        }
+
+        Random random = new Random(11);
+        npcs = new ArrayList<>();
+        spawns = new ArrayList<>();
+        for (int i = 0; i < npcCount; i++) {
+            WorldPoint spawn = scene.randomWalkable(random);
+            Point point = new Point(spawn.getX() - SyntheticScene.BASE_X, spawn.getY() - SyntheticScene.BASE_Y);
+            SimNpc npc = new SimNpc(new Point(point), Color.RED, "npc" + i);
+            npc.setCanPathfind(i % 2 == 0);
+            npcs.add(npc);
+            spawns.add(point);
+        }
+
+        WorldPoint playerLocation = scene.randomWalkable(random);
+        Point player = new Point(playerLocation.getX() - SyntheticScene.BASE_X, playerLocation.getY() - SyntheticScene.BASE_Y);
+        CollisionMap map = new CollisionMap(data, npcs, 0, 0, SyntheticScene.SIZE - 1, SyntheticScene.SIZE - 1, player.x, player.y, 0);
+
+        engine = new SimulationEngine();
+        engine.setFlowFieldPathing(flowField);
+        SyntheticScene.inject(engine, "map", map);
+        SyntheticScene.inject(engine, "collisionData", data);
+        SyntheticScene.inject(engine, "npcs", npcs);
+        SyntheticScene.inject(engine, "player", new SimPlayer(player, 1, false, 100, AttackStyle.MELEE, 0, new ArrayList<>()));
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() {
+        for (int i = 0; i < npcs.size(); i++) {
+            npcs.get(i).setPosition(new Point(spawns.get(i)));
+        }
+        SyntheticScene.inject(engine, "tick", 1);
+        SyntheticScene.inject(engine, "stateHistory", new Stack<>());
+    }
+
+    @Benchmark
+    public void tick() {
+        engine.tick();
+    }
+}
@@ -0,0 +1,205 @@
+package com.kraken.api.benchmark;
+
+import com.kraken.api.Context;
+import com.kraken.api.core.item.ContainerMirror;
+import com.kraken.api.core.item.ItemDefinitionCache;
+import com.kraken.api.core.packet.debug.PacketSpy;
+import com.kraken.api.core.player.LocalPlayerTracker;
+import com.kraken.api.core.thread.WaitEngine;
+import com.kraken.api.core.varbit.VarMirror;
+import com.kraken.api.query.scene.SceneCache;
+import com.kraken.api.query.scene.TileObjectRegistry;
+import com.kraken.api.query.widget.WidgetIndex;
+import com.kraken.api.service.bank.BankService;
+import com.kraken.api.service.tile.ReachabilityCache;
+import com.kraken.api.service.tile.TileService;
+import com.kraken.api.sim.CollisionDumper;
+import net.runelite.api.*;
+import net.runelite.api.coords.WorldPoint;
+import net.runelite.client.callback.ClientThread;
+import net.runelite.client.eventbus.EventBus;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.Random;
+
+/**
+ * A fake 104x104 scene used by the benchmarks so that nothing requires a running client. The client, world view,
+ * collision maps and tiles are all {@link Proxy} instances backed by a seeded, randomly generated collision map. The
+ * fake client always reports that it is on the client thread so {@code Context.runOnClientThread} runs inline.
+ */
+public final class SyntheticScene {
+    public static final int SIZE = 104;
+    public static final int BASE_X = 3200;
+    public static final int BASE_Y = 3200;
+
+    private final int[][] flags;
+    private final Client client;
+    private final Context context;
+
+    /**
+     * Creates a new synthetic scene.
+     * @param seed The random seed for the collision map
+     * @param density The fraction (0-1) of tiles which are fully blocked
+     */
+    public SyntheticScene(long seed, double density) {
+        this.flags = generateFlags(seed, density);
+
+        CollisionData collisionData = proxy(CollisionData.class, (name, args) -> name.equals("getFlags") ? flags : null);
+        CollisionData[] collisionMaps = {collisionData, collisionData, collisionData, collisionData};
+
+        Tile[][][] tiles = new Tile[4][SIZE][SIZE];
+        for (int x = 0; x < SIZE; x++) {
+            for (int y = 0; y < SIZE; y++) {
+                tiles[0][x][y] = tile(x, y);
+            }
+        }
+
+        Scene scene = proxy(Scene.class, (name, args) -> name.equals("getTiles") ? tiles : null);
+        WorldView worldView = proxy(WorldView.class, (name, args) -> {
+            switch (name) {
+                case "getCollisionMaps": return collisionMaps;
+                case "getScene": return scene;
+                case "getBaseX": return BASE_X;
+                case "getBaseY": return BASE_Y;
+                case "getSizeX":
+                case "getSizeY": return SIZE;
+                case "getId": return -1;
+                default: return null;
+            }
+        });
+
+        this.client = proxy(Client.class, (name, args) -> {
+            switch (name) {
+                case "isClientThread": return true;
+                case "getTopLevelWorldView": return worldView;
+                case "getGameState": return GameState.LOGGED_IN;
+                default: return null;
+            }
+        });
+
+        TileService tileService = new TileService();
+        VarMirror[] varMirror = new VarMirror[1];
+        Context[] ctx = new Context[1];
+        varMirror[0] = new VarMirror(client, () -> ctx[0]);
+        EventBus eventBus = new EventBus();
+        ClientThread clientThread = new ClientThread();
+        ctx[0] = new Context(client, clientThread, null, eventBus, null, null, tileService, null,
+                new BankService(), new PacketSpy(), new SceneCache(), new TileObjectRegistry(client), varMirror[0],
+                new ItemDefinitionCache(client, null, () -> ctx[0]), new ContainerMirror(client, () -> ctx[0]),
+                new WidgetIndex(client), new ReachabilityCache(), new CollisionDumper(),
+                new WaitEngine(client, clientThread, eventBus), new LocalPlayerTracker(client));
+        this.context = ctx[0];
+        inject(tileService, "ctxProvider", (com.google.inject.Provider<Context>) () -> context);
+    }
+
+    public Client client() {
+        return client;
+    }
+
+    public Context context() {
+        return context;
+    }
+
+    public int[][] flags() {
+        return flags;
+    }
+
+    /**
+     * Returns a random walkable world point within the scene.
+     * @param random The random source
+     * @return A world point on an unblocked tile
+     */
+    public WorldPoint randomWalkable(Random random) {
+        while (true) {
+            int x = 1 + random.nextInt(SIZE - 2);
+            int y = 1 + random.nextInt(SIZE - 2);
+            if ((flags[x][y] & CollisionDataFlag.BLOCK_MOVEMENT_FULL) == 0) {
+                return new WorldPoint(BASE_X + x, BASE_Y + y, 0);
+            }
+        }
+    }
+
+    /**
+     * Sets a (typically {@code @Inject} annotated) field on an object.
+     * @param target The object
+     * @param name The field name
+     * @param value The value to set
+     * @param <T> The type of the object
+     * @return The object
+     */
+    public static <T> T inject(T target, String name, Object value) {
+        Class<?> type = target.getClass();
+        while (type != null) {
+            try {
+                Field field = type.getDeclaredField(name);
+                field.setAccessible(true);
+                field.set(target, value);
+                return target;
+            } catch (NoSuchFieldException e) {
+                type = type.getSuperclass();
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        throw new IllegalArgumentException("No field " + name + " on " + target.getClass());
+    }
+
+    private Tile tile(int x, int y) {
+        Point sceneLocation = new Point(x, y);
+        WorldPoint worldLocation = new WorldPoint(BASE_X + x, BASE_Y + y, 0);
+        return proxy(Tile.class, (name, args) -> {
+            switch (name) {
+                case "getSceneLocation": return sceneLocation;
+                case "getWorldLocation": return worldLocation;
+                case "getPlane": return 0;
+                default: return null;
+            }
+        });
+    }
+
+    // The scene border is always blocked, everything else is blocked with the given density.
+    private static int[][] generateFlags(long seed, double density) {
+        Random random = new Random(seed);
+        int[][] flags = new int[SIZE][SIZE];
+        for (int x = 0; x < SIZE; x++) {
+            for (int y = 0; y < SIZE; y++) {
+                boolean border = x == 0 || y == 0 || x == SIZE - 1 || y == SIZE - 1;
+                if (border || random.nextDouble() < density) {
+                    flags[x][y] = CollisionDataFlag.BLOCK_MOVEMENT_FULL;
+                }
+            }
+        }
+        return flags;
+    }
+
+    private interface Answer {
+        Object answer(String method, Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Answer answer) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class[]{type}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                switch (method.getName()) {
+                    case "hashCode": return System.identityHashCode(proxy);
+                    case "equals": return proxy == args[0];
+                    default: return type.getSimpleName();
+                }
+            }
+
+            Object value = answer.answer(method.getName(), args);
+            if (value != null || !method.getReturnType().isPrimitive()) {
+                return value;
+            }
+
+            Class<?> returnType = method.getReturnType();
+            if (returnType == boolean.class) return false;
+            if (returnType == void.class) return null;
+            if (returnType == long.class) return 0L;
+            if (returnType == double.class) return 0D;
+            if (returnType == float.class) return 0F;
+            return 0;
+        });
+    }
+}
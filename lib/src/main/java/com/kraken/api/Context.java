@@ -3,8 +3,15 @@ package com.kraken.api;
 import com.google.inject.Inject;
 import com.google.inject.Injector;
 import com.google.inject.Singleton;
+import com.kraken.api.core.item.ContainerMirror;
+import com.kraken.api.core.item.ItemDefinitionCache;
 import com.kraken.api.core.packet.PacketMethodLocator;
 import com.kraken.api.core.packet.debug.PacketSpy;
+import com.kraken.api.core.player.LocalPlayerTracker;
+import com.kraken.api.core.thread.ClientBatch;
+import com.kraken.api.core.thread.ClientThreadDispatcher;
+import com.kraken.api.core.thread.WaitEngine;
+import com.kraken.api.core.varbit.VarMirror;
 import com.kraken.api.input.mouse.VirtualMouse;
 import com.kraken.api.query.InteractionManager;
 import com.kraken.api.query.container.bank.BankInventoryQuery;
@@ -16,10 +23,15 @@ import com.kraken.api.query.groundobject.GroundObjectQuery;
 import com.kraken.api.query.npc.NpcQuery;
 import com.kraken.api.query.player.LocalPlayerEntity;
 import com.kraken.api.query.player.PlayerQuery;
+import com.kraken.api.query.scene.SceneCache;
+import com.kraken.api.query.scene.TileObjectRegistry;
+import com.kraken.api.query.widget.WidgetIndex;
 import com.kraken.api.query.widget.WidgetQuery;
 import com.kraken.api.query.world.WorldQuery;
 import com.kraken.api.service.bank.BankService;
+import com.kraken.api.service.tile.ReachabilityCache;
 import com.kraken.api.service.tile.TileService;
+import com.kraken.api.sim.CollisionDumper;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.SneakyThrows;
@@ -63,12 +75,48 @@ public class Context {
     @Getter
     private final ItemManager itemManager;
 
+    @Getter
+    private final SceneCache sceneCache;
+
+    @Getter
+    private final TileObjectRegistry tileObjectRegistry;
+
+    @Getter
+    private final VarMirror varMirror;
+
+    @Getter
+    private final ItemDefinitionCache itemDefinitionCache;
+
+    @Getter
+    private final ContainerMirror containerMirror;
+
+    @Getter
+    private final WidgetIndex widgetIndex;
+
+    @Getter
+    private final ReachabilityCache reachabilityCache;
+
+    @Getter
+    private final CollisionDumper collisionDumper;
+
+    @Getter
+    private final WaitEngine waitEngine;
+
+    @Getter
+    private final LocalPlayerTracker localPlayerTracker;
+
     private final Injector injector;
+    private final ClientThreadDispatcher dispatcher;
 
     @Inject
     public Context(final Client client, final ClientThread clientThread, final VirtualMouse mouse, final EventBus eventBus,
                    final Injector injector, final InteractionManager interactionManager, final TileService tileService,
-                   final ItemManager itemManager, final BankService bankService, final PacketSpy packetSpy) {
+                   final ItemManager itemManager, final BankService bankService, final PacketSpy packetSpy,
+                   final SceneCache sceneCache, final TileObjectRegistry tileObjectRegistry,
+                   final VarMirror varMirror, final ItemDefinitionCache itemDefinitionCache,
+                   final ContainerMirror containerMirror, final WidgetIndex widgetIndex,
+                   final ReachabilityCache reachabilityCache, final CollisionDumper collisionDumper,
+                   final WaitEngine waitEngine, final LocalPlayerTracker localPlayerTracker) {
         this.client = client;
         this.clientThread = clientThread;
         this.mouse = mouse;
@@ -76,10 +124,29 @@ public class Context {
         this.tileService = tileService;
         this.interactionManager = interactionManager;
         this.itemManager = itemManager;
+        this.sceneCache = sceneCache;
+        this.tileObjectRegistry = tileObjectRegistry;
+        this.varMirror = varMirror;
+        this.itemDefinitionCache = itemDefinitionCache;
+        this.containerMirror = containerMirror;
+        this.widgetIndex = widgetIndex;
+        this.reachabilityCache = reachabilityCache;
+        this.collisionDumper = collisionDumper;
+        this.waitEngine = waitEngine;
+        this.localPlayerTracker = localPlayerTracker;
+        this.dispatcher = new ClientThreadDispatcher(client, clientThread);
         this.localPlayer = new LocalPlayerEntity(this);
-        eventBus.register(this.localPlayer);
         eventBus.register(bankService);
         eventBus.register(packetSpy);
+        eventBus.register(sceneCache);
+        eventBus.register(tileObjectRegistry);
+        eventBus.register(varMirror);
+        eventBus.register(containerMirror);
+        eventBus.register(widgetIndex);
+        eventBus.register(reachabilityCache);
+        eventBus.register(collisionDumper);
+        eventBus.register(waitEngine);
+        eventBus.register(localPlayerTracker);
     }
 
     /**
@@ -103,22 +170,22 @@ public class Context {
 
     /**
      * Returns a varbit value from the RuneLite client. This method is
-     *  thread-safe and runs on the client thread to retrieve the value.
+     *  thread-safe and reads from the {@link VarMirror} so it does not wait on the client thread once the player is logged in.
      * @param varbit The varbit value to retrieve.
      * @return The varbit value (either 0 for false/unset or 1 for true/set).
      */
     public int getVarbitValue(int varbit) {
-        return runOnClientThread(() -> client.getVarbitValue(varbit));
+        return varMirror.getVarbitValue(varbit);
     }
 
     /**
      * Returns a var player value from the RuneLite client. This method is
-     *  thread-safe and runs on the client thread to retrieve the value.
+     *  thread-safe and reads from the {@link VarMirror} so it does not wait on the client thread once the player is logged in.
      * @param varp The varp value to retrieve.
      * @return The varp value (either 0 for false/unset or 1 for true/set).
      */
     public int getVarpValue(int varp) {
-        return runOnClientThread(() -> client.getVarpValue(varp));
+        return varMirror.getVarpValue(varp);
     }
 
     /**
@@ -159,16 +226,7 @@ public class Context {
             return method.call();
         }
 
-        final CompletableFuture<T> future = new CompletableFuture<>();
-
-        clientThread.invoke(() -> {
-            try {
-                T result = method.call();
-                future.complete(result);
-            } catch (Exception e) {
-                future.completeExceptionally(e);
-            }
-        });
+        final CompletableFuture<T> future = dispatcher.submit(method);
 
         try {
             return future.get(2000, TimeUnit.MILLISECONDS);
@@ -181,6 +239,32 @@ public class Context {
         }
     }
 
+    /**
+     * Run a method on the client thread without blocking the calling thread. Calls made from other threads within the
+     * same client frame are coalesced into a single client thread task.
+     * @param method The method to call
+     * @param <T> The type of the method's return value
+     * @return A future completed with the result of the method on the client thread
+     */
+    public <T> CompletableFuture<T> runOnClientThreadAsync(Callable<T> method) {
+        if (method == null) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            future.completeExceptionally(new IllegalArgumentException("callable method is null"));
+            return future;
+        }
+
+        return dispatcher.submit(method);
+    }
+
+    /**
+     * Creates a new batch of client reads. Reads queued on the batch are executed together in a single client
+     * thread task rather than one task (and one frame of waiting) per read.
+     * @return A new, empty {@link ClientBatch}
+     */
+    public ClientBatch batch() {
+        return new ClientBatch(this);
+    }
+
     /**
      * Runs a method on the client thread without returning a result.
      * @param method Runnable method to execute
@@ -206,16 +290,7 @@ public class Context {
             return Optional.ofNullable(method.call());
         }
 
-        final CompletableFuture<T> future = new CompletableFuture<>();
-
-        clientThread.invoke(() -> {
-            try {
-                T result = method.call();
-                future.complete(result);
-            } catch (Exception e) {
-                future.completeExceptionally(e);
-            }
-        });
+        final CompletableFuture<T> future = dispatcher.submit(method);
 
         try {
             return Optional.ofNullable(future.get(2000, TimeUnit.MILLISECONDS));
@@ -1,12 +1,16 @@
 package com.kraken.api.core;
 
 import com.kraken.api.Context;
+import com.kraken.api.query.scene.EntitySnapshot;
+import com.kraken.api.query.scene.SpatialIndex;
+import net.runelite.api.coords.WorldPoint;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -19,8 +23,11 @@ import java.util.stream.Stream;
  */
 public abstract class AbstractQuery<T extends Interactable<R>, Q extends AbstractQuery<T, Q, R>, R> {
     protected final Context ctx;
-    private final List<Predicate<T>> filters = new ArrayList<>();
+    private final List<Stage<T>> filters = new ArrayList<>();
     private Comparator<T> comparator = null;
+    private final List<Function<EntitySnapshot<T>, List<T>>> lookups = new ArrayList<>();
+    private List<Stage<T>> order = null;
+    private Plan<T> plan = null;
     private static final Random random = new Random();
 
     public AbstractQuery(Context ctx) {
@@ -29,15 +36,350 @@ public abstract class AbstractQuery<T extends Interactable<R>, Q extends Abstrac
 
     protected abstract Supplier<Stream<T>> source();
 
+    /**
+     * Returns the tick snapshot backing this query for queries over scene entities (NPC's, players, game objects
+     * and ground items). Queries which are not backed by a {@link EntitySnapshot} return null and cannot make use
+     * of indexed lookups.
+     * @return The snapshot backing this query or null
+     */
+    protected EntitySnapshot<T> snapshot() {
+        return null;
+    }
+
+    /**
+     * Applies an indexed filter to the query. When the query is backed by a snapshot, the candidate entities are
+     * narrowed to the result of the lookup against the snapshot (i.e. its id or name index) so that only entities which
+     * could possibly match are visited. When several indexed filters are applied, the one returning the fewest
+     * candidates is used. The predicate is always applied as a regular filter as well, so the lookup only needs to return
+     * a superset of the matching entities.
+     * @param lookup A function returning the candidate entities from the snapshot
+     * @param predicate The exact predicate entities must match
+     * @return Q
+     */
+    protected Q indexed(Function<EntitySnapshot<T>, List<T>> lookup, Predicate<T> predicate) {
+        return indexed(lookup, predicate, FilterCost.CHEAP);
+    }
+
+    /**
+     * Applies an indexed filter whose predicate is not a simple field comparison, see
+     * {@link #indexed(Function, Predicate)}. The lookup still narrows the candidates but the predicate is ordered by
+     * the provided cost, i.e. {@link FilterCost#EXPENSIVE} for predicates which resolve compositions.
+     * @param lookup A function returning the candidate entities from the snapshot
+     * @param predicate The exact predicate entities must match
+     * @param cost The relative cost of evaluating the predicate
+     * @return Q
+     */
+    protected Q indexed(Function<EntitySnapshot<T>, List<T>> lookup, Predicate<T> predicate, FilterCost cost) {
+        lookups.add(lookup);
+        return filter(predicate, cost);
+    }
+
+    /**
+     * Applies an indexed filter whose predicate has to read live client state, see
+     * {@link #indexed(Function, Predicate)} and {@link #filterOnClientThread(Predicate, FilterCost)}.
+     * @param lookup A function returning the candidate entities from the snapshot
+     * @param predicate The exact predicate entities must match, evaluated on the client thread
+     * @param cost The relative cost of evaluating the predicate
+     * @return Q
+     */
+    protected Q indexedOnClientThread(Function<EntitySnapshot<T>, List<T>> lookup, Predicate<T> predicate, FilterCost cost) {
+        lookups.add(lookup);
+        return filterOnClientThread(predicate, cost);
+    }
+
+    /**
+     * Applies an indexed filter which, for queries backed by a snapshot, is checked against the values captured in
+     * the snapshot (see {@link EntitySnapshot#idOf(Interactable)} and {@link EntitySnapshot#nameOf(Interactable)})
+     * instead of reading each entity through the client.
+     * @param lookup A function returning the candidate entities from the snapshot
+     * @param captured A function returning the predicate to check against a snapshot's captured values
+     * @param predicate The predicate used when the query is not backed by a snapshot
+     * @return Q
+     */
+    @SuppressWarnings("unchecked")
+    private Q captured(Function<EntitySnapshot<T>, List<T>> lookup, Function<EntitySnapshot<T>, Predicate<T>> captured,
+                       Predicate<T> predicate) {
+        lookups.add(lookup);
+        filters.add(new Stage<>(predicate, captured, FilterCost.CHEAP, false, false));
+        order = null;
+        plan = null;
+        return (Q) this;
+    }
+
+    /**
+     * Applies a spatial filter to the query. This is an {@link #indexed(Function, Predicate)} filter whose candidates
+     * come from the snapshot's {@link SpatialIndex} so that only entities near the region of interest are visited.
+     * @param lookup A function returning the candidate entities from the spatial index
+     * @param predicate The exact predicate entities must match
+     * @return Q
+     */
+    protected Q spatial(Function<SpatialIndex<T>, List<T>> lookup, Predicate<T> predicate) {
+        return indexed(snapshot -> lookup.apply(snapshot.getIndex()), predicate);
+    }
+
+    /**
+     * Finds the entity matching every filter in this query with the smallest distance from the origin. For snapshot
+     * backed queries this is a ring search over the spatial index which only visits buckets near the origin, otherwise
+     * it is a single linear pass over the stream.
+     * @param origin The world point the search originates from (generally the local player's location)
+     * @param distance The distance metric to minimize
+     * @param unitsPerTile The number of distance units per tile (1 for world distances, 128 for local distances)
+     * @param slackTiles How far the measured points may be from the indexed locations, see
+     *                   {@link SpatialIndex#nearest(WorldPoint, int, Predicate, ToIntFunction, int, int)}
+     * @return T the nearest entity or null if no entity matches the query
+     */
+    protected T findNearest(WorldPoint origin, ToIntFunction<T> distance, int unitsPerTile, int slackTiles) {
+        EntitySnapshot<T> snapshot = snapshot();
+        if (snapshot == null || origin == null) {
+            return evaluate(s -> filtered(s).min(Comparator.comparingInt(distance)).orElse(null));
+        }
+
+        Plan<T> plan = plan(snapshot);
+        if (plan.client == null) {
+            return nearest(snapshot, plan.local, origin, distance, unitsPerTile, slackTiles);
+        }
+
+        // The ring search tests candidates as it goes, so with a client thread filter the whole search is one hop
+        return ctx.runOnClientThread(() -> nearest(snapshot, plan.all(), origin, distance, unitsPerTile, slackTiles));
+    }
+
+    /**
+     * Runs the ring search over the snapshot's spatial index for the nearest entity matching the predicate.
+     */
+    private T nearest(EntitySnapshot<T> snapshot, Predicate<T> predicate, WorldPoint origin, ToIntFunction<T> distance,
+                      int unitsPerTile, int slackTiles) {
+        List<T> nearest = snapshot.getIndex().nearest(origin, 1, predicate, distance, unitsPerTile, slackTiles);
+        return nearest.isEmpty() ? null : nearest.get(0);
+    }
+
+    /**
+     * Evaluates a terminal operation. Queries backed by a snapshot are evaluated on the calling thread: candidates,
+     * filters and the comparator all run against the snapshot, and only filters added through
+     * {@link #filterOnClientThread(Predicate, FilterCost)} are sent to the client thread, in a single hop for the
+     * entities which passed every filter before them. Queries which are not backed by a snapshot read their source
+     * from the client so they are evaluated on the client thread.
+     * @param terminal The operation to evaluate, given the snapshot backing this query or null
+     * @param <V> The result type
+     * @return The result of the operation
+     */
+    private <V> V evaluate(Function<EntitySnapshot<T>, V> terminal) {
+        EntitySnapshot<T> snapshot = snapshot();
+        if (snapshot != null) {
+            return terminal.apply(snapshot);
+        }
+
+        return ctx.runOnClientThread(() -> terminal.apply(null));
+    }
+
+    /**
+     * Returns the stream of entities the filters are applied to. This is every entity in the snapshot (or the full
+     * {@code source()} when there is no snapshot) unless an indexed filter has narrowed the candidates.
+     * @param snapshot The snapshot backing this query or null
+     * @return Stream of candidate entities
+     */
+    private Stream<T> candidates(EntitySnapshot<T> snapshot) {
+        if (snapshot == null) {
+            return source().get();
+        }
+
+        List<T> smallest = snapshot.all();
+        for (Function<EntitySnapshot<T>, List<T>> lookup : lookups) {
+            List<T> candidates = lookup.apply(snapshot);
+            if (candidates.size() < smallest.size()) {
+                smallest = candidates;
+            }
+        }
+        return smallest.stream();
+    }
+
+    /**
+     * Returns the candidate entities with every filter applied. When there is no snapshot this must be called on the
+     * client thread. When there is a snapshot the stream is lazy unless the query has a client thread filter, in which
+     * case the filters before it are applied here and the rest are applied to the survivors in one client thread hop.
+     * @param snapshot The snapshot backing this query or null
+     * @return Stream of entities matching the query (unsorted)
+     */
+    private Stream<T> filtered(EntitySnapshot<T> snapshot) {
+        Stream<T> stream = candidates(snapshot);
+        if (stream == null) {
+            return Stream.empty();
+        }
+
+        if (filters.isEmpty()) {
+            return stream;
+        }
+
+        Plan<T> plan = plan(snapshot);
+        if (snapshot == null || plan.client == null) {
+            return stream.filter(plan.all());
+        }
+
+        List<T> survivors = stream.filter(plan.local).collect(Collectors.toList());
+        if (survivors.isEmpty()) {
+            return Stream.empty();
+        }
+
+        List<T> matches = ctx.runOnClientThread(() -> survivors.stream().filter(plan.client).collect(Collectors.toList()));
+        return matches == null ? Stream.empty() : matches.stream();
+    }
+
+    /**
+     * Compiles the filters applied to this query into predicates for the given snapshot. Filters added with a
+     * {@link FilterCost} are ordered by their cost (preserving insertion order within the same cost, with client thread
+     * filters after the others of the same cost) so that cheap checks short circuit before expensive ones are
+     * evaluated. Filters added through {@link #filter(Predicate)} are never moved and no filter is moved across them,
+     * a caller's predicate may guard the ones after it (i.e. null or validity checks).
+     * <p>
+     * The ordered filters are split at the first client thread filter: the ones before it form the local predicate
+     * and the rest form the client predicate, so filters still run in plan order. The plan is cached until another
+     * filter is added or a different snapshot is evaluated.
+     * @param snapshot The snapshot the plan is evaluated against or null
+     * @return The compiled plan
+     */
+    private Plan<T> plan(EntitySnapshot<T> snapshot) {
+        if (plan != null && plan.snapshot == snapshot) {
+            return plan;
+        }
+
+        if (order == null) {
+            List<Stage<T>> ordered = new ArrayList<>(filters.size());
+            int segmentStart = 0;
+            for (Stage<T> stage : filters) {
+                if (stage.barrier) {
+                    sortSegment(ordered, segmentStart);
+                    ordered.add(stage);
+                    segmentStart = ordered.size();
+                } else {
+                    ordered.add(stage);
+                }
+            }
+            sortSegment(ordered, segmentStart);
+            order = ordered;
+        }
+
+        int split = 0;
+        while (split < order.size() && !order.get(split).clientThread) {
+            split++;
+        }
+
+        Predicate<T> local = fuse(order.subList(0, split), snapshot);
+        Predicate<T> client = split == order.size() ? null : fuse(order.subList(split, order.size()), snapshot);
+        plan = new Plan<>(snapshot, local, client);
+        return plan;
+    }
+
+    /**
+     * Fuses stages into a single predicate which tests them in order.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T extends Interactable<?>> Predicate<T> fuse(List<Stage<T>> ordered, EntitySnapshot<T> snapshot) {
+        final Predicate<T>[] stages = new Predicate[ordered.size()];
+        for (int i = 0; i < stages.length; i++) {
+            stages[i] = ordered.get(i).bind(snapshot);
+        }
+
+        return entity -> {
+            for (Predicate<T> stage : stages) {
+                if (!stage.test(entity)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    /**
+     * Stably sorts the stages from {@code from} to the end of the list by cost, then by whether they need the client
+     * thread.
+     */
+    private static <T extends Interactable<?>> void sortSegment(List<Stage<T>> stages, int from) {
+        if (stages.size() - from > 1) {
+            stages.subList(from, stages.size()).sort(Comparator.comparing((Stage<T> stage) -> stage.cost)
+                    .thenComparing(stage -> stage.clientThread));
+        }
+    }
+
+    /**
+     * Selects the {@code n} smallest entities from the stream according to the comparator using a bounded heap. Ties
+     * are broken by encounter order so the result is identical to a stable sort followed by {@code limit(n)}.
+     * @param stream The stream of entities
+     * @param n The number of entities to select
+     * @param comparator The comparator to order entities by
+     * @return Up to n entities in ascending order
+     */
+    private List<T> topK(Stream<T> stream, int n, Comparator<T> comparator) {
+        if (n <= 0) {
+            return new ArrayList<>();
+        }
+
+        // Max heap so the worst of the current best n sits at the head
+        final Comparator<Ranked<T>> ascending = Comparator.<Ranked<T>, T>comparing(r -> r.value, comparator)
+                .thenComparingLong(r -> r.ordinal);
+        final PriorityQueue<Ranked<T>> heap = new PriorityQueue<>(Math.min(n, 16) + 1, ascending.reversed());
+        final long[] ordinal = {0};
+
+        stream.forEachOrdered(entity -> {
+            long index = ordinal[0]++;
+            // Later entities lose ties so anything not strictly better than the current worst can be skipped
+            if (heap.size() == n && comparator.compare(entity, heap.peek().value) >= 0) {
+                return;
+            }
+
+            heap.offer(new Ranked<>(entity, index));
+            if (heap.size() > n) {
+                heap.poll();
+            }
+        });
+
+        List<Ranked<T>> ranked = new ArrayList<>(heap);
+        ranked.sort(ascending);
+        List<T> results = new ArrayList<>(ranked.size());
+        for (Ranked<T> r : ranked) {
+            results.add(r.value);
+        }
+        return results;
+    }
+
     /**
      * Applies a predicate to the stream to filter elements of the stream.
      * @param predicate Filter to add
      * @return Q
      */
-    @SuppressWarnings("unchecked")
     public Q filter(Predicate<T> predicate) {
+        return addStage(predicate, FilterCost.NORMAL, true, false);
+    }
+
+    /**
+     * Applies a predicate to the stream to filter elements of the stream with a cost hint. Cheaper filters are
+     * evaluated before more expensive ones added with a cost hint, but never ahead of a filter added through
+     * {@link #filter(Predicate)} before them.
+     * @param predicate Filter to add
+     * @param cost The relative cost of evaluating the predicate
+     * @return Q
+     */
+    public Q filter(Predicate<T> predicate, FilterCost cost) {
+        return addStage(predicate, cost == null ? FilterCost.NORMAL : cost, false, false);
+    }
+
+    /**
+     * Applies a filter which reads live client state, i.e. compositions, definitions or collision data, and therefore
+     * has to run on the client thread. Every other filter of a snapshot backed query runs on the calling thread, the
+     * client thread filters are applied together in one client thread hop to the entities which passed the filters
+     * ordered before them.
+     * @param predicate Filter to add
+     * @param cost The relative cost of evaluating the predicate
+     * @return Q
+     */
+    protected Q filterOnClientThread(Predicate<T> predicate, FilterCost cost) {
+        return addStage(predicate, cost == null ? FilterCost.NORMAL : cost, false, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Q addStage(Predicate<T> predicate, FilterCost cost, boolean barrier, boolean clientThread) {
         if (predicate != null) {
-            filters.add(predicate);
+            filters.add(new Stage<>(predicate, null, cost, barrier, clientThread));
+            order = null;
+            plan = null;
         }
         return (Q) this;
     }
@@ -48,7 +390,8 @@ public abstract class AbstractQuery<T extends Interactable<R>, Q extends Abstrac
      * @return Q entities whose name matches
      */
     public Q withName(String name) {
-        return filter(t -> t.getName() != null && t.getName().equalsIgnoreCase(name));
+        return captured(snapshot -> snapshot.withName(name), snapshot -> t -> name != null && name.equalsIgnoreCase(snapshot.nameOf(t)),
+                t -> t.getName() != null && t.getName().equalsIgnoreCase(name));
     }
 
     /**
@@ -57,7 +400,7 @@ public abstract class AbstractQuery<T extends Interactable<R>, Q extends Abstrac
      * @return Q entities whose item id matches the provided ID.
      */
     public Q withId(int id) {
-        return filter(t -> t.getId() == id);
+        return captured(snapshot -> snapshot.withId(id), snapshot -> t -> snapshot.idOf(t) == id, t -> t.getId() == id);
     }
 
     /**
@@ -66,7 +409,7 @@ public abstract class AbstractQuery<T extends Interactable<R>, Q extends Abstrac
      * @return Entities whose name contains the prefix
      */
     public Q nameContains(String name) {
-        return filter(t -> t.getName() != null && t.getName().toLowerCase().contains(name.toLowerCase()));
+        return filter(t -> t.getName() != null && t.getName().toLowerCase().contains(name.toLowerCase()), FilterCost.NORMAL);
     }
 
     /**
@@ -74,7 +417,7 @@ public abstract class AbstractQuery<T extends Interactable<R>, Q extends Abstrac
      * @return An empty stream containing no elements.
      */
     public Q empty() {
-        return filter(t -> false);
+        return filter(t -> false, FilterCost.CHEAP);
     }
 
     /**
@@ -126,23 +469,16 @@ public abstract class AbstractQuery<T extends Interactable<R>, Q extends Abstrac
      * @return Stream of entities
      */
     public Stream<T> stream() {
-        return ctx.runOnClientThread(() -> {
-            Stream<T> stream = source().get();
-
-            if(stream == null) {
-                return Stream.empty();
-            }
-
-            for (Predicate<T> filter : filters) {
-                stream = stream.filter(filter);
-            }
-
-            if (comparator != null) {
-                stream = stream.sorted(comparator);
-            }
+        EntitySnapshot<T> snapshot = snapshot();
+        if (snapshot == null) {
+            // The source is read from the client, so it is collected on the client thread
+            List<T> list = list();
+            return list == null ? Stream.empty() : list.stream();
+        }
 
-            return stream;
-        });
+        // Lazy over the snapshot, so short circuiting operations such as findFirst stop filtering at the first match
+        Stream<T> stream = filtered(snapshot);
+        return comparator == null ? stream : stream.sorted(comparator);
     }
 
     /**
@@ -153,7 +489,8 @@ public abstract class AbstractQuery<T extends Interactable<R>, Q extends Abstrac
      * @return Stream of RuneLite API objects
      */
     public Stream<R> toRuneLite() {
-        return ctx.runOnClientThread(() -> stream().map(T::raw));
+        Stream<T> stream = stream();
+        return stream == null ? null : stream.map(T::raw);
     }
 
     /**
@@ -161,20 +498,9 @@ public abstract class AbstractQuery<T extends Interactable<R>, Q extends Abstrac
      * @return long count of objects.
      */
     public long count() {
-        return (Long) ctx.runOnClientThread(() -> {
-            Stream<T> stream = source().get();
-
-            if(stream == null) {
-                return Collections.emptyList();
-            }
-
-            // Apply filters but do not waste time sorting for a basic count op
-            for (Predicate<T> filter : filters) {
-                stream = stream.filter(filter);
-            }
-
-            return stream.count();
-        });
+        // Apply filters but do not waste time sorting for a basic count op
+        Long count = evaluate(snapshot -> filtered(snapshot).count());
+        return count == null ? 0 : count;
     }
 
     /**
@@ -186,7 +512,7 @@ public abstract class AbstractQuery<T extends Interactable<R>, Q extends Abstrac
     @SuppressWarnings("unchecked")
     public Q except(Predicate<T> predicate) {
         if (predicate != null) {
-            filters.add(predicate.negate());
+            return filter(predicate.negate());
         }
         return (Q) this;
     }
@@ -206,12 +532,16 @@ public abstract class AbstractQuery<T extends Interactable<R>, Q extends Abstrac
      * Filters the stream to only include elements that are distinct based on a property.
      * Usage: ctx.npcs().distinct(NpcEntity::getName).list();
      * (Returns one of each type of NPC nearby)
+     * <p>
+     * This filter is stateful so it is evaluated after every cheaper built-in filter regardless of the order it was added
+     * in, that is, it only considers entities which already match the rest of the query. It is not moved across a filter
+     * added through {@link #filter(Predicate)}.
      * @param keyExtractor The function to use to determine uniqueness keys between entities
      * @return Q The distinct entities
      */
     public Q distinct(Function<T, Object> keyExtractor) {
         Set<Object> seen = ConcurrentHashMap.newKeySet();
-        return filter(t -> seen.add(keyExtractor.apply(t)));
+        return filter(t -> seen.add(keyExtractor.apply(t)), FilterCost.EXPENSIVE);
     }
 
     /**
@@ -230,16 +560,8 @@ public abstract class AbstractQuery<T extends Interactable<R>, Q extends Abstrac
      * @return A list of objects that have been queried (e.g., NpcEntity, WidgetEntity)
      */
     public List<T> list() {
-        return ctx.runOnClientThread(() -> {
-            Stream<T> stream = source().get();
-
-            if(stream == null) {
-                return Collections.emptyList();
-            }
-
-            for (Predicate<T> filter : filters) {
-                stream = stream.filter(filter);
-            }
+        return evaluate(snapshot -> {
+            Stream<T> stream = filtered(snapshot);
 
             if (comparator != null) {
                 stream = stream.sorted(comparator);
@@ -269,18 +591,17 @@ public abstract class AbstractQuery<T extends Interactable<R>, Q extends Abstrac
 
     /**
      * Returns the first type of object being queried (e.g., NpcEntity, WidgetEntity) from the stream.
-     * If the stream contains no objects then this will return null.
+     * If the stream contains no objects then this will return null. When the query is sorted this is a single
+     * linear pass which selects the minimum element rather than sorting the entire stream.
      * @return T The type of object being queried (e.g., NpcEntity, WidgetEntity)
      */
     public T first() {
-        return ctx.runOnClientThread(() -> {
-            Stream<T> stream = source().get();
-            for (Predicate<T> filter : filters) {
-                stream = stream.filter(filter);
-            }
+        return evaluate(snapshot -> {
+            Stream<T> stream = filtered(snapshot);
 
             if (comparator != null) {
-                stream = stream.sorted(comparator);
+                // min() keeps the first of equal elements, matching a stable sort followed by findFirst()
+                return stream.min(comparator).orElse(null);
             }
 
             return stream.findFirst().orElse(null);
@@ -288,11 +609,86 @@ public abstract class AbstractQuery<T extends Interactable<R>, Q extends Abstrac
     }
 
     /**
-     * Takes the first N elements from the stream and returns them as a list.
+     * Takes the first N elements from the stream and returns them as a list. When the query is sorted the elements
+     * are selected with a bounded heap of size N rather than sorting the entire stream.
      * @param n The number of elements to take from the stream.
      * @return List of entities
      */
     public List<T> take(int n) {
-        return stream().limit(n).collect(Collectors.toList());
+        List<T> taken = evaluate(snapshot -> {
+            if (comparator != null) {
+                return topK(filtered(snapshot), n, comparator);
+            }
+
+            return filtered(snapshot).limit(Math.max(n, 0)).collect(Collectors.toList());
+        });
+        return taken == null ? new ArrayList<>() : taken;
+    }
+
+    /**
+     * A filter along with its relative evaluation cost and whether it is a fixed point other filters are not reordered
+     * across.
+     * @param <T> The type of entity being filtered
+     */
+    private static final class Stage<T extends Interactable<?>> {
+        private final Predicate<T> predicate;
+        private final Function<EntitySnapshot<T>, Predicate<T>> captured;
+        private final FilterCost cost;
+        private final boolean barrier;
+        private final boolean clientThread;
+
+        private Stage(Predicate<T> predicate, Function<EntitySnapshot<T>, Predicate<T>> captured, FilterCost cost,
+                      boolean barrier, boolean clientThread) {
+            this.predicate = predicate;
+            this.captured = captured;
+            this.cost = cost;
+            this.barrier = barrier;
+            this.clientThread = clientThread;
+        }
+
+        /**
+         * Returns the predicate to test entities of the given snapshot with.
+         */
+        private Predicate<T> bind(EntitySnapshot<T> snapshot) {
+            return snapshot != null && captured != null ? captured.apply(snapshot) : predicate;
+        }
+    }
+
+    /**
+     * The compiled filters of a query for one snapshot, split into the filters run on the calling thread and the ones
+     * run on the client thread.
+     * @param <T> The type of entity being filtered
+     */
+    private static final class Plan<T extends Interactable<?>> {
+        private final EntitySnapshot<T> snapshot;
+        private final Predicate<T> local;
+        private final Predicate<T> client;
+
+        private Plan(EntitySnapshot<T> snapshot, Predicate<T> local, Predicate<T> client) {
+            this.snapshot = snapshot;
+            this.local = local;
+            this.client = client;
+        }
+
+        /**
+         * Every filter of the plan in order, for evaluation on the client thread.
+         */
+        private Predicate<T> all() {
+            return client == null ? local : local.and(client);
+        }
+    }
+
+    /**
+     * An entity paired with its encounter order, used to break ties when selecting the top N entities.
+     * @param <T> The type of entity
+     */
+    private static final class Ranked<T> {
+        private final T value;
+        private final long ordinal;
+
+        private Ranked(T value, long ordinal) {
+            this.value = value;
+            this.ordinal = ordinal;
+        }
     }
 }
\ No newline at end of file
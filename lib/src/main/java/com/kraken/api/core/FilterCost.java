@@ -0,0 +1,27 @@
+package com.kraken.api.core;
+
+/**
+ * A relative cost hint for a query filter. When a query is executed its filters are fused into a single predicate
+ * which evaluates cheaper filters first so that expensive filters (like reachability checks which run a flood fill
+ * over the scene) are only evaluated for entities which already passed every cheaper check. Filters of the same cost
+ * are evaluated in the order they were added to the query, and filters without a cost hint (i.e. a caller's
+ * {@code filter(predicate)}) are never reordered and no filter is moved across them.
+ */
+public enum FilterCost {
+    /**
+     * Simple field comparisons i.e. id, location, or actor name checks.
+     */
+    CHEAP,
+
+    /**
+     * The default cost for filters which read other client data i.e. interaction targets or combat levels.
+     */
+    NORMAL,
+
+    /**
+     * Filters which perform significant work per entity such as resolving (possibly impostor) compositions, pathfinding
+     * or reachability checks. Stateful filters (i.e. {@code distinct()}) also use this cost so they only observe
+     * entities which passed every other check.
+     */
+    EXPENSIVE
+}
@@ -0,0 +1,99 @@
+package com.kraken.api.core.item;
+
+import lombok.Getter;
+
+/**
+ * The difference between two consecutive snapshots of the same item container. A delta lists every slot whose item
+ * id or quantity changed so listeners can react to what was gained or lost rather than rescanning the container.
+ */
+public final class ContainerDelta {
+
+    /**
+     * The snapshot of the container before the change.
+     */
+    @Getter
+    private final ContainerSnapshot previous;
+
+    /**
+     * The snapshot of the container after the change.
+     */
+    @Getter
+    private final ContainerSnapshot current;
+
+    private final int[] changedSlots;
+
+    ContainerDelta(ContainerSnapshot previous, ContainerSnapshot current) {
+        this.previous = previous;
+        this.current = current;
+
+        int slots = Math.max(previous.size(), current.size());
+        int[] changed = new int[slots];
+        int count = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            if (previous.getId(slot) != current.getId(slot) || previous.getQuantity(slot) != current.getQuantity(slot)) {
+                changed[count++] = slot;
+            }
+        }
+
+        int[] trimmed = new int[count];
+        System.arraycopy(changed, 0, trimmed, 0, count);
+        this.changedSlots = trimmed;
+    }
+
+    /**
+     * The id of the container which changed.
+     * @return The container id
+     */
+    public int getContainerId() {
+        return current.getContainerId();
+    }
+
+    /**
+     * Returns the indexes of the slots whose item or quantity changed.
+     * @return A copy of the changed slot indexes in ascending order
+     */
+    public int[] getChangedSlots() {
+        return changedSlots.clone();
+    }
+
+    /**
+     * Returns true if no slot changed.
+     * @return True if the delta is empty
+     */
+    public boolean isEmpty() {
+        return changedSlots.length == 0;
+    }
+
+    /**
+     * Returns the net change in the total quantity of an item, positive when the item was gained and negative when
+     * it was lost.
+     * @param itemId The item id
+     * @return The change in quantity
+     */
+    public int quantityChange(int itemId) {
+        int change = 0;
+        for (int slot : changedSlots) {
+            if (current.getId(slot) == itemId) change += current.getQuantity(slot);
+            if (previous.getId(slot) == itemId) change -= previous.getQuantity(slot);
+        }
+        return change;
+    }
+
+    /**
+     * Returns true if the total quantity of an item increased.
+     * @param itemId The item id
+     * @return True if the item was gained
+     */
+    public boolean gained(int itemId) {
+        return quantityChange(itemId) > 0;
+    }
+
+    /**
+     * Returns true if the total quantity of an item decreased.
+     * @param itemId The item id
+     * @return True if the item was lost
+     */
+    public boolean lost(int itemId) {
+        return quantityChange(itemId) < 0;
+    }
+}
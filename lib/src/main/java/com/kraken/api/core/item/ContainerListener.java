@@ -0,0 +1,14 @@
+package com.kraken.api.core.item;
+
+/**
+ * A listener notified by the {@link ContainerMirror} when an item container changes.
+ */
+@FunctionalInterface
+public interface ContainerListener {
+
+    /**
+     * Called on the client thread after the mirror has been updated with the new contents of the container.
+     * @param delta The slots which changed between the previous and current snapshot of the container
+     */
+    void onChange(ContainerDelta delta);
+}
@@ -0,0 +1,148 @@
+package com.kraken.api.core.item;
+
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+import com.kraken.api.Context;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Client;
+import net.runelite.api.GameState;
+import net.runelite.api.ItemContainer;
+import net.runelite.api.events.GameStateChanged;
+import net.runelite.api.events.ItemContainerChanged;
+import net.runelite.client.eventbus.Subscribe;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * An off thread copy of the client's item containers (inventory, bank, equipment, etc...) kept current from
+ * {@code ItemContainerChanged} events. Each container is held as an immutable, versioned {@link ContainerSnapshot} so
+ * inventory, bank and equipment queries, and checks like "does the inventory contain X", can be answered from any
+ * thread without waiting for the client thread.
+ * <p>
+ * A container which has not changed since the mirror was created is read from the client the first time it is
+ * requested, after which it is only updated by events. The mirror is cleared when the client returns to the login screen.
+ * <p>
+ * Scripts can subscribe to a container to receive a {@link ContainerDelta} describing exactly which slots changed,
+ * rather than polling the container each loop. The first event for a container which was not yet mirrored is the client
+ * loading it (i.e. after login) so it only seeds the mirror and is not dispatched to listeners.
+ */
+@Slf4j
+@Singleton
+public class ContainerMirror {
+    private final Client client;
+    private final Provider<Context> ctxProvider;
+
+    private final Map<Integer, ContainerSnapshot> snapshots = new ConcurrentHashMap<>();
+    private final Map<Integer, List<ContainerListener>> listeners = new ConcurrentHashMap<>();
+
+    @Inject
+    public ContainerMirror(final Client client, final Provider<Context> ctxProvider) {
+        this.client = client;
+        this.ctxProvider = ctxProvider;
+    }
+
+    /**
+     * Returns the latest snapshot of an item container. This never blocks once the container has been mirrored, the
+     * first request for a container which has not changed since the mirror was created reads it from the client on the
+     * client thread.
+     * @param containerId The item container id, see {@link net.runelite.api.gameval.InventoryID}
+     * @return The container snapshot, or an empty snapshot if the client has not loaded the container
+     */
+    public ContainerSnapshot get(int containerId) {
+        ContainerSnapshot snapshot = snapshots.get(containerId);
+        if (snapshot != null) {
+            return snapshot;
+        }
+
+        ContainerSnapshot loaded = client.isClientThread()
+                ? load(containerId)
+                : ctxProvider.get().runOnClientThread(() -> load(containerId));
+        return loaded == null ? ContainerSnapshot.empty(containerId) : loaded;
+    }
+
+    /**
+     * Registers a listener for changes to an item container. The container is mirrored from the client if it has not
+     * been already, so the first change the listener sees is diffed against the container's real contents.
+     * @param containerId The item container id
+     * @param listener The listener, invoked on the client thread
+     */
+    public void subscribe(int containerId, ContainerListener listener) {
+        listeners.computeIfAbsent(containerId, k -> new CopyOnWriteArrayList<>()).add(listener);
+        get(containerId);
+    }
+
+    /**
+     * Removes a listener previously registered with {@link #subscribe(int, ContainerListener)}.
+     * @param containerId The item container id
+     * @param listener The listener to remove
+     */
+    public void unsubscribe(int containerId, ContainerListener listener) {
+        listeners.computeIfPresent(containerId, (k, list) -> {
+            list.remove(listener);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    @Subscribe
+    public void onGameStateChanged(GameStateChanged event) {
+        if (event.getGameState() == GameState.LOGIN_SCREEN) {
+            snapshots.clear();
+        }
+    }
+
+    @Subscribe
+    public void onItemContainerChanged(ItemContainerChanged event) {
+        ItemContainer container = event.getItemContainer();
+        if (container == null) {
+            return;
+        }
+
+        int containerId = event.getContainerId();
+        ContainerSnapshot previous = snapshots.get(containerId);
+        long version = previous == null ? 1L : previous.getVersion() + 1;
+        ContainerSnapshot current = ContainerSnapshot.of(containerId, version, client.getTickCount(), container.getItems());
+        snapshots.put(containerId, current);
+
+        // Without a previous snapshot this is the client loading the container, diffing it against an empty container
+        // would report every item as added
+        List<ContainerListener> subscribed = listeners.get(containerId);
+        if (previous == null || subscribed == null) {
+            return;
+        }
+
+        ContainerDelta delta = new ContainerDelta(previous, current);
+        if (delta.isEmpty()) {
+            return;
+        }
+
+        for (ContainerListener listener : subscribed) {
+            try {
+                listener.onChange(delta);
+            } catch (Exception e) {
+                log.error("Container listener for container {} threw an exception: {}", containerId, e.getMessage(), e);
+            }
+        }
+    }
+
+    private ContainerSnapshot load(int containerId) {
+        ContainerSnapshot existing = snapshots.get(containerId);
+        if (existing != null) {
+            return existing;
+        }
+
+        if (client.getGameState() != GameState.LOGGED_IN) {
+            return null;
+        }
+
+        ItemContainer container = client.getItemContainer(containerId);
+        ContainerSnapshot snapshot = container == null
+                ? ContainerSnapshot.empty(containerId)
+                : ContainerSnapshot.of(containerId, 1L, client.getTickCount(), container.getItems());
+        snapshots.putIfAbsent(containerId, snapshot);
+        return snapshots.get(containerId);
+    }
+}
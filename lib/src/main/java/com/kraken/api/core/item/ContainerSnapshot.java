@@ -0,0 +1,201 @@
+package com.kraken.api.core.item;
+
+import lombok.Getter;
+import net.runelite.api.Item;
+
+/**
+ * An immutable, versioned copy of the items in a single item container (inventory, bank, equipment, etc...) taken
+ * when the container last changed. Slots are stored as parallel primitive arrays of item ids and quantities, empty
+ * slots have an id of -1.
+ */
+public final class ContainerSnapshot {
+    private static final int EMPTY_SLOT = -1;
+    private static final int EMPTY_SLOT_PLACEHOLDER = 6512;
+
+    /**
+     * The id of the item container this snapshot was taken from.
+     */
+    @Getter
+    private final int containerId;
+
+    /**
+     * A counter which increases each time the container changes. Snapshots of the same container with the same
+     * version hold the same items.
+     */
+    @Getter
+    private final long version;
+
+    /**
+     * The client tick count at which the snapshot was taken.
+     */
+    @Getter
+    private final int tick;
+
+    private final int[] ids;
+    private final int[] quantities;
+
+    ContainerSnapshot(int containerId, long version, int tick, int[] ids, int[] quantities) {
+        this.containerId = containerId;
+        this.version = version;
+        this.tick = tick;
+        this.ids = ids;
+        this.quantities = quantities;
+    }
+
+    /**
+     * Creates a snapshot from the items of a container.
+     * @param containerId The container id
+     * @param version The version of the snapshot
+     * @param tick The current client tick count
+     * @param items The items in the container, may be null
+     * @return A new snapshot
+     */
+    static ContainerSnapshot of(int containerId, long version, int tick, Item[] items) {
+        int length = items == null ? 0 : items.length;
+        int[] ids = new int[length];
+        int[] quantities = new int[length];
+        for (int i = 0; i < length; i++) {
+            Item item = items[i];
+            if (item == null || item.getId() == EMPTY_SLOT || item.getId() == EMPTY_SLOT_PLACEHOLDER) {
+                ids[i] = EMPTY_SLOT;
+                continue;
+            }
+
+            ids[i] = item.getId();
+            quantities[i] = item.getQuantity();
+        }
+        return new ContainerSnapshot(containerId, version, tick, ids, quantities);
+    }
+
+    /**
+     * Returns an empty snapshot for a container which has not been loaded by the client.
+     * @param containerId The container id
+     * @return An empty snapshot with version 0
+     */
+    public static ContainerSnapshot empty(int containerId) {
+        return new ContainerSnapshot(containerId, 0L, -1, new int[0], new int[0]);
+    }
+
+    /**
+     * The number of slots in the container.
+     * @return int slot count
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Returns the item id in a slot.
+     * @param slot The slot index
+     * @return The item id or -1 if the slot is empty or out of range
+     */
+    public int getId(int slot) {
+        return slot >= 0 && slot < ids.length ? ids[slot] : EMPTY_SLOT;
+    }
+
+    /**
+     * Returns the quantity of the item in a slot.
+     * @param slot The slot index
+     * @return The quantity or 0 if the slot is empty or out of range
+     */
+    public int getQuantity(int slot) {
+        return slot >= 0 && slot < quantities.length ? quantities[slot] : 0;
+    }
+
+    /**
+     * Returns true if the slot holds an item.
+     * @param slot The slot index
+     * @return True if the slot is occupied and false otherwise
+     */
+    public boolean isOccupied(int slot) {
+        return getId(slot) != EMPTY_SLOT;
+    }
+
+    /**
+     * Returns the first slot holding an item.
+     * @param itemId The item id
+     * @return The slot index or -1 if the container does not hold the item
+     */
+    public int slotOf(int itemId) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == itemId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns true if the container holds at least one of the item.
+     * @param itemId The item id
+     * @return True if the container contains the item and false otherwise
+     */
+    public boolean contains(int itemId) {
+        return slotOf(itemId) != -1;
+    }
+
+    /**
+     * Returns true if the container holds every one of the items.
+     * @param itemIds The item ids
+     * @return True if every item is in the container, or if no ids are given
+     */
+    public boolean containsAll(int... itemIds) {
+        for (int itemId : itemIds) {
+            if (!contains(itemId)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if the container holds at least one of the items.
+     * @param itemIds The item ids
+     * @return True if any item is in the container and false otherwise
+     */
+    public boolean containsAny(int... itemIds) {
+        for (int itemId : itemIds) {
+            if (contains(itemId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the total quantity of an item across every slot.
+     * @param itemId The item id
+     * @return The total quantity held
+     */
+    public int count(int itemId) {
+        int total = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == itemId) {
+                total += quantities[i];
+            }
+        }
+        return total;
+    }
+
+    /**
+     * The number of occupied slots.
+     * @return int occupied slot count
+     */
+    public int occupiedSlots() {
+        int occupied = 0;
+        for (int id : ids) {
+            if (id != EMPTY_SLOT) {
+                occupied++;
+            }
+        }
+        return occupied;
+    }
+
+    /**
+     * Returns true if no slot holds an item.
+     * @return True if the container is empty
+     */
+    public boolean isEmpty() {
+        return occupiedSlots() == 0;
+    }
+}
@@ -0,0 +1,71 @@
+package com.kraken.api.core.item;
+
+import lombok.Builder;
+import lombok.Value;
+import net.runelite.api.ItemComposition;
+
+import java.util.List;
+
+/**
+ * An immutable snapshot of the parts of an {@link ItemComposition} which queries and entities read most often. Snapshots
+ * are created on the client thread by the {@link ItemDefinitionCache} and can be read from any thread afterward.
+ */
+@Value
+@Builder
+public class ItemDefinition {
+    /**
+     * The item id this definition was loaded for.
+     */
+    int id;
+
+    /**
+     * The id of the unnoted version of the item, or the item id itself if the item is not noted.
+     */
+    int unnotedId;
+
+    /**
+     * The id of the linked note, or -1 if the item has no linked note.
+     */
+    int linkedNoteId;
+
+    /**
+     * The placeholder template id, 14401 for bank placeholders.
+     */
+    int placeholderTemplateId;
+
+    String name;
+    boolean stackable;
+    boolean noted;
+
+    /**
+     * True if the item (or for noted items, the unnoted item) can be traded.
+     */
+    boolean tradeable;
+
+    /**
+     * The inventory actions of the item i.e. "Wield", "Eat", "Drop". Callers must not modify the array.
+     */
+    String[] inventoryActions;
+
+    /**
+     * The actions available on the item while it is equipped, one entry per wearable action param.
+     */
+    List<String> equipmentActions;
+
+    int haPrice;
+
+    /**
+     * The Grand Exchange price of the (unnoted) item at the time the definition was loaded.
+     */
+    int gePrice;
+
+    /**
+     * The composition this definition was created from.
+     */
+    ItemComposition composition;
+
+    /**
+     * The time (epoch millis) the definition was loaded at.
+     */
+    long loadedAt;
+}
@@ -0,0 +1,226 @@
+package com.kraken.api.core.item;
+
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+import com.kraken.api.Context;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Client;
+import net.runelite.api.ItemComposition;
+import net.runelite.api.ParamID;
+import net.runelite.client.game.ItemManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A process wide cache of {@link ItemDefinition} snapshots indexed directly by item id. Inventory, bank, equipment and
+ * ground item queries all resolve item names, flags, actions and prices through this cache so that each item id is
+ * only read from the client once rather than once per item, per query.
+ * <p>
+ * Definitions are loaded on the client thread. When {@link #get(int)} is called on the client thread a missing
+ * definition is loaded inline, otherwise the load is dispatched to the client thread. Lookups of cached definitions
+ * never touch the client thread. Definitions expire after 20 minutes so that the Grand Exchange price they carry
+ * follows RuneLite's price refreshes.
+ * <p>
+ * Item ids whose definition fails to load are remembered for a short while, so that a ground item or container slot
+ * with a broken id is not reloaded, and logged, on every scene capture. Each such id is only logged once.
+ */
+@Slf4j
+@Singleton
+public class ItemDefinitionCache {
+    private static final long EXPIRE_AFTER_MILLIS = TimeUnit.MINUTES.toMillis(20);
+    private static final long RETRY_FAILED_AFTER_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final int INITIAL_CAPACITY = 32768;
+    private static final int NOTE_TEMPLATE = 799;
+    private static final int[] WEARABLE_ACTION_PARAMS = {
+            ParamID.OC_ITEM_OP1,
+            ParamID.OC_ITEM_OP2,
+            ParamID.OC_ITEM_OP3,
+            ParamID.OC_ITEM_OP4,
+            ParamID.OC_ITEM_OP5,
+            ParamID.OC_ITEM_OP6,
+            ParamID.OC_ITEM_OP7,
+            ParamID.OC_ITEM_OP8
+    };
+
+    private final Client client;
+    private final ItemManager itemManager;
+    private final Provider<Context> ctxProvider;
+
+    // Definitions are immutable so a reader racing a write either sees the complete definition or null (and reloads)
+    private volatile ItemDefinition[] definitions = new ItemDefinition[INITIAL_CAPACITY];
+
+    // Failures are rare, so the time of the last failed load per id is kept in a map rather than a second table
+    private final Map<Integer, Long> failedAt = new ConcurrentHashMap<>();
+    private final Set<Integer> reported = ConcurrentHashMap.newKeySet();
+
+    @Inject
+    public ItemDefinitionCache(final Client client, final ItemManager itemManager, final Provider<Context> ctxProvider) {
+        this.client = client;
+        this.itemManager = itemManager;
+        this.ctxProvider = ctxProvider;
+    }
+
+    /**
+     * Returns the definition of an item, loading it from the client if it is not cached or has expired. An item id
+     * whose definition failed to load is not retried for 30 seconds.
+     * @param itemId The item id
+     * @return The item definition, or null if the item id is invalid or the definition could not be loaded
+     */
+    public ItemDefinition get(int itemId) {
+        if (itemId < 0) {
+            return null;
+        }
+
+        ItemDefinition cached = getIfCached(itemId);
+        if (cached != null) {
+            return cached;
+        }
+
+        Long failed = failedAt.get(itemId);
+        if (failed != null && System.currentTimeMillis() - failed < RETRY_FAILED_AFTER_MILLIS) {
+            return null;
+        }
+
+        ItemDefinition loaded = client.isClientThread()
+                ? load(itemId)
+                : ctxProvider.get().runOnClientThread(() -> load(itemId));
+        if (loaded != null) {
+            failedAt.remove(itemId);
+            put(loaded);
+        } else {
+            failedAt.put(itemId, System.currentTimeMillis());
+        }
+        return loaded;
+    }
+
+    /**
+     * Returns the definition of an item created from a composition which the caller already holds. This must be
+     * called on the client thread if the definition is not already cached.
+     * @param composition The item composition
+     * @return The item definition, or null if the composition is null
+     */
+    public ItemDefinition get(ItemComposition composition) {
+        if (composition == null) {
+            return null;
+        }
+
+        ItemDefinition cached = getIfCached(composition.getId());
+        if (cached != null) {
+            return cached;
+        }
+
+        ItemDefinition loaded = client.isClientThread()
+                ? create(composition)
+                : ctxProvider.get().runOnClientThread(() -> create(composition));
+        if (loaded != null) {
+            put(loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * Returns the definition of an item only if it is cached and has not expired. This never touches the client thread.
+     * @param itemId The item id
+     * @return The cached definition or null
+     */
+    public ItemDefinition getIfCached(int itemId) {
+        ItemDefinition[] table = definitions;
+        if (itemId < 0 || itemId >= table.length) {
+            return null;
+        }
+
+        ItemDefinition definition = table[itemId];
+        if (definition == null || System.currentTimeMillis() - definition.getLoadedAt() > EXPIRE_AFTER_MILLIS) {
+            return null;
+        }
+        return definition;
+    }
+
+    /**
+     * Discards every cached definition.
+     */
+    public synchronized void invalidateAll() {
+        definitions = new ItemDefinition[definitions.length];
+        failedAt.clear();
+    }
+
+    private synchronized void put(ItemDefinition definition) {
+        ItemDefinition[] table = definitions;
+        int id = definition.getId();
+        if (id >= table.length) {
+            ItemDefinition[] grown = new ItemDefinition[Math.max(table.length * 2, id + 1)];
+            System.arraycopy(table, 0, grown, 0, table.length);
+            grown[id] = definition;
+            definitions = grown;
+            return;
+        }
+        table[id] = definition;
+    }
+
+    private ItemDefinition load(int itemId) {
+        try {
+            return create(itemManager.getItemComposition(itemId));
+        } catch (Exception e) {
+            if (reported.add(itemId)) {
+                log.warn("Failed to load item definition for item {}: {}", itemId, e.getMessage());
+            }
+            log.debug("Failed to load item definition for item {}", itemId, e);
+            return null;
+        }
+    }
+
+    private ItemDefinition create(ItemComposition composition) {
+        if (composition == null) {
+            return null;
+        }
+
+        int id = composition.getId();
+        boolean noted = composition.getNote() == NOTE_TEMPLATE;
+        int unnotedId = composition.getNote() != -1 ? composition.getLinkedNoteId() : id;
+
+        boolean tradeable = composition.isTradeable();
+        if (noted) {
+            ItemComposition unnoted = client.getItemDefinition(composition.getLinkedNoteId());
+            tradeable = unnoted != null && unnoted.isTradeable();
+        }
+
+        String[] inventoryActions = composition.getInventoryActions();
+        return ItemDefinition.builder()
+                .id(id)
+                .unnotedId(unnotedId)
+                .linkedNoteId(composition.getLinkedNoteId())
+                .placeholderTemplateId(composition.getPlaceholderTemplateId())
+                .name(composition.getName())
+                .stackable(composition.isStackable())
+                .noted(noted)
+                .tradeable(tradeable)
+                .inventoryActions(inventoryActions == null ? new String[0] : inventoryActions.clone())
+                .equipmentActions(equipmentActions(composition))
+                .haPrice(composition.getHaPrice())
+                .gePrice(itemManager.getItemPrice(unnotedId))
+                .composition(composition)
+                .loadedAt(System.currentTimeMillis())
+                .build();
+    }
+
+    private List<String> equipmentActions(ItemComposition composition) {
+        List<String> actions = new ArrayList<>(WEARABLE_ACTION_PARAMS.length);
+        for (int param : WEARABLE_ACTION_PARAMS) {
+            try {
+                String value = composition.getStringValue(param);
+                actions.add(value);
+            } catch (Exception ex) {
+                actions.add("");
+                log.warn("Failed to get wearable action for param {} on item {}: {}", param, composition.getId(), ex.getMessage());
+            }
+        }
+        return Collections.unmodifiableList(actions);
+    }
+}
@@ -0,0 +1,71 @@
+package com.kraken.api.core.packet;
+
+/**
+ * A single pre-compiled write operation for a packet field. Packet definitions describe each write with a short
+ * description string (e.g. {@code "a 128"}, {@code "r 8"}, {@code "v"} or {@code "strn"}) which is parsed once by
+ * {@link #compile(String)} so that writing a packet does not need to dispatch on strings or parse magnitudes for every field.
+ */
+@FunctionalInterface
+public interface BufferEncoder {
+
+    /**
+     * Writes a value into the buffer.
+     * @param writer The writer for the packet's buffer
+     * @param value The value to write, an {@code Integer} for numeric encoders and a {@code String} for string encoders
+     */
+    void encode(BufferWriter writer, Object value);
+
+    /**
+     * Compiles a write description into an encoder.
+     * <ul>
+     *     <li>{@code strn}: a CP1252 string followed by a null terminator</li>
+     *     <li>{@code strc}: a CP1252 string with a null byte before and after it</li>
+     *     <li>{@code s <n>}: a single byte of {@code n - value}</li>
+     *     <li>{@code a <n>}: a single byte of {@code n + value}</li>
+     *     <li>{@code r <n>}: a single byte of {@code value >> n}</li>
+     *     <li>{@code v}: the low byte of the value</li>
+     * </ul>
+     * @param description The write description
+     * @return The compiled encoder
+     * @throws IllegalArgumentException if the description is not recognized
+     */
+    static BufferEncoder compile(String description) {
+        if (description.equalsIgnoreCase("strn")) {
+            return (writer, value) -> writer.writeStringNullTerminated((String) value);
+        }
+        if (description.equalsIgnoreCase("strc")) {
+            return (writer, value) -> writer.writeStringNullCircumfixed((String) value);
+        }
+
+        // Parse magnitude from description (e.g., "s 128" -> 128). Default to 0 if 'v' (variable).
+        final int magnitude = description.contains("v") ? 0 : Integer.parseInt(description.substring(1).trim());
+        switch (description.charAt(0)) {
+            case 's': // Subtract
+                return (writer, value) -> writer.writeByte(magnitude - (Integer) value);
+            case 'a': // Add
+                return (writer, value) -> writer.writeByte(magnitude + (Integer) value);
+            case 'r': // Right-shift
+                return (writer, value) -> writer.writeByte((Integer) value >> magnitude);
+            case 'v': // Variable / Raw
+                return (writer, value) -> writer.writeByte((Integer) value);
+            default:
+                throw new IllegalArgumentException("Unknown buffer write description: " + description);
+        }
+    }
+
+    /**
+     * Compiles every write description of a packet definition.
+     * @param descriptions The write descriptions for each field of a packet
+     * @return The compiled encoders for each field
+     */
+    static BufferEncoder[][] compile(String[][] descriptions) {
+        BufferEncoder[][] encoders = new BufferEncoder[descriptions.length][];
+        for (int i = 0; i < descriptions.length; i++) {
+            encoders[i] = new BufferEncoder[descriptions[i].length];
+            for (int j = 0; j < descriptions[i].length; j++) {
+                encoders[i][j] = compile(descriptions[i][j]);
+            }
+        }
+        return encoders;
+    }
+}
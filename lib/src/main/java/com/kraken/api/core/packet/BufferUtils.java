@@ -13,6 +13,33 @@ import java.lang.reflect.Field;
  */
 public class BufferUtils {
 
+    /**
+     * The obfuscated multiplier converting a logical buffer offset into a byte array index.
+     */
+    public static final int INDEX_MULTIPLIER = Integer.parseInt(ObfuscatedNames.indexMultiplier);
+
+    /**
+     * The obfuscated amount the logical buffer offset advances by for each byte written.
+     */
+    public static final int OFFSET_MULTIPLIER = (int) Long.parseLong(ObfuscatedNames.offsetMultiplier);
+
+    // The offset and array fields of each buffer class, resolved once per class
+    private static final ClassValue<Field[]> BUFFER_FIELDS = new ClassValue<>() {
+        @Override
+        protected Field[] computeValue(Class<?> type) {
+            try {
+                Field offsetField = type.getField(ObfuscatedNames.bufferOffsetField);
+                Field arrayField = type.getField(ObfuscatedNames.bufferArrayField);
+                offsetField.setAccessible(true);
+                arrayField.setAccessible(true);
+                return new Field[]{offsetField, arrayField};
+            } catch (NoSuchFieldException e) {
+                e.printStackTrace();
+                return null;
+            }
+        }
+    };
+
     /**
      * Reflectively sets the 'offset' (current write position) on a buffer instance.
      *
@@ -21,11 +48,11 @@ public class BufferUtils {
      */
     public static void setOffset(Object bufferInstance, int offset) {
         try {
-            Field offsetField = bufferInstance.getClass().getField(ObfuscatedNames.bufferOffsetField);
-            offsetField.setAccessible(true);
-            offsetField.setInt(bufferInstance, offset);
-            offsetField.setAccessible(false);
-        } catch (NoSuchFieldException | IllegalAccessException e) {
+            Field[] fields = BUFFER_FIELDS.get(bufferInstance.getClass());
+            if (fields != null) {
+                fields[0].setInt(bufferInstance, offset);
+            }
+        } catch (IllegalAccessException e) {
             e.printStackTrace();
         }
     }
@@ -38,12 +65,11 @@ public class BufferUtils {
      */
     public static int getOffset(Object bufferInstance) {
         try {
-            Field offsetField = bufferInstance.getClass().getField(ObfuscatedNames.bufferOffsetField);
-            offsetField.setAccessible(true);
-            int offset = offsetField.getInt(bufferInstance); // Get the current value
-            offsetField.setAccessible(false);
-            return offset;
-        } catch (NoSuchFieldException | IllegalAccessException e) {
+            Field[] fields = BUFFER_FIELDS.get(bufferInstance.getClass());
+            if (fields != null) {
+                return fields[0].getInt(bufferInstance);
+            }
+        } catch (IllegalAccessException e) {
             e.printStackTrace();
         }
         return -1;
@@ -57,11 +83,11 @@ public class BufferUtils {
      */
     public static void setArray(Object bufferInstance, byte[] array) {
         try {
-            Field arrayField = bufferInstance.getClass().getField(ObfuscatedNames.bufferArrayField);
-            arrayField.setAccessible(true);
-            arrayField.set(bufferInstance, array);
-            arrayField.setAccessible(false);
-        } catch (NoSuchFieldException | IllegalAccessException e) {
+            Field[] fields = BUFFER_FIELDS.get(bufferInstance.getClass());
+            if (fields != null) {
+                fields[1].set(bufferInstance, array);
+            }
+        } catch (IllegalAccessException e) {
             e.printStackTrace();
         }
     }
@@ -74,12 +100,11 @@ public class BufferUtils {
      */
     public static byte[] getArray(Object bufferInstance) {
         try {
-            Field arrayField = bufferInstance.getClass().getField(ObfuscatedNames.bufferArrayField);
-            arrayField.setAccessible(true);
-            byte[] array = (byte[]) arrayField.get(bufferInstance);
-            arrayField.setAccessible(false);
-            return array;
-        } catch (NoSuchFieldException | IllegalAccessException e) {
+            Field[] fields = BUFFER_FIELDS.get(bufferInstance.getClass());
+            if (fields != null) {
+                return (byte[]) fields[1].get(bufferInstance);
+            }
+        } catch (IllegalAccessException e) {
             e.printStackTrace();
         }
         return null;
@@ -89,40 +114,18 @@ public class BufferUtils {
      * Writes a single integer value to the buffer using a specified "write description".
      * This method handles the client's obfuscated write types (add, subtract, etc.)
      * and the complex index calculation.
+     * <p>
+     * Writing a whole packet this way reads and writes the buffer's fields once per value, prefer compiling the
+     * descriptions with {@link BufferEncoder#compile(String[][])} and writing through a single {@link BufferWriter}.
      *
      * @param writeDescription A string (e.g., "a128", "s", "v") defining the write operation.
      * @param value            The integer value to write.
      * @param bufferInstance   The obfuscated buffer object.
      */
     public static void writeValue(String writeDescription, int value, Object bufferInstance) {
-        // Parse magnitude from description (e.g., "s128" -> 128). Default to 0 if 'v' (variable).
-        int writeTypeMagnitude = writeDescription.contains("v") ? 0 : Integer.parseInt(writeDescription.substring(1).trim());
-
-        // Get the buffer's current data
-        byte[] arr = getArray(bufferInstance);
-
-        // Calculate the next logical offset and update the buffer
-        int index = nextIndex(getOffset(bufferInstance));
-        setOffset(bufferInstance, index);
-
-        // Calculate the *actual* byte array index using the obfuscated multiplier.
-        index = index * Integer.parseInt(ObfuscatedNames.indexMultiplier) - 1;
-
-        // Perform the write operation based on the first character of the description
-        switch (writeDescription.charAt(0)) {
-            case 's': // Subtract
-                setArray(bufferInstance, writeSub(writeTypeMagnitude, value, arr, index));
-                break;
-            case 'a': // Add
-                setArray(bufferInstance, writeAdd(writeTypeMagnitude, value, arr, index));
-                break;
-            case 'r': // Right-shift
-                setArray(bufferInstance, writeRightShifted(writeTypeMagnitude, value, arr, index));
-                break;
-            case 'v': // Variable / Raw
-                setArray(bufferInstance, writeVar(value, arr, index));
-                break;
-        }
+        BufferWriter writer = BufferWriter.open(bufferInstance);
+        BufferEncoder.compile(writeDescription).encode(writer, value);
+        writer.commit();
     }
 
     /**
@@ -133,34 +136,9 @@ public class BufferUtils {
      * @param bufferInstance The obfuscated buffer object.
      */
     public static void writeStringCp1252NullTerminated(String val, Object bufferInstance) {
-        byte[] arr = getArray(bufferInstance);
-
-        int offset = getOffset(bufferInstance);
-        int indexMultiplier = Integer.parseInt(ObfuscatedNames.indexMultiplier);
-        // The offset multiplier is also an obfuscated value, often a large negative number.
-        int offsetMultiplier = (int) Long.parseLong(ObfuscatedNames.offsetMultiplier);
-
-        // Calculate the real starting index in the byte array
-        int realIndex = offset * indexMultiplier;
-
-        // Encode the string directly into the buffer's array
-        int bytesWritten = encodeStringCp1252(val, 0, val.length(), arr, realIndex);
-
-        // Advance the logical offset based on bytes written
-        offset += bytesWritten * offsetMultiplier;
-
-        // Advance the offset one more time for the null terminator
-        offset += offsetMultiplier;
-
-        // Calculate the actual index for the null terminator
-        int nullTerminatorIndex = offset * indexMultiplier - 1;
-
-        // Write the null terminator
-        arr[nullTerminatorIndex] = 0;
-
-        // Update the buffer's state
-        setOffset(bufferInstance, offset);
-        setArray(bufferInstance, arr);
+        BufferWriter writer = BufferWriter.open(bufferInstance);
+        writer.writeStringNullTerminated(val);
+        writer.commit();
     }
 
     /**
@@ -171,65 +149,9 @@ public class BufferUtils {
      * @param bufferInstance The obfuscated buffer object.
      */
     public static void writeStringCp1252NullCircumfixed(String val, Object bufferInstance) {
-        byte[] arr = getArray(bufferInstance);
-
-        int offset = getOffset(bufferInstance);
-        int indexMultiplier = Integer.parseInt(ObfuscatedNames.indexMultiplier);
-        int offsetMultiplier = (int) Long.parseLong(ObfuscatedNames.offsetMultiplier);
-
-        // Advance offset and write the leading null byte
-        offset += offsetMultiplier;
-        int leadingNullIndex = offset * indexMultiplier - 1;
-        arr[leadingNullIndex] = 0;
-
-        // Calculate the start index for the string content
-        int stringWriteIndex = offset * indexMultiplier;
-        // Write the string and get the number of bytes written
-        int bytesWritten = encodeStringCp1252(val, 0, val.length(), arr, stringWriteIndex);
-
-        // Advance the offset for the string content
-        offset += bytesWritten * offsetMultiplier;
-
-        // Advance offset and write the trailing null byte
-        offset += offsetMultiplier;
-        int trailingNullIndex = offset * indexMultiplier - 1;
-        arr[trailingNullIndex] = 0;
-
-        // Update the buffer's state
-        setOffset(bufferInstance, offset);
-        setArray(bufferInstance, arr);
-    }
-
-    /**
-     * Writes a byte by subtracting the value from a base (subValue).
-     */
-    static byte[] writeSub(int subValue, int value, byte[] arr, int index) {
-        arr[index] = (byte) (subValue - value);
-        return arr;
-    }
-
-    /**
-     * Writes a byte by adding the value to a base (addValue).
-     */
-    static byte[] writeAdd(int addValue, int value, byte[] arr, int index) {
-        arr[index] = (byte) (addValue + value);
-        return arr;
-    }
-
-    /**
-     * Writes a byte by right-shifting the value. (e.g., to get the high byte of a short).
-     */
-    static byte[] writeRightShifted(int shiftAmount, int value, byte[] arr, int index) {
-        arr[index] = (byte) (value >> shiftAmount);
-        return arr;
-    }
-
-    /**
-     * Writes the raw byte value directly.
-     */
-    static byte[] writeVar(int value, byte[] arr, int index) {
-        arr[index] = (byte) (value);
-        return arr;
+        BufferWriter writer = BufferWriter.open(bufferInstance);
+        writer.writeStringNullCircumfixed(val);
+        writer.commit();
     }
 
     /**
@@ -239,8 +161,7 @@ public class BufferUtils {
      * @return The next logical offset.
      */
     static public int nextIndex(int offset) {
-        offset += (int) Long.parseLong(ObfuscatedNames.offsetMultiplier);
-        return offset;
+        return offset + OFFSET_MULTIPLIER;
     }
 
     /**
@@ -0,0 +1,82 @@
+package com.kraken.api.core.packet;
+
+/**
+ * Writes packet fields directly into the backing {@code byte[]} of one of the client's obfuscated buffer objects. The
+ * array and the obfuscated offset are read from the buffer once when the writer is opened, every write then works
+ * on the local array and offset, and the offset is stored back into the buffer once by {@link #commit()}.
+ * <p>
+ * The client stores its offset multiplied by an obfuscated constant, so the logical offset advances by
+ * {@link BufferUtils#OFFSET_MULTIPLIER} per byte and is converted to an array index with {@link BufferUtils#INDEX_MULTIPLIER}.
+ */
+public final class BufferWriter {
+    private final Object buffer;
+    private final byte[] array;
+    private int offset;
+
+    private BufferWriter(Object buffer, byte[] array, int offset) {
+        this.buffer = buffer;
+        this.array = array;
+        this.offset = offset;
+    }
+
+    /**
+     * Opens a writer over a client buffer, reading its array and offset.
+     * @param bufferInstance The obfuscated buffer object (e.g., PacketBuffer).
+     * @return A writer positioned at the buffer's current offset
+     */
+    public static BufferWriter open(Object bufferInstance) {
+        return new BufferWriter(bufferInstance, BufferUtils.getArray(bufferInstance), BufferUtils.getOffset(bufferInstance));
+    }
+
+    /**
+     * Writes a single byte at the next position.
+     * @param value The value, only the low 8 bits are written
+     * @return This writer
+     */
+    public BufferWriter writeByte(int value) {
+        offset += BufferUtils.OFFSET_MULTIPLIER;
+        array[offset * BufferUtils.INDEX_MULTIPLIER - 1] = (byte) value;
+        return this;
+    }
+
+    /**
+     * Writes a string encoded in CP1252 followed by a single null (0) byte terminator.
+     * @param val The string to write
+     * @return This writer
+     */
+    public BufferWriter writeStringNullTerminated(String val) {
+        int bytesWritten = BufferUtils.encodeStringCp1252(val, 0, val.length(), array, offset * BufferUtils.INDEX_MULTIPLIER);
+        offset += bytesWritten * BufferUtils.OFFSET_MULTIPLIER;
+        return writeByte(0);
+    }
+
+    /**
+     * Writes a string encoded in CP1252 with a null (0) byte before and after it.
+     * @param val The string to write
+     * @return This writer
+     */
+    public BufferWriter writeStringNullCircumfixed(String val) {
+        writeByte(0);
+        return writeStringNullTerminated(val);
+    }
+
+    /**
+     * Writes a value using a sequence of pre-compiled encoders.
+     * @param encoders The encoders to apply in order
+     * @param value The value to write
+     * @return This writer
+     */
+    public BufferWriter write(BufferEncoder[] encoders, Object value) {
+        for (BufferEncoder encoder : encoders) {
+            encoder.encode(this, value);
+        }
+        return this;
+    }
+
+    /**
+     * Stores the writer's offset back into the buffer. The array is written in place so it does not need to be stored.
+     */
+    public void commit() {
+        BufferUtils.setOffset(buffer, offset);
+    }
+}
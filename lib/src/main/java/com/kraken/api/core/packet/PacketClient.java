@@ -9,11 +9,6 @@ import net.runelite.api.Client;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
-import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.util.Arrays;
-import java.util.List;
 
 /**
  * {@code PacketClient} is an instance-based RuneLite client packet sending utility which uses reflection to
@@ -28,6 +23,7 @@ import java.util.List;
 public class PacketClient {
 
     private final PacketMethods methods;
+    private volatile PacketPipeline pipeline;
 
     @Getter
     private final Client client;
@@ -61,293 +57,59 @@ public class PacketClient {
      * @param objects The data (payload) for the packet, in the order defined by the PacketDefinition.
      */
     public void sendPacket(PacketDefinition def, Object... objects) {
-        // 1. Get all necessary reflection components to build and send the packet.
-        Object packetBufferNode = null;
-        Method getPacketBufferNode = getGetPacketBufferNode();
-        Class<?> clientPacket = getClientPacketClass();
-        Object isaac = getIsaacObject();
-
-        if (getPacketBufferNode == null || clientPacket == null || isaac == null) {
+        PacketPipeline pipeline = pipeline();
+        if (pipeline == null) {
             log.error("Failed to get critical reflection components for sending packet: {}", def.getName());
             return;
         }
 
-        // Invoke the getPacketBufferNode method to create a new packet node instance.
-        // This method is obfuscated and may require a "garbage value" of a specific type.
-        getPacketBufferNode.setAccessible(true);
-        long garbageValue = Math.abs(Long.parseLong(ObfuscatedNames.getPacketBufferNodeGarbageValue));
-
-        try {
-            Field packetField = fetchPacketField(def.getName());
-            if (packetField == null) {
-                log.error("Could not find packet field for: {}", def.getName());
-                getPacketBufferNode.setAccessible(false);
-                return;
-            }
-            Object packetDefInstance = packetField.get(clientPacket);
-
-            // The method signature for getPacketBufferNode changes based on the obfuscated garbage value.
-            if (garbageValue < 256) {
-                packetBufferNode = getPacketBufferNode.invoke(null, packetDefInstance, isaac, Byte.parseByte(ObfuscatedNames.getPacketBufferNodeGarbageValue));
-            } else if (garbageValue < 32768) {
-                packetBufferNode = getPacketBufferNode.invoke(null, packetDefInstance, isaac, Short.parseShort(ObfuscatedNames.getPacketBufferNodeGarbageValue));
-            } else if (garbageValue < Integer.MAX_VALUE) {
-                packetBufferNode = getPacketBufferNode.invoke(null, packetDefInstance, isaac, Integer.parseInt(ObfuscatedNames.getPacketBufferNodeGarbageValue));
-            }
-        } catch (IllegalAccessException | InvocationTargetException e) {
-            log.error("Failed to invoke getPacketBufferNode: ", e);
-            e.printStackTrace();
-        } finally {
-            getPacketBufferNode.setAccessible(false);
-        }
-
-        if (packetBufferNode == null) {
-            log.error("PacketBufferNode was null after creation attempt for packet: {}", def.getName());
+        PacketPipeline.CompiledPacket packet = pipeline.compile(def);
+        if (packet == null) {
             return;
         }
 
-        // Get the raw 'buffer' object from the 'packetBufferNode' to write data into.
-        Object buffer;
         try {
-            Field bufferField = packetBufferNode.getClass().getDeclaredField(ObfuscatedNames.packetBufferFieldName);
-            bufferField.setAccessible(true);
-            buffer = bufferField.get(packetBufferNode);
-            bufferField.setAccessible(false);
-        } catch (IllegalAccessException | NoSuchFieldException e) {
-            log.error("Failed to get packet buffer from node: ", e);
-            e.printStackTrace();
-            return; // Can't proceed without the buffer
-        }
-
-        // Map the PacketType to the expected parameter order.
-        // This is necessary because the varargs 'objects' must be written in a specific
-        // sequence defined by the packet structure, not just the order they are passed in.
-        List<String> params = def.getParams();
-
-        // If the packet type is recognized, write the data into the buffer.
-        if (params != null) {
-            for (int i = 0; i < def.getWriteData().length; i++) {
-                // Find the index of the data element (e.g., "widgetId") in the params list
-                int index = params.indexOf(def.getWriteData()[i]);
-                // Get the corresponding value from the varargs
-                Object writeValue = objects[index];
-
-                // Write the value to the buffer using the specified method(s) (e.g., "strn", "writeInt")
-                for (String s : def.getWriteMethods()[i]) {
-                    if (s.equalsIgnoreCase("strn")) {
-                        BufferUtils.writeStringCp1252NullTerminated((String) writeValue, buffer);
-                        continue;
-                    }
-                    if (s.equalsIgnoreCase("strc")) {
-                        BufferUtils.writeStringCp1252NullCircumfixed((String) writeValue, buffer);
-                        continue;
-                    }
-                    // Assumes all other write methods take an Integer
-                    BufferUtils.writeValue(s, (Integer) writeValue, buffer);
-                }
-            }
-
-            // 6. Get the PacketWriter field and queue the fully constructed packet node.
-            Field packetWriterField = getPacketWriterField();
-            if (packetWriterField == null) {
-                log.error("Could not get PacketWriter field to queue packet.");
+            // Create a new packet node instance, the obfuscated garbage value is already bound to the handle.
+            Object packetBufferNode = pipeline.createNode(packet);
+            if (packetBufferNode == null) {
+                log.error("PacketBufferNode was null after creation attempt for packet: {}", def.getName());
                 return;
             }
 
-            packetWriterField.setAccessible(true);
-            try {
-                Object packetWriter = packetWriterField.get(null);
-                if (packetWriter != null) {
-                    addNode(packetWriter, packetBufferNode);
-                } else {
-                    log.error("PacketWriter object was null.");
-                }
-            } catch (Exception e) {
-                log.error("Failed to add packet node to queue: ", e);
-                e.printStackTrace();
-            } finally {
-                packetWriterField.setAccessible(false);
+            // Write every field straight into the buffer's array and store the final offset once.
+            BufferWriter writer = BufferWriter.open(pipeline.buffer(packetBufferNode));
+            int[] argIndexes = packet.getArgIndexes();
+            BufferEncoder[][] encoders = packet.getEncoders();
+            for (int i = 0; i < argIndexes.length; i++) {
+                writer.write(encoders[i], objects[argIndexes[i]]);
             }
-        } else {
-            log.warn("Unrecognized packet type, packet not sent: {}", def.getType());
-        }
-    }
+            writer.commit();
 
-    /**
-     * Queues the completed {@code PacketBufferNode} to the client's {@code PacketWriter}.
-     * This method handles two different ways the client might queue packets, determined
-     * by the analysis from {@link PacketMethodLocator}.
-     *
-     * @param packetWriter     The client's PacketWriter instance.
-     * @param packetBufferNode The fully constructed packet to be sent.
-     */
-    private void addNode(Object packetWriter, Object packetBufferNode) {
-        try {
-            if (methods.isUsingClientAddNode()) {
-                // Path 1: The 'addNode' method is a member of the PacketWriter class itself.
-                Method addNode = null;
-                long garbageValue = Math.abs(Long.parseLong(ObfuscatedNames.addNodeGarbageValue));
-
-                // Find the correct obfuscated method signature based on the garbage value type.
-                if (garbageValue < 256) {
-                    addNode = packetWriter.getClass().getDeclaredMethod(ObfuscatedNames.addNodeMethodName, packetBufferNode.getClass(), byte.class);
-                    addNode.setAccessible(true);
-                    addNode.invoke(packetWriter, packetBufferNode, Byte.parseByte(ObfuscatedNames.addNodeGarbageValue));
-                } else if (garbageValue < 32768) {
-                    addNode = packetWriter.getClass().getDeclaredMethod(ObfuscatedNames.addNodeMethodName, packetBufferNode.getClass(), short.class);
-                    addNode.setAccessible(true);
-                    addNode.invoke(packetWriter, packetBufferNode, Short.parseShort(ObfuscatedNames.addNodeGarbageValue));
-                } else if (garbageValue < Integer.MAX_VALUE) {
-                    addNode = packetWriter.getClass().getDeclaredMethod(ObfuscatedNames.addNodeMethodName, packetBufferNode.getClass(), int.class);
-                    addNode.setAccessible(true);
-                    addNode.invoke(packetWriter, packetBufferNode, Integer.parseInt(ObfuscatedNames.addNodeGarbageValue));
-                }
-
-                if (addNode != null) {
-                    addNode.setAccessible(false);
-                }
-            } else {
-                // Path 2: The 'addNode' method is a static utility method found elsewhere.
-                Method addNode = methods.getAddNodeMethod();
-                addNode.setAccessible(true);
-
-                if (addNode.getParameterCount() == 2) {
-                    // Method signature is: addNode(packetWriter, packetBufferNode)
-                    addNode.invoke(null, packetWriter, packetBufferNode);
-                } else {
-                    // Method signature is: addNode(packetWriter, packetBufferNode, garbageValue)
-                    long garbageValue = Math.abs(Long.parseLong(ObfuscatedNames.addNodeGarbageValue));
-                    if (garbageValue < 256) {
-                        addNode.invoke(null, packetWriter, packetBufferNode, Byte.parseByte(ObfuscatedNames.addNodeGarbageValue));
-                    } else if (garbageValue < 32768) {
-                        addNode.invoke(null, packetWriter, packetBufferNode, Short.parseShort(ObfuscatedNames.addNodeGarbageValue));
-                    } else if (garbageValue < Integer.MAX_VALUE) {
-                        addNode.invoke(null, packetWriter, packetBufferNode, Integer.parseInt(ObfuscatedNames.addNodeGarbageValue));
-                    }
-                }
-                addNode.setAccessible(false);
+            if (!pipeline.queue(packetBufferNode)) {
+                log.error("PacketWriter object was null.");
             }
-        } catch (Exception e) {
-            log.error("Failed during addNode packet queueing: ", e);
-            e.printStackTrace();
+        } catch (Throwable e) {
+            log.error("Failed to send packet {}: ", def.getName(), e);
         }
     }
 
     /**
-     * Loads a class from the game client via RuneLite's class loader.
-     *
-     * @param name The obfuscated or non-obfuscated name of the class to load.
-     * @return The loaded {@code Class} object, or null if not found.
+     * Returns the resolved packet pipeline, building it the first time a packet is sent and rebuilding it if the
+     * {@link PacketMethodLocator} has located a different set of packet methods since it was built.
+     * @return The packet pipeline, or null if it could not be resolved
      */
-    private Class<?> loadGameClientClass(String name) {
-        try {
-            ClassLoader clientLoader = client.getClass().getClassLoader();
-            return clientLoader.loadClass(name);
-        } catch (ClassNotFoundException e) {
-            log.error("Failed to load game client class: {}", name, e);
+    private PacketPipeline pipeline() {
+        PacketMethods current = PacketMethodLocator.packetMethods != null ? PacketMethodLocator.packetMethods : methods;
+        PacketPipeline resolved = pipeline;
+        if (resolved != null && resolved.getMethods() == current) {
+            return resolved;
         }
-        return null;
-    }
-
-    /**
-     * Finds the static method responsible for creating a {@code PacketBufferNode}.
-     *
-     * @return The reflected {@code Method} object, or null if not found.
-     */
-    private Method getGetPacketBufferNode() {
-        try {
-            Class<?> packetBufferNodeAccessorClass = loadGameClientClass(ObfuscatedNames.classContainingGetPacketBufferNodeName);
-            if (packetBufferNodeAccessorClass == null) {
-                return null;
-            }
 
-            Class<?> packetBufferNodeClass = loadGameClientClass(ObfuscatedNames.packetBufferNodeClassName);
-            if (packetBufferNodeClass == null) {
-                return null;
+        synchronized (this) {
+            if (pipeline == null || pipeline.getMethods() != current) {
+                pipeline = PacketPipeline.build(client, current);
             }
-
-            // Find the method within the accessor class that returns a PacketBufferNode.
-            // This is fragile and assumes only one such method exists.
-            return Arrays.stream(packetBufferNodeAccessorClass.getDeclaredMethods())
-                    .filter(m -> m.getReturnType().equals(packetBufferNodeClass))
-                    .findFirst()
-                    .orElse(null);
-        } catch (Exception e) {
-            log.error("Failed to get packet buffer node method: ", e);
-        }
-        return null;
-    }
-
-    /**
-     * Loads the {@code ClientPacket} class, which contains static definitions for packets.
-     *
-     * @return The {@code ClientPacket} class, or null if not found.
-     */
-    private Class<?> getClientPacketClass() {
-        return loadGameClientClass(ObfuscatedNames.clientPacketClassName);
-    }
-
-    /**
-     * Finds the client's static {@code PacketWriter} field.
-     *
-     * @return The reflected {@code Field} object, or null if not found.
-     */
-    private Field getPacketWriterField() {
-        try {
-            return client.getClass().getDeclaredField(ObfuscatedNames.packetWriterFieldName);
-        } catch (NoSuchFieldException e) {
-            log.error("Failed to get field: {}", ObfuscatedNames.packetWriterFieldName, e);
-        }
-        return null;
-    }
-
-    /**
-     * Retrieves the {@code IsaacCipher} object from the {@code PacketWriter}.
-     * The cipher is needed to correctly construct the packet header.
-     *
-     * @return The {@code IsaacCipher} instance, or null if failed.
-     */
-    private Object getIsaacObject() {
-        try {
-            Field packetWriterField = getPacketWriterField();
-            if (packetWriterField == null) return null;
-
-            packetWriterField.setAccessible(true);
-            Object packetWriter = packetWriterField.get(null); // Get static field
-            packetWriterField.setAccessible(false);
-
-            if (packetWriter == null) {
-                 log.error("PacketWriter object is null, cannot get ISAAC cipher.");
-                 return null;
-            }
-
-            Class<?> packetWriterClass = packetWriter.getClass();
-            Field isaacField = packetWriterClass.getDeclaredField(ObfuscatedNames.isaacCipherFieldName);
-            isaacField.setAccessible(true);
-            Object isaacObject = isaacField.get(packetWriter); // Get instance field
-            isaacField.setAccessible(false);
-
-            return isaacObject;
-        } catch (NoSuchFieldException | IllegalAccessException e) {
-            log.error("Failed to get ISAAC object: ", e);
-        }
-        return null;
-    }
-
-    /**
-     * Finds a specific static packet definition field within the {@code ClientPacket} class.
-     *
-     * @param name The name of the packet field (e.g., "IF_BUTTON1").
-     * @return The reflected {@code Field} object, or null if not found.
-     */
-    private Field fetchPacketField(String name) {
-        try {
-            Class<?> clientPacket = getClientPacketClass();
-            if (clientPacket == null) return null;
-            return clientPacket.getDeclaredField(name);
-        } catch (NoSuchFieldException e) {
-            log.error("Failed to get packet field: {}", name, e);
+            return pipeline;
         }
-        return null;
     }
-}
\ No newline at end of file
+}
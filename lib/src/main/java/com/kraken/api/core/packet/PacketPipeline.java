@@ -0,0 +1,261 @@
+package com.kraken.api.core.packet;
+
+import com.kraken.api.core.packet.model.PacketDefinition;
+import com.kraken.api.core.packet.model.PacketMethods;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Client;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The resolved form of every reflective component needed to send a packet. All of the obfuscated classes, fields and methods
+ * are looked up once when the pipeline is built and converted into {@link MethodHandle}s with their garbage values already
+ * bound, so sending a packet is a handful of direct handle invocations rather than repeated {@code getDeclaredField},
+ * {@code getDeclaredMethod}, {@code setAccessible} and {@code Long.parseLong} calls.
+ * <p>
+ * Each {@link PacketDefinition} is additionally compiled once into a {@link CompiledPacket} holding the client's packet type
+ * instance, the argument index of every write and the {@link BufferEncoder}s for every write, so neither the parameter
+ * names nor the write descriptions need to be processed on each send.
+ * <p>
+ * A pipeline is tied to the {@link PacketMethods} it was built from and is rebuilt by the {@link PacketClient} if the
+ * {@link PacketMethodLocator} is reinitialized.
+ */
+@Slf4j
+final class PacketPipeline {
+    private static final MethodType GETTER = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType BINARY = MethodType.methodType(Object.class, Object.class, Object.class);
+    private static final MethodType CONSUMER = MethodType.methodType(void.class, Object.class, Object.class);
+
+    @Getter
+    private final PacketMethods methods;
+
+    private final Class<?> clientPacketClass;
+    private final MethodHandle packetWriterGetter;
+    private final MethodHandle isaacGetter;
+    private final MethodHandle getPacketBufferNode;
+    private final MethodHandle bufferGetter;
+    private final MethodHandle addNode;
+    private final Map<PacketDefinition, CompiledPacket> compiled = new ConcurrentHashMap<>();
+
+    private PacketPipeline(PacketMethods methods, Class<?> clientPacketClass, MethodHandle packetWriterGetter, MethodHandle isaacGetter,
+                           MethodHandle getPacketBufferNode, MethodHandle bufferGetter, MethodHandle addNode) {
+        this.methods = methods;
+        this.clientPacketClass = clientPacketClass;
+        this.packetWriterGetter = packetWriterGetter;
+        this.isaacGetter = isaacGetter;
+        this.getPacketBufferNode = getPacketBufferNode;
+        this.bufferGetter = bufferGetter;
+        this.addNode = addNode;
+    }
+
+    /**
+     * Resolves every reflective component of the packet sending path.
+     * @param client The RuneLite client
+     * @param methods The packet methods located by the {@link PacketMethodLocator}
+     * @return The resolved pipeline, or null if any component could not be found
+     */
+    static PacketPipeline build(Client client, PacketMethods methods) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            ClassLoader loader = client.getClass().getClassLoader();
+            Class<?> clientPacketClass = loader.loadClass(ObfuscatedNames.clientPacketClassName);
+            Class<?> accessorClass = loader.loadClass(ObfuscatedNames.classContainingGetPacketBufferNodeName);
+            Class<?> packetBufferNodeClass = loader.loadClass(ObfuscatedNames.packetBufferNodeClassName);
+
+            Field packetWriterField = client.getClass().getDeclaredField(ObfuscatedNames.packetWriterFieldName);
+            packetWriterField.setAccessible(true);
+            MethodHandle packetWriterGetter = lookup.unreflectGetter(packetWriterField).asType(MethodType.methodType(Object.class));
+            Class<?> packetWriterClass = packetWriterField.getType();
+
+            Field isaacField = packetWriterClass.getDeclaredField(ObfuscatedNames.isaacCipherFieldName);
+            isaacField.setAccessible(true);
+            MethodHandle isaacGetter = lookup.unreflectGetter(isaacField).asType(GETTER);
+
+            // Find the method within the accessor class that returns a PacketBufferNode.
+            // This is fragile and assumes only one such method exists.
+            Method getPacketBufferNodeMethod = Arrays.stream(accessorClass.getDeclaredMethods())
+                    .filter(m -> m.getReturnType().equals(packetBufferNodeClass))
+                    .findFirst()
+                    .orElseThrow(() -> new NoSuchMethodException("getPacketBufferNode"));
+            getPacketBufferNodeMethod.setAccessible(true);
+            MethodHandle getPacketBufferNode = bindGarbage(lookup.unreflect(getPacketBufferNodeMethod), 2,
+                    ObfuscatedNames.getPacketBufferNodeGarbageValue).asType(BINARY);
+
+            Field bufferField = packetBufferNodeClass.getDeclaredField(ObfuscatedNames.packetBufferFieldName);
+            bufferField.setAccessible(true);
+            MethodHandle bufferGetter = lookup.unreflectGetter(bufferField).asType(GETTER);
+
+            MethodHandle addNode;
+            if (methods.isUsingClientAddNode()) {
+                // The 'addNode' method is a member of the PacketWriter class itself.
+                Class<?> garbageType = garbageType(ObfuscatedNames.addNodeGarbageValue);
+                Method method = packetWriterClass.getDeclaredMethod(ObfuscatedNames.addNodeMethodName, packetBufferNodeClass, garbageType);
+                method.setAccessible(true);
+                addNode = bindGarbage(lookup.unreflect(method), 2, ObfuscatedNames.addNodeGarbageValue);
+            } else {
+                // The 'addNode' method is a static utility method found elsewhere with the signature
+                // addNode(packetWriter, packetBufferNode) or addNode(packetWriter, packetBufferNode, garbageValue)
+                Method method = methods.getAddNodeMethod();
+                method.setAccessible(true);
+                addNode = bindGarbage(lookup.unreflect(method), 2, ObfuscatedNames.addNodeGarbageValue);
+            }
+
+            return new PacketPipeline(methods, clientPacketClass, packetWriterGetter, isaacGetter, getPacketBufferNode,
+                    bufferGetter, addNode.asType(CONSUMER));
+        } catch (Exception e) {
+            log.error("Failed to resolve packet sending pipeline: ", e);
+            return null;
+        }
+    }
+
+    /**
+     * Returns the compiled form of a packet definition, compiling it the first time it is seen.
+     * @param def The packet definition
+     * @return The compiled packet, or null if the packet type is not recognized or its packet field does not exist
+     */
+    CompiledPacket compile(PacketDefinition def) {
+        CompiledPacket packet = compiled.get(def);
+        if (packet != null) {
+            return packet;
+        }
+
+        List<String> params = def.getParams();
+        if (params == null) {
+            log.warn("Unrecognized packet type, packet not sent: {}", def.getType());
+            return null;
+        }
+
+        Object packetType;
+        try {
+            Field packetField = clientPacketClass.getDeclaredField(def.getName());
+            packetField.setAccessible(true);
+            packetType = packetField.get(null);
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            log.error("Failed to get packet field: {}", def.getName(), e);
+            return null;
+        }
+
+        // Map each write to the index of its value in the varargs passed to sendPacket. This is necessary
+        // because values must be written in the sequence defined by the packet structure, not the order they are passed in.
+        String[] writeData = def.getWriteData();
+        int[] argIndexes = new int[writeData.length];
+        for (int i = 0; i < writeData.length; i++) {
+            argIndexes[i] = params.indexOf(writeData[i]);
+        }
+
+        packet = new CompiledPacket(def.getName(), packetType, argIndexes, BufferEncoder.compile(def.getWriteMethods()));
+        compiled.put(def, packet);
+        return packet;
+    }
+
+    /**
+     * Creates a new packet buffer node for a packet.
+     * @param packet The compiled packet
+     * @return The packet buffer node
+     * @throws Throwable if the client method throws
+     */
+    Object createNode(CompiledPacket packet) throws Throwable {
+        Object packetWriter = packetWriter();
+        if (packetWriter == null) {
+            return null;
+        }
+
+        Object isaac = isaacGetter.invokeExact(packetWriter);
+        return getPacketBufferNode.invokeExact(packet.getPacketType(), isaac);
+    }
+
+    /**
+     * Returns the buffer of a packet buffer node which packet data is written into.
+     * @param node The packet buffer node
+     * @return The buffer
+     * @throws Throwable if the field cannot be read
+     */
+    Object buffer(Object node) throws Throwable {
+        return bufferGetter.invokeExact(node);
+    }
+
+    /**
+     * Queues a fully written packet buffer node on the client's packet writer.
+     * @param node The packet buffer node
+     * @return True if the node was queued
+     * @throws Throwable if the client method throws
+     */
+    boolean queue(Object node) throws Throwable {
+        Object packetWriter = packetWriter();
+        if (packetWriter == null) {
+            return false;
+        }
+
+        addNode.invokeExact(packetWriter, node);
+        return true;
+    }
+
+    private Object packetWriter() throws Throwable {
+        return (Object) packetWriterGetter.invokeExact();
+    }
+
+    /**
+     * Binds a garbage value to a handle's parameter, converting the value to the parameter's primitive type. Handles
+     * without a parameter at the position are returned unchanged.
+     */
+    private static MethodHandle bindGarbage(MethodHandle handle, int position, String garbageValue) {
+        if (handle.type().parameterCount() <= position) {
+            return handle;
+        }
+
+        Class<?> type = handle.type().parameterType(position);
+        long value = Long.parseLong(garbageValue);
+        Object bound;
+        if (type == byte.class) {
+            bound = (byte) value;
+        } else if (type == short.class) {
+            bound = (short) value;
+        } else if (type == long.class) {
+            bound = value;
+        } else {
+            bound = (int) value;
+        }
+
+        return MethodHandles.insertArguments(handle, position, bound);
+    }
+
+    /**
+     * The obfuscated garbage parameter type is the smallest primitive that fits the garbage value.
+     */
+    private static Class<?> garbageType(String garbageValue) {
+        long value = Math.abs(Long.parseLong(garbageValue));
+        if (value < 256) {
+            return byte.class;
+        } else if (value < 32768) {
+            return short.class;
+        }
+        return int.class;
+    }
+
+    /**
+     * A packet definition resolved against the client.
+     */
+    @Getter
+    static final class CompiledPacket {
+        private final String name;
+        private final Object packetType;
+        private final int[] argIndexes;
+        private final BufferEncoder[][] encoders;
+
+        CompiledPacket(String name, Object packetType, int[] argIndexes, BufferEncoder[][] encoders) {
+            this.name = name;
+            this.packetType = packetType;
+            this.argIndexes = argIndexes;
+            this.encoders = encoders;
+        }
+    }
+}
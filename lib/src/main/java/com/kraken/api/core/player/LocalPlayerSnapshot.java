@@ -0,0 +1,113 @@
+package com.kraken.api.core.player;
+
+import lombok.Getter;
+import net.runelite.api.coords.WorldPoint;
+
+/**
+ * An immutable copy of the local player's state taken on the client thread at the end of a game tick. Every field of
+ * a snapshot was read in the same tick, so a snapshot can be inspected from any thread without mixing values from
+ * different ticks.
+ */
+public final class LocalPlayerSnapshot {
+
+    /**
+     * The snapshot seen before the first game tick after logging in.
+     */
+    public static final LocalPlayerSnapshot EMPTY = new LocalPlayerSnapshot(-1, null, -1, -1, -1, false, null, 0, false);
+
+    /**
+     * The client tick count at which the snapshot was taken.
+     */
+    @Getter
+    private final int tick;
+
+    /**
+     * The player's world location, null in {@link #EMPTY}.
+     */
+    @Getter
+    private final WorldPoint worldLocation;
+
+    /**
+     * The player's animation, -1 when not animating.
+     */
+    @Getter
+    private final int animation;
+
+    /**
+     * The player's pose animation, which is the idle pose animation when the player is standing still.
+     */
+    @Getter
+    private final int poseAnimation;
+
+    @Getter
+    private final int idlePoseAnimation;
+
+    /**
+     * True if the player is interacting with another actor.
+     */
+    @Getter
+    private final boolean interacting;
+
+    /**
+     * The name of the actor the player is interacting with, or null.
+     */
+    @Getter
+    private final String interactingName;
+
+    /**
+     * The player's run energy as a percent (0-100).
+     */
+    @Getter
+    private final int runEnergy;
+
+    @Getter
+    private final boolean runEnabled;
+
+    LocalPlayerSnapshot(int tick, WorldPoint worldLocation, int animation, int poseAnimation, int idlePoseAnimation,
+                        boolean interacting, String interactingName, int runEnergy, boolean runEnabled) {
+        this.tick = tick;
+        this.worldLocation = worldLocation;
+        this.animation = animation;
+        this.poseAnimation = poseAnimation;
+        this.idlePoseAnimation = idlePoseAnimation;
+        this.interacting = interacting;
+        this.interactingName = interactingName;
+        this.runEnergy = runEnergy;
+        this.runEnabled = runEnabled;
+    }
+
+    /**
+     * Returns true if the player is standing still and not animating, matching
+     * {@link com.kraken.api.query.player.LocalPlayerEntity#isIdle()}.
+     * @return True if the player is idle
+     */
+    public boolean isIdle() {
+        return worldLocation != null && poseAnimation == idlePoseAnimation && animation == -1;
+    }
+
+    /**
+     * Returns true if the player's pose animation is not their idle pose animation.
+     * @return True if the player is moving
+     */
+    public boolean isMoving() {
+        return worldLocation != null && poseAnimation != idlePoseAnimation;
+    }
+
+    /**
+     * Returns true if the player is within a distance of a point, see {@link WorldPoint#distanceTo(WorldPoint)}.
+     * @param point The point
+     * @param distance The maximum distance in tiles
+     * @return True if the player is on the same plane and within the distance
+     */
+    public boolean isWithin(WorldPoint point, int distance) {
+        return worldLocation != null && worldLocation.distanceTo(point) <= distance;
+    }
+
+    /**
+     * Returns true if the player is running, run is enabled and the player has energy left.
+     * @return True if the player will run when moving
+     */
+    public boolean isRunning() {
+        return runEnabled && runEnergy > 0;
+    }
+}
@@ -0,0 +1,170 @@
+package com.kraken.api.core.player;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Actor;
+import net.runelite.api.Client;
+import net.runelite.api.GameState;
+import net.runelite.api.Player;
+import net.runelite.api.coords.WorldPoint;
+import net.runelite.api.events.GameStateChanged;
+import net.runelite.api.events.GameTick;
+import net.runelite.client.eventbus.Subscribe;
+
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Predicate;
+
+/**
+ * Publishes a {@link LocalPlayerSnapshot} of the local player on the client thread every game tick so scripts read
+ * the player's location, animation and run state without a client thread round trip and without racing the client
+ * thread while it updates the player.
+ * <p>
+ * Scripts can also wait for the player to reach a state (for example arriving at a tile) with a future which is
+ * completed on the tick the state is first seen, rather than polling the snapshot.
+ */
+@Slf4j
+@Singleton
+public class LocalPlayerTracker {
+    private static final int RUN_VARP = 173;
+
+    private final Client client;
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+
+    private volatile LocalPlayerSnapshot snapshot = LocalPlayerSnapshot.EMPTY;
+
+    @Inject
+    public LocalPlayerTracker(final Client client) {
+        this.client = client;
+    }
+
+    /**
+     * Returns the snapshot taken at the end of the latest game tick. This never blocks.
+     * @return The latest snapshot, or {@link LocalPlayerSnapshot#EMPTY} if no tick has passed since logging in
+     */
+    public LocalPlayerSnapshot get() {
+        return snapshot;
+    }
+
+    /**
+     * Returns a future which completes with true on the first tick the player's snapshot matches a condition, or with
+     * false once a number of ticks have passed without it matching. The condition is checked against the current
+     * snapshot immediately and then once per tick on the client thread. If the condition throws the future completes
+     * exceptionally with the thrown exception.
+     * @param condition The condition to wait for
+     * @param timeoutTicks The maximum number of ticks to wait, or a negative value to wait without a limit
+     * @return A future of whether the condition was met
+     */
+    public CompletableFuture<Boolean> when(Predicate<LocalPlayerSnapshot> condition, int timeoutTicks) {
+        LocalPlayerSnapshot current = snapshot;
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        if (current != LocalPlayerSnapshot.EMPTY && test(condition, current, result)) {
+            return result;
+        }
+
+        int deadline = timeoutTicks < 0 ? Integer.MAX_VALUE : client.getTickCount() + timeoutTicks;
+        waiters.add(new Waiter(condition, deadline, result));
+        return result;
+    }
+
+    /**
+     * Returns a future which completes with true on the tick the player arrives within a distance of a point, or with
+     * false if the player has not arrived after a number of ticks.
+     * @param point The point to arrive at
+     * @param distance The maximum distance from the point in tiles
+     * @param timeoutTicks The maximum number of ticks to wait, or a negative value to wait without a limit
+     * @return A future of whether the player arrived
+     */
+    public CompletableFuture<Boolean> arrival(WorldPoint point, int distance, int timeoutTicks) {
+        return when(s -> s.isWithin(point, distance), timeoutTicks);
+    }
+
+    /**
+     * Estimates the number of ticks the player needs to move from their current location to a point in a straight
+     * line, at their current speed. Walking covers one tile per tick and running two.
+     * @param point The destination
+     * @return The estimated number of ticks, or -1 if the player's location is not known or on another plane
+     */
+    public int estimateTicks(WorldPoint point) {
+        LocalPlayerSnapshot current = snapshot;
+        if (current.getWorldLocation() == null || current.getWorldLocation().getPlane() != point.getPlane()) {
+            return -1;
+        }
+
+        int distance = current.getWorldLocation().distanceTo(point);
+        return current.isRunning() ? (distance + 1) / 2 : distance;
+    }
+
+    @Subscribe
+    public void onGameStateChanged(GameStateChanged event) {
+        if (event.getGameState() == GameState.LOGIN_SCREEN || event.getGameState() == GameState.HOPPING) {
+            snapshot = LocalPlayerSnapshot.EMPTY;
+
+            // No more ticks will arrive for this session, fail outstanding waits instead of leaving them hanging
+            Waiter waiter;
+            while ((waiter = waiters.poll()) != null) {
+                waiter.result.complete(false);
+            }
+        }
+    }
+
+    @Subscribe
+    public void onGameTick(GameTick event) {
+        Player player = client.getLocalPlayer();
+        if (player == null) {
+            return;
+        }
+
+        Actor interacting = player.getInteracting();
+        LocalPlayerSnapshot current = new LocalPlayerSnapshot(client.getTickCount(), player.getWorldLocation(),
+                player.getAnimation(), player.getPoseAnimation(), player.getIdlePoseAnimation(), interacting != null,
+                interacting == null ? null : interacting.getName(), client.getEnergy() / 100,
+                client.getVarpValue(RUN_VARP) == 1);
+        snapshot = current;
+
+        if (waiters.isEmpty()) {
+            return;
+        }
+
+        int tick = current.getTick();
+        Iterator<Waiter> iterator = waiters.iterator();
+        while (iterator.hasNext()) {
+            Waiter waiter = iterator.next();
+            if (waiter.result.isDone() || test(waiter.condition, current, waiter.result)) {
+                iterator.remove();
+            } else if (tick >= waiter.deadlineTick) {
+                waiter.result.complete(false);
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Tests a condition against a snapshot, completing the result if the condition holds or throws. A condition which
+     * throws fails the result with its exception rather than reporting that the player never reached the state.
+     * @return True if the result was completed
+     */
+    private static boolean test(Predicate<LocalPlayerSnapshot> condition, LocalPlayerSnapshot snapshot, CompletableFuture<Boolean> result) {
+        try {
+            return condition.test(snapshot) && result.complete(true);
+        } catch (Exception e) {
+            result.completeExceptionally(e);
+            return true;
+        }
+    }
+
+    private static final class Waiter {
+        private final Predicate<LocalPlayerSnapshot> condition;
+        private final int deadlineTick;
+        private final CompletableFuture<Boolean> result;
+
+        private Waiter(Predicate<LocalPlayerSnapshot> condition, int deadlineTick, CompletableFuture<Boolean> result) {
+            this.condition = condition;
+            this.deadlineTick = deadlineTick;
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.kraken.api.core.script;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signals a single run of a {@link Script} to stop. Each script gets a new token when it is started and the
+ * {@link ScriptScheduler} binds the token to the thread running the script's loop, so cancelling one script never
+ * affects another.
+ * <p>
+ * Sleeping through a token wakes the sleeping thread as soon as the token is cancelled, there is no polling interval.
+ * A sleep on a {@link ScriptScheduler} thread is a managed block, so the pool runs other scripts on a spare thread
+ * while it lasts.
+ * Threads which are not running a script (for example the client thread or a plugin's own executor) see the
+ * {@link #NONE} token which is never cancelled.
+ */
+public final class CancellationToken {
+
+    /**
+     * The token seen by threads which are not running a script. It can never be cancelled.
+     */
+    public static final CancellationToken NONE = new CancellationToken();
+
+    private static final ThreadLocal<CancellationToken> CURRENT = ThreadLocal.withInitial(() -> NONE);
+
+    private final CountDownLatch cancelled = new CountDownLatch(1);
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Returns the token of the script running on the current thread.
+     * @return The current token, or {@link #NONE} if the thread is not running a script
+     */
+    public static CancellationToken current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Binds a token to the current thread.
+     * @param token The token, or null to unbind the current token
+     */
+    static void bind(CancellationToken token) {
+        if (token == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(token);
+        }
+    }
+
+    /**
+     * Cancels the token and wakes every thread sleeping on it. Cancelling the {@link #NONE} token has no effect.
+     */
+    public void cancel() {
+        if (this == NONE || isCancelled()) {
+            return;
+        }
+
+        cancelled.countDown();
+        for (Runnable listener : listeners) {
+            // Whoever removes a listener runs it, so a listener registered during cancellation runs exactly once
+            if (listeners.remove(listener)) {
+                listener.run();
+            }
+        }
+    }
+
+    /**
+     * Registers a listener which is run once when the token is cancelled, used to wake threads blocked on something
+     * other than a sleep. The listener is run immediately if the token is already cancelled.
+     * @param listener The listener to run on cancellation
+     */
+    public void onCancel(Runnable listener) {
+        if (this == NONE) {
+            return;
+        }
+
+        listeners.add(listener);
+        if (isCancelled() && listeners.remove(listener)) {
+            listener.run();
+        }
+    }
+
+    /**
+     * Removes a listener registered with {@link #onCancel(Runnable)}.
+     * @param listener The listener to remove
+     */
+    public void removeOnCancel(Runnable listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Returns true if the token has been cancelled.
+     * @return True if cancelled and false otherwise
+     */
+    public boolean isCancelled() {
+        return cancelled.getCount() == 0;
+    }
+
+    /**
+     * Throws a {@link CancellationException} if the token has been cancelled.
+     * @throws CancellationException if the token has been cancelled
+     */
+    public void throwIfCancelled() {
+        if (isCancelled()) {
+            throw new CancellationException("Script stopped");
+        }
+    }
+
+    /**
+     * Sleeps for the given duration or until the token is cancelled, whichever comes first.
+     * @param millis The duration to sleep in milliseconds
+     * @throws CancellationException if the token is cancelled before or during the sleep
+     * @throws RuntimeException if the thread is interrupted, the interrupt flag is restored
+     */
+    public void sleep(long millis) {
+        throwIfCancelled();
+        if (millis <= 0) {
+            return;
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        try {
+            ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+                @Override
+                public boolean block() throws InterruptedException {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining > 0) {
+                        cancelled.await(remaining, TimeUnit.NANOSECONDS);
+                    }
+                    return true;
+                }
+
+                @Override
+                public boolean isReleasable() {
+                    return isCancelled() || System.nanoTime() - deadline >= 0;
+                }
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Sleep interrupted", e);
+        }
+
+        if (isCancelled()) {
+            throw new CancellationException("Script stopped during sleep");
+        }
+    }
+}
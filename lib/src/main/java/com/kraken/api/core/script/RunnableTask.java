@@ -7,14 +7,14 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * A runnable which records the thread it runs on. Cancellation is tracked per script by a {@link CancellationToken}
+ * rather than by static state shared across every script in the JVM.
+ */
 @Slf4j
 public class RunnableTask implements Runnable {
 
-    @Getter
-    private static volatile boolean canceled = false;
-
-    @Getter
-    private static volatile RunnableTask task = null;
+    private static final ThreadLocal<RunnableTask> TASK = new ThreadLocal<>();
 
     private final Runnable runnable;
 
@@ -33,19 +33,44 @@ public class RunnableTask implements Runnable {
         this.runnable = runnable;
     }
 
+    /**
+     * Returns true if the script running on the current thread has been stopped.
+     * @return True if the current thread's {@link CancellationToken} is cancelled
+     */
+    public static boolean isCanceled() {
+        return CancellationToken.current().isCancelled();
+    }
+
+    /**
+     * Returns the task running on the current thread.
+     * @return The task, or null if the current thread is not running a task
+     */
+    public static RunnableTask getTask() {
+        return TASK.get();
+    }
+
+    /**
+     * Cancels the script running on the current thread.
+     * @deprecated Stop scripts with {@link Script#stop()}, which cancels only that script's {@link CancellationToken}
+     */
+    @Deprecated
     public static void cancel() {
-        canceled = true;
+        CancellationToken.current().cancel();
     }
 
+    /**
+     * Clears the task running on the current thread.
+     * @deprecated Tasks are cleared when they finish running, there is no shared state to dispose of
+     */
+    @Deprecated
     public static void dispose() {
-        canceled = false;
-        task = null;
+        TASK.remove();
     }
 
     @Override
     public void run() {
         threadId = Thread.currentThread().getId();
-        task = this;
+        TASK.set(this);
 
         if (runnable == null)
             return;
@@ -56,8 +81,7 @@ public class RunnableTask implements Runnable {
         } catch (Exception e) {
             log.error("Runnable Task threw an exception: ", e);
         } finally {
-            task = null;
-            canceled = false;
+            TASK.remove();
         }
     }
 }
\ No newline at end of file
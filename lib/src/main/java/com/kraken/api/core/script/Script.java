@@ -7,9 +7,8 @@ import net.runelite.api.events.GameTick;
 import net.runelite.client.eventbus.EventBus;
 import net.runelite.client.eventbus.Subscribe;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 public abstract class Script implements Scriptable {
@@ -20,8 +19,11 @@ public abstract class Script implements Scriptable {
     @Inject
     private BreakManager breakManager;
 
-    private Future<?> future = null;
-    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    @Inject
+    private ScriptScheduler scheduler;
+
+    private CompletableFuture<Void> future = null;
+    private CancellationToken token = CancellationToken.NONE;
     private boolean isRunning = false;
     private final String name;
 
@@ -106,6 +108,7 @@ public abstract class Script implements Scriptable {
     public final void start() {
         if (isRunning) return;
         isRunning = true;
+        token = new CancellationToken();
         eventBus.register(this);
         log.info("[{}] script started", this.name);
         onStart();
@@ -205,16 +208,17 @@ public abstract class Script implements Scriptable {
      * <ul>
      *     <li>Ensures that the script is running before proceeding. If {@code isRunning} is {@code false}, the method returns immediately.</li>
      *     <li>Skips execution if a previous {@code loop()} call is still in progress, indicated by the {@code future} object.</li>
-     *     <li>Submits the {@code loop()} logic to an {@code executor} service for asynchronous execution.</li>
-     *     <li>If a delay is set by the {@code loop()} method, the thread sleeps for the specified duration before proceeding.</li>
+     *     <li>Submits the {@code loop()} logic to the shared {@link ScriptScheduler} for asynchronous execution.</li>
+     *     <li>If a delay is set by the {@code loop()} method, the next loop is not started until the delay has passed. The
+     *     delay is waited out on the scheduler's timer, no thread is held while the script waits.</li>
      *     <li>Gracefully handles and logs exceptions thrown during the loop execution.</li>
-     *     <li>Cleans up thread-local resources by calling {@link RunnableTask#dispose()}.</li>
      * </ul>
      *
      * <h3>Threading Model:</h3>
      * <p>
      * The main game logic defined in {@link #loop()} is executed asynchronously to avoid blocking the main game thread.
-     * This separation allows for the use of thread sleeps and other blocking operations within the loop's logic.
+     * This separation allows for the use of thread sleeps and other blocking operations within the loop's logic. Loops
+     * of every script share the scheduler's bounded pool and each runs with its script's {@link CancellationToken} bound.
      * </p>
      *
      * @param event an instance of {@code GameTick} representing a single tick of the game clock.
@@ -242,19 +246,20 @@ public abstract class Script implements Scriptable {
         // If we are sleeping as part of loop() skip calling loop again this game tick.
         if (future != null && !future.isDone()) return;
 
-        future = executor.submit(() -> {
+        CancellationToken runToken = token;
+        future = scheduler.submitLoop(runToken, () -> {
             try {
-                int delay = loop();
-                if (delay > 0) {
-                    Thread.sleep(delay);
-                }
-            } catch (InterruptedException e) {
-                // Thread interrupted, likely due to stop() being called
+                return loop();
+            } catch (CancellationException e) {
+                // Token cancelled, stop() was called while the loop was running or sleeping
             } catch (Exception e) {
-                log.error("[{}] Error in script:", this.name, e);
-            } finally {
-                RunnableTask.dispose();
+                if (runToken.isCancelled()) {
+                    log.debug("[{}] Script stopped mid loop: {}", this.name, e.getMessage());
+                } else {
+                    log.error("[{}] Error in script:", this.name, e);
+                }
             }
+            return 0;
         });
     }
 
@@ -267,8 +272,8 @@ public abstract class Script implements Scriptable {
      * <ul>
      *     <li>Sets the running status to {@code false} if the process is active.</li>
      *     <li>Unregisters the instance from the event bus.</li>
-     *     <li>Cancels the associated {@code RunnableTask}.</li>
-     *     <li>Waits for the asynchronous {@code future} to complete before invoking the {@code callback}.</li>
+     *     <li>Cancels the script's {@link CancellationToken}, waking any sleep within the loop.</li>
+     *     <li>Invokes the {@code callback} once the running loop completes, without blocking or polling.</li>
      * </ul>
      *
      * @param callback A {@code Runnable} that will execute after the stop operation is complete;
@@ -278,6 +283,7 @@ public abstract class Script implements Scriptable {
         if (!isRunning) return;
         isRunning = false;
         eventBus.unregister(this);
+        token.cancel();
 
         if(future == null || future.isDone()) {
             log.info("[{}] Script stopped", this.name);
@@ -287,14 +293,8 @@ public abstract class Script implements Scriptable {
         }
 
         log.info("[{}] Stopping script...", this.name);
-        RunnableTask.cancel();
-        executor.submit(() -> {
+        future.whenComplete((result, error) -> {
             try {
-                while(!future.isDone()) {
-                    try {
-                        Thread.sleep(10);
-                    } catch (InterruptedException ignored) {}
-                }
                 log.info("[{}] Script stopped", this.name);
                 onStop();
                 if(callback != null) callback.run();
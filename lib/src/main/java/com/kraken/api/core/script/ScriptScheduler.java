@@ -0,0 +1,144 @@
+package com.kraken.api.core.script;
+
+import com.google.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Runs the loops of every {@link Script} in the client on one shared, bounded pool.
+ * <p>
+ * The pool is a {@link ForkJoinPool} with one thread per available processor. Each submitted task is bound to the
+ * {@link CancellationToken} of its script for as long as it runs, which is what
+ * {@link com.kraken.api.service.util.SleepService} checks and sleeps on.
+ * <p>
+ * A script's loop returns the delay before its next run. That delay is kept on a timer rather than on a pool thread,
+ * so a script between runs holds no thread at all (see {@link #submitLoop(CancellationToken, IntSupplier)}). Sleeps
+ * inside a loop ({@link CancellationToken#sleep(long)}) and waits on futures such as client thread reads are managed
+ * blocks, the pool starts a spare thread for as long as a worker is blocked so other scripts keep running. The number
+ * of spare threads is capped, and idle threads time out so a client with no running scripts holds no threads.
+ */
+@Slf4j
+@Singleton
+public class ScriptScheduler {
+    private static final long KEEP_ALIVE_SECONDS = 30;
+    private static final int MAX_SPARE_THREADS = 256;
+
+    private final ForkJoinPool pool;
+    private final ScheduledThreadPoolExecutor timer;
+
+    public ScriptScheduler() {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        AtomicInteger count = new AtomicInteger();
+        ForkJoinPool.ForkJoinWorkerThreadFactory factory = pool -> {
+            ForkJoinWorkerThread thread = new ForkJoinWorkerThread(pool) {};
+            thread.setName("kraken-script-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        // Once every spare thread is in use a blocked worker simply blocks rather than failing the task
+        this.pool = new ForkJoinPool(parallelism, factory, null, true, 0, parallelism + MAX_SPARE_THREADS, 1,
+                p -> true, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+        this.timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "kraken-script-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // A script stopped mid delay should not leave its wake up queued until the delay would have ended
+        this.timer.setRemoveOnCancelPolicy(true);
+        log.debug("Script scheduler using {} threads", parallelism);
+    }
+
+    /**
+     * Submits a task to run with a cancellation token bound to its thread. The returned future completes when the task
+     * finishes, including when it stops early because the token was cancelled.
+     * @param token The cancellation token of the script the task belongs to
+     * @param task The task to run
+     * @return A future which completes once the task has finished
+     */
+    public CompletableFuture<Void> submit(CancellationToken token, Runnable task) {
+        return CompletableFuture.runAsync(() -> {
+            CancellationToken.bind(token);
+            try {
+                task.run();
+            } finally {
+                CancellationToken.bind(null);
+            }
+        }, pool);
+    }
+
+    /**
+     * Submits a task which produces a value to run with a cancellation token bound to its thread, for work such as
+     * pathfinding which should not run on the client thread or the thread completing a future.
+     * @param token The cancellation token of the script the task belongs to
+     * @param task The task to run
+     * @param <T> The type of the task's result
+     * @return A future completed with the task's result
+     */
+    public <T> CompletableFuture<T> supply(CancellationToken token, Supplier<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            CancellationToken.bind(token);
+            try {
+                return task.get();
+            } finally {
+                CancellationToken.bind(null);
+            }
+        }, pool);
+    }
+
+    /**
+     * Submits one run of a script's loop. The loop runs on the pool with the token bound and returns the delay in
+     * milliseconds before the script should run again. The delay is waited out on a timer without holding a pool
+     * thread, and ends early if the token is cancelled.
+     * @param token The cancellation token of the script the loop belongs to
+     * @param loop The loop to run, returning the delay in milliseconds before its next run
+     * @return A future which completes once the loop has finished and its delay has passed, or exceptionally if the
+     * loop threw
+     */
+    public CompletableFuture<Void> submitLoop(CancellationToken token, IntSupplier loop) {
+        CompletableFuture<Void> next = new CompletableFuture<>();
+        submit(token, () -> {
+            int delay = loop.getAsInt();
+            if (delay <= 0 || token.isCancelled()) {
+                next.complete(null);
+                return;
+            }
+
+            // Completed on the pool so whatever waits on the loop never runs on the timer or a cancelling thread
+            Runnable wake = () -> next.completeAsync(() -> null, pool);
+            token.onCancel(wake);
+            ScheduledFuture<?> scheduled = timer.schedule(wake, delay, TimeUnit.MILLISECONDS);
+            next.whenComplete((result, error) -> {
+                token.removeOnCancel(wake);
+                scheduled.cancel(false);
+            });
+        }).whenComplete((result, error) -> {
+            if (error != null) {
+                next.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+            }
+        });
+        return next;
+    }
+
+    /**
+     * An estimate of the number of pool threads which are currently running tasks. Loops waiting out their delay are
+     * not counted.
+     * @return The number of running tasks
+     */
+    public int getActiveCount() {
+        return pool.getActiveThreadCount();
+    }
+
+    /**
+     * The number of threads the pool currently holds, running or idle.
+     * @return The number of pool threads
+     */
+    public int getPoolSize() {
+        return pool.getPoolSize();
+    }
+}
@@ -0,0 +1,80 @@
+package com.kraken.api.core.thread;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * The values read by a single execution of a {@link ClientBatch}. Reads which threw an exception on the client thread
+ * do not fail the rest of the batch, their value is {@code null} and the exception is available through {@link #error(ClientBatch.Key)}.
+ */
+@Slf4j
+public final class BatchResults {
+    private final ClientBatch batch;
+    private final Object[] values;
+    private final Throwable[] errors;
+
+    BatchResults(ClientBatch batch, Object[] values, Throwable[] errors) {
+        this.batch = batch;
+        this.values = values;
+        this.errors = errors;
+    }
+
+    static BatchResults failed(ClientBatch batch, int size, Throwable cause) {
+        Throwable[] errors = new Throwable[size];
+        Arrays.fill(errors, cause);
+        return new BatchResults(batch, new Object[size], errors);
+    }
+
+    /**
+     * Returns the value read for a key.
+     * @param key The key returned when the read was queued
+     * @param <T> The type of the value
+     * @return The value read, or null if the read failed
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(ClientBatch.Key<T> key) {
+        check(key);
+        if (errors[key.index] != null) {
+            log.error("Batched client thread read {} failed: {}", key.index, errors[key.index].getMessage());
+        }
+        return (T) values[key.index];
+    }
+
+    /**
+     * Returns the value read for a key as an optional.
+     * @param key The key returned when the read was queued
+     * @param <T> The type of the value
+     * @return An optional of the value read, empty if the value was null or the read failed
+     */
+    public <T> Optional<T> getOptional(ClientBatch.Key<T> key) {
+        return Optional.ofNullable(get(key));
+    }
+
+    /**
+     * Returns true if the read for a key threw an exception.
+     * @param key The key returned when the read was queued
+     * @return True if the read failed
+     */
+    public boolean failed(ClientBatch.Key<?> key) {
+        check(key);
+        return errors[key.index] != null;
+    }
+
+    /**
+     * Returns the exception thrown by the read for a key.
+     * @param key The key returned when the read was queued
+     * @return The exception, or null if the read succeeded
+     */
+    public Throwable error(ClientBatch.Key<?> key) {
+        check(key);
+        return errors[key.index];
+    }
+
+    private void check(ClientBatch.Key<?> key) {
+        if (key == null || key.batch != batch || key.index >= values.length) {
+            throw new IllegalArgumentException("Key does not belong to this batch execution");
+        }
+    }
+}
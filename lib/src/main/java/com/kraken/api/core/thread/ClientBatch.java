@@ -0,0 +1,146 @@
+package com.kraken.api.core.thread;
+
+import com.kraken.api.Context;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.EnumComposition;
+import net.runelite.api.widgets.Widget;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Queues many client reads and executes them together as a single client thread task. Each call to
+ * {@code Context.runOnClientThread} waits for the next client frame, so a script reading 50 varbits or widgets one at a
+ * time waits for 50 frames. A batch waits for one.
+ * <p>
+ * Usage:
+ * <pre>{@code
+ * ClientBatch batch = ctx.batch();
+ * ClientBatch.Key<Integer> spec = batch.varp(300);
+ * ClientBatch.Key<Widget> logout = batch.widget(11927560);
+ * ClientBatch.Key<Integer> hp = batch.add(() -> ctx.getClient().getBoostedSkillLevel(Skill.HITPOINTS));
+ *
+ * BatchResults results = batch.execute();
+ * int specEnergy = results.get(spec) / 10;
+ * }</pre>
+ * A batch may be executed more than once, each execution re-reads every queued value.
+ */
+@Slf4j
+public class ClientBatch {
+    private final Context ctx;
+    private final List<Callable<?>> reads = new ArrayList<>();
+
+    public ClientBatch(Context ctx) {
+        this.ctx = ctx;
+    }
+
+    /**
+     * Queues an arbitrary read to be run on the client thread.
+     * @param read The read to perform
+     * @param <T> The type of the value read
+     * @return A key used to retrieve the value from the {@link BatchResults}
+     */
+    public <T> Key<T> add(Callable<T> read) {
+        reads.add(read);
+        return new Key<>(this, reads.size() - 1);
+    }
+
+    /**
+     * Queues a varbit read.
+     * @param varbit The varbit id
+     * @return A key used to retrieve the varbit value
+     */
+    public Key<Integer> varbit(int varbit) {
+        return add(() -> ctx.getClient().getVarbitValue(varbit));
+    }
+
+    /**
+     * Queues a var player read.
+     * @param varp The varp id
+     * @return A key used to retrieve the varp value
+     */
+    public Key<Integer> varp(int varp) {
+        return add(() -> ctx.getClient().getVarpValue(varp));
+    }
+
+    /**
+     * Queues a widget lookup.
+     * @param widgetId The packed widget id
+     * @return A key used to retrieve the widget
+     */
+    public Key<Widget> widget(int widgetId) {
+        return add(() -> ctx.getClient().getWidget(widgetId));
+    }
+
+    /**
+     * Queues an enum composition lookup.
+     * @param enumId The enum id
+     * @return A key used to retrieve the enum composition
+     */
+    public Key<EnumComposition> enumComposition(int enumId) {
+        return add(() -> ctx.getClient().getEnum(enumId));
+    }
+
+    /**
+     * The number of reads queued in this batch.
+     * @return int number of reads
+     */
+    public int size() {
+        return reads.size();
+    }
+
+    /**
+     * Executes every queued read in a single client thread task and blocks (for up to 2 seconds) until the
+     * results are available. If the batch times out every read is reported as failed.
+     * @return The results of the batch
+     */
+    public BatchResults execute() {
+        try {
+            return executeAsync().get(2000, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.error("Failed to run batch on client thread: timeout after 2 seconds: {}", e.getMessage(), e);
+            return BatchResults.failed(this, reads.size(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return BatchResults.failed(this, reads.size(), e);
+        } catch (ExecutionException e) {
+            log.error("Failed to run batch on client thread: {}, message: {}", e.getCause(), e.getMessage(), e);
+            return BatchResults.failed(this, reads.size(), e.getCause());
+        }
+    }
+
+    /**
+     * Executes every queued read in a single client thread task without blocking the calling thread.
+     * @return A future completed with the results of the batch on the client thread
+     */
+    public CompletableFuture<BatchResults> executeAsync() {
+        final List<Callable<?>> snapshot = new ArrayList<>(reads);
+        return ctx.runOnClientThreadAsync(() -> {
+            Object[] values = new Object[snapshot.size()];
+            Throwable[] errors = new Throwable[snapshot.size()];
+            for (int i = 0; i < snapshot.size(); i++) {
+                try {
+                    values[i] = snapshot.get(i).call();
+                } catch (Exception e) {
+                    errors[i] = e;
+                }
+            }
+            return new BatchResults(this, values, errors);
+        });
+    }
+
+    /**
+     * A typed handle to a single read within a batch.
+     * @param <T> The type of the value read
+     */
+    public static final class Key<T> {
+        final ClientBatch batch;
+        final int index;
+
+        private Key(ClientBatch batch, int index) {
+            this.batch = batch;
+            this.index = index;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.kraken.api.core.thread;
+
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Client;
+import net.runelite.client.callback.ClientThread;
+
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Coalesces work submitted from non client threads into a single {@link ClientThread#invoke(Runnable)} per client frame.
+ * <p>
+ * Every submission is appended to a shared queue and only the first submission after the queue was drained posts a
+ * drain task to the client thread. All work queued before the drain task runs is then executed back to back within
+ * the same frame, so many scripts (or many reads from one script using {@link ClientBatch}) share a single hop rather
+ * than each allocating and waiting on their own.
+ */
+@Slf4j
+public class ClientThreadDispatcher {
+    private final Client client;
+    private final ClientThread clientThread;
+    private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    public ClientThreadDispatcher(final Client client, final ClientThread clientThread) {
+        this.client = client;
+        this.clientThread = clientThread;
+    }
+
+    /**
+     * Submits a callable to be run on the client thread. If called from the client thread the callable is run
+     * immediately.
+     * @param method The method to call
+     * @param <T> The type of the method's return value
+     * @return A future completed with the result of the method on the client thread
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> method) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        Runnable task = () -> {
+            try {
+                future.complete(method.call());
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        };
+
+        if (client.isClientThread()) {
+            task.run();
+            return future;
+        }
+
+        pending.add(task);
+        if (scheduled.compareAndSet(false, true)) {
+            clientThread.invoke(this::drain);
+        }
+
+        return future;
+    }
+
+    /**
+     * Runs every queued task. The scheduled flag is cleared before draining so any task queued after this point
+     * either gets picked up by this drain or schedules the next one.
+     */
+    private void drain() {
+        scheduled.set(false);
+        Runnable task;
+        while ((task = pending.poll()) != null) {
+            try {
+                task.run();
+            } catch (Exception e) {
+                log.error("Unexpected exception running queued client thread task: {}", e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.kraken.api.core.thread;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.kraken.api.core.script.CancellationToken;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Client;
+import net.runelite.api.events.ClientTick;
+import net.runelite.api.events.GameTick;
+import net.runelite.client.callback.ClientThread;
+import net.runelite.client.eventbus.EventBus;
+import net.runelite.client.eventbus.Subscribe;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Waits for conditions by evaluating them on the client thread instead of polling from script threads.
+ * <p>
+ * A waiting condition is registered once and evaluated on the client thread at every {@code ClientTick} and
+ * {@code GameTick}, and additionally whenever one of the events it names is posted. The waiting thread parks on a future
+ * which is completed as soon as the condition holds, so a condition which reads client state costs no client thread
+ * round trip per check and is seen within a frame of becoming true.
+ * <p>
+ * Timeouts may be given in game ticks, wall clock time or both, whichever is reached first ends the wait. Waits made by
+ * a script end early with a {@link CancellationException} when the script is stopped.
+ * <p>
+ * Conditions run on the client thread so they must be quick and must never block or sleep. A condition which throws
+ * fails its wait with the exception rather than ending it as though it had timed out, a blocking wait rethrows it.
+ */
+@Slf4j
+@Singleton
+public class WaitEngine {
+
+    /**
+     * Passed as a timeout to wait without a limit of that kind.
+     */
+    public static final int NO_TIMEOUT = -1;
+
+    private final Client client;
+    private final ClientThread clientThread;
+    private final EventBus eventBus;
+
+    private final Queue<Waiter> pending = new ConcurrentLinkedQueue<>();
+    private final Set<Class<?>> subscribedEvents = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger waitingCount = new AtomicInteger();
+
+    // Only touched on the client thread
+    private final List<Waiter> active = new ArrayList<>();
+
+    @Inject
+    public WaitEngine(final Client client, final ClientThread clientThread, final EventBus eventBus) {
+        this.client = client;
+        this.clientThread = clientThread;
+        this.eventBus = eventBus;
+    }
+
+    /**
+     * Registers a condition and returns a future which completes with true once it holds on the client thread, or with
+     * false if a timeout is reached first. If the condition throws the future completes exceptionally with the thrown
+     * exception. The caller does not block.
+     * @param condition The condition to wait for, evaluated on the client thread
+     * @param timeoutTicks The maximum number of game ticks to wait, or {@link #NO_TIMEOUT}
+     * @param timeoutMillis The maximum number of milliseconds to wait, or {@link #NO_TIMEOUT}
+     * @param events Event classes which should also trigger an evaluation of the condition when posted
+     * @return A future of whether the condition was met
+     */
+    public CompletableFuture<Boolean> when(BooleanSupplier condition, int timeoutTicks, long timeoutMillis, Class<?>... events) {
+        Waiter waiter = new Waiter(condition, timeoutTicks >= 0, client.getTickCount() + timeoutTicks,
+                timeoutMillis >= 0, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(timeoutMillis, 0)),
+                events.length == 0 ? Collections.emptySet() : new HashSet<>(Arrays.asList(events)));
+
+        for (Class<?> event : events) {
+            subscribe(event);
+        }
+
+        waitingCount.incrementAndGet();
+        pending.add(waiter);
+        return waiter.result;
+    }
+
+    /**
+     * Blocks until a condition holds on the client thread or a timeout is reached. The calling thread parks without
+     * polling. When called on the client thread the condition is evaluated once since the client thread cannot wait
+     * on itself.
+     * @param condition The condition to wait for, evaluated on the client thread
+     * @param timeoutTicks The maximum number of game ticks to wait, or {@link #NO_TIMEOUT}
+     * @param timeoutMillis The maximum number of milliseconds to wait, or {@link #NO_TIMEOUT}
+     * @param events Event classes which should also trigger an evaluation of the condition when posted
+     * @return True if the condition was met and false if a timeout was reached
+     * @throws CancellationException if the calling script is stopped while waiting
+     * @throws RuntimeException wrapping the exception thrown by the condition, if it threw
+     */
+    public boolean await(BooleanSupplier condition, int timeoutTicks, long timeoutMillis, Class<?>... events) {
+        if (client.isClientThread()) {
+            return condition.getAsBoolean();
+        }
+
+        CancellationToken.current().throwIfCancelled();
+        return await(when(condition, timeoutTicks, timeoutMillis, events), timeoutMillis);
+    }
+
+    /**
+     * Blocks until a future completes, for example one from {@link #when(BooleanSupplier, int, long, Class[])}. The
+     * calling thread parks without polling and is woken if its script is stopped. When called on the client thread the
+     * future's current value is returned since the client thread cannot wait on itself.
+     * @param result The future to wait for
+     * @param timeoutMillis The maximum number of milliseconds to wait, or {@link #NO_TIMEOUT}
+     * @return The value of the future, or false if it did not complete in time
+     * @throws CancellationException if the calling script is stopped while waiting
+     * @throws RuntimeException wrapping the exception the future failed with, i.e. one thrown by a condition
+     */
+    public boolean await(CompletableFuture<Boolean> result, long timeoutMillis) {
+        if (client.isClientThread()) {
+            return result.getNow(false);
+        }
+
+        CancellationToken token = CancellationToken.current();
+        token.throwIfCancelled();
+
+        Runnable cancel = () -> result.completeExceptionally(new CancellationException("Script stopped"));
+        token.onCancel(cancel);
+        try {
+            if (timeoutMillis < 0) {
+                return result.get();
+            }
+
+            // The client thread also enforces the wall clock timeout, this only applies if client ticks stop entirely
+            try {
+                return result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                result.complete(false);
+                // Already completed, either by this call or by a result which raced the timeout
+                return result.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof CancellationException) {
+                throw (CancellationException) e.getCause();
+            }
+            throw new RuntimeException("Wait failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            result.complete(false);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Wait interrupted", e);
+        } finally {
+            token.removeOnCancel(cancel);
+        }
+    }
+
+    /**
+     * Blocks until a condition holds on the client thread or a wall clock timeout is reached.
+     * @param condition The condition to wait for, evaluated on the client thread
+     * @param timeoutMillis The maximum number of milliseconds to wait, or {@link #NO_TIMEOUT}
+     * @return True if the condition was met and false if the timeout was reached
+     * @throws CancellationException if the calling script is stopped while waiting
+     */
+    public boolean await(BooleanSupplier condition, long timeoutMillis) {
+        return await(condition, NO_TIMEOUT, timeoutMillis);
+    }
+
+    /**
+     * Blocks until a condition holds on the client thread or a number of game ticks have passed.
+     * @param condition The condition to wait for, evaluated on the client thread
+     * @param timeoutTicks The maximum number of game ticks to wait, or {@link #NO_TIMEOUT}
+     * @return True if the condition was met and false if the timeout was reached
+     * @throws CancellationException if the calling script is stopped while waiting
+     */
+    public boolean awaitTicks(BooleanSupplier condition, int timeoutTicks) {
+        return await(condition, timeoutTicks, NO_TIMEOUT);
+    }
+
+    /**
+     * The number of conditions currently being waited on.
+     * @return The number of waiting conditions
+     */
+    public int getWaitingCount() {
+        return waitingCount.get();
+    }
+
+    @Subscribe
+    public void onClientTick(ClientTick event) {
+        evaluateWaiters(null);
+    }
+
+    @Subscribe
+    public void onGameTick(GameTick event) {
+        evaluateWaiters(null);
+    }
+
+    private void subscribe(Class<?> event) {
+        if (event == ClientTick.class || event == GameTick.class || !subscribedEvents.add(event)) {
+            return;
+        }
+
+        // Subscriptions are kept for the lifetime of the engine, the set of event types waited on is small. Some events
+        // are posted off the client thread, waiters are only ever evaluated on it
+        eventBus.register(event, e -> {
+            if (client.isClientThread()) {
+                evaluateWaiters(event);
+            } else {
+                clientThread.invoke(() -> evaluateWaiters(event));
+            }
+        }, 0);
+    }
+
+    /**
+     * Evaluates waiting conditions on the client thread, completing those which hold or have timed out.
+     * @param event The event class which was posted, or null to evaluate every waiter
+     */
+    private void evaluateWaiters(Class<?> event) {
+        Waiter waiter;
+        while ((waiter = pending.poll()) != null) {
+            active.add(waiter);
+        }
+
+        if (active.isEmpty()) {
+            return;
+        }
+
+        int tick = client.getTickCount();
+        long now = System.nanoTime();
+        Iterator<Waiter> iterator = active.iterator();
+        while (iterator.hasNext()) {
+            waiter = iterator.next();
+            // Completed elsewhere, for example cancelled by its script
+            if (waiter.result.isDone()) {
+                iterator.remove();
+                waitingCount.decrementAndGet();
+                continue;
+            }
+
+            if (event != null && !waiter.events.contains(event)) {
+                continue;
+            }
+
+            boolean met;
+            try {
+                met = waiter.condition.getAsBoolean();
+            } catch (Exception e) {
+                // A condition which throws once will usually keep throwing, fail the wait with the exception rather
+                // than retry every frame, so the waiter sees the bug instead of a timeout
+                waiter.result.completeExceptionally(e);
+                iterator.remove();
+                waitingCount.decrementAndGet();
+                continue;
+            }
+
+            if (met) {
+                waiter.result.complete(true);
+                iterator.remove();
+                waitingCount.decrementAndGet();
+            } else if (waiter.expired(tick, now)) {
+                waiter.result.complete(false);
+                iterator.remove();
+                waitingCount.decrementAndGet();
+            }
+        }
+    }
+
+    private static final class Waiter {
+        private final BooleanSupplier condition;
+        private final boolean tickDeadline;
+        private final int deadlineTick;
+        private final boolean timeDeadline;
+        private final long deadlineNanos;
+        private final Set<Class<?>> events;
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        private Waiter(BooleanSupplier condition, boolean tickDeadline, int deadlineTick, boolean timeDeadline, long deadlineNanos,
+                       Set<Class<?>> events) {
+            this.condition = condition;
+            this.tickDeadline = tickDeadline;
+            this.deadlineTick = deadlineTick;
+            this.timeDeadline = timeDeadline;
+            this.deadlineNanos = deadlineNanos;
+            this.events = events;
+        }
+
+        /**
+         * Returns true if a timeout has been reached. Waits without a timeout of a kind never reach it, comparing
+         * against a far off deadline instead would overflow since the nanoTime origin is arbitrary.
+         */
+        private boolean expired(int tick, long now) {
+            return (tickDeadline && tick - deadlineTick >= 0) || (timeDeadline && now - deadlineNanos >= 0);
+        }
+    }
+}
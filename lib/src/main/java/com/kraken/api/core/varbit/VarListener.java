@@ -0,0 +1,17 @@
+package com.kraken.api.core.varbit;
+
+/**
+ * A listener notified when a specific varbit or varp changes value. Listeners are invoked on the client thread, directly
+ * from the {@code VarbitChanged} event, and should avoid blocking.
+ */
+@FunctionalInterface
+public interface VarListener {
+
+    /**
+     * Called when the value of the subscribed varbit or varp changes.
+     * @param id The varbit or varp id which changed
+     * @param oldValue The previous value
+     * @param newValue The new value
+     */
+    void onChange(int id, int oldValue, int newValue);
+}
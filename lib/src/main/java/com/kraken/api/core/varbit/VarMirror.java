@@ -0,0 +1,338 @@
+package com.kraken.api.core.varbit;
+
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+import com.kraken.api.Context;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Client;
+import net.runelite.api.GameState;
+import net.runelite.api.VarbitComposition;
+import net.runelite.api.events.GameStateChanged;
+import net.runelite.api.events.VarbitChanged;
+import net.runelite.client.eventbus.Subscribe;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A lock free, off thread copy of the client's varp array. The mirror is populated from the client each time the player logs in
+ * and then kept current from {@code VarbitChanged} events, so varbit and varp reads from script threads can be answered
+ * from memory instead of waiting for the client thread.
+ * <p>
+ * Varbits are slices of a single varp. The definition of each varbit (which varp it lives in and which bits it occupies)
+ * is read from the cache the first time the varbit is requested and remembered, after which a varbit read is a single
+ * volatile array read plus a shift and mask.
+ * <p>
+ * Callers can also subscribe to specific varbit or varp ids rather than filtering every {@code VarbitChanged} event
+ * on the event bus. Varbit listeners are only notified when the bits of their varbit actually change, not every time
+ * another varbit sharing the same varp changes.
+ */
+@Slf4j
+@Singleton
+public class VarMirror {
+    private static final long UNKNOWN = -1L;
+
+    private final Client client;
+    private final Provider<Context> ctxProvider;
+
+    private volatile AtomicIntegerArray varps;
+    private volatile boolean synced = false;
+
+    // varbit id -> packed (varp index << 16 | lsb << 8 | msb)
+    private final Map<Integer, Long> varbitDefinitions = new ConcurrentHashMap<>();
+    private final Map<Integer, List<VarListener>> varpListeners = new ConcurrentHashMap<>();
+    private final Map<Integer, List<VarListener>> varbitListeners = new ConcurrentHashMap<>();
+
+    // varp index -> varbit ids with listeners which live in that varp
+    private final Map<Integer, List<Integer>> watchedVarbitsByVarp = new ConcurrentHashMap<>();
+
+    @Inject
+    public VarMirror(final Client client, final Provider<Context> ctxProvider) {
+        this.client = client;
+        this.ctxProvider = ctxProvider;
+    }
+
+    /**
+     * Returns true when the mirror has been populated from the client since the last login.
+     * @return True if the mirror is synced
+     */
+    public boolean isSynced() {
+        return synced;
+    }
+
+    /**
+     * Returns the value of a varp. This never blocks once the mirror is synced, if the mirror is not yet synced the
+     * value is read directly from the client on the client thread.
+     * @param varp The varp id
+     * @return The varp value, or 0 if the varp id is out of range
+     */
+    public int getVarpValue(int varp) {
+        AtomicIntegerArray values = ensureSynced();
+        if (values == null) {
+            Integer value = read(() -> client.getVarpValue(varp));
+            return value == null ? 0 : value;
+        }
+
+        return varp >= 0 && varp < values.length() ? values.get(varp) : 0;
+    }
+
+    /**
+     * Returns the value of a varbit. This never blocks once the mirror is synced and the varbit's definition is known. The
+     * first read of a given varbit from a non client thread performs a single client thread read to load its definition.
+     * @param varbit The varbit id
+     * @return The varbit value, or 0 if the varbit does not exist
+     */
+    public int getVarbitValue(int varbit) {
+        AtomicIntegerArray values = ensureSynced();
+        long definition = definition(varbit);
+        if (definition == UNKNOWN) {
+            return 0;
+        }
+
+        if (values == null) {
+            Integer value = read(() -> client.getVarbitValue(varbit));
+            return value == null ? 0 : value;
+        }
+
+        int index = (int) (definition >>> 16);
+        return index < values.length() ? extract(values.get(index), definition) : 0;
+    }
+
+    /**
+     * Registers a listener for changes to a single varp.
+     * @param varp The varp id
+     * @param listener The listener, invoked on the client thread
+     */
+    public void subscribeVarp(int varp, VarListener listener) {
+        addTo(varpListeners, varp, listener);
+    }
+
+    /**
+     * Removes a listener previously registered with {@link #subscribeVarp(int, VarListener)}.
+     * @param varp The varp id
+     * @param listener The listener to remove
+     */
+    public void unsubscribeVarp(int varp, VarListener listener) {
+        removeFrom(varpListeners, varp, listener);
+    }
+
+    /**
+     * Registers a listener for changes to a single varbit. The listener is only notified when the value of the varbit
+     * changes.
+     * @param varbit The varbit id
+     * @param listener The listener, invoked on the client thread
+     */
+    public void subscribeVarbit(int varbit, VarListener listener) {
+        addTo(varbitListeners, varbit, listener);
+        long definition = definition(varbit);
+        if (definition != UNKNOWN) {
+            watch(varbit, definition);
+        } else {
+            log.debug("Varbit {} does not exist, its listener will never be notified", varbit);
+        }
+    }
+
+    /**
+     * Removes a listener previously registered with {@link #subscribeVarbit(int, VarListener)}.
+     * @param varbit The varbit id
+     * @param listener The listener to remove
+     */
+    public void unsubscribeVarbit(int varbit, VarListener listener) {
+        // The varbit stays watched until its last listener is removed
+        varbitListeners.computeIfPresent(varbit, (id, listeners) -> {
+            listeners.remove(listener);
+            if (!listeners.isEmpty()) {
+                return listeners;
+            }
+
+            long definition = varbitDefinitions.getOrDefault(varbit, UNKNOWN);
+            if (definition != UNKNOWN) {
+                removeFrom(watchedVarbitsByVarp, (int) (definition >>> 16), varbit);
+            }
+            return null;
+        });
+    }
+
+    @Subscribe
+    public void onGameStateChanged(GameStateChanged event) {
+        if (event.getGameState() == GameState.LOGGED_IN) {
+            sync();
+        } else if (event.getGameState() == GameState.LOGIN_SCREEN) {
+            synced = false;
+        }
+    }
+
+    @Subscribe
+    public void onVarbitChanged(VarbitChanged event) {
+        AtomicIntegerArray values = varps;
+        int index = event.getVarpId();
+        if (!synced || values == null || index < 0 || index >= values.length()) {
+            return;
+        }
+
+        // The event value is the varbit value for client set varbits, so always read the whole varp
+        int[] clientVarps = client.getVarps();
+        if (clientVarps != null && index < clientVarps.length) {
+            update(values, index, clientVarps[index]);
+        }
+    }
+
+    /**
+     * Copies the client's varp array into the mirror, notifying listeners of any values which differ from the previous
+     * copy. This must be called on the client thread.
+     */
+    public void sync() {
+        int[] clientVarps = client.getVarps();
+        if (clientVarps == null) {
+            return;
+        }
+
+        // A fresh mirror is published whole and then listeners are told about every value which is set at login
+        AtomicIntegerArray values = varps;
+        if (values == null || values.length() != clientVarps.length) {
+            varps = new AtomicIntegerArray(clientVarps);
+            for (int i = 0; i < clientVarps.length; i++) {
+                if (clientVarps[i] != 0) {
+                    changed(i, 0, clientVarps[i]);
+                }
+            }
+            synced = true;
+            return;
+        }
+
+        for (int i = 0; i < clientVarps.length; i++) {
+            if (values.get(i) != clientVarps[i]) {
+                update(values, i, clientVarps[i]);
+            }
+        }
+        synced = true;
+    }
+
+    private void update(AtomicIntegerArray values, int index, int value) {
+        int previous = values.getAndSet(index, value);
+        if (previous != value) {
+            changed(index, previous, value);
+        }
+    }
+
+    private void changed(int index, int previous, int value) {
+        notify(varpListeners.get(index), index, previous, value);
+
+        List<Integer> watched = watchedVarbitsByVarp.get(index);
+        if (watched == null) {
+            return;
+        }
+
+        for (int varbit : watched) {
+            long definition = varbitDefinitions.getOrDefault(varbit, UNKNOWN);
+            int before = extract(previous, definition);
+            int after = extract(value, definition);
+            if (before != after) {
+                notify(varbitListeners.get(varbit), varbit, before, after);
+            }
+        }
+    }
+
+    private void notify(List<VarListener> listeners, int id, int oldValue, int newValue) {
+        if (listeners == null) {
+            return;
+        }
+
+        for (VarListener listener : listeners) {
+            try {
+                listener.onChange(id, oldValue, newValue);
+            } catch (Exception e) {
+                log.error("Var listener for id {} threw an exception: {}", id, e.getMessage(), e);
+            }
+        }
+    }
+
+    private AtomicIntegerArray ensureSynced() {
+        if (!synced && client.isClientThread() && client.getGameState() == GameState.LOGGED_IN) {
+            sync();
+        }
+        return synced ? varps : null;
+    }
+
+    private long definition(int varbit) {
+        Long cached = varbitDefinitions.get(varbit);
+        if (cached != null) {
+            return cached;
+        }
+
+        if (!client.isClientThread()) {
+            Long loaded = read(() -> loadDefinition(varbit));
+            return loaded == null ? UNKNOWN : loaded;
+        }
+
+        return loadDefinition(varbit);
+    }
+
+    private long loadDefinition(int varbit) {
+        VarbitComposition composition = client.getVarbit(varbit);
+        if (composition == null) {
+            // Remembered so an invalid id does not cost a client lookup on every read
+            varbitDefinitions.put(varbit, UNKNOWN);
+            return UNKNOWN;
+        }
+
+        long packed = ((long) composition.getIndex() << 16)
+                | ((long) composition.getLeastSignificantBit() << 8)
+                | composition.getMostSignificantBit();
+        varbitDefinitions.put(varbit, packed);
+        return packed;
+    }
+
+    private void watch(int varbit, long definition) {
+        watchedVarbitsByVarp.compute((int) (definition >>> 16), (index, watched) -> {
+            if (watched == null) {
+                watched = new CopyOnWriteArrayList<>();
+            }
+            if (!watched.contains(varbit)) {
+                watched.add(varbit);
+            }
+            return watched;
+        });
+    }
+
+    private static int extract(int varpValue, long definition) {
+        int lsb = (int) (definition >>> 8) & 0xFF;
+        int msb = (int) definition & 0xFF;
+        int bits = msb - lsb + 1;
+        int mask = bits >= 32 ? -1 : (1 << bits) - 1;
+        return (varpValue >>> lsb) & mask;
+    }
+
+    private <T> T read(Callable<T> method) {
+        return ctxProvider.get().runOnClientThread(method);
+    }
+
+    /**
+     * Adds a value to the list for a key. The list is created and updated atomically with {@link #removeFrom} dropping it
+     * once it is empty, so a value is never added to a list which has just been removed.
+     */
+    private static <K, V> void addTo(Map<K, List<V>> index, K key, V value) {
+        index.compute(key, (k, values) -> {
+            if (values == null) {
+                values = new CopyOnWriteArrayList<>();
+            }
+            values.add(value);
+            return values;
+        });
+    }
+
+    /**
+     * Removes a value from the list for a key, removing the list itself once it is empty.
+     */
+    private static <K, V> void removeFrom(Map<K, List<V>> index, K key, V value) {
+        index.computeIfPresent(key, (k, values) -> {
+            values.remove(value);
+            return values.isEmpty() ? null : values;
+        });
+    }
+}
@@ -1,14 +1,14 @@
 package com.kraken.api.query.container;
 
 import com.kraken.api.Context;
+import com.kraken.api.core.item.ItemDefinition;
+import com.kraken.api.core.item.ItemDefinitionCache;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
-import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Client;
 import net.runelite.api.Item;
 import net.runelite.api.ItemComposition;
-import net.runelite.api.ParamID;
 import net.runelite.api.widgets.Widget;
 
 import javax.annotation.Nullable;
@@ -20,7 +20,6 @@ import java.util.List;
 /**
  * Represents an item stored in an item container (either the inventory or Bank).
  */
-@Slf4j
 @Getter
 @AllArgsConstructor
 public class ContainerItem {
@@ -50,74 +49,59 @@ public class ContainerItem {
     private boolean isNoted;
     private boolean isTradeable;
     private ItemComposition itemComposition;
+    private ItemDefinition definition;
     private Context context;
 
-    /**
-     * Wearable action indexes for items that can be equipped.
-     * These correspond to the ParamID values for wearable actions in the ItemComposition.
-     */
-    private int[] wearableActionIndexes = new int[]{
-            ParamID.OC_ITEM_OP1,
-            ParamID.OC_ITEM_OP2,
-            ParamID.OC_ITEM_OP3,
-            ParamID.OC_ITEM_OP4,
-            ParamID.OC_ITEM_OP5,
-            ParamID.OC_ITEM_OP6,
-            ParamID.OC_ITEM_OP7,
-            ParamID.OC_ITEM_OP8
-    };
-
     public ContainerItem(Item item, ItemComposition itemComposition, int slot, Context context, Widget widget, ItemOrigin origin) {
+        this(item, context.getItemDefinitionCache().get(itemComposition), slot, context, widget, origin);
+    }
+
+    public ContainerItem(Item item, ItemDefinition definition, int slot, Context context, Widget widget, ItemOrigin origin) {
         this.id = item.getId();
         this.widget = widget;
         this.origin = origin;
         this.quantity = item.getQuantity();
         this.slot = slot;
-        this.name = itemComposition.getName();
-        this.isStackable = itemComposition.isStackable();
-        this.isNoted = itemComposition.getNote() == 799;
         this.context = context;
-        if (this.isNoted) {
-            context.runOnClientThreadOptional(() ->
-                    context.getClient().getItemDefinition(itemComposition.getLinkedNoteId())
-            ).ifPresent(itemDefinition -> this.isTradeable = itemDefinition.isTradeable());
-        } else {
-            this.isTradeable = itemComposition.isTradeable();
+        applyDefinition(definition);
+    }
+
+    /**
+     * Lazy loads the item definition from the shared {@link ItemDefinitionCache} if not already loaded.
+     * This ensures we can work with cached items while minimizing performance impact.
+     */
+    private void ensureCompositionLoaded() {
+        if (definition == null && id > 0) {
+            applyDefinition(context.getItemDefinitionCache().get(id));
         }
+    }
 
-        this.inventoryActions = itemComposition.getInventoryActions();
-        this.itemComposition = itemComposition;
+    private void applyDefinition(ItemDefinition definition) {
+        if (definition == null) {
+            return;
+        }
 
-        context.runOnClientThreadOptional(() -> {
-            addEquipmentActions(itemComposition);
-            return true;
-        });
+        this.definition = definition;
+        this.itemComposition = definition.getComposition();
+        this.name = definition.getName();
+        this.isStackable = definition.isStackable();
+        this.isNoted = definition.isNoted();
+        this.isTradeable = definition.isTradeable();
+        this.inventoryActions = definition.getInventoryActions();
+        this.equipmentActions = definition.getEquipmentActions();
     }
 
     /**
-     * Lazy loads the ItemComposition if not already loaded.
-     * This ensures we can work with cached items while minimizing performance impact.
+     * Returns the widget displaying this item. Items built from the container mirror do not carry a widget, in which
+     * case the widget is resolved on the client thread the first time it is requested.
+     * @return The widget for the item or null if the widget is not loaded
      */
-    private void ensureCompositionLoaded() {
-        if (itemComposition == null && id > 0) {
-            itemComposition = context.runOnClientThreadOptional(() -> context.getClient().getItemDefinition(id)).orElse(null);
-            if (itemComposition != null) {
-                this.name = itemComposition.getName();
-                this.isStackable = itemComposition.isStackable();
-                this.isNoted = itemComposition.getNote() == 799;
-                if (this.isNoted) {
-                    context.runOnClientThreadOptional(() ->
-                            context.getClient().getItemDefinition(itemComposition.getLinkedNoteId())).ifPresent(itemDefinition -> this.isTradeable = itemDefinition.isTradeable());
-                } else {
-                    this.isTradeable = itemComposition.isTradeable();
-                }
-                this.inventoryActions = itemComposition.getInventoryActions();
-                context.runOnClientThreadOptional(() -> {
-                    addEquipmentActions(itemComposition);
-                    return true;
-                });
-            }
+    @Nullable
+    public Widget getWidget() {
+        if (widget == null && context != null) {
+            widget = context.runOnClientThreadOptional(() -> ContainerWidgets.resolve(context.getClient(), origin, slot)).orElse(null);
         }
+        return widget;
     }
 
     /**
@@ -167,7 +151,7 @@ public class ContainerItem {
      * @return boolean true if the item is stackable and false otherwise
      */
     public boolean isStackable() {
-        if (itemComposition == null) {
+        if (definition == null) {
             ensureCompositionLoaded();
         }
         return isStackable;
@@ -178,7 +162,7 @@ public class ContainerItem {
      * @return true if the item is noted and false otherwise.
      */
     public boolean isNoted() {
-        if (itemComposition == null) {
+        if (definition == null) {
             ensureCompositionLoaded();
         }
         return isNoted;
@@ -189,7 +173,7 @@ public class ContainerItem {
      * @return True if the item is tradeable and false otherwise
      */
     public boolean isTradeable() {
-        if (itemComposition == null) {
+        if (definition == null) {
             ensureCompositionLoaded();
         }
         return isTradeable;
@@ -200,7 +184,7 @@ public class ContainerItem {
      * @return The inventory actions for an item. i.e "Wield", "Examine", "Drop", "Use"
      */
     public String[] getInventoryActions() {
-        if (itemComposition == null) {
+        if (definition == null) {
             ensureCompositionLoaded();
         }
         return inventoryActions;
@@ -211,7 +195,7 @@ public class ContainerItem {
      * @return The list of actions on the equipment
      */
     public List<String> getEquipmentActions() {
-        if (itemComposition == null) {
+        if (definition == null) {
             ensureCompositionLoaded();
         }
         return equipmentActions;
@@ -222,7 +206,7 @@ public class ContainerItem {
      * @return The items composition object
      */
     public ItemComposition getItemComposition() {
-        if (itemComposition == null) {
+        if (definition == null) {
             ensureCompositionLoaded();
         }
         return itemComposition;
@@ -240,25 +224,15 @@ public class ContainerItem {
         return (isEdible || lowerName.contains("jug of wine")) && !lowerName.contains("rock cake");
     }
 
-    private void addEquipmentActions(ItemComposition itemComposition) {
-        for (int i = 0; i < wearableActionIndexes.length; i++) {
-            try {
-                String value = itemComposition.getStringValue(wearableActionIndexes[i]);
-                this.equipmentActions.add(value);
-            } catch (Exception ex) {
-                this.equipmentActions.add("");
-                log.warn("Failed to get wearable action for index {} on item {}: {}", wearableActionIndexes[i], id, ex.getMessage());
-                ex.printStackTrace();
-            }
-        }
-    }
-
     /**
      * The high alchemy price for the item
      * @return The amount of GP received when this item is high alched for gold.
      */
     public int getHaPrice() {
-        return itemComposition.getHaPrice();
+        if (definition == null) {
+            ensureCompositionLoaded();
+        }
+        return definition == null ? 0 : definition.getHaPrice();
     }
 
     @Override
@@ -322,7 +296,7 @@ public class ContainerItem {
         }
 
         // Composition status
-        sb.append("\tcompositionLoaded: ").append(itemComposition != null).append("\n");
+        sb.append("\tcompositionLoaded: ").append(definition != null).append("\n");
 
         sb.append("}");
         return sb.toString();
@@ -0,0 +1,79 @@
+package com.kraken.api.query.container;
+
+import net.runelite.api.Client;
+import net.runelite.api.widgets.Widget;
+
+/**
+ * Resolves the widget which displays a given slot of an item container. Container queries are built from the
+ * {@link com.kraken.api.core.item.ContainerMirror} without touching widgets, the widget for an item is only looked
+ * up (on the client thread) when it is needed to interact with the item. These methods must be called on the client thread.
+ */
+public final class ContainerWidgets {
+    private static final int INVENTORY_GROUP = 149;
+    private static final int INVENTORY_COMPONENT = 9764864;
+    private static final int BANK_INVENTORY_COMPONENT = 0x000f_0003; // WidgetInfo.BANK_INVENTORY_ITEMS_CONTAINER
+    private static final int EQUIPMENT_GROUP = 387;
+
+    // Equipment slot index -> child of the equipment interface which displays the slot, -1 for unused slots
+    private static final int[] EQUIPMENT_SLOT_CHILDREN = {15, 16, 17, 18, 19, 20, -1, 21, -1, 22, 23, -1, 24, 25};
+
+    private ContainerWidgets() {
+    }
+
+    /**
+     * Resolves the widget for a slot based on the container the item was found in.
+     * @param client The RuneLite client
+     * @param origin The container the item was found in, null is treated as the inventory
+     * @param slot The slot index
+     * @return The widget or null if the widget is not loaded
+     */
+    public static Widget resolve(Client client, ContainerItem.ItemOrigin origin, int slot) {
+        if (origin == ContainerItem.ItemOrigin.BANK_INVENTORY) {
+            return child(client.getWidget(BANK_INVENTORY_COMPONENT), slot);
+        }
+
+        if (origin == ContainerItem.ItemOrigin.EQUIPMENT) {
+            return equipment(client, slot);
+        }
+
+        return inventory(client, slot);
+    }
+
+    /**
+     * Resolves the inventory widget for a slot, rebuilding the inventory interface first so the widget exists even
+     * when the inventory tab is not open.
+     * @param client The RuneLite client
+     * @param slot The inventory slot index
+     * @return The widget or null if the widget is not loaded
+     */
+    public static Widget inventory(Client client, int slot) {
+        client.runScript(6009, INVENTORY_COMPONENT, 28, 1, -1);
+        return child(client.getWidget(INVENTORY_GROUP, 0), slot);
+    }
+
+    /**
+     * Resolves the equipment interface widget for an equipment slot, rebuilding the slot first so its actions are set.
+     * @param client The RuneLite client
+     * @param slot The equipment slot index, see {@link net.runelite.api.EquipmentInventorySlot}
+     * @return The widget or null if the slot has no widget or the widget has no actions
+     */
+    public static Widget equipment(Client client, int slot) {
+        if (slot < 0 || slot >= EQUIPMENT_SLOT_CHILDREN.length || EQUIPMENT_SLOT_CHILDREN[slot] == -1) {
+            return null;
+        }
+
+        int child = EQUIPMENT_SLOT_CHILDREN[slot];
+        client.runScript(545, (EQUIPMENT_GROUP << 16) | child, slot, 1, 1, 2);
+        Widget widget = client.getWidget(EQUIPMENT_GROUP, child);
+        return widget == null || widget.getActions() == null ? null : widget;
+    }
+
+    private static Widget child(Widget parent, int slot) {
+        if (parent == null) {
+            return null;
+        }
+
+        Widget[] children = parent.getDynamicChildren();
+        return children != null && slot >= 0 && slot < children.length ? children[slot] : null;
+    }
+}
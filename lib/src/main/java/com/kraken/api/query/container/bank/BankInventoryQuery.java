@@ -2,9 +2,9 @@ package com.kraken.api.query.container.bank;
 
 import com.kraken.api.Context;
 import com.kraken.api.core.AbstractQuery;
+import com.kraken.api.core.item.ItemDefinition;
 import com.kraken.api.query.container.ContainerItem;
 import net.runelite.api.Item;
-import net.runelite.api.ItemComposition;
 import net.runelite.api.ItemContainer;
 import net.runelite.api.gameval.InventoryID;
 import net.runelite.api.widgets.Widget;
@@ -39,17 +39,15 @@ public class BankInventoryQuery extends AbstractQuery<BankInventoryEntity, BankI
             final Item item = container.getItems()[i];
             if (item.getId() == -1 || item.getId() == 6512) continue;
 
-            final ItemComposition itemComposition = ctx.runOnClientThreadOptional(() -> ctx.getClient().getItemDefinition(item.getId()))
-                    .orElse(null);
-
-            if (itemComposition == null) continue;
+            final ItemDefinition definition = ctx.getItemDefinitionCache().get(item.getId());
+            if (definition == null) continue;
 
             Widget widget = null;
             if (i < inventoryWidgets.length) {
                 widget = inventoryWidgets[i];
             }
 
-            bankInventoryEntities.add(new BankInventoryEntity(ctx, new ContainerItem(item, itemComposition, i, ctx, widget, ContainerItem.ItemOrigin.BANK_INVENTORY)));
+            bankInventoryEntities.add(new BankInventoryEntity(ctx, new ContainerItem(item, definition, i, ctx, widget, ContainerItem.ItemOrigin.BANK_INVENTORY)));
         }
 
         return bankInventoryEntities::stream;
@@ -2,16 +2,14 @@ package com.kraken.api.query.container.inventory;
 
 import com.kraken.api.Context;
 import com.kraken.api.core.AbstractQuery;
+import com.kraken.api.core.item.ContainerSnapshot;
+import com.kraken.api.core.item.ItemDefinition;
 import com.kraken.api.query.container.ContainerItem;
 import net.runelite.api.Item;
-import net.runelite.api.ItemComposition;
-import net.runelite.api.ItemContainer;
 import net.runelite.api.gameval.InventoryID;
-import net.runelite.api.widgets.Widget;
 
 import java.util.*;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public class InventoryQuery extends AbstractQuery<InventoryEntity, InventoryQuery, ContainerItem> {
@@ -23,47 +21,39 @@ public class InventoryQuery extends AbstractQuery<InventoryEntity, InventoryQuer
     @Override
     protected Supplier<Stream<InventoryEntity>> source() {
         return () -> {
-            List<InventoryEntity> inventoryEntities = ctx.runOnClientThread(() -> {
-                ctx.getClient().runScript(6009, 9764864, 28, 1, -1);
+            ContainerSnapshot inventory = contents();
+            List<InventoryEntity> entities = new ArrayList<>(inventory.occupiedSlots());
+            for (int i = 0; i < inventory.size(); i++) {
+                if (!inventory.isOccupied(i)) continue;
 
-                ItemContainer container = ctx.getClient().getItemContainer(InventoryID.INV);
-                if(container == null) return Collections.emptyList();
+                final ItemDefinition definition = ctx.getItemDefinitionCache().get(inventory.getId(i));
+                if (definition == null) continue;
 
-                Widget inventory = ctx.getClient().getWidget(149, 0);
-                if(inventory == null) return Collections.emptyList();
-
-                Widget[] inventoryWidgets = inventory.getDynamicChildren();
-
-                List<InventoryEntity> entities = new ArrayList<>();
-                for (int i = 0; i < container.getItems().length; i++) {
-                    final Item item = container.getItems()[i];
-                    if (item.getId() == -1 || item.getId() == 6512) continue;
-
-                    final ItemComposition itemComposition = ctx.getClient().getItemDefinition(item.getId());
-                    if (itemComposition == null) continue;
-
-                    Widget widget = null;
-                    if (i < inventoryWidgets.length) {
-                        widget = inventoryWidgets[i];
-                    }
-
-                    entities.add(new InventoryEntity(ctx, new ContainerItem(item, itemComposition, i, ctx, widget, null)));
-                }
-
-                return entities;
-            });
+                final Item item = new Item(inventory.getId(i), inventory.getQuantity(i));
+                entities.add(new InventoryEntity(ctx, new ContainerItem(item, definition, i, ctx, null, null)));
+            }
 
-            return inventoryEntities.stream();
+            return entities.stream();
         };
     }
 
-     /**
-     * Returns true when the inventory contains a specific item, found by its item id.
+    /**
+     * Returns the latest snapshot of the inventory from the {@link com.kraken.api.core.item.ContainerMirror}. The
+     * snapshot ignores any filters applied to this query.
+     * @return The inventory snapshot
+     */
+    public ContainerSnapshot contents() {
+        return ctx.getContainerMirror().get(InventoryID.INV);
+    }
+
+    /**
+     * Returns true when the inventory contains a specific item, found by its item id. This is answered from the
+     * inventory snapshot and never waits for the client thread.
      * @param id The id of the item to search for
      * @return True if the inventory has the item and false otherwise
      */
     public boolean hasItem(int id) {
-        return filter(i -> i.getId() == id).count() > 0;
+        return contents().contains(id);
     }
 
     /**
@@ -73,30 +63,19 @@ public class InventoryQuery extends AbstractQuery<InventoryEntity, InventoryQuer
      * @return True if the inventory has the item and false otherwise
      */
     public boolean hasItem(String name) {
-        return filter(i -> i.getName().equalsIgnoreCase(name)).count() > 0;
+        if (name == null) return false;
+        return names(contents()).contains(name.toLowerCase());
     }
 
     /**
-     * Returns true ONLY if the inventory contains ALL of the specified item IDs.
+     * Returns true ONLY if the inventory contains ALL of the specified item IDs. This is answered from the
+     * inventory snapshot and never waits for the client thread.
      * @param ids Variable argument of item IDs to search for.
      * @return True if every single ID in the arguments exists in the inventory.
      */
     public boolean hasItems(int... ids) {
         if (ids == null || ids.length == 0) return true;
-
-        // Collect all valid IDs currently in the inventory into a Set
-        // We use a Set for O(1) lookups and to handle duplicates automatically
-        Set<Integer> inventoryIds = stream()
-                .map(InventoryEntity::getId)
-                .collect(Collectors.toSet());
-
-        for (int id : ids) {
-            if (!inventoryIds.contains(id)) {
-                return false; // Return false immediately if ANY required item is missing
-            }
-        }
-
-        return true;
+        return contents().containsAll(ids);
     }
 
     /**
@@ -129,18 +108,12 @@ public class InventoryQuery extends AbstractQuery<InventoryEntity, InventoryQuer
     public boolean hasItems(String... names) {
         if (names == null || names.length == 0) return true;
 
-        Set<String> inventoryNames = stream()
-                .map(InventoryEntity::getName)
-                .filter(Objects::nonNull)
-                .map(String::toLowerCase)
-                .collect(Collectors.toSet());
-
+        Set<String> inventoryNames = names(contents());
         for (String name : names) {
             if (name == null) continue;
 
             // If the inventory set does not contain the required name, fail immediately
             if (!inventoryNames.contains(name.toLowerCase())) {
-                System.out.println("Inventory names does not contain: " + name + " names: " + inventoryNames);
                 return false;
             }
         }
@@ -148,6 +121,23 @@ public class InventoryQuery extends AbstractQuery<InventoryEntity, InventoryQuer
         return true;
     }
 
+    /**
+     * Collects the lower case names of every item in a snapshot. Names are read from the {@link com.kraken.api.core.item.ItemDefinitionCache}
+     * so only an item which has never been seen before is loaded on the client thread.
+     */
+    private Set<String> names(ContainerSnapshot inventory) {
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < inventory.size(); i++) {
+            if (!inventory.isOccupied(i)) continue;
+
+            ItemDefinition definition = ctx.getItemDefinitionCache().get(inventory.getId(i));
+            if (definition != null && definition.getName() != null) {
+                names.add(definition.getName().toLowerCase());
+            }
+        }
+        return names;
+    }
+
     /**
      * Sorts the inventory query results based on the specified {@code InventoryOrder}.
      * <p>
@@ -188,7 +178,7 @@ public class InventoryQuery extends AbstractQuery<InventoryEntity, InventoryQuer
      * @return true if the inventory is empty and false otherwise.
      */
     public boolean isEmpty() {
-        return source().get().findAny().isEmpty();
+        return contents().isEmpty();
     }
 
     /**
@@ -196,7 +186,7 @@ public class InventoryQuery extends AbstractQuery<InventoryEntity, InventoryQuer
      * @return True if the inventory is full and false otherwise.
      */
     public boolean isFull() {
-        return source().get().count() >= 28;
+        return contents().occupiedSlots() >= 28;
     }
 
     /**
@@ -204,7 +194,7 @@ public class InventoryQuery extends AbstractQuery<InventoryEntity, InventoryQuer
      * @return The amount of free space available in the players inventory
      */
     public int freeSpace() {
-        return Math.toIntExact(28 - source().get().count());
+        return 28 - contents().occupiedSlots();
     }
 
     /**
@@ -2,14 +2,13 @@ package com.kraken.api.query.equipment;
 
 import com.kraken.api.Context;
 import com.kraken.api.core.AbstractQuery;
+import com.kraken.api.core.item.ContainerSnapshot;
+import com.kraken.api.core.item.ItemDefinition;
 import com.kraken.api.query.container.ContainerItem;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.EquipmentInventorySlot;
 import net.runelite.api.Item;
-import net.runelite.api.ItemComposition;
-import net.runelite.api.ItemContainer;
 import net.runelite.api.gameval.InventoryID;
-import net.runelite.api.widgets.Widget;
 
 import java.util.*;
 import java.util.function.Supplier;
@@ -20,9 +19,6 @@ import java.util.stream.Stream;
 @Slf4j
 public class EquipmentQuery extends AbstractQuery<EquipmentEntity, EquipmentQuery, ContainerItem> {
 
-    private final HashMap<Integer, Integer> equipmentSlotWidgetMapping = new HashMap<>();
-    private final HashMap<Integer, Integer> intMapping = new HashMap<>();
-
     private enum EquipmentSource {
         INVENTORY_ONLY,
         INTERFACE_ONLY,
@@ -33,28 +29,6 @@ public class EquipmentQuery extends AbstractQuery<EquipmentEntity, EquipmentQuer
 
     public EquipmentQuery(Context ctx) {
         super(ctx);
-        equipmentSlotWidgetMapping.put(0, 15);
-        equipmentSlotWidgetMapping.put(1, 16);
-        equipmentSlotWidgetMapping.put(2, 17);
-        equipmentSlotWidgetMapping.put(3, 18);
-        equipmentSlotWidgetMapping.put(4, 19);
-        equipmentSlotWidgetMapping.put(5, 20);
-        equipmentSlotWidgetMapping.put(7, 21);
-        equipmentSlotWidgetMapping.put(9, 22);
-        equipmentSlotWidgetMapping.put(10, 23);
-        equipmentSlotWidgetMapping.put(12, 24);
-        equipmentSlotWidgetMapping.put(13, 25);
-        intMapping.put(0, 0);
-        intMapping.put(1, 1);
-        intMapping.put(2, 2);
-        intMapping.put(3, 3);
-        intMapping.put(4, 4);
-        intMapping.put(5, 5);
-        intMapping.put(6, 7);
-        intMapping.put(7, 9);
-        intMapping.put(8, 10);
-        intMapping.put(9, 12);
-        intMapping.put(10, 13);
     }
 
 
@@ -109,24 +83,14 @@ public class EquipmentQuery extends AbstractQuery<EquipmentEntity, EquipmentQuer
      * @return List of equipment entities
      */
     private List<EquipmentEntity> collectInventoryItems() {
-        ctx.getClient().runScript(6009, 9764864, 28, 1, -1);
-
-        ItemContainer container = ctx.getClient().getItemContainer(InventoryID.INV);
-        if (container == null) return Collections.emptyList();
-
-        Widget inventory = ctx.getClient().getWidget(149, 0);
-        if (inventory == null) return Collections.emptyList();
-
-        Widget[] inventoryWidgets = inventory.getDynamicChildren();
+        ContainerSnapshot inventory = ctx.getContainerMirror().get(InventoryID.INV);
         List<EquipmentEntity> entities = new ArrayList<>();
 
-        Item[] items = container.getItems();
-        for (int i = 0; i < items.length; i++) {
-            final Item item = items[i];
-            if (item.getId() == -1 || item.getId() == 6512) continue;
+        for (int i = 0; i < inventory.size(); i++) {
+            if (!inventory.isOccupied(i)) continue;
 
-            final ItemComposition def = ctx.getClient().getItemDefinition(item.getId());
-            if (def == null || def.getInventoryActions() == null) continue;
+            final ItemDefinition def = ctx.getItemDefinitionCache().get(inventory.getId(i));
+            if (def == null) continue;
 
             List<String> actions = Arrays.stream(def.getInventoryActions())
                     .filter(Objects::nonNull)
@@ -134,44 +98,31 @@ public class EquipmentQuery extends AbstractQuery<EquipmentEntity, EquipmentQuer
                     .collect(Collectors.toList());
 
             if(actions.contains("wield") || actions.contains("wear")) {
-                Widget w = (i < inventoryWidgets.length) ? inventoryWidgets[i] : null;
-                entities.add(new EquipmentEntity(ctx, new ContainerItem(item, def, i, ctx, w, ContainerItem.ItemOrigin.INVENTORY)));
+                final Item item = new Item(inventory.getId(i), inventory.getQuantity(i));
+                entities.add(new EquipmentEntity(ctx, new ContainerItem(item, def, i, ctx, null, ContainerItem.ItemOrigin.INVENTORY)));
             }
         }
         return entities;
     }
 
     /**
-     * Sources equipped items from the players equipment interface
+     * Sources equipped items from the players equipment container. The equipment interface widget for an item is
+     * resolved when the item is interacted with.
      * @return List of equipped item objects
      */
     private List<EquipmentEntity> collectEquippedItems() {
-        for (int i = 0; i < 11; i++) {
-            ctx.getClient().runScript(545, (25362447 + i), intMapping.get(i), 1, 1, 2);
-        }
-
+        ContainerSnapshot equipment = ctx.getContainerMirror().get(InventoryID.WORN);
         List<EquipmentEntity> entities = new ArrayList<>();
-        ItemContainer equipment = ctx.getClient().getItemContainer(94); // 94 = Equipment
-        if (equipment == null) return Collections.emptyList();
-
-        int i = -1;
-        for (Item item : equipment.getItems()) {
-            i++;
-            if (item == null) continue;
-            if (item.getId() == 6512 || item.getId() == -1) continue;
-            
-            // 387 = WidgetInfo.EQUIPMENT.getGroupId(), child id
-            Widget w = ctx.getClient().getWidget(387, equipmentSlotWidgetMapping.get(i));
-           
-            if (w == null || w.getActions() == null) {
-                continue;
-            }
 
-            final ItemComposition def = ctx.getClient().getItemDefinition(w.getItemId());
+        for (int i = 0; i < equipment.size(); i++) {
+            if (!equipment.isOccupied(i)) continue;
+
+            final ItemDefinition def = ctx.getItemDefinitionCache().get(equipment.getId(i));
+            if (def == null) continue;
 
-            // Create ContainerItem with EQUIPMENT origin
             // Pass slotIndex so we know which equipment slot this is
-            entities.add(new EquipmentEntity(ctx, new ContainerItem(item, def, i, ctx, w, ContainerItem.ItemOrigin.EQUIPMENT)));
+            final Item item = new Item(equipment.getId(i), equipment.getQuantity(i));
+            entities.add(new EquipmentEntity(ctx, new ContainerItem(item, def, i, ctx, null, ContainerItem.ItemOrigin.EQUIPMENT)));
         }
         return entities;
     }
@@ -193,9 +144,7 @@ public class EquipmentQuery extends AbstractQuery<EquipmentEntity, EquipmentQuer
      * @return True if the player is wearing the equipment and false otherwise
      */
     public boolean isWearing(int id) {
-        return ctx.runOnClientThread(() ->
-                collectEquippedItems().stream().anyMatch(i -> i.raw().getId() == id)
-        );
+        return ctx.getContainerMirror().get(InventoryID.WORN).contains(id);
     }
 
     /**
@@ -205,9 +154,7 @@ public class EquipmentQuery extends AbstractQuery<EquipmentEntity, EquipmentQuer
      * @return True if the player is wearing the equipment and false otherwise
      */
     public boolean isWearing(String name) {
-        return ctx.runOnClientThread(() ->
-                collectEquippedItems().stream().anyMatch(i -> name.equalsIgnoreCase(i.getName()))
-        );
+        return collectEquippedItems().stream().anyMatch(i -> name.equalsIgnoreCase(i.getName()));
     }
 
     /**
@@ -216,10 +163,10 @@ public class EquipmentQuery extends AbstractQuery<EquipmentEntity, EquipmentQuer
      * @return EquipmentEntity
      */
     public EquipmentEntity inSlot(EquipmentInventorySlot slot) {
-        return ctx.runOnClientThread(() -> collectEquippedItems()
+        return collectEquippedItems()
                 .stream()
                 .filter(i -> i.raw().getSlot() == slot.getSlotIdx())
                 .findFirst()
-                .orElse(new EquipmentEntity(ctx, null)));
+                .orElse(new EquipmentEntity(ctx, null));
     }
 }
@@ -2,10 +2,11 @@ package com.kraken.api.query.gameobject;
 
 import com.kraken.api.Context;
 import com.kraken.api.core.AbstractQuery;
+import com.kraken.api.core.FilterCost;
+import com.kraken.api.query.scene.EntitySnapshot;
 import net.runelite.api.GameObject;
 import net.runelite.api.ObjectComposition;
 import net.runelite.api.Perspective;
-import net.runelite.api.Tile;
 import net.runelite.api.coords.LocalPoint;
 import net.runelite.api.coords.WorldPoint;
 
@@ -28,43 +29,28 @@ public class GameObjectQuery extends AbstractQuery<GameObjectEntity, GameObjectQ
 
     @Override
     protected Supplier<Stream<GameObjectEntity>> source() {
-        return () -> {
-            List<GameObjectEntity> gameObjects = new ArrayList<>();
-            for (Tile[] tiles : ctx.getClient().getTopLevelWorldView().getScene().getTiles()[ctx.getClient().getTopLevelWorldView().getPlane()]) {
-                if (tiles == null) {
-                    continue;
-                }
-
-                for (Tile tile : tiles) {
-                    if (tile == null) {
-                        continue;
-                    }
-
-                    for (GameObject gameObject : tile.getGameObjects()) {
-                        if (gameObject == null || gameObject.getId() == -1) continue;
-                        if (gameObject.getSceneMinLocation().equals(tile.getSceneLocation())) {
-                            gameObjects.add(new GameObjectEntity(ctx, gameObject));
-                        }
-                    }
-                }
-            }
-
-            return gameObjects.stream();
-        };
+        return () -> snapshot().stream();
+    }
+
+    @Override
+    protected EntitySnapshot<GameObjectEntity> snapshot() {
+        return ctx.getSceneCache().gameObjects();
     }
 
     /**
-     * Filters the stream of game objects for objects with a specific name
+     * Filters the stream of game objects for objects with a specific name. The candidates come from the snapshot's
+     * name index but each one still resolves its (possibly impostor) composition, so the check itself is expensive and
+     * runs on the client thread.
      * @param name The name of the object to filter for
      * @return GameObjectQuery
      */
     @Override
     public GameObjectQuery withName(String name) {
-        return filter(t -> {
+        return indexedOnClientThread(snapshot -> snapshot.withName(name), t -> {
             ObjectComposition comp = t.getObjectComposition();
             if(comp == null) return false;
             return comp.getName() != null && comp.getName().equalsIgnoreCase(name);
-        });
+        }, FilterCost.EXPENSIVE);
     }
 
     /**
@@ -75,11 +61,11 @@ public class GameObjectQuery extends AbstractQuery<GameObjectEntity, GameObjectQ
      */
     @Override
     public GameObjectQuery nameContains(String name) {
-        return filter(t -> {
+        return filterOnClientThread(t -> {
             ObjectComposition comp = t.getObjectComposition();
             if(comp == null) return false;
             return comp.getName() != null && comp.getName().toLowerCase().contains(name.toLowerCase());
-        });
+        }, FilterCost.EXPENSIVE);
     }
 
     /**
@@ -88,14 +74,14 @@ public class GameObjectQuery extends AbstractQuery<GameObjectEntity, GameObjectQ
      * @return GameObjectQuery
      */
     public GameObjectQuery interactable() {
-        return filter(gameObject ->  {
+        return filterOnClientThread(gameObject ->  {
             String[] rawActions = gameObject.getObjectComposition().getActions();
             if(rawActions == null || rawActions.length == 0) return false;
             return Arrays.stream(rawActions)
                     .filter(Objects::nonNull)
                     .map(String::toLowerCase)
                     .anyMatch(s -> !ACTION_BLACKLIST.contains(s));
-        });
+        }, FilterCost.EXPENSIVE);
     }
 
     /**
@@ -105,12 +91,12 @@ public class GameObjectQuery extends AbstractQuery<GameObjectEntity, GameObjectQ
      * @return GameObjectQuery
      */
     public GameObjectQuery withAction(String action) {
-        return filter(obj -> {
+        return filterOnClientThread(obj -> {
             if (obj.getObjectComposition() == null) return false;
             String[] actions = obj.getObjectComposition().getActions();
             if (actions == null) return false;
             return Arrays.stream(actions).filter(Objects::nonNull).anyMatch(a -> a.equalsIgnoreCase(action));
-        });
+        }, FilterCost.EXPENSIVE);
     }
 
     /**
@@ -126,12 +112,12 @@ public class GameObjectQuery extends AbstractQuery<GameObjectEntity, GameObjectQ
      *         the specified substring.
      */
     public GameObjectQuery withPartialAction(String actionSubstring) {
-        return filter(obj -> {
+        return filterOnClientThread(obj -> {
             if (obj.getObjectComposition() == null) return false;
             String[] actions = obj.getObjectComposition().getActions();
             if (actions == null) return false;
             return Arrays.stream(actions).filter(Objects::nonNull).anyMatch(a -> a.toLowerCase().contains(actionSubstring.toLowerCase()));
-        });
+        }, FilterCost.EXPENSIVE);
     }
 
     /**
@@ -147,7 +133,7 @@ public class GameObjectQuery extends AbstractQuery<GameObjectEntity, GameObjectQ
         int y1 = min.getY();
         int y2 = max.getY();
 
-         return filter(obj -> {
+         return spatial(index -> index.inArea(min, max), obj -> {
              WorldPoint pt = obj.raw().getWorldLocation();
              int x3 = pt.getX();
              int y3 = pt.getY();
@@ -165,16 +151,17 @@ public class GameObjectQuery extends AbstractQuery<GameObjectEntity, GameObjectQ
      * @return GroundObjectQuery
      */
     public GameObjectQuery reachable() {
-        return filter(gameObject -> gameObject.raw() != null && ctx.getTileService().isObjectReachable(gameObject.raw()));
+        return filterOnClientThread(gameObject -> gameObject.raw() != null && ctx.getTileService().isObjectReachable(gameObject.raw()), FilterCost.EXPENSIVE);
     }
 
     /**
-     * Sorts the stream of game objects to order them by manhattan distance to the local player.
-     * @return GameObjectQuery
+     * Finds the game object nearest to the local player by tile distance. Only the spatial index buckets surrounding
+     * the player are searched rather than sorting every game object in the scene.
+     * @return GameObjectEntity the nearest game object or null if no objects match the query
      */
     public GameObjectEntity nearest() {
         final WorldPoint playerLoc = ctx.players().local().raw().getWorldLocation();
-        return sorted(Comparator.comparingInt(obj -> obj.raw().getWorldLocation().distanceTo(playerLoc))).first();
+        return findNearest(playerLoc, obj -> obj.raw().getWorldLocation().distanceTo(playerLoc), 1, 0);
     }
 
     /**
@@ -194,7 +181,9 @@ public class GameObjectQuery extends AbstractQuery<GameObjectEntity, GameObjectQ
      */
     public GameObjectQuery within(LocalPoint anchor, int distance) {
         int range = distance * Perspective.LOCAL_TILE_SIZE;
-        return filter(obj -> obj.raw().getLocalLocation().distanceTo(anchor) <= range);
+        // Large objects are located at their center so allow an extra tile when narrowing by world location
+        return spatial(index -> index.within(WorldPoint.fromLocal(ctx.getClient(), anchor), distance + 1),
+                obj -> obj.raw().getLocalLocation().distanceTo(anchor) <= range);
     }
 
     /**
@@ -204,9 +193,7 @@ public class GameObjectQuery extends AbstractQuery<GameObjectEntity, GameObjectQ
      */
     public GameObjectQuery within(int distance) {
         LocalPoint anchor = ctx.players().local().raw().getLocalLocation();
-        int range = distance * Perspective.LOCAL_TILE_SIZE;
-
-        return filter(obj -> obj.raw().getLocalLocation().distanceTo(anchor) <= range);
+        return within(anchor, distance);
     }
 
     /**
@@ -215,6 +202,6 @@ public class GameObjectQuery extends AbstractQuery<GameObjectEntity, GameObjectQ
      * @return GameObjectQuery
      */
     public GameObjectQuery at(WorldPoint point) {
-        return filter(obj -> obj.raw().getWorldLocation().equals(point));
+        return spatial(index -> index.at(point), obj -> obj.raw().getWorldLocation().equals(point));
     }
 }
\ No newline at end of file
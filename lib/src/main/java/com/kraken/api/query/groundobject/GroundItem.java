@@ -1,13 +1,18 @@
 package com.kraken.api.query.groundobject;
 
+import com.kraken.api.Context;
+import com.kraken.api.core.item.ItemDefinition;
 import lombok.Builder;
 import lombok.Data;
 import lombok.Getter;
 import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.ItemComposition;
+import net.runelite.api.Tile;
 import net.runelite.api.TileItem;
 import net.runelite.api.TileObject;
 import net.runelite.api.coords.WorldPoint;
+import net.runelite.client.util.RSTimeUnit;
 
 import javax.annotation.Nullable;
 import java.lang.reflect.Field;
@@ -22,9 +27,12 @@ import static net.runelite.api.TileItem.OWNERSHIP_SELF;
 
 
 @Data
+@Slf4j
 @Getter
 @Builder
 public class GroundItem {
+    private static final int COINS = 617;
+
     @Nullable
     private Instant spawnTime;
 
@@ -48,6 +56,69 @@ public class GroundItem {
     private Duration despawnTime;
     private Duration visibleTime;
 
+    /**
+     * Builds a GroundItem object from a Tile and TileItem. The tile item is the actual object that is on the ground
+     * however, data from the tile is also necessary to build a full representation. Item names and prices are read from
+     * the shared {@link com.kraken.api.core.item.ItemDefinitionCache}. This must be called on the client thread.
+     *
+     * @param ctx The API context
+     * @param tile The tile the item is on
+     * @param item The tile item which contains information about the item on the ground
+     * @param tickCount The current client tick count used to compute despawn and visible durations
+     * @return A GroundItem object which represents the item on the ground, or null if the item's definition could
+     * not be loaded, for example before the item manager is ready
+     */
+    public static GroundItem fromTileItem(final Context ctx, final Tile tile, final TileItem item, final int tickCount) {
+        final int itemId = item.getId();
+        final ItemDefinition definition = ctx.getItemDefinitionCache().get(itemId);
+        if (definition == null) {
+            // The definition cache has already logged the failure once for this item id
+            log.debug("Skipping ground item {}, its definition could not be loaded", itemId);
+            return null;
+        }
+
+        final int realItemId = definition.getUnnotedId();
+        final int alchPrice = definition.getHaPrice();
+        final int despawnTime = item.getDespawnTime() - tickCount;
+        final int visibleTime = item.getVisibleTime() - tickCount;
+        final String key = String.format("%d-%d-%d-%d-%d",
+                item.getId(),
+                item.getQuantity(),
+                tile.getWorldLocation().getX(),
+                tile.getWorldLocation().getY(),
+                tile.getPlane());
+
+        final GroundItem groundItem = GroundItem.builder()
+                .id(itemId)
+                .key(key)
+                .itemComposition(definition.getComposition())
+                .tileItem(item)
+                .tileObject(tile.getGroundObject())
+                .location(tile.getWorldLocation())
+                .itemId(realItemId)
+                .quantity(item.getQuantity())
+                .name(definition.getName())
+                .haPrice(alchPrice)
+                .height(tile.getItemLayer().getHeight())
+                .tradeable(definition.isTradeable())
+                .ownership(item.getOwnership())
+                .isPrivate(item.isPrivate())
+                .spawnTime(Instant.now())
+                .stackable(definition.isStackable())
+                .despawnTime(Duration.of(despawnTime, RSTimeUnit.GAME_TICKS))
+                .visibleTime(Duration.of(visibleTime, RSTimeUnit.GAME_TICKS))
+                .build();
+
+        if (realItemId == COINS) {
+            groundItem.setHaPrice(1);
+            groundItem.setGePrice(1);
+        } else {
+            groundItem.setGePrice(definition.getGePrice());
+        }
+
+        return groundItem;
+    }
+
     /**
      * Returns the High Alchemy price of the item multiplied by the quantity on the ground.
      * @return The High Alchemy price of the item multiplied by the quantity on the ground
@@ -2,108 +2,27 @@ package com.kraken.api.query.groundobject;
 
 import com.kraken.api.Context;
 import com.kraken.api.core.AbstractQuery;
-import net.runelite.api.ItemComposition;
-import net.runelite.api.Tile;
-import net.runelite.api.TileItem;
+import com.kraken.api.core.FilterCost;
+import com.kraken.api.query.scene.EntitySnapshot;
 import net.runelite.api.coords.WorldPoint;
-import net.runelite.client.util.RSTimeUnit;
 
-import java.time.Duration;
-import java.time.Instant;
 import java.util.Comparator;
-import java.util.HashSet;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 public class GroundObjectQuery extends AbstractQuery<GroundObjectEntity, GroundObjectQuery, GroundItem> {
-    private static final int COINS = 617;
-
     public GroundObjectQuery(Context ctx) {
         super(ctx);
     }
 
-    /**
-     * Builds a GroundItem object from a Tile and TileItem. The tile item is the actual object that is on the ground
-     * however, data from the tile is also necessary to build a full representation
-     *
-     * @param tile The tile the item is on
-     * @param item The tile item which contains information about the item on the ground
-     * @return A GroundItem object which represents the item on the ground
-     */
-    private GroundItem buildGroundItem(final Tile tile, final TileItem item) {
-        int tickCount = ctx.runOnClientThreadOptional(() -> ctx.getClient().getTickCount()).orElse(0);
-        final int itemId = item.getId();
-        final ItemComposition itemComposition = ctx.getItemManager().getItemComposition(itemId);
-        final int realItemId = itemComposition.getNote() != -1 ? itemComposition.getLinkedNoteId() : itemId;
-        final int alchPrice = itemComposition.getHaPrice();
-        final int despawnTime = item.getDespawnTime() - tickCount;
-        final int visibleTime = item.getVisibleTime() - tickCount;
-        final String key = String.format("%d-%d-%d-%d-%d",
-                item.getId(),
-                item.getQuantity(),
-                tile.getWorldLocation().getX(),
-                tile.getWorldLocation().getY(),
-                tile.getPlane());
-
-        final GroundItem groundItem = GroundItem.builder()
-                .id(itemId)
-                .key(key)
-                .itemComposition(itemComposition)
-                .tileItem(item)
-                .tileObject(tile.getGroundObject())
-                .location(tile.getWorldLocation())
-                .itemId(realItemId)
-                .quantity(item.getQuantity())
-                .name(itemComposition.getName())
-                .haPrice(alchPrice)
-                .height(tile.getItemLayer().getHeight())
-                .tradeable(itemComposition.isTradeable())
-                .ownership(item.getOwnership())
-                .isPrivate(item.isPrivate())
-                .spawnTime(Instant.now())
-                .stackable(itemComposition.isStackable())
-                .despawnTime(Duration.of(despawnTime, RSTimeUnit.GAME_TICKS))
-                .visibleTime(Duration.of(visibleTime, RSTimeUnit.GAME_TICKS))
-                .build();
-
-        if (realItemId == COINS) {
-            groundItem.setHaPrice(1);
-            groundItem.setGePrice(1);
-        } else {
-            groundItem.setGePrice(ctx.getItemManager().getItemPrice(realItemId));
-        }
-
-        return groundItem;
-    }
-
-
     @Override
     protected Supplier<Stream<GroundObjectEntity>> source() {
-        return () -> {
-            HashSet<GroundItem> groundItems = new HashSet<>();
-            for (Tile[] tiles : ctx.getClient().getTopLevelWorldView().getScene().getTiles()[ctx.getClient().getTopLevelWorldView().getPlane()]) {
-                if (tiles == null) {
-                    continue;
-                }
-
-                for (Tile tile : tiles) {
-                    if (tile == null) {
-                        continue;
-                    }
-
-                    if (tile.getGroundItems() != null) {
-                        for (TileItem groundItem : tile.getGroundItems()) {
-                            if (groundItem == null) {
-                                continue;
-                            }
-                            groundItems.add(buildGroundItem(tile, groundItem));
-                        }
-                    }
-                }
-            }
+        return () -> snapshot().stream();
+    }
 
-            return groundItems.stream().map(groundItem -> new GroundObjectEntity(ctx, groundItem));
-        };
+    @Override
+    protected EntitySnapshot<GroundObjectEntity> snapshot() {
+        return ctx.getSceneCache().groundItems();
     }
 
     /**
@@ -113,7 +32,7 @@ public class GroundObjectQuery extends AbstractQuery<GroundObjectEntity, GroundO
      * @return True if the object is within the specified distance from the anchor point, false otherwise.
      */
     public GroundObjectQuery within(WorldPoint anchor, int distance) {
-        return filter(obj -> obj.raw().getLocation().distanceTo(anchor) <= distance);
+        return spatial(index -> index.within(anchor, distance), obj -> obj.raw().getLocation().distanceTo(anchor) <= distance);
     }
 
     /**
@@ -123,7 +42,7 @@ public class GroundObjectQuery extends AbstractQuery<GroundObjectEntity, GroundO
      * @return GroundObjectQuery
      */
     public GroundObjectQuery valueAbove(int value) {
-        return filter(obj -> obj.raw().getGePrice() > value);
+        return filter(obj -> obj.raw().getGePrice() > value, FilterCost.NORMAL);
     }
 
     /**
@@ -133,7 +52,7 @@ public class GroundObjectQuery extends AbstractQuery<GroundObjectEntity, GroundO
      * @return GroundObjectQuery
      */
     public GroundObjectQuery stackValueAbove(int value) {
-        return filter(obj -> obj.raw().getGrandExchangePrice() > value);
+        return filter(obj -> obj.raw().getGrandExchangePrice() > value, FilterCost.NORMAL);
     }
 
     /**
@@ -142,16 +61,17 @@ public class GroundObjectQuery extends AbstractQuery<GroundObjectEntity, GroundO
      * @return GroundObjectQuery
      */
     public GroundObjectQuery highAlchemyPriceAbove(int value) {
-        return filter(obj -> obj.raw().getHaPrice() > value);
+        return filter(obj -> obj.raw().getHaPrice() > value, FilterCost.NORMAL);
     }
 
     /**
-     * Sorts the stream of ground objects to order them by manhattan distance to the local player.
-     * @return GroundObjectQuery
+     * Finds the ground item nearest to the local player by tile distance. Only the spatial index buckets surrounding
+     * the player are searched rather than sorting every ground item in the scene.
+     * @return GroundObjectEntity the nearest ground item or null if no items match the query
      */
     public GroundObjectEntity nearest() {
         WorldPoint playerLoc = ctx.players().local().raw().getWorldLocation();
-        return sorted(Comparator.comparingInt(obj -> obj.raw().getLocation().distanceTo(playerLoc))).first();
+        return findNearest(playerLoc, obj -> obj.raw().getLocation().distanceTo(playerLoc), 1, 0);
     }
 
     /**
@@ -170,7 +90,7 @@ public class GroundObjectQuery extends AbstractQuery<GroundObjectEntity, GroundO
      */
     public GroundObjectQuery within(int distance) {
         WorldPoint anchor = ctx.players().local().raw().getWorldLocation();
-        return filter(obj -> obj.raw().getLocation().distanceTo(anchor) <= distance);
+        return within(anchor, distance);
     }
 
     /**
@@ -179,7 +99,7 @@ public class GroundObjectQuery extends AbstractQuery<GroundObjectEntity, GroundO
      * @return GroundObjectQuery
      */
     public GroundObjectQuery at(WorldPoint point) {
-        return filter(obj -> obj.raw().getLocation().equals(point));
+        return spatial(index -> index.at(point), obj -> obj.raw().getLocation().equals(point));
     }
 
     /**
@@ -187,7 +107,7 @@ public class GroundObjectQuery extends AbstractQuery<GroundObjectEntity, GroundO
      * @return GroundObjectQuery
      */
     public GroundObjectQuery reachable() {
-        return filter(groundItem -> ctx.getTileService().isTileReachable(groundItem.raw().getLocation()));
+        return filterOnClientThread(groundItem -> ctx.getTileService().isTileReachable(groundItem.raw().getLocation()), FilterCost.EXPENSIVE);
     }
 }
 
@@ -2,9 +2,15 @@ package com.kraken.api.query.npc;
 
 import com.kraken.api.Context;
 import com.kraken.api.core.AbstractQuery;
+import com.kraken.api.core.FilterCost;
+import com.kraken.api.query.scene.EntitySnapshot;
+import com.kraken.api.query.scene.SpatialIndex;
 import net.runelite.api.Actor;
 import net.runelite.api.NPC;
 import net.runelite.api.NPCComposition;
+import net.runelite.api.Perspective;
+import net.runelite.api.Player;
+import net.runelite.api.coords.LocalPoint;
 import net.runelite.api.coords.WorldPoint;
 
 import java.util.Arrays;
@@ -23,10 +29,12 @@ public class NpcQuery extends AbstractQuery<NpcEntity, NpcQuery, NPC> {
 
     @Override
     protected Supplier<Stream<NpcEntity>> source() {
-        return () -> ctx.getClient().getTopLevelWorldView().npcs().stream()
-                .filter(Objects::nonNull)
-                .filter(n -> ctx.runOnClientThread(() -> n.getName() != null && n.getId() != -1))
-                .map(rawNpc -> new NpcEntity(ctx, rawNpc));
+        return () -> snapshot().stream();
+    }
+
+    @Override
+    protected EntitySnapshot<NpcEntity> snapshot() {
+        return ctx.getSceneCache().npcs();
     }
 
     /**
@@ -35,7 +43,7 @@ public class NpcQuery extends AbstractQuery<NpcEntity, NpcQuery, NPC> {
      * @return NpcQuery
      */
     public NpcQuery withIds(List<Integer> ids) {
-        return filter(npc -> ids.contains(npc.raw().getId()));
+        return filter(npc -> ids.contains(npc.raw().getId()), FilterCost.NORMAL);
     }
 
     /**
@@ -47,7 +55,7 @@ public class NpcQuery extends AbstractQuery<NpcEntity, NpcQuery, NPC> {
      * @return an {@code NpcQuery} containing NPCs at the specified {@code location}.
      */
     public NpcQuery at(WorldPoint location) {
-        return filter(n -> n.raw().getWorldLocation().equals(location));
+        return spatial(index -> index.at(location), n -> n.raw().getWorldLocation().equals(location));
     }
 
     /**
@@ -61,7 +69,7 @@ public class NpcQuery extends AbstractQuery<NpcEntity, NpcQuery, NPC> {
      * @return NpcQuery
      */
     public NpcQuery attackable() {
-        return filter(npc -> {
+        return filterOnClientThread(npc -> {
             NPCComposition composition = npc.raw().getComposition();
             if(composition == null) return false;
             if(composition.getActions() == null || composition.getActions().length == 0) return false;
@@ -72,7 +80,7 @@ public class NpcQuery extends AbstractQuery<NpcEntity, NpcQuery, NPC> {
                     .collect(Collectors.toList());
 
             return actions.contains("attack") && !npc.raw().isDead();
-        });
+        }, FilterCost.EXPENSIVE);
     }
 
     /**
@@ -85,7 +93,7 @@ public class NpcQuery extends AbstractQuery<NpcEntity, NpcQuery, NPC> {
      * @return A {@literal @}NpcQuery containing only the NPCs that are reachable.
      */
     public NpcQuery reachable() {
-        return filter(npc -> npc.raw() != null && ctx.getTileService().isTileReachable(npc.raw().getWorldLocation()));
+        return filterOnClientThread(npc -> npc.raw() != null && ctx.getTileService().isTileReachable(npc.raw().getWorldLocation()), FilterCost.EXPENSIVE);
     }
 
     /**
@@ -94,7 +102,7 @@ public class NpcQuery extends AbstractQuery<NpcEntity, NpcQuery, NPC> {
      * @return NpcQuery
      */
     public NpcQuery idle() {
-        return filter(npc -> npc.raw().getInteracting() == null);
+        return filter(npc -> npc.raw().getInteracting() == null, FilterCost.NORMAL);
     }
 
     /**
@@ -103,8 +111,8 @@ public class NpcQuery extends AbstractQuery<NpcEntity, NpcQuery, NPC> {
      * <p>
      * This method determines the NPC closest to the local player by comparing
      * the distances between each NPC's local location and the local player's local location.
-     * The comparison is performed by sorting the NPCs based on their proximity,
-     * and the first (closest) NPC is selected.
+     * Only the spatial index buckets surrounding the player are searched, expanding outwards
+     * until no closer NPC can exist, rather than sorting every NPC in the scene.
      * </p>
      *
      * <p>
@@ -118,9 +126,14 @@ public class NpcQuery extends AbstractQuery<NpcEntity, NpcQuery, NPC> {
      *         If no NPCs are available, the return value may be {@code null}.
      */
     public NpcEntity nearest() {
-        return sorted(Comparator.comparingInt(npc ->
-                npc.raw().getLocalLocation().distanceTo(ctx.getClient().getLocalPlayer().getLocalLocation())
-        )).first();
+        Player local = ctx.getClient().getLocalPlayer();
+        if (local == null) {
+            return null;
+        }
+
+        final LocalPoint playerLoc = local.getLocalLocation();
+        return findNearest(local.getWorldLocation(), npc -> npc.raw().getLocalLocation().distanceTo(playerLoc), Perspective.LOCAL_TILE_SIZE,
+                SpatialIndex.MOVEMENT_SLACK_TILES);
     }
 
     /**
@@ -163,7 +176,7 @@ public class NpcQuery extends AbstractQuery<NpcEntity, NpcQuery, NPC> {
      * @return A filtered {@code NpcQuery} containing only the NPCs within the specified distance from the local player.
      */
     public NpcQuery within(int distance) {
-        return filter(npc ->
+        return spatial(index -> index.within(ctx.getClient().getLocalPlayer().getWorldLocation(), distance), npc ->
                 npc.raw().getWorldLocation().distanceTo(ctx.getClient().getLocalPlayer().getWorldLocation()) <= distance
         );
     }
@@ -181,7 +194,7 @@ public class NpcQuery extends AbstractQuery<NpcEntity, NpcQuery, NPC> {
      * @return A filtered {@code NpcQuery} containing only the NPCs that match the specified menu option.
      */
     public NpcQuery withAction(String action) {
-        return filter(npc -> {
+        return filterOnClientThread(npc -> {
             NPCComposition composition = npc.raw().getComposition();
             if(composition == null) return false;
 
@@ -191,7 +204,7 @@ public class NpcQuery extends AbstractQuery<NpcEntity, NpcQuery, NPC> {
                     .collect(Collectors.toList());
 
             return actions.contains(action.toLowerCase());
-        });
+        }, FilterCost.EXPENSIVE);
     }
 
     /**
@@ -217,7 +230,7 @@ public class NpcQuery extends AbstractQuery<NpcEntity, NpcQuery, NPC> {
         int y1 = min.getY();
         int y2 = max.getY();
 
-        return filter(npc -> {
+        return spatial(index -> index.inArea(min, max), npc -> {
             WorldPoint pt = npc.raw().getWorldLocation();
             int x3 = pt.getX();
             int y3 = pt.getY();
@@ -248,7 +261,7 @@ public class NpcQuery extends AbstractQuery<NpcEntity, NpcQuery, NPC> {
         return filter(npc -> {
             Actor target = npc.raw().getInteracting();
             return target != null && target == ctx.getClient().getLocalPlayer();
-        });
+        }, FilterCost.NORMAL);
     }
 
     /**
@@ -271,7 +284,7 @@ public class NpcQuery extends AbstractQuery<NpcEntity, NpcQuery, NPC> {
         return filter(npc -> {
             Actor target = npc.raw().getInteracting();
             return target != null && target != ctx.getClient().getLocalPlayer();
-        });
+        }, FilterCost.NORMAL);
     }
 
     /**
@@ -293,7 +306,7 @@ public class NpcQuery extends AbstractQuery<NpcEntity, NpcQuery, NPC> {
         return filter(npc -> {
             Actor target = npc.raw().getInteracting();
             return target != null && target == actor;
-        });
+        }, FilterCost.NORMAL);
     }
 
     /**
@@ -312,6 +325,6 @@ public class NpcQuery extends AbstractQuery<NpcEntity, NpcQuery, NPC> {
      * @return A filtered {@code NpcQuery} containing only the NPCs that are alive.
      */
     public NpcQuery alive() {
-        return filter(npc -> !npc.raw().isDead());
+        return filter(npc -> !npc.raw().isDead(), FilterCost.NORMAL);
     }
 }
\ No newline at end of file
@@ -7,11 +7,9 @@ import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.*;
 import net.runelite.api.coords.WorldPoint;
-import net.runelite.api.events.VarbitChanged;
 import net.runelite.api.gameval.InterfaceID;
 import net.runelite.api.gameval.VarPlayerID;
 import net.runelite.api.widgets.Widget;
-import net.runelite.client.eventbus.Subscribe;
 
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -27,6 +25,7 @@ public class LocalPlayerEntity extends PlayerEntity {
 
     public LocalPlayerEntity(Context ctx) {
         super(ctx, ctx.getClient().getLocalPlayer());
+        ctx.getVarMirror().subscribeVarp(VarPlayerID.POISON, (varp, oldValue, newValue) -> updatePoison(newValue));
     }
 
     private int antiVenomTime = -1;
@@ -41,32 +40,28 @@ public class LocalPlayerEntity extends PlayerEntity {
     /**
      * The poisoned status of the player, with negative values indicating the duration of poison or venom protection and
      * positive values representing the amount of poison or venom damage the player will be taking.
-     * @param event The varbit changed event from RuneLite
+     * @param poisonValue The value of the poison varp
      *    - (-inf, -38): Venom immune for a duration of {@code (abs(val) - 38) * 30} game ticks (18 seconds per poison tick), after which point the value will have increased to {@code -38} and be representing poison immunity rather than venom immunity
      *    - [-38, 0): Poison immune for a duration of {@code abs(val) * 30} game ticks (18 seconds per poison tick)
      *    - 0: Not poisoned or immune to poison
      *    - [1, 100]: Poisoned for an amount of {@code ceil(val / 5.0f)}
      *    - [1000000, inf): Venomed for an amount of {@code min(20, (val - 999997) * 2)}, that is, an amount starting at 6 damage, increasing by 2 each time the value increases by one, and capped at 20
      */
-    @Subscribe
-    public void onVarbitChanged(VarbitChanged event) {
-        if (event.getVarpId() == VarPlayerID.POISON) {
-            final int poisonValue = event.getValue();
-            if (poisonValue >= VENOM_VALUE_CUTOFF) {
-                antiVenomTime = 0;
-            } else {
-                antiVenomTime = poisonValue;
-            }
-
-            if(poisonValue == 0) {
-                antiPoisonTime = -1;
-            } else {
-                antiPoisonTime = poisonValue;
-            }
+    private void updatePoison(int poisonValue) {
+        if (poisonValue >= VENOM_VALUE_CUTOFF) {
+            antiVenomTime = 0;
+        } else {
+            antiVenomTime = poisonValue;
+        }
 
-            isVenomed = poisonValue >= VENOM_THRESHOLD;
-            isPoisoned = poisonValue >= 0 || poisonValue < VENOM_VALUE_CUTOFF;
+        if(poisonValue == 0) {
+            antiPoisonTime = -1;
+        } else {
+            antiPoisonTime = poisonValue;
         }
+
+        isVenomed = poisonValue >= VENOM_THRESHOLD;
+        isPoisoned = poisonValue >= 0 || poisonValue < VENOM_VALUE_CUTOFF;
     }
 
     @Override
@@ -2,16 +2,18 @@ package com.kraken.api.query.player;
 
 import com.kraken.api.Context;
 import com.kraken.api.core.AbstractQuery;
+import com.kraken.api.core.FilterCost;
+import com.kraken.api.query.scene.EntitySnapshot;
+import com.kraken.api.query.scene.SpatialIndex;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Actor;
+import net.runelite.api.Perspective;
 import net.runelite.api.Player;
+import net.runelite.api.coords.LocalPoint;
 import net.runelite.api.coords.WorldPoint;
 
 import java.util.Comparator;
-import java.util.List;
-import java.util.Objects;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 @Slf4j
@@ -23,15 +25,13 @@ public class PlayerQuery extends AbstractQuery<PlayerEntity, PlayerQuery, Player
 
     @Override
     protected Supplier<Stream<PlayerEntity>> source() {
-        return () -> {
-            List<PlayerEntity> players = ctx.getClient().getTopLevelWorldView().players().stream()
-                    .filter(Objects::nonNull)
-                    // Do not include the local player by default
-                    .filter(p -> ctx.runOnClientThread(() -> p.getName() != null && !p.getName().equalsIgnoreCase(ctx.getClient().getLocalPlayer().getName())))
-                    .map(player -> new PlayerEntity(ctx, player))
-                    .collect(Collectors.toList());
-            return players.stream();
-        };
+        // Does not include the local player by default
+        return () -> snapshot().stream();
+    }
+
+    @Override
+    protected EntitySnapshot<PlayerEntity> snapshot() {
+        return ctx.getSceneCache().players();
     }
 
     /**
@@ -40,7 +40,7 @@ public class PlayerQuery extends AbstractQuery<PlayerEntity, PlayerQuery, Player
      * @return PlayerQuery
      */
     public PlayerQuery interactingWith(Actor actor) {
-        return filter(p -> p.raw().isInteracting() && p.raw().getInteracting() == actor);
+        return filter(p -> p.raw().isInteracting() && p.raw().getInteracting() == actor, FilterCost.NORMAL);
     }
 
     /**
@@ -49,7 +49,7 @@ public class PlayerQuery extends AbstractQuery<PlayerEntity, PlayerQuery, Player
      * @return PlayerQuery
      */
     public PlayerQuery at(WorldPoint location) {
-        return filter(p -> p.raw().getWorldLocation().equals(location));
+        return spatial(index -> index.at(location), p -> p.raw().getWorldLocation().equals(location));
     }
 
     /**
@@ -65,7 +65,7 @@ public class PlayerQuery extends AbstractQuery<PlayerEntity, PlayerQuery, Player
         int y1 = minimum.getY();
         int y2 = max.getY();
 
-        return filter(p -> {
+        return spatial(index -> index.inArea(minimum, max), p -> {
             WorldPoint pt = p.raw().getWorldLocation();
             int x3 = pt.getX();
             int y3 = pt.getY();
@@ -85,7 +85,8 @@ public class PlayerQuery extends AbstractQuery<PlayerEntity, PlayerQuery, Player
      * @return PlayerQuery
      */
     public PlayerQuery withinDistance(int distance) {
-        return filter(p -> p.raw().getWorldLocation().distanceTo(ctx.getClient().getLocalPlayer().getWorldLocation()) <= distance);
+        return spatial(index -> index.within(ctx.getClient().getLocalPlayer().getWorldLocation(), distance),
+                p -> p.raw().getWorldLocation().distanceTo(ctx.getClient().getLocalPlayer().getWorldLocation()) <= distance);
     }
 
     /**
@@ -95,7 +96,7 @@ public class PlayerQuery extends AbstractQuery<PlayerEntity, PlayerQuery, Player
      * @return PlayerQuery
      */
     public PlayerQuery withinLevel(int low, int high) {
-        return filter(p -> p.raw().getCombatLevel() >= low && p.raw().getCombatLevel() <= high);
+        return filter(p -> p.raw().getCombatLevel() >= low && p.raw().getCombatLevel() <= high, FilterCost.NORMAL);
     }
 
     /**
@@ -109,7 +110,7 @@ public class PlayerQuery extends AbstractQuery<PlayerEntity, PlayerQuery, Player
             return empty();
         }
 
-        return filter(p -> p.raw().getCombatLevel() >= wildernessInfo.getMinAttackableCombatLevel() && p.raw().getCombatLevel() <= wildernessInfo.getMaxAttackableCombatLevel());
+        return filter(p -> p.raw().getCombatLevel() >= wildernessInfo.getMinAttackableCombatLevel() && p.raw().getCombatLevel() <= wildernessInfo.getMaxAttackableCombatLevel(), FilterCost.NORMAL);
     }
 
     /**
@@ -118,7 +119,7 @@ public class PlayerQuery extends AbstractQuery<PlayerEntity, PlayerQuery, Player
      * @return PlayerQuery
      */
     public PlayerQuery combatLevelGreaterThan(int level) {
-        return filter(player -> player.raw().getCombatLevel() > level);
+        return filter(player -> player.raw().getCombatLevel() > level, FilterCost.NORMAL);
     }
 
     /**
@@ -126,9 +127,14 @@ public class PlayerQuery extends AbstractQuery<PlayerEntity, PlayerQuery, Player
      * @return PlayerQuery
      */
     public PlayerEntity nearest() {
-        return sorted(Comparator.comparingInt(p ->
-                p.raw().getLocalLocation().distanceTo(ctx.getClient().getLocalPlayer().getLocalLocation())
-        )).first();
+        Player local = ctx.getClient().getLocalPlayer();
+        if (local == null) {
+            return null;
+        }
+
+        final LocalPoint playerLoc = local.getLocalLocation();
+        return findNearest(local.getWorldLocation(), p -> p.raw().getLocalLocation().distanceTo(playerLoc), Perspective.LOCAL_TILE_SIZE,
+                SpatialIndex.MOVEMENT_SLACK_TILES);
     }
 
     /**
@@ -0,0 +1,165 @@
+package com.kraken.api.query.scene;
+
+import com.kraken.api.core.Interactable;
+import lombok.Getter;
+import net.runelite.api.coords.WorldPoint;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+
+/**
+ * An immutable capture of a single type of scene entity (NPC's, players, game objects or ground items) taken at a
+ * specific game tick. Entities are stored in capture order and additionally indexed by their id, their name and their
+ * world location (see {@link SpatialIndex}) so that id, name and spatial lookups do not need to scan the entire scene.
+ * @param <T> The type of entity captured (e.g., NpcEntity, GameObjectEntity)
+ */
+public final class EntitySnapshot<T extends Interactable<?>> {
+    private static final EntitySnapshot<?> EMPTY = new EntitySnapshot<>(-1, -1, Collections.emptyList(), e -> null, e -> null);
+
+    /**
+     * The client tick count at which this snapshot was captured.
+     */
+    @Getter
+    private final int tick;
+
+    /**
+     * The plane of the top level world view at which this snapshot was captured.
+     */
+    @Getter
+    private final int plane;
+
+    private final List<T> entities;
+    private final Map<Integer, List<T>> byId;
+    private final Map<String, List<T>> byName;
+    private final Map<T, Integer> capturedIds;
+    private final Map<T, String> capturedNames;
+
+    /**
+     * The spatial index over the world locations of the entities at capture time.
+     */
+    @Getter
+    private final SpatialIndex<T> index;
+
+    /**
+     * Creates a new snapshot.
+     * @param tick The client tick count at capture time
+     * @param plane The plane of the world view at capture time
+     * @param entities The captured entities in capture order
+     * @param locator A function returning the world location of an entity
+     * @param namer A function returning the name of an entity, used to build the name index
+     */
+    public EntitySnapshot(int tick, int plane, List<T> entities, Function<T, WorldPoint> locator, Function<T, String> namer) {
+        this(tick, plane, entities, locator, namer, null);
+    }
+
+    /**
+     * Creates a new snapshot of entities which may span several tiles.
+     * @param tick The client tick count at capture time
+     * @param plane The plane of the world view at capture time
+     * @param entities The captured entities in capture order
+     * @param locator A function returning the world location of an entity
+     * @param namer A function returning the name of an entity, used to build the name index
+     * @param sizer A function returning the size in tiles of an entity, see {@link SpatialIndex}
+     */
+    public EntitySnapshot(int tick, int plane, List<T> entities, Function<T, WorldPoint> locator, Function<T, String> namer,
+                          ToIntFunction<T> sizer) {
+        this.tick = tick;
+        this.plane = plane;
+        this.entities = Collections.unmodifiableList(entities);
+
+        Map<Integer, List<T>> ids = new HashMap<>();
+        Map<String, List<T>> names = new HashMap<>();
+        Map<T, Integer> entityIds = new IdentityHashMap<>(entities.size());
+        Map<T, String> entityNames = new IdentityHashMap<>(entities.size());
+        for (T entity : entities) {
+            int id = entity.getId();
+            ids.computeIfAbsent(id, k -> new ArrayList<>(1)).add(entity);
+            entityIds.put(entity, id);
+            String name = namer.apply(entity);
+            if (name != null) {
+                names.computeIfAbsent(name.toLowerCase(), k -> new ArrayList<>(1)).add(entity);
+                entityNames.put(entity, name);
+            }
+        }
+        this.byId = ids;
+        this.byName = names;
+        this.capturedIds = entityIds;
+        this.capturedNames = entityNames;
+        this.index = new SpatialIndex<>(this.entities, locator, sizer);
+    }
+
+    /**
+     * Returns an empty snapshot. This is used when the client is not logged in or the scene is unavailable.
+     * @param <T> The type of entity
+     * @return An empty snapshot which is always considered stale.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Interactable<?>> EntitySnapshot<T> empty() {
+        return (EntitySnapshot<T>) EMPTY;
+    }
+
+    /**
+     * Returns all entities captured in this snapshot.
+     * @return An unmodifiable list of entities
+     */
+    public List<T> all() {
+        return entities;
+    }
+
+    /**
+     * Returns all entities captured in this snapshot which have the provided id.
+     * @param id The id of the entity
+     * @return An unmodifiable list of entities with the given id, or an empty list if none exist.
+     */
+    public List<T> withId(int id) {
+        List<T> matches = byId.get(id);
+        return matches == null ? Collections.emptyList() : Collections.unmodifiableList(matches);
+    }
+
+    /**
+     * Returns all entities captured in this snapshot whose name matches the provided name (case-insensitive).
+     * @param name The name of the entity
+     * @return An unmodifiable list of entities with the given name, or an empty list if none exist.
+     */
+    public List<T> withName(String name) {
+        List<T> matches = name == null ? null : byName.get(name.toLowerCase());
+        return matches == null ? Collections.emptyList() : Collections.unmodifiableList(matches);
+    }
+
+    /**
+     * Returns the id an entity had when this snapshot was captured, read without going through the client.
+     * @param entity An entity from this snapshot
+     * @return The captured id, or -1 if the entity is not part of this snapshot
+     */
+    public int idOf(T entity) {
+        Integer id = capturedIds.get(entity);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns the name an entity had when this snapshot was captured, read without going through the client.
+     * @param entity An entity from this snapshot
+     * @return The captured name, or null if the entity has no name or is not part of this snapshot
+     */
+    public String nameOf(T entity) {
+        return capturedNames.get(entity);
+    }
+
+    /**
+     * Returns a new stream over the entities in this snapshot.
+     * @return Stream of entities
+     */
+    public Stream<T> stream() {
+        return entities.stream();
+    }
+
+    /**
+     * The number of entities in this snapshot.
+     * @return int size
+     */
+    public int size() {
+        return entities.size();
+    }
+}
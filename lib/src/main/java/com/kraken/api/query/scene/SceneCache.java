@@ -0,0 +1,283 @@
+package com.kraken.api.query.scene;
+
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+import com.kraken.api.Context;
+import com.kraken.api.core.Interactable;
+import com.kraken.api.query.gameobject.GameObjectEntity;
+import com.kraken.api.query.groundobject.GroundItem;
+import com.kraken.api.query.groundobject.GroundObjectEntity;
+import com.kraken.api.query.npc.NpcEntity;
+import com.kraken.api.query.player.PlayerEntity;
+import net.runelite.api.*;
+import net.runelite.api.coords.WorldPoint;
+import net.runelite.api.events.*;
+import net.runelite.client.eventbus.Subscribe;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * A tick scoped cache of the entities within the scene. Rather than every query reading the scene (or the NPC and
+ * player lists) and wrapping each raw RuneLite object in a new entity, the first query in a game tick captures
+ * an {@link EntitySnapshot} on the client thread and every subsequent query within the same tick reads from that capture.
+ * Game objects and ground items are captured from the event driven {@link TileObjectRegistry} so a capture never needs
+ * to walk the tiles of the scene.
+ * <p>
+ * Snapshots are invalidated when a new {@code GameTick} fires, when the game state changes, and when an entity of the
+ * relevant type spawns or despawns. Each entity type is captured and invalidated independently so that, for example,
+ * an NPC spawning does not force game objects to be re-captured.
+ * <p>
+ * The entities within a snapshot still wrap the live RuneLite objects so properties like location, animation and
+ * interacting target are always current even though the set of entities is cached. Because entities only move on game
+ * ticks, the spatial index built alongside each capture stays accurate for the lifetime of the snapshot.
+ */
+@Singleton
+public class SceneCache {
+
+    // Matches the order game objects were discovered in when walking the scene tile by tile
+    private static final Comparator<GameObjectEntity> SCENE_ORDER = Comparator
+            .<GameObjectEntity>comparingInt(e -> e.raw().getSceneMinLocation().getX())
+            .thenComparingInt(e -> e.raw().getSceneMinLocation().getY());
+
+    @Inject
+    private Provider<Context> ctxProvider;
+
+    @Inject
+    private TileObjectRegistry registry;
+
+    private final Section<GameObjectEntity> gameObjects = new Section<>(this::captureGameObjects,
+            e -> e.raw().getWorldLocation(), e -> registry.gameObjects().nameOf(e.raw()));
+    // NPC's are located by their south-west tile but measured from their centre, so the index needs their size
+    private final Section<NpcEntity> npcs = new Section<>(this::captureNpcs,
+            e -> e.raw().getWorldLocation(), e -> e.raw().getName(), SceneCache::npcSize);
+    private final Section<PlayerEntity> players = new Section<>(this::capturePlayers,
+            e -> e.raw().getWorldLocation(), e -> e.raw().getName());
+    private final Section<GroundObjectEntity> groundItems = new Section<>(this::captureGroundItems,
+            e -> e.raw().getLocation(), e -> e.raw().getName());
+
+    /**
+     * Returns the game objects within the current scene for this tick.
+     * @return Snapshot of game objects
+     */
+    public EntitySnapshot<GameObjectEntity> gameObjects() {
+        return gameObjects.get();
+    }
+
+    /**
+     * Returns the NPC's within the current scene for this tick.
+     * @return Snapshot of NPC's
+     */
+    public EntitySnapshot<NpcEntity> npcs() {
+        return npcs.get();
+    }
+
+    /**
+     * Returns the players (excluding the local player) within the current scene for this tick.
+     * @return Snapshot of players
+     */
+    public EntitySnapshot<PlayerEntity> players() {
+        return players.get();
+    }
+
+    /**
+     * Returns the ground items within the current scene for this tick.
+     * @return Snapshot of ground items
+     */
+    public EntitySnapshot<GroundObjectEntity> groundItems() {
+        return groundItems.get();
+    }
+
+    /**
+     * Invalidates every snapshot forcing the next query of each type to re-capture the scene.
+     */
+    public void invalidateAll() {
+        gameObjects.invalidate();
+        npcs.invalidate();
+        players.invalidate();
+        groundItems.invalidate();
+    }
+
+    @Subscribe
+    public void onGameTick(GameTick event) {
+        invalidateAll();
+    }
+
+    @Subscribe
+    public void onGameStateChanged(GameStateChanged event) {
+        invalidateAll();
+    }
+
+    @Subscribe
+    public void onGameObjectSpawned(GameObjectSpawned event) {
+        gameObjects.invalidate();
+    }
+
+    @Subscribe
+    public void onGameObjectDespawned(GameObjectDespawned event) {
+        gameObjects.invalidate();
+    }
+
+    @Subscribe
+    public void onNpcSpawned(NpcSpawned event) {
+        npcs.invalidate();
+    }
+
+    @Subscribe
+    public void onNpcDespawned(NpcDespawned event) {
+        npcs.invalidate();
+    }
+
+    @Subscribe
+    public void onPlayerSpawned(PlayerSpawned event) {
+        players.invalidate();
+    }
+
+    @Subscribe
+    public void onPlayerDespawned(PlayerDespawned event) {
+        players.invalidate();
+    }
+
+    @Subscribe
+    public void onItemSpawned(ItemSpawned event) {
+        groundItems.invalidate();
+    }
+
+    @Subscribe
+    public void onItemDespawned(ItemDespawned event) {
+        groundItems.invalidate();
+    }
+
+    private List<GameObjectEntity> captureGameObjects(WorldView worldView) {
+        Context ctx = ctxProvider.get();
+        int plane = worldView.getPlane();
+        List<GameObjectEntity> captured = new ArrayList<>();
+        for (GameObject gameObject : registry.gameObjects().all()) {
+            if (gameObject.getPlane() != plane) continue;
+            captured.add(new GameObjectEntity(ctx, gameObject));
+        }
+
+        captured.sort(SCENE_ORDER);
+        return captured;
+    }
+
+    private static int npcSize(NpcEntity npc) {
+        NPCComposition composition = npc.raw().getComposition();
+        return composition == null ? 1 : composition.getSize();
+    }
+
+    private List<NpcEntity> captureNpcs(WorldView worldView) {
+        Context ctx = ctxProvider.get();
+        List<NpcEntity> captured = new ArrayList<>();
+        for (NPC npc : worldView.npcs()) {
+            if (npc == null || npc.getName() == null || npc.getId() == -1) continue;
+            captured.add(new NpcEntity(ctx, npc));
+        }
+        return captured;
+    }
+
+    private List<PlayerEntity> capturePlayers(WorldView worldView) {
+        Context ctx = ctxProvider.get();
+        Player local = ctx.getClient().getLocalPlayer();
+        String localName = local != null ? local.getName() : null;
+        List<PlayerEntity> captured = new ArrayList<>();
+        for (Player player : worldView.players()) {
+            // Do not include the local player by default
+            if (player == null || player.getName() == null || player.getName().equalsIgnoreCase(localName)) continue;
+            captured.add(new PlayerEntity(ctx, player));
+        }
+        return captured;
+    }
+
+    private List<GroundObjectEntity> captureGroundItems(WorldView worldView) {
+        Context ctx = ctxProvider.get();
+        int tickCount = ctx.getClient().getTickCount();
+        int plane = worldView.getPlane();
+        List<GroundObjectEntity> captured = new ArrayList<>();
+        for (Map.Entry<TileItem, Tile> entry : registry.groundItems().entrySet()) {
+            Tile tile = entry.getValue();
+            if (tile.getPlane() != plane) continue;
+            GroundItem groundItem = GroundItem.fromTileItem(ctx, tile, entry.getKey(), tickCount);
+            if (groundItem != null) {
+                captured.add(new GroundObjectEntity(ctx, groundItem));
+            }
+        }
+
+        return captured;
+    }
+
+    /**
+     * A lazily captured snapshot for a single entity type. The generation counter guards against a capture which
+     * started before an invalidation from overwriting the invalidation once it completes.
+     * @param <T> The type of entity
+     */
+    private final class Section<T extends Interactable<?>> {
+        private final Function<WorldView, List<T>> capturer;
+        private final Function<T, WorldPoint> locator;
+        private final Function<T, String> namer;
+        private final ToIntFunction<T> sizer;
+        private volatile EntitySnapshot<T> snapshot;
+        private int generation = 0;
+
+        Section(Function<WorldView, List<T>> capturer, Function<T, WorldPoint> locator, Function<T, String> namer) {
+            this(capturer, locator, namer, null);
+        }
+
+        Section(Function<WorldView, List<T>> capturer, Function<T, WorldPoint> locator, Function<T, String> namer,
+                ToIntFunction<T> sizer) {
+            this.capturer = capturer;
+            this.locator = locator;
+            this.namer = namer;
+            this.sizer = sizer;
+        }
+
+        EntitySnapshot<T> get() {
+            Context ctx = ctxProvider.get();
+            Client client = ctx.getClient();
+            EntitySnapshot<T> current = snapshot;
+
+            // Guard against missed events i.e. a plane change or the cache being used before it was registered
+            if (current != null && current.getTick() == client.getTickCount()
+                    && client.getTopLevelWorldView() != null
+                    && current.getPlane() == client.getTopLevelWorldView().getPlane()) {
+                return current;
+            }
+
+            final int expectedGeneration;
+            synchronized (this) {
+                expectedGeneration = generation;
+            }
+
+            EntitySnapshot<T> captured = ctx.runOnClientThread(() -> {
+                WorldView worldView = client.getTopLevelWorldView();
+                if (worldView == null) {
+                    return null;
+                }
+
+                return new EntitySnapshot<>(client.getTickCount(), worldView.getPlane(), capturer.apply(worldView), locator, namer, sizer);
+            });
+
+            if (captured == null) {
+                return EntitySnapshot.empty();
+            }
+
+            synchronized (this) {
+                if (generation == expectedGeneration) {
+                    snapshot = captured;
+                }
+            }
+
+            return captured;
+        }
+
+        synchronized void invalidate() {
+            generation++;
+            snapshot = null;
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.kraken.api.query.scene;
+
+import net.runelite.api.coords.WorldPoint;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * A uniform grid spatial index over the world locations of a set of scene entities. Entities are placed into square
+ * buckets of {@link #BUCKET_SIZE} tiles so that radius, rectangle, exact tile and k-nearest lookups only visit the
+ * buckets overlapping the query region rather than every entity in the scene.
+ * <p>
+ * The index is immutable and built once per {@link EntitySnapshot}. Results are always returned in the order the
+ * entities were captured in so that lookups produce the same ordering as a linear scan over the snapshot would.
+ * @param <T> The type of entity being indexed
+ */
+public final class SpatialIndex<T> {
+    /**
+     * The width and height (in tiles) of a single bucket.
+     */
+    public static final int BUCKET_SIZE = 8;
+
+    /**
+     * How far (in tiles) the local position of a moving actor may trail its world location, for both the origin and
+     * the entity of a {@link #nearest} search. A running actor's local position is interpolated up to two tiles behind
+     * the world location it is indexed at.
+     */
+    public static final int MOVEMENT_SLACK_TILES = 4;
+
+    private final List<T> entities;
+    private final int[] xs;
+    private final int[] ys;
+    private final int[] planes;
+    private final int maxSize;
+
+    private final int originX;
+    private final int originY;
+    private final int columns;
+    private final int rows;
+
+    // Compressed bucket storage: the members of bucket b are members[offsets[b]] to members[offsets[b + 1] - 1]
+    private final int[] offsets;
+    private final int[] members;
+
+    /**
+     * Builds a new spatial index of single tile entities. Entities whose location cannot be determined are not indexed
+     * and will never be returned from a lookup.
+     * @param entities The entities to index
+     * @param locator A function returning the world location of an entity
+     */
+    public SpatialIndex(List<T> entities, Function<T, WorldPoint> locator) {
+        this(entities, locator, null);
+    }
+
+    /**
+     * Builds a new spatial index. Entities whose location cannot be determined are not indexed and will never
+     * be returned from a lookup.
+     * @param entities The entities to index
+     * @param locator A function returning the world location of an entity
+     * @param sizer A function returning the size in tiles of an entity located by its south-west tile, or null if every
+     *              entity is located by the point its distance is measured from
+     */
+    public SpatialIndex(List<T> entities, Function<T, WorldPoint> locator, ToIntFunction<T> sizer) {
+        this.entities = entities;
+        int size = entities.size();
+        this.xs = new int[size];
+        this.ys = new int[size];
+        this.planes = new int[size];
+
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+        boolean[] located = new boolean[size];
+        int largest = 1;
+
+        for (int i = 0; i < size; i++) {
+            WorldPoint point = locator.apply(entities.get(i));
+            if (point == null) {
+                continue;
+            }
+
+            located[i] = true;
+            xs[i] = point.getX();
+            ys[i] = point.getY();
+            planes[i] = point.getPlane();
+            minX = Math.min(minX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxX = Math.max(maxX, xs[i]);
+            maxY = Math.max(maxY, ys[i]);
+            if (sizer != null) {
+                largest = Math.max(largest, sizer.applyAsInt(entities.get(i)));
+            }
+        }
+        this.maxSize = largest;
+
+        if (minX == Integer.MAX_VALUE) {
+            this.originX = 0;
+            this.originY = 0;
+            this.columns = 0;
+            this.rows = 0;
+            this.offsets = new int[1];
+            this.members = new int[0];
+            return;
+        }
+
+        this.originX = minX;
+        this.originY = minY;
+        this.columns = (maxX - minX) / BUCKET_SIZE + 1;
+        this.rows = (maxY - minY) / BUCKET_SIZE + 1;
+
+        int bucketCount = columns * rows;
+        int[] counts = new int[bucketCount + 1];
+        for (int i = 0; i < size; i++) {
+            if (located[i]) {
+                counts[bucketOf(xs[i], ys[i]) + 1]++;
+            }
+        }
+
+        for (int b = 0; b < bucketCount; b++) {
+            counts[b + 1] += counts[b];
+        }
+
+        this.offsets = counts.clone();
+        this.members = new int[counts[bucketCount]];
+
+        // Filling in ordinal order keeps every bucket sorted by capture order
+        int[] cursor = counts;
+        for (int i = 0; i < size; i++) {
+            if (located[i]) {
+                members[cursor[bucketOf(xs[i], ys[i])]++] = i;
+            }
+        }
+    }
+
+    /**
+     * Returns the entities located on the exact tile.
+     * @param point The world point to check
+     * @return List of entities on the tile
+     */
+    public List<T> at(WorldPoint point) {
+        return within(point, 0);
+    }
+
+    /**
+     * Returns the entities on the same plane as the anchor whose chebyshev (tile) distance from the anchor is
+     * less than or equal to the radius. This matches the semantics of {@link WorldPoint#distanceTo(WorldPoint)}.
+     * @param anchor The center of the search
+     * @param radius The radius of the search in tiles
+     * @return List of entities within the radius
+     */
+    public List<T> within(WorldPoint anchor, int radius) {
+        if (anchor == null || radius < 0) {
+            return Collections.emptyList();
+        }
+
+        return collect(anchor.getX() - radius, anchor.getY() - radius, anchor.getX() + radius, anchor.getY() + radius, anchor.getPlane());
+    }
+
+    /**
+     * Returns the entities whose location falls within the rectangle (inclusive) regardless of plane. The corners
+     * may be provided in any order.
+     * @param a One corner of the rectangle
+     * @param b The opposite corner of the rectangle
+     * @return List of entities within the rectangle
+     */
+    public List<T> inArea(WorldPoint a, WorldPoint b) {
+        if (a == null || b == null) {
+            return Collections.emptyList();
+        }
+
+        return collect(Math.min(a.getX(), b.getX()), Math.min(a.getY(), b.getY()),
+                Math.max(a.getX(), b.getX()), Math.max(a.getY(), b.getY()), -1);
+    }
+
+    /**
+     * Finds the {@code k} entities matching the filter with the smallest distance from the origin. Buckets are visited
+     * in rings of increasing distance from the origin and the search terminates as soon as no bucket in the next ring
+     * could contain an entity closer than the current k-th best match.
+     * <p>
+     * Ties are broken by capture order so the results are identical to sorting the full snapshot by distance and taking
+     * the first {@code k} elements.
+     *
+     * @param origin The origin of the search
+     * @param k The maximum number of entities to return
+     * @param filter A predicate entities must match to be considered
+     * @param distance The distance metric to minimize
+     * @param unitsPerTile How many units of {@code distance} a single tile represents i.e. 1 for world distances and
+     *                     {@code Perspective.LOCAL_TILE_SIZE} for local distances.
+     * @param slackTiles How far in tiles the points {@code distance} measures between may be from the origin and the
+     *                   entities' indexed locations combined, aside from the size of large entities, e.g.
+     *                   {@link #MOVEMENT_SLACK_TILES} for local distances between actors and 0 for world distances
+     * @return Up to k entities ordered from nearest to furthest
+     */
+    public List<T> nearest(WorldPoint origin, int k, Predicate<T> filter, ToIntFunction<T> distance, int unitsPerTile, int slackTiles) {
+        if (origin == null || k <= 0 || members.length == 0) {
+            return Collections.emptyList();
+        }
+
+        // Max heap on (distance, ordinal) so the worst of the current best k sits at the head
+        PriorityQueue<long[]> best = new PriorityQueue<>(Math.min(k, 16) + 1, (l, r) -> {
+            int cmp = Long.compare(r[0], l[0]);
+            return cmp != 0 ? cmp : Long.compare(r[1], l[1]);
+        });
+
+        int cx = Math.floorDiv(origin.getX() - originX, BUCKET_SIZE);
+        int cy = Math.floorDiv(origin.getY() - originY, BUCKET_SIZE);
+        int maxRing = Math.max(Math.max(Math.abs(cx), Math.abs(columns - 1 - cx)), Math.max(Math.abs(cy), Math.abs(rows - 1 - cy)));
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int by = Math.max(0, cy - ring); by <= Math.min(rows - 1, cy + ring); by++) {
+                boolean edgeRow = by == cy - ring || by == cy + ring;
+                for (int bx = Math.max(0, cx - ring); bx <= Math.min(columns - 1, cx + ring); bx++) {
+                    // Interior rows of a ring only contain its left and right most buckets
+                    if (!edgeRow && bx != cx - ring && bx != cx + ring) {
+                        bx = cx + ring - 1;
+                        continue;
+                    }
+
+                    int bucket = by * columns + bx;
+                    for (int m = offsets[bucket]; m < offsets[bucket + 1]; m++) {
+                        int ordinal = members[m];
+                        T entity = entities.get(ordinal);
+                        if (!filter.test(entity)) continue;
+                        best.offer(new long[]{distance.applyAsInt(entity), ordinal});
+                        if (best.size() > k) {
+                            best.poll();
+                        }
+                    }
+                }
+            }
+
+            // Anything in the next ring is indexed at least ring * BUCKET_SIZE + 1 tiles away. The point its distance
+            // is measured from can be closer by the slack and, for an entity indexed by its south-west tile, by up
+            // to half the size of the largest entity.
+            if (best.size() == k) {
+                long nextRingLowerBound = ((long) ring * BUCKET_SIZE + 1 - slackTiles - maxSize / 2) * unitsPerTile;
+                if (nextRingLowerBound > best.peek()[0]) {
+                    break;
+                }
+            }
+        }
+
+        List<long[]> ordered = new ArrayList<>(best);
+        ordered.sort((l, r) -> {
+            int cmp = Long.compare(l[0], r[0]);
+            return cmp != 0 ? cmp : Long.compare(l[1], r[1]);
+        });
+
+        List<T> results = new ArrayList<>(ordered.size());
+        for (long[] entry : ordered) {
+            results.add(entities.get((int) entry[1]));
+        }
+        return results;
+    }
+
+    private List<T> collect(int minX, int minY, int maxX, int maxY, int plane) {
+        if (members.length == 0) {
+            return Collections.emptyList();
+        }
+
+        int fromColumn = Math.max(0, Math.floorDiv(minX - originX, BUCKET_SIZE));
+        int toColumn = Math.min(columns - 1, Math.floorDiv(maxX - originX, BUCKET_SIZE));
+        int fromRow = Math.max(0, Math.floorDiv(minY - originY, BUCKET_SIZE));
+        int toRow = Math.min(rows - 1, Math.floorDiv(maxY - originY, BUCKET_SIZE));
+
+        if (fromColumn > toColumn || fromRow > toRow) {
+            return Collections.emptyList();
+        }
+
+        int[] matched = new int[8];
+        int count = 0;
+        for (int by = fromRow; by <= toRow; by++) {
+            for (int bx = fromColumn; bx <= toColumn; bx++) {
+                int bucket = by * columns + bx;
+                for (int m = offsets[bucket]; m < offsets[bucket + 1]; m++) {
+                    int ordinal = members[m];
+                    if (xs[ordinal] < minX || xs[ordinal] > maxX || ys[ordinal] < minY || ys[ordinal] > maxY) continue;
+                    if (plane != -1 && planes[ordinal] != plane) continue;
+                    if (count == matched.length) {
+                        matched = Arrays.copyOf(matched, count * 2);
+                    }
+                    matched[count++] = ordinal;
+                }
+            }
+        }
+
+        // Buckets are individually ordered, restore the global capture order across buckets
+        Arrays.sort(matched, 0, count);
+        List<T> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            results.add(entities.get(matched[i]));
+        }
+        return results;
+    }
+
+    private int bucketOf(int x, int y) {
+        return ((y - originY) / BUCKET_SIZE) * columns + (x - originX) / BUCKET_SIZE;
+    }
+}
@@ -0,0 +1,152 @@
+package com.kraken.api.query.scene;
+
+import net.runelite.api.Client;
+import net.runelite.api.ObjectComposition;
+import net.runelite.api.TileObject;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A live, id and name indexed set of a single type of {@link TileObject}. Instances are maintained by the
+ * {@link TileObjectRegistry} from spawn and despawn events.
+ * <p>
+ * Names are resolved once from the object's composition when it spawns. Objects whose composition has impostors
+ * (i.e. objects which transform based on a varbit like farming patches or agility shortcuts) can change their name
+ * without a spawn event, so those objects are tracked separately and their name is resolved live on every lookup.
+ * Name lookups should therefore be made on the client thread.
+ * @param <O> The type of tile object
+ */
+public final class TileObjectIndex<O extends TileObject> {
+    private final Client client;
+    private final Set<O> all = ConcurrentHashMap.newKeySet();
+    private final Map<Integer, Set<O>> byId = new ConcurrentHashMap<>();
+    private final Map<String, Set<O>> byName = new ConcurrentHashMap<>();
+    private final Map<O, String> names = new ConcurrentHashMap<>();
+    private final Set<O> transforming = ConcurrentHashMap.newKeySet();
+
+    TileObjectIndex(Client client) {
+        this.client = client;
+    }
+
+    /**
+     * Returns every tracked object.
+     * @return An unmodifiable view of the tracked objects
+     */
+    public Set<O> all() {
+        return Collections.unmodifiableSet(all);
+    }
+
+    /**
+     * Returns every tracked object with the given id.
+     * @param id The object id
+     * @return Objects with the id, or an empty set if none exist
+     */
+    public Set<O> withId(int id) {
+        Set<O> matches = byId.get(id);
+        return matches == null ? Collections.emptySet() : Collections.unmodifiableSet(matches);
+    }
+
+    /**
+     * Returns every tracked object whose name matches the provided name (case-insensitive). Transforming objects
+     * are checked against their current impostor name.
+     * @param name The object name
+     * @return Objects with the name
+     */
+    public List<O> withName(String name) {
+        if (name == null) {
+            return Collections.emptyList();
+        }
+
+        String key = name.toLowerCase();
+        Set<O> matches = byName.get(key);
+        List<O> results = matches == null ? new ArrayList<>() : new ArrayList<>(matches);
+        for (O object : transforming) {
+            if (key.equals(normalize(nameOf(object)))) {
+                results.add(object);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Returns the name of a tracked object. For transforming objects this is the name of the current impostor, or the
+     * name of the base definition if there is no current impostor, matching
+     * {@link com.kraken.api.query.gameobject.GameObjectEntity#getObjectComposition()}.
+     * @param object The object
+     * @return The object name or null if the object has no name
+     */
+    public String nameOf(O object) {
+        if (transforming.contains(object)) {
+            ObjectComposition def = client.getObjectDefinition(object.getId());
+            if (def == null) {
+                return null;
+            }
+
+            ObjectComposition impostor = def.getImpostorIds() != null ? def.getImpostor() : null;
+            return impostor != null ? impostor.getName() : def.getName();
+        }
+
+        return names.get(object);
+    }
+
+    /**
+     * The number of tracked objects.
+     * @return int size
+     */
+    public int size() {
+        return all.size();
+    }
+
+    void add(O object) {
+        if (object == null || object.getId() == -1 || !all.add(object)) {
+            return;
+        }
+
+        byId.computeIfAbsent(object.getId(), k -> ConcurrentHashMap.newKeySet()).add(object);
+
+        ObjectComposition def = client.getObjectDefinition(object.getId());
+        if (def != null && def.getImpostorIds() != null) {
+            transforming.add(object);
+            return;
+        }
+
+        String name = def != null ? def.getName() : null;
+        if (name != null) {
+            names.put(object, name);
+            byName.computeIfAbsent(normalize(name), k -> ConcurrentHashMap.newKeySet()).add(object);
+        }
+    }
+
+    void remove(O object) {
+        if (object == null || !all.remove(object)) {
+            return;
+        }
+
+        removeFrom(byId, object.getId(), object);
+        transforming.remove(object);
+        String name = names.remove(object);
+        if (name != null) {
+            removeFrom(byName, normalize(name), object);
+        }
+    }
+
+    void clear() {
+        all.clear();
+        byId.clear();
+        byName.clear();
+        names.clear();
+        transforming.clear();
+    }
+
+    private static String normalize(String name) {
+        return name == null ? null : name.toLowerCase();
+    }
+
+    private static <K, V> void removeFrom(Map<K, Set<V>> index, K key, V value) {
+        index.computeIfPresent(key, (k, set) -> {
+            set.remove(value);
+            return set.isEmpty() ? null : set;
+        });
+    }
+}
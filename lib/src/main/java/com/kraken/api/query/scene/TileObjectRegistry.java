@@ -0,0 +1,163 @@
+package com.kraken.api.query.scene;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.*;
+import net.runelite.api.events.*;
+import net.runelite.client.eventbus.Subscribe;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An event driven registry of the game objects (trees, rocks, bank booths, etc...) and ground items (items lying on a
+ * tile which can be picked up) within the loaded scene. Rather than rediscovering objects by iterating every tile of the
+ * scene, the registry is updated incrementally from RuneLite's spawn and despawn events and keeps an id and name indexed
+ * view of each.
+ * <p>
+ * The registry is cleared when the scene begins {@code LOADING} and fully resynchronized from the scene once the client
+ * is logged in again. A resync also happens lazily the first time the registry is read after being created while the
+ * client was already logged in.
+ */
+@Slf4j
+@Singleton
+public class TileObjectRegistry {
+
+    private final Client client;
+    private final TileObjectIndex<GameObject> gameObjects;
+
+    private final Map<TileItem, Tile> groundItems = new ConcurrentHashMap<>();
+    private final Map<Integer, Set<TileItem>> groundItemsById = new ConcurrentHashMap<>();
+
+    private volatile boolean synced = false;
+
+    @Inject
+    public TileObjectRegistry(final Client client) {
+        this.client = client;
+        this.gameObjects = new TileObjectIndex<>(client);
+    }
+
+    /**
+     * Returns the index of game objects within the scene (all planes).
+     * @return Game object index
+     */
+    public TileObjectIndex<GameObject> gameObjects() {
+        ensureSynced();
+        return gameObjects;
+    }
+
+    /**
+     * Returns every ground item within the scene (all planes) mapped to the tile it is on.
+     * @return An unmodifiable view of ground items and their tiles
+     */
+    public Map<TileItem, Tile> groundItems() {
+        ensureSynced();
+        return Collections.unmodifiableMap(groundItems);
+    }
+
+    /**
+     * Returns every ground item within the scene with the given item id.
+     * @param id The item id
+     * @return Ground items with the id, or an empty set if none exist
+     */
+    public Set<TileItem> groundItemsWithId(int id) {
+        ensureSynced();
+        Set<TileItem> matches = groundItemsById.get(id);
+        return matches == null ? Collections.emptySet() : Collections.unmodifiableSet(matches);
+    }
+
+    @Subscribe
+    public void onGameStateChanged(GameStateChanged event) {
+        if (event.getGameState() == GameState.LOADING) {
+            clear();
+            synced = false;
+        } else if (event.getGameState() == GameState.LOGGED_IN && !synced) {
+            resync();
+        }
+    }
+
+    @Subscribe
+    public void onGameObjectSpawned(GameObjectSpawned event) {
+        gameObjects.add(event.getGameObject());
+    }
+
+    @Subscribe
+    public void onGameObjectDespawned(GameObjectDespawned event) {
+        gameObjects.remove(event.getGameObject());
+    }
+
+    @Subscribe
+    public void onItemSpawned(ItemSpawned event) {
+        addItem(event.getTile(), event.getItem());
+    }
+
+    @Subscribe
+    public void onItemDespawned(ItemDespawned event) {
+        TileItem item = event.getItem();
+        if (item == null || groundItems.remove(item) == null) {
+            return;
+        }
+
+        groundItemsById.computeIfPresent(item.getId(), (k, set) -> {
+            set.remove(item);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    /**
+     * Discards the registry contents and rebuilds them by walking every tile on every plane of the scene. This
+     * must be called on the client thread.
+     */
+    public void resync() {
+        WorldView worldView = client.getTopLevelWorldView();
+        if (worldView == null || worldView.getScene() == null) {
+            return;
+        }
+
+        clear();
+        for (Tile[][] plane : worldView.getScene().getTiles()) {
+            if (plane == null) continue;
+            for (Tile[] tiles : plane) {
+                if (tiles == null) continue;
+                for (Tile tile : tiles) {
+                    if (tile == null) continue;
+
+                    for (GameObject gameObject : tile.getGameObjects()) {
+                        gameObjects.add(gameObject);
+                    }
+
+                    if (tile.getGroundItems() != null) {
+                        for (TileItem item : tile.getGroundItems()) {
+                            addItem(tile, item);
+                        }
+                    }
+                }
+            }
+        }
+
+        synced = true;
+        log.debug("Resynced tile object registry: {} game objects, {} ground items", gameObjects.size(), groundItems.size());
+    }
+
+    private void ensureSynced() {
+        if (!synced && client.isClientThread() && client.getGameState() == GameState.LOGGED_IN) {
+            resync();
+        }
+    }
+
+    private void addItem(Tile tile, TileItem item) {
+        if (tile == null || item == null) {
+            return;
+        }
+
+        groundItems.put(item, tile);
+        groundItemsById.computeIfAbsent(item.getId(), k -> ConcurrentHashMap.newKeySet()).add(item);
+    }
+
+    private void clear() {
+        gameObjects.clear();
+        groundItems.clear();
+        groundItemsById.clear();
+    }
+}
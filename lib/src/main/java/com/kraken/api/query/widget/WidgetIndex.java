@@ -0,0 +1,261 @@
+package com.kraken.api.query.widget;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.kraken.api.util.StringUtils;
+import net.runelite.api.Client;
+import net.runelite.api.ScriptEvent;
+import net.runelite.api.WidgetNode;
+import net.runelite.api.events.GameStateChanged;
+import net.runelite.api.events.GameTick;
+import net.runelite.api.events.ScriptPostFired;
+import net.runelite.api.events.WidgetClosed;
+import net.runelite.api.events.WidgetLoaded;
+import net.runelite.api.widgets.Widget;
+import net.runelite.client.eventbus.Subscribe;
+import net.runelite.client.util.Text;
+
+import java.util.*;
+
+/**
+ * An index of the widgets within every open interface keyed by packed id, interface group, text and action. Rather than
+ * walking the entire widget tree for each {@link WidgetQuery}, widgets are indexed one interface group at a time and
+ * lookups only visit the groups (and widgets) they could match.
+ * <p>
+ * A group is indexed lazily the first time it is queried and is dropped when it goes stale:
+ * <ul>
+ *     <li>{@code WidgetLoaded} and {@code WidgetClosed} drop the group and refresh the set of open interfaces</li>
+ *     <li>{@code ScriptPostFired} for a script run by a widget event (a listener such as onVarTransmit or onOp) drops
+ *     only the group of the widget which ran it, since that is the interface its script redraws</li>
+ *     <li>{@code ScriptPostFired} for a script without a source widget (run by the server) and {@code GameTick} drop
+ *     every group since those can add dynamic children or change text and actions on any interface</li>
+ * </ul>
+ * Dropped groups are only re-indexed when a query touches them, so repeated queries share one index until a script
+ * changes their interface. Every method must be called on the client thread.
+ */
+@Singleton
+public class WidgetIndex {
+    private static final int MAX_CHILDREN = 0xFFFF;
+
+    private final Client client;
+    private final Map<Integer, GroupIndex> groups = new HashMap<>();
+    private final Set<Integer> openGroups = new LinkedHashSet<>();
+
+    private boolean structureDirty = true;
+
+    @Inject
+    public WidgetIndex(final Client client) {
+        this.client = client;
+    }
+
+    /**
+     * Returns every widget in every open interface.
+     * @return List of widgets
+     */
+    public List<Widget> all() {
+        List<Widget> widgets = new ArrayList<>();
+        for (int groupId : openGroups()) {
+            widgets.addAll(group(groupId).all);
+        }
+        return widgets;
+    }
+
+    /**
+     * Returns every widget (static components and their dynamic children) in an interface group.
+     * @param groupId The interface group id
+     * @return List of widgets, empty if the interface is not open
+     */
+    public List<Widget> byGroup(int groupId) {
+        if (!openGroups().contains(groupId)) {
+            return Collections.emptyList();
+        }
+        return group(groupId).all;
+    }
+
+    /**
+     * Returns the widgets with a packed id. This is the component itself along with any dynamic children which share
+     * the component's packed id.
+     * @param packedId The packed widget id
+     * @return List of widgets, empty if the interface is not open
+     */
+    public List<Widget> byId(int packedId) {
+        int groupId = packedId >>> 16;
+        if (!openGroups().contains(groupId)) {
+            return Collections.emptyList();
+        }
+        return group(groupId).byId.getOrDefault(packedId, Collections.emptyList());
+    }
+
+    /**
+     * Returns the widgets whose text, name or one of whose actions matches the search, ignoring case and color tags.
+     * This is a superset of the widgets accepted by {@link WidgetEntity#matches(String, boolean)}.
+     * @param search The text to search for
+     * @param exact True if the text must match exactly otherwise widgets containing the text are returned
+     * @return List of widgets
+     */
+    public List<Widget> byText(String search, boolean exact) {
+        String key = search.toLowerCase();
+        Set<Widget> matches = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int groupId : openGroups()) {
+            GroupIndex index = group(groupId);
+            if (exact) {
+                matches.addAll(index.byText.getOrDefault(key, Collections.emptyList()));
+                continue;
+            }
+
+            for (Map.Entry<String, List<Widget>> entry : index.byText.entrySet()) {
+                if (entry.getKey().contains(key)) {
+                    matches.addAll(entry.getValue());
+                }
+            }
+        }
+        return new ArrayList<>(matches);
+    }
+
+    /**
+     * Returns the widgets with an action, ignoring case and tags.
+     * @param action The action to search for
+     * @return List of widgets
+     */
+    public List<Widget> byAction(String action) {
+        String key = Text.removeTags(action).toLowerCase();
+        List<Widget> matches = new ArrayList<>();
+        for (int groupId : openGroups()) {
+            matches.addAll(group(groupId).byAction.getOrDefault(key, Collections.emptyList()));
+        }
+        return matches;
+    }
+
+    @Subscribe
+    public void onWidgetLoaded(WidgetLoaded event) {
+        groups.remove(event.getGroupId());
+        structureDirty = true;
+    }
+
+    @Subscribe
+    public void onWidgetClosed(WidgetClosed event) {
+        groups.remove(event.getGroupId());
+        structureDirty = true;
+    }
+
+    @Subscribe
+    public void onScriptPostFired(ScriptPostFired event) {
+        ScriptEvent scriptEvent = event.getScriptEvent();
+        Widget source = scriptEvent == null ? null : scriptEvent.getSource();
+        if (source == null) {
+            groups.clear();
+            return;
+        }
+
+        groups.remove(source.getId() >>> 16);
+    }
+
+    @Subscribe
+    public void onGameTick(GameTick event) {
+        groups.clear();
+    }
+
+    @Subscribe
+    public void onGameStateChanged(GameStateChanged event) {
+        groups.clear();
+        structureDirty = true;
+    }
+
+    /**
+     * Returns the ids of the open interface groups: the top level interface and every interface mounted within it.
+     * @return Set of open group ids
+     */
+    private Set<Integer> openGroups() {
+        if (!structureDirty) {
+            return openGroups;
+        }
+
+        openGroups.clear();
+        int topLevel = client.getTopLevelInterfaceId();
+        if (topLevel != -1) {
+            openGroups.add(topLevel);
+        }
+
+        for (WidgetNode node : client.getComponentTable()) {
+            openGroups.add(node.getId());
+        }
+
+        groups.keySet().retainAll(openGroups);
+        structureDirty = false;
+        return openGroups;
+    }
+
+    private GroupIndex group(int groupId) {
+        GroupIndex index = groups.get(groupId);
+        if (index == null) {
+            index = build(groupId);
+            groups.put(groupId, index);
+        }
+        return index;
+    }
+
+    private GroupIndex build(int groupId) {
+        GroupIndex index = new GroupIndex();
+        for (int child = 0; child <= MAX_CHILDREN; child++) {
+            Widget widget = client.getWidget(groupId, child);
+            if (widget == null) {
+                break;
+            }
+            index.add(widget);
+        }
+        return index;
+    }
+
+    /**
+     * The widgets of a single interface group.
+     */
+    private static final class GroupIndex {
+        private final List<Widget> all = new ArrayList<>();
+        private final Map<Integer, List<Widget>> byId = new HashMap<>();
+        private final Map<String, List<Widget>> byText = new HashMap<>();
+        private final Map<String, List<Widget>> byAction = new HashMap<>();
+
+        private void add(Widget widget) {
+            all.add(widget);
+            byId.computeIfAbsent(widget.getId(), k -> new ArrayList<>()).add(widget);
+
+            put(byText, clean(widget.getText()), widget);
+            put(byText, clean(widget.getName()), widget);
+
+            String[] actions = widget.getActions();
+            if (actions != null) {
+                for (String action : actions) {
+                    if (action == null) {
+                        continue;
+                    }
+                    put(byText, clean(action), widget);
+                    put(byAction, Text.removeTags(action).toLowerCase(), widget);
+                }
+            }
+
+            Widget[] dynamicChildren = widget.getDynamicChildren();
+            if (dynamicChildren != null) {
+                for (Widget dynamicChild : dynamicChildren) {
+                    if (dynamicChild != null) {
+                        add(dynamicChild);
+                    }
+                }
+            }
+        }
+
+        private static String clean(String text) {
+            return text == null ? "" : StringUtils.stripColTags(text).toLowerCase();
+        }
+
+        private static void put(Map<String, List<Widget>> map, String key, Widget widget) {
+            if (key.isEmpty()) {
+                return;
+            }
+
+            List<Widget> widgets = map.computeIfAbsent(key, k -> new ArrayList<>());
+            if (widgets.isEmpty() || widgets.get(widgets.size() - 1) != widget) {
+                widgets.add(widget);
+            }
+        }
+    }
+}
@@ -8,13 +8,17 @@ import net.runelite.client.util.Text;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 public class WidgetQuery extends AbstractQuery<WidgetEntity, WidgetQuery, Widget> {
 
+    private final List<Function<WidgetIndex, List<Widget>>> lookups = new ArrayList<>();
+
     public WidgetQuery(Context ctx) {
         super(ctx);
     }
@@ -22,61 +26,36 @@ public class WidgetQuery extends AbstractQuery<WidgetEntity, WidgetQuery, Widget
     @Override
     protected Supplier<Stream<WidgetEntity>> source() {
         return () -> {
-            HashSet<Widget> widgets = new HashSet<>();
-            ArrayList<Widget> buffer = new ArrayList<>();
-            Widget[] currentQueue = ctx.getClient().getWidgetRoots();
-            while(currentQueue.length != 0) {
-                for (Widget widget : currentQueue) {
-                    if (widget == null) {
-                        continue;
-                    }
-
-                    widgets.add(widget);
-                    if (widget.getDynamicChildren() != null) {
-                        for (Widget dynamicChild : widget.getDynamicChildren()) {
-                            if (dynamicChild == null) {
-                                continue;
-                            }
-                            buffer.add(dynamicChild);
-                            widgets.add(dynamicChild);
-                        }
-                    }
-
-                    if (widget.getNestedChildren() != null) {
-                        for (Widget nestedChild : widget.getNestedChildren()) {
-                            if (nestedChild == null) {
-                                continue;
-                            }
-                            buffer.add(nestedChild);
-                            widgets.add(nestedChild);
-                        }
-                    }
-
-                    Widget[] staticChildren;
-                    try {
-                        staticChildren = widget.getStaticChildren();
-                    } catch (NullPointerException e) {
-                        continue;
-                    }
-
-                    if (staticChildren != null) {
-                        for (Widget staticChild : staticChildren) {
-                            if (staticChild == null) {
-                                continue;
-                            }
-                            buffer.add(staticChild);
-                            widgets.add(staticChild);
-                        }
-                    }
+            WidgetIndex index = ctx.getWidgetIndex();
+            List<Widget> widgets = null;
+            for (Function<WidgetIndex, List<Widget>> lookup : lookups) {
+                List<Widget> candidates = lookup.apply(index);
+                if (widgets == null || candidates.size() < widgets.size()) {
+                    widgets = candidates;
                 }
-                currentQueue = buffer.toArray(new Widget[]{});
-                buffer.clear();
+            }
+
+            if (widgets == null) {
+                widgets = index.all();
             }
 
             return widgets.stream().map(w -> new WidgetEntity(ctx, w));
         };
     }
 
+    /**
+     * Applies a filter whose candidates can be looked up from the {@link WidgetIndex}. The query only visits the widgets
+     * returned by the lookup (the smallest lookup when several are applied) rather than every widget in the client.
+     * The predicate is always applied as well so the lookup only needs to return a superset of the matching widgets.
+     * @param lookup A function returning the candidate widgets from the index
+     * @param predicate The exact predicate widgets must match
+     * @return WidgetQuery
+     */
+    private WidgetQuery fromIndex(Function<WidgetIndex, List<Widget>> lookup, Predicate<WidgetEntity> predicate) {
+        lookups.add(lookup);
+        return filter(predicate);
+    }
+
     /**
      * Returns a widget directly from the client. This can return widgets which may not be visible but
      * are known to the client. i.e. a logout button widget without being on the logout tab.
@@ -118,7 +97,7 @@ public class WidgetQuery extends AbstractQuery<WidgetEntity, WidgetQuery, Widget
      * @return WidgetQuery
      */
     public WidgetQuery withId(int packedId) {
-        return filter(w -> w.raw().getId() == packedId);
+        return fromIndex(index -> index.byId(packedId), w -> w.raw().getId() == packedId);
     }
 
     /**
@@ -196,7 +175,7 @@ public class WidgetQuery extends AbstractQuery<WidgetEntity, WidgetQuery, Widget
      *         group and child IDs.
      */
     public WidgetQuery withGroupChild(int group, int child) {
-        return filter(w -> {
+        return fromIndex(index -> index.byId((group << 16) | child), w -> {
             int widgetChild = w.raw().getId() & 0xFFFF;
             int widgetGroup = w.raw().getId() >>> 16;
             return widgetGroup == group && widgetChild == child;
@@ -210,7 +189,7 @@ public class WidgetQuery extends AbstractQuery<WidgetEntity, WidgetQuery, Widget
      * @return WidgetQuery
      */
     public WidgetQuery inGroup(int groupId) {
-        return filter(w -> {
+        return fromIndex(index -> index.byGroup(groupId), w -> {
             int widgetGroup = w.raw().getId() >> 16;
             return widgetGroup == groupId;
         });
@@ -271,15 +250,14 @@ public class WidgetQuery extends AbstractQuery<WidgetEntity, WidgetQuery, Widget
      * @return WidgetQuery
      */
     public WidgetQuery withAction(String action) {
-        return filter(Objects::nonNull)
-            .filter(widget -> {
-                String[] actions = widget.raw().getActions();
-                return actions != null &&
-                        Arrays.stream(actions)
-                                .filter(Objects::nonNull)
-                                .map(Text::removeTags)
-                                .anyMatch(s -> s.equalsIgnoreCase(action));
-            });
+        return fromIndex(index -> index.byAction(action), widget -> {
+            String[] actions = widget.raw().getActions();
+            return actions != null &&
+                    Arrays.stream(actions)
+                            .filter(Objects::nonNull)
+                            .map(Text::removeTags)
+                            .anyMatch(s -> s.equalsIgnoreCase(action));
+        });
     }
 
     /**
@@ -298,6 +276,9 @@ public class WidgetQuery extends AbstractQuery<WidgetEntity, WidgetQuery, Widget
      * @return WidgetQuery
      */
     public WidgetQuery withText(String text, boolean exact) {
-        return filter(widget -> widget.matches(text, exact));
+        if (text.isEmpty()) {
+            return filter(widget -> widget.matches(text, exact));
+        }
+        return fromIndex(index -> index.byText(text, exact), widget -> widget.matches(text, exact));
     }
 }
\ No newline at end of file
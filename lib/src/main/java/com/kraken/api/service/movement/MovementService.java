@@ -5,9 +5,9 @@ import com.google.inject.Singleton;
 import com.kraken.api.Context;
 import com.kraken.api.core.packet.entity.MousePackets;
 import com.kraken.api.core.packet.entity.MovementPackets;
+import com.kraken.api.core.player.LocalPlayerTracker;
 import com.kraken.api.service.tile.TileService;
 import com.kraken.api.service.ui.UIService;
-import com.kraken.api.service.util.SleepService;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Client;
 import net.runelite.api.Point;
@@ -17,12 +17,21 @@ import net.runelite.api.coords.WorldPoint;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 @Slf4j
 @Singleton
 public class MovementService {
+    private static final int TICK_MILLIS = 600;
+
+    // Ticks allowed on top of the estimated travel time for the click to register and the path to bend around obstacles
+    private static final int ARRIVAL_SLACK_TICKS = 4;
+
+    // Used when the travel time cannot be estimated, for example when the waypoint is on another plane
+    private static final int UNKNOWN_TRAVEL_TICKS = 20;
 
     @Inject
     private Context ctx;
@@ -208,13 +217,16 @@ public class MovementService {
      * <p>The method performs the following tasks for each waypoint in the path:
      * <ul>
      *   <li>Sends a movement command to the client to move towards the target waypoint.</li>
-     *   <li>Calculates a dynamic timeout based on distance and walking speed, with a buffer for path variance.</li>
-     *   <li>Waits for the player to reach the waypoint within the allowed timeout.</li>
+     *   <li>Estimates the number of ticks needed to reach the waypoint from the distance and whether the player is
+     *   running, with a buffer for path variance.</li>
+     *   <li>Waits for the player to reach the waypoint within the allowed number of ticks. The wait is completed
+     *   on the game tick the player arrives, the script thread does not poll the player's location.</li>
      *   <li>Retries the movement command up to two times if the waypoint is not reached within the timeout.</li>
      *   <li>Aborts and returns failure if retries are exhausted for any waypoint.</li>
      * </ul>
      *
-     * @param client The client instance used to interact with the game world and retrieve the player's location.
+     * @param client The client instance. The player's location is read from the {@link LocalPlayerTracker} snapshot
+     *               rather than from the client so it is never read off the client thread.
      * @param path A list of {@literal WorldPoint} objects representing the sequence of waypoints to traverse.
      * @param onWaypointReached A functional interface invoked when a waypoint is reached
      * @param onDestinationReached A functional interface invoked when the paths final destination is reached
@@ -227,28 +239,15 @@ public class MovementService {
 
             // Try to move to this waypoint up to 2 times
             for (int attempt = 0; attempt < 2; attempt++) {
+                LocalPlayerTracker tracker = ctx.getLocalPlayerTracker();
+                int timeoutTicks = arrivalTimeoutTicks(tracker, step);
+
+                // Registered before the click so an arrival on the very next tick is not missed
+                CompletableFuture<Boolean> arrival = tracker.arrival(step, 2, timeoutTicks);
                 ctx.runOnClientThread(() -> moveTo(step));
 
-                // Walking = 1 tile/0.6s. Running = 2 tiles/0.6s.
-                // We assume walking speed (worst case) + 2 seconds buffer.
-                WorldPoint playerLoc = client.getLocalPlayer().getWorldLocation();
-                int dist = playerLoc.distanceTo(step);
-
-                // (Distance * 600ms) is exact walking time. We multiply by 1.3 for path variance, plus 2000ms base buffer.
-                long timeoutDuration = (long) ((dist * 600 * 1.3) + 2000);
-                long timeout = System.currentTimeMillis() + timeoutDuration;
-
-                boolean reached = false;
-                while (System.currentTimeMillis() < timeout) {
-                    playerLoc = client.getLocalPlayer().getWorldLocation();
-
-                    // Success condition: Distance <= 2
-                    if (playerLoc.distanceTo(step) <= 2) {
-                        reached = true;
-                        break;
-                    }
-                    SleepService.sleep(50);
-                }
+                // The wall clock timeout only applies if game ticks stop, e.g. on a disconnect
+                boolean reached = ctx.getWaitEngine().await(arrival, (long) (timeoutTicks + ARRIVAL_SLACK_TICKS) * TICK_MILLIS);
 
                 if (reached) {
                     stepSuccess = true;
@@ -269,4 +268,76 @@ public class MovementService {
         onDestinationReached.accept("Reached destination: " + path.get(path.size() - 1));
         return true;
     }
+
+    /**
+     * Traverses a path of waypoints without blocking the calling thread, see
+     * {@link #traversePath(Client, List, Consumer, Consumer)} for the retry behaviour. Each waypoint is clicked on the
+     * client thread and the walk moves on to the next one when the {@link LocalPlayerTracker} arrival future for it
+     * completes, so no thread is held while the player walks.
+     * <p>
+     * Cancelling the returned future stops the walk, no further waypoints are clicked.
+     *
+     * @param path A list of {@literal WorldPoint} objects representing the sequence of waypoints to traverse.
+     * @return A future which completes with {@code true} once the last waypoint is reached, or {@code false} if any
+     *         waypoint could not be reached after retries.
+     */
+    public CompletableFuture<Boolean> traversePathAsync(List<WorldPoint> path) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        traverseStep(path, 0, 0, result);
+        return result;
+    }
+
+    /**
+     * Walks to one waypoint of a {@link #traversePathAsync(List)} and continues with the next waypoint, or the next
+     * attempt at this one, when the arrival future completes.
+     */
+    private void traverseStep(List<WorldPoint> path, int index, int attempt, CompletableFuture<Boolean> result) {
+        if (result.isDone()) {
+            return;
+        }
+
+        if (index >= path.size()) {
+            result.complete(true);
+            return;
+        }
+
+        WorldPoint step = path.get(index);
+        LocalPlayerTracker tracker = ctx.getLocalPlayerTracker();
+        int timeoutTicks = arrivalTimeoutTicks(tracker, step);
+
+        // Registered before the click so an arrival on the very next tick is not missed. The wall clock timeout only
+        // applies if game ticks stop, e.g. on a disconnect
+        CompletableFuture<Boolean> arrival = tracker.arrival(step, 2, timeoutTicks)
+                .completeOnTimeout(false, (long) (timeoutTicks + ARRIVAL_SLACK_TICKS) * TICK_MILLIS, TimeUnit.MILLISECONDS);
+        result.whenComplete((reached, error) -> arrival.cancel(false));
+
+        ctx.runOnClientThreadAsync(() -> {
+            moveTo(step);
+            return true;
+        }).thenCompose(clicked -> arrival).whenComplete((reached, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else if (reached) {
+                traverseStep(path, index + 1, 0, result);
+            } else if (attempt == 0) {
+                log.warn("TaskChain: Timeout moving to {}, retrying... (Attempt 1/2)", step);
+                traverseStep(path, index, 1, result);
+            } else {
+                log.error("TaskChain: Failed to reach waypoint {} after retries. Aborting.", step);
+                result.complete(false);
+            }
+        });
+    }
+
+    /**
+     * The number of ticks to wait for the player to arrive at a waypoint. Walking covers 1 tile per tick and running
+     * 2, with 30% extra for path variance plus slack for the click to register.
+     */
+    private static int arrivalTimeoutTicks(LocalPlayerTracker tracker, WorldPoint step) {
+        int travelTicks = tracker.estimateTicks(step);
+        if (travelTicks < 0) {
+            travelTicks = UNKNOWN_TRAVEL_TICKS;
+        }
+        return travelTicks + (travelTicks * 3) / 10 + ARRIVAL_SLACK_TICKS;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,475 @@
+package com.kraken.api.service.pathfinding;
+
+import java.util.Arrays;
+
+/**
+ * An A* search over a scene's collision flags with an optional jump point search (JPS) mode. Every step, straight or
+ * diagonal, costs one tile and the Chebyshev distance to the target is used as the heuristic so the search stops as soon
+ * as the target is reached rather than flooding the whole scene.
+ * <p>
+ * Movement follows the same rules as the game client's own pathing: a tile can be entered unless it is blocked or has
+ * a wall on the side being entered from, and a diagonal step also requires both adjacent cardinal steps to be possible.
+ * <p>
+ * With jump point search enabled, straight and diagonal runs are skipped over without queueing the tiles along them,
+ * stopping only where a blocked tile opens up a new direction. Jump point search assumes a grid of blocked and open
+ * tiles, so any tile next to a wall is treated as a jump point and expanded in every direction. This keeps
+ * directional walls (fences, doors, etc...) exact.
+ * <p>
+ * All state is kept in flat primitive arrays indexed by {@code sceneX * height + sceneY}. The arrays belong to one instance
+ * per thread (see {@link #get()}) and are reused between searches. Visited tiles are marked with a generation stamp, so
+ * starting a new search never clears the arrays. The results of a search remain valid until the next search on the same thread.
+ */
+public final class GridSearch {
+    // Collision masks for entering a tile from each direction, these match the game client's own path finding
+    private static final int ENTER_FROM_EAST = 0x1240108;   // moving west
+    private static final int ENTER_FROM_WEST = 0x1240180;   // moving east
+    private static final int ENTER_FROM_NORTH = 0x1240102;  // moving south
+    private static final int ENTER_FROM_SOUTH = 0x1240120;  // moving north
+    private static final int ENTER_FROM_NORTH_EAST = 0x124010E; // moving south-west
+    private static final int ENTER_FROM_NORTH_WEST = 0x1240183; // moving south-east
+    private static final int ENTER_FROM_SOUTH_EAST = 0x1240138; // moving north-west
+    private static final int ENTER_FROM_SOUTH_WEST = 0x12401E0; // moving north-east
+    private static final int BLOCKED = 0x1240100;
+    private static final int WALLS = 0xFF;
+
+    private static final int[] DX = {-1, 1, 0, 0, -1, 1, -1, 1};
+    private static final int[] DY = {0, 0, -1, 1, -1, -1, 1, 1};
+
+    private static final ThreadLocal<GridSearch> SEARCH = ThreadLocal.withInitial(GridSearch::new);
+
+    private int[][] flags;
+    private int width;
+    private int height;
+    private int start = -1;
+    private int target = -1;
+    private int targetX;
+    private int targetY;
+    private boolean jump;
+    private boolean complete;
+
+    private int generation;
+    private int[] stamp = new int[0];
+    private int[] closed = new int[0];
+    private int[] cost = new int[0];
+    private int[] parent = new int[0];
+    private long[] heap = new long[256];
+    private int heapSize;
+    private int[] scratch = new int[0];
+
+    private GridSearch() {
+    }
+
+    /**
+     * Returns the search instance for the calling thread.
+     * @return GridSearch
+     */
+    public static GridSearch get() {
+        return SEARCH.get();
+    }
+
+    /**
+     * Searches for the shortest path between two tiles.
+     * @param flags The collision flags of the scene plane, indexed {@code [x][y]}
+     * @param startX The scene x coordinate to start from
+     * @param startY The scene y coordinate to start from
+     * @param targetX The scene x coordinate of the target
+     * @param targetY The scene y coordinate of the target
+     * @param jumpPoints True if the search should use jump point search
+     * @return True if the target was reached
+     */
+    public boolean search(int[][] flags, int startX, int startY, int targetX, int targetY, boolean jumpPoints) {
+        if (!reset(flags, startX, startY) || !inBounds(targetX, targetY)) {
+            return false;
+        }
+
+        this.jump = jumpPoints;
+        this.targetX = targetX;
+        this.targetY = targetY;
+        this.target = index(targetX, targetY);
+        return run();
+    }
+
+    /**
+     * Searches outwards from a tile until every reachable tile has been visited. This is a plain breadth first search,
+     * after which {@link #distanceTo(int, int)} and {@link #path(int, int)} are exact for every tile in the scene.
+     * @param flags The collision flags of the scene plane, indexed {@code [x][y]}
+     * @param startX The scene x coordinate to start from
+     * @param startY The scene y coordinate to start from
+     */
+    public void flood(int[][] flags, int startX, int startY) {
+        if (!reset(flags, startX, startY)) {
+            return;
+        }
+
+        this.jump = false;
+        this.target = -1;
+        run();
+    }
+
+    /**
+     * Returns true if the last search visited every reachable tile without jumping, meaning the distance and path to
+     * every tile is known. This is the case after {@link #flood(int[][], int, int)} or after a search without jump points
+     * failed to reach its target.
+     * @return boolean
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Returns the shortest known distance from the start of the last search to a tile.
+     * @param x The scene x coordinate
+     * @param y The scene y coordinate
+     * @return The distance in tiles, or -1 if the tile was not reached
+     */
+    public int distanceTo(int x, int y) {
+        if (!inBounds(x, y)) {
+            return -1;
+        }
+
+        int index = index(x, y);
+        return stamp[index] == generation ? cost[index] : -1;
+    }
+
+    /**
+     * Returns every tile stepped on when walking from the start of the last search to a tile.
+     * @param x The scene x coordinate of the destination
+     * @param y The scene y coordinate of the destination
+     * @return Packed scene indices ({@code sceneX * height + sceneY}) excluding the start and including the destination,
+     * or null if the destination was not reached
+     */
+    public int[] path(int x, int y) {
+        if (distanceTo(x, y) < 0) {
+            return null;
+        }
+
+        // Walk the parent chain back to the start, each link is a straight or diagonal run
+        int[] nodes = scratch(cost[index(x, y)] + 1);
+        int count = 0;
+        for (int node = index(x, y); node != -1; node = parent[node]) {
+            nodes[count++] = node;
+        }
+
+        int[] path = new int[cost[index(x, y)]];
+        int length = 0;
+        for (int i = count - 1; i > 0; i--) {
+            int from = nodes[i];
+            int to = nodes[i - 1];
+            int fx = from / height;
+            int fy = from - fx * height;
+            int tx = to / height;
+            int ty = to - tx * height;
+            int dx = Integer.signum(tx - fx);
+            int dy = Integer.signum(ty - fy);
+            while (fx != tx || fy != ty) {
+                fx += dx;
+                fy += dy;
+                path[length++] = index(fx, fy);
+            }
+        }
+        return length == path.length ? path : Arrays.copyOf(path, length);
+    }
+
+    /**
+     * Returns the tiles at which the path to a tile changes direction, followed by the tile itself. Walking in a straight
+     * line between consecutive waypoints (starting from the start of the search) follows the path exactly.
+     * @param x The scene x coordinate of the destination
+     * @param y The scene y coordinate of the destination
+     * @return Packed scene indices ({@code sceneX * height + sceneY}), or null if the destination was not reached
+     */
+    public int[] waypoints(int x, int y) {
+        int[] path = path(x, y);
+        if (path == null) {
+            return null;
+        }
+
+        int[] waypoints = new int[path.length];
+        int count = 0;
+        int previous = start;
+        for (int i = 0; i < path.length - 1; i++) {
+            int current = path[i];
+            int next = path[i + 1];
+            if (current - previous != next - current) {
+                waypoints[count++] = current;
+            }
+            previous = current;
+        }
+
+        if (path.length > 0) {
+            waypoints[count++] = path[path.length - 1];
+        }
+        return Arrays.copyOf(waypoints, count);
+    }
+
+    /**
+     * The height of the grid used to unpack the scene indices returned by {@link #path(int, int)} and
+     * {@link #waypoints(int, int)}.
+     * @return int grid height
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns true if a single step can be taken from a tile in a direction.
+     * @param flags The collision flags of the scene plane
+     * @param x The scene x coordinate to step from
+     * @param y The scene y coordinate to step from
+     * @param dx The x direction (-1, 0 or 1)
+     * @param dy The y direction (-1, 0 or 1)
+     * @return True if the step is possible
+     */
+    public static boolean canMove(int[][] flags, int x, int y, int dx, int dy) {
+        int nx = x + dx;
+        int ny = y + dy;
+        if (nx < 0 || ny < 0 || nx >= flags.length || ny >= flags[nx].length) {
+            return false;
+        }
+
+        if (dy == 0) {
+            return (flags[nx][y] & (dx < 0 ? ENTER_FROM_EAST : ENTER_FROM_WEST)) == 0;
+        }
+
+        if (dx == 0) {
+            return (flags[x][ny] & (dy < 0 ? ENTER_FROM_NORTH : ENTER_FROM_SOUTH)) == 0;
+        }
+
+        int diagonal = dx < 0
+                ? (dy < 0 ? ENTER_FROM_NORTH_EAST : ENTER_FROM_SOUTH_EAST)
+                : (dy < 0 ? ENTER_FROM_NORTH_WEST : ENTER_FROM_SOUTH_WEST);
+        return (flags[nx][ny] & diagonal) == 0
+                && (flags[nx][y] & (dx < 0 ? ENTER_FROM_EAST : ENTER_FROM_WEST)) == 0
+                && (flags[x][ny] & (dy < 0 ? ENTER_FROM_NORTH : ENTER_FROM_SOUTH)) == 0;
+    }
+
+    private boolean reset(int[][] flags, int startX, int startY) {
+        this.complete = false;
+        this.start = -1;
+        this.target = -1;
+        if (flags == null || flags.length == 0) {
+            this.width = 0;
+            this.height = 0;
+            return false;
+        }
+
+        this.flags = flags;
+        this.width = flags.length;
+        this.height = flags[0].length;
+        int size = width * height;
+        if (stamp.length < size) {
+            stamp = new int[size];
+            closed = new int[size];
+            cost = new int[size];
+            parent = new int[size];
+            generation = 0;
+        }
+
+        if (++generation == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            Arrays.fill(closed, 0);
+            generation = 1;
+        }
+
+        heapSize = 0;
+        if (!inBounds(startX, startY)) {
+            return false;
+        }
+
+        start = index(startX, startY);
+        open(start, -1, 0);
+        return true;
+    }
+
+    private boolean run() {
+        while (heapSize > 0) {
+            long entry = pop();
+            int node = (int) (entry & 0xFFFFF);
+            if (closed[node] == generation) {
+                continue;
+            }
+
+            closed[node] = generation;
+            if (node == target) {
+                return true;
+            }
+
+            int x = node / height;
+            int y = node - x * height;
+            if (jump) {
+                expandJumpPoints(node, x, y);
+            } else {
+                for (int d = 0; d < 8; d++) {
+                    if (canMove(flags, x, y, DX[d], DY[d])) {
+                        open(index(x + DX[d], y + DY[d]), node, cost[node] + 1);
+                    }
+                }
+            }
+        }
+
+        complete = !jump;
+        return false;
+    }
+
+    private void expandJumpPoints(int node, int x, int y) {
+        int from = parent[node];
+        if (from == -1 || !isPlain(x, y)) {
+            for (int d = 0; d < 8; d++) {
+                successor(node, x, y, DX[d], DY[d]);
+            }
+            return;
+        }
+
+        // Prune the directions which are reached at least as cheaply through the parent. Diagonal steps cannot cut
+        // corners so after a straight run both sides are searched as well
+        int px = from / height;
+        int dx = Integer.signum(x - px);
+        int dy = Integer.signum(y - (from - px * height));
+        successor(node, x, y, dx, dy);
+        if (dx != 0 && dy != 0) {
+            successor(node, x, y, dx, 0);
+            successor(node, x, y, 0, dy);
+        } else if (dx != 0) {
+            successor(node, x, y, dx, 1);
+            successor(node, x, y, dx, -1);
+            successor(node, x, y, 0, 1);
+            successor(node, x, y, 0, -1);
+        } else {
+            successor(node, x, y, 1, dy);
+            successor(node, x, y, -1, dy);
+            successor(node, x, y, 1, 0);
+            successor(node, x, y, -1, 0);
+        }
+    }
+
+    private void successor(int node, int x, int y, int dx, int dy) {
+        int next = jump(x, y, dx, dy);
+        if (next != -1) {
+            int nx = next / height;
+            int ny = next - nx * height;
+            open(next, node, cost[node] + Math.max(Math.abs(nx - x), Math.abs(ny - y)));
+        }
+    }
+
+    private int jump(int x, int y, int dx, int dy) {
+        while (canMove(flags, x, y, dx, dy)) {
+            x += dx;
+            y += dy;
+            int index = index(x, y);
+            if (index == target || !isPlain(x, y)) {
+                return index;
+            }
+
+            if (dx != 0 && dy != 0) {
+                if (jump(x, y, dx, 0) != -1 || jump(x, y, 0, dy) != -1) {
+                    return index;
+                }
+            } else if (dx != 0) {
+                if ((isWalkable(x, y - 1) && !isWalkable(x - dx, y - 1)) || (isWalkable(x, y + 1) && !isWalkable(x - dx, y + 1))) {
+                    return index;
+                }
+            } else if ((isWalkable(x - 1, y) && !isWalkable(x - 1, y - dy)) || (isWalkable(x + 1, y) && !isWalkable(x + 1, y - dy))) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private boolean isWalkable(int x, int y) {
+        return inBounds(x, y) && (flags[x][y] & BLOCKED) == 0;
+    }
+
+    // True if no walkable tile in the 3x3 neighbourhood has a wall. Walls on blocked tiles never affect movement, so
+    // around a plain tile movement only depends on which tiles are blocked.
+    private boolean isPlain(int x, int y) {
+        for (int i = x - 1; i <= x + 1; i++) {
+            if (i < 0 || i >= width) {
+                continue;
+            }
+
+            int[] column = flags[i];
+            for (int j = y - 1; j <= y + 1; j++) {
+                if (j >= 0 && j < height && (column[j] & BLOCKED) == 0 && (column[j] & WALLS) != 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void open(int node, int from, int distance) {
+        if (stamp[node] == generation && (closed[node] == generation || cost[node] <= distance)) {
+            return;
+        }
+
+        stamp[node] = generation;
+        cost[node] = distance;
+        parent[node] = from;
+        push(distance + heuristic(node), distance, node);
+    }
+
+    private int heuristic(int node) {
+        if (target == -1) {
+            return 0;
+        }
+
+        int x = node / height;
+        int y = node - x * height;
+        return Math.max(Math.abs(x - targetX), Math.abs(y - targetY));
+    }
+
+    // Entries are ordered by f, then by the largest distance travelled so ties favour tiles closer to the target
+    private void push(int f, int distance, int node) {
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, heap.length * 2);
+        }
+
+        long entry = ((long) f << 40) | ((long) (0xFFFFF - distance) << 20) | node;
+        int i = heapSize++;
+        while (i > 0) {
+            int p = (i - 1) >>> 1;
+            if (heap[p] <= entry) {
+                break;
+            }
+            heap[i] = heap[p];
+            i = p;
+        }
+        heap[i] = entry;
+    }
+
+    private long pop() {
+        long top = heap[0];
+        long last = heap[--heapSize];
+        int i = 0;
+        int half = heapSize >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (last <= heap[child]) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        if (heapSize > 0) {
+            heap[i] = last;
+        }
+        return top;
+    }
+
+    private int[] scratch(int size) {
+        if (scratch.length < size) {
+            scratch = new int[Math.max(size, 256)];
+        }
+        return scratch;
+    }
+
+    private boolean inBounds(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    private int index(int x, int y) {
+        return x * height + y;
+    }
+}
@@ -1,6 +1,9 @@
 package com.kraken.api.service.pathfinding;
 
 import com.kraken.api.Context;
+import com.kraken.api.service.tile.DistanceGrid;
+import com.kraken.api.service.tile.ReachabilityCache;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.*;
 import net.runelite.api.Point;
@@ -19,7 +22,7 @@ import java.util.List;
 /**
  * <p>
  * The {@code LocalPathfinder} class is responsible for pathfinding within a local 104x104 tile 3D game scene.
- * It provides methods to compute paths using Breadth First Search (BFS),
+ * It provides methods to compute paths using an A* search (see {@link GridSearch}),
  * determine sparse paths for waypoints where directional changes occur, render paths visually, and validate
  * the reachability of points within the currently loaded scene. This class is useful for
  * AI, navigation, and player movement scenarios.
@@ -39,6 +42,14 @@ import java.util.List;
 public class LocalPathfinder {
     private static final int SCENE_SIZE = 104;
 
+    /**
+     * True if paths should be found with jump point search, which skips over straight runs of open ground rather than
+     * queueing every tile. Both modes find paths of the same (shortest) length. Jump point search is faster across
+     * large open areas but slower in scenes cluttered with single blocked tiles, so it is disabled by default.
+     */
+    @Setter
+    private boolean jumpPointSearch = false;
+
     @Inject
     private Context ctx;
 
@@ -62,7 +73,7 @@ public class LocalPathfinder {
     public List<WorldPoint> findSparsePath(WorldPoint start, WorldPoint target) {
         List<WorldPoint> densePath = findPath(start, target);
 
-        if (densePath.isEmpty()) {
+        if (densePath == null || densePath.isEmpty()) {
             return Collections.emptyList();
         }
 
@@ -94,49 +105,41 @@ public class LocalPathfinder {
 
     /**
      * Calculates and returns a path from a starting point to a target point within the game world.
-     * If the target point is outside the scene, the method attempts to determine the edge of the
-     * scene closest to the target and calculates a path to that edge instead.
      *
-     * <p>If the target point is within the loaded scene, the method directly computes the path
-     * to the target using the {@code findScenePath} method. If the target is outside the scene,
-     * it finds the nearest edge point to the target and calculates a path to that point.</p>
+     * <p>The path is found with an A* search over the collision flags of the loaded scene (using jump point search
+     * when it has been enabled with {@link #setJumpPointSearch(boolean)}). Both points must be within the loaded
+     * scene and on the same plane.</p>
+     *
+     * <p>Paths are cached by the {@link ReachabilityCache} until the collision maps change, so asking for the same path
+     * again (i.e. every loop of a script) does not search the scene again.</p>
      *
      * @param start {@literal @}WorldPoint representing the starting location of the path.
      * @param target {@literal @}WorldPoint representing the destination point of the path.
-     * @return A {@literal @}List of {@literal @}WorldPoint objects representing the calculated path
-     *         from the start to the target (or closest reachable edge point). If no path can be calculated,
-     *         an empty list is returned.
+     * @return A {@literal @}List of {@literal @}WorldPoint objects representing every tile of the path from the start
+     *         to the target (inclusive). Returns null if the target cannot be reached.
      */
     public List<WorldPoint> findPath(WorldPoint start, WorldPoint target) {
-        return ctx.runOnClientThread(() -> {
-            List<WorldPoint> waypoints = findWaypointsTo(start, target);
-            if (waypoints == null || waypoints.isEmpty()) {
+        int mode = jumpPointSearch ? 1 : 0;
+        return ctx.getReachabilityCache().path(start, target, mode, () -> ctx.runOnClientThread(() -> {
+            if (start.getPlane() != target.getPlane()) {
                 return null;
             }
 
-            if (!waypoints.get(waypoints.size() - 1).equals(target)) {
+            WorldView worldView = ctx.getClient().getTopLevelWorldView();
+            int[][] flags = collisionFlags(worldView, start.getPlane());
+            if (flags == null) {
                 return null;
             }
 
-            waypoints.add(0, start);
-            List<WorldPoint> fullPath = new ArrayList<>();
-            for(int i = 0; i < waypoints.size() - 1; i++) {
-                WorldPoint s = waypoints.get(i);
-                WorldPoint end = waypoints.get(i + 1);
-                int dx = Integer.signum(end.getX() - s.getX());
-                int dy = Integer.signum(end.getY() - s.getY());
-                WorldPoint current = s;
-                if (i == 0) {
-                    fullPath.add(current);
-                }
-
-                while (!current.equals(end)) {
-                    current = current.dx(dx).dy(dy);
-                    fullPath.add(current);
-                }
+            int targetX = target.getX() - worldView.getBaseX();
+            int targetY = target.getY() - worldView.getBaseY();
+            GridSearch search = GridSearch.get();
+            if (!search.search(flags, start.getX() - worldView.getBaseX(), start.getY() - worldView.getBaseY(), targetX, targetY, jumpPointSearch)) {
+                return null;
             }
-            return fullPath;
-        });
+
+            return toWorldPath(search, worldView, start, targetX, targetY);
+        }));
     }
 
     /**
@@ -146,7 +149,8 @@ public class LocalPathfinder {
      *
      * <p>The backoff strategy works by calculating points along the line between the target
      * and the start. It steps back by 1 tile, then 3, then 6, then 10, etc., until a
-     * reachable path is found or the search backs up all the way to the start.</p>
+     * reachable path is found or the search backs up all the way to the start. A single search
+     * from the start is shared by every backoff point rather than searching again for each one.</p>
      *
      * @param start  The starting WorldPoint.
      * @param target The desired target WorldPoint.
@@ -154,56 +158,74 @@ public class LocalPathfinder {
      * location found. Returns an empty list if no path can be found.
      */
     public List<WorldPoint> findPathWithBackoff(WorldPoint start, WorldPoint target) {
-        List<WorldPoint> path = findPath(start, target);
-        if (path != null && !path.isEmpty()) {
-            return path;
-        }
-
-        // Calculate the straight-line distance to determine our bounds
-        int totalDistance = start.distanceTo(target);
+        return ctx.runOnClientThread(() -> {
+            if (start.getPlane() != target.getPlane()) {
+                return Collections.emptyList();
+            }
 
-        if (totalDistance <= 1) {
-            return Collections.emptyList();
-        }
+            WorldView worldView = ctx.getClient().getTopLevelWorldView();
+            int[][] flags = collisionFlags(worldView, start.getPlane());
+            if (flags == null) {
+                return Collections.emptyList();
+            }
 
-        int currentBackoff = 0;
-        int step = 1;
+            int baseX = worldView.getBaseX();
+            int baseY = worldView.getBaseY();
+            int startX = start.getX() - baseX;
+            int startY = start.getY() - baseY;
+            GridSearch search = GridSearch.get();
+            if (search.search(flags, startX, startY, target.getX() - baseX, target.getY() - baseY, jumpPointSearch)) {
+                return toWorldPath(search, worldView, start, target.getX() - baseX, target.getY() - baseY);
+            }
 
-        double dx = target.getX() - start.getX();
-        double dy = target.getY() - start.getY();
+            // Calculate the straight-line distance to determine our bounds
+            int totalDistance = start.distanceTo(target);
 
-        // We continue as long as we haven't backed off past the start point
-        while (currentBackoff < totalDistance) {
-            // Increase backoff distance by the current step (1, then 2, then 3...)
-            // This creates the sequence: 1, 3, 6, 10, 15...
-            currentBackoff += step;
-            step++;
+            if (totalDistance <= 1) {
+                return Collections.emptyList();
+            }
 
-            if (currentBackoff >= totalDistance) {
-                break; // We have backed off all the way to (or past) the start
+            // Every tile reachable from the start is now known, so each backoff point is a lookup rather than a new search
+            if (!search.isComplete()) {
+                search.flood(flags, startX, startY);
             }
 
-            // Calculate the percentage of the distance we want to travel (from start)
-            // If backoff is 1, and total is 10, we want to go 90% of the way (0.9)
-            double ratio = (double) (totalDistance - currentBackoff) / totalDistance;
+            int currentBackoff = 0;
+            int step = 1;
 
-            // Linear Interpolation (Lerp) to find the new candidate coordinates
-            int newX = (int) Math.round(start.getX() + (dx * ratio));
-            int newY = (int) Math.round(start.getY() + (dy * ratio));
+            double dx = target.getX() - start.getX();
+            double dy = target.getY() - start.getY();
 
-            WorldPoint candidate = new WorldPoint(newX, newY, target.getPlane());
+            // We continue as long as we haven't backed off past the start point
+            while (currentBackoff < totalDistance) {
+                // Increase backoff distance by the current step (1, then 2, then 3...)
+                // This creates the sequence: 1, 3, 6, 10, 15...
+                currentBackoff += step;
+                step++;
 
-            // Check if this new candidate point is reachable
-            path = findPath(start, candidate);
-            if (path != null && !path.isEmpty()) {
-                log.info("Found backoff path to {} (Original target: {}, Backoff tiles: {})",
-                        candidate, target, currentBackoff);
-                return path;
+                if (currentBackoff >= totalDistance) {
+                    break; // We have backed off all the way to (or past) the start
+                }
+
+                // Calculate the percentage of the distance we want to travel (from start)
+                // If backoff is 1, and total is 10, we want to go 90% of the way (0.9)
+                double ratio = (double) (totalDistance - currentBackoff) / totalDistance;
+
+                // Linear Interpolation (Lerp) to find the new candidate coordinates
+                int newX = (int) Math.round(start.getX() + (dx * ratio));
+                int newY = (int) Math.round(start.getY() + (dy * ratio));
+
+                // Check if this new candidate point is reachable
+                if (search.distanceTo(newX - baseX, newY - baseY) >= 0) {
+                    log.info("Found backoff path to {} (Original target: {}, Backoff tiles: {})",
+                            new WorldPoint(newX, newY, target.getPlane()), target, currentBackoff);
+                    return toWorldPath(search, worldView, start, newX - baseX, newY - baseY);
+                }
             }
-        }
 
-        // No path found even after full backoff
-        return Collections.emptyList();
+            // No path found even after full backoff
+            return Collections.emptyList();
+        });
     }
 
     /**
@@ -221,91 +243,59 @@ public class LocalPathfinder {
      * @return A list of WorldPoints representing the path to the best found location, or an empty list if none found.
      */
     public List<WorldPoint> findApproximatePathWithBackoff(WorldPoint start, WorldPoint target, int radius) {
-        List<WorldPoint> reachable = reachableTiles(start);
-
-        if (reachable == null || reachable.isEmpty()) {
-            return Collections.emptyList();
-        }
-
-        // 2. Try the original target location first
-        List<WorldPoint> candidates = getCandidatesInRadius(reachable, target, radius);
-        if (!candidates.isEmpty()) {
-            WorldPoint destination = candidates.get(new Random().nextInt(candidates.size()));
-            return findPath(start, destination);
-        }
-
-        // Begin Backoff Strategy
-        int totalDistance = start.distanceTo(target);
-
-        if (totalDistance <= 1) {
-            return Collections.emptyList();
-        }
-
-        int currentBackoff = 0;
-        int step = 1;
+        return ctx.runOnClientThread(() -> {
+            WorldView worldView = ctx.getClient().getTopLevelWorldView();
+            GridSearch search = floodFrom(worldView, start);
+            if (search == null) {
+                return Collections.emptyList();
+            }
 
-        double dx = target.getX() - start.getX();
-        double dy = target.getY() - start.getY();
+            // 2. Try the original target location first
+            List<WorldPoint> path = pathToRandomTile(search, worldView, start, target, radius);
+            if (path != null) {
+                return path;
+            }
 
-        while (currentBackoff < totalDistance) {
-            // Increase backoff distance exponentially/incrementally (1, 3, 6, 10...)
-            currentBackoff += step;
-            step++;
+            // Begin Backoff Strategy
+            int totalDistance = start.distanceTo(target);
 
-            if (currentBackoff >= totalDistance) {
-                break;
+            if (totalDistance <= 1) {
+                return Collections.emptyList();
             }
 
-            // Calculate the specific point along the line to check next
-            double ratio = (double) (totalDistance - currentBackoff) / totalDistance;
-            int newX = (int) Math.round(start.getX() + (dx * ratio));
-            int newY = (int) Math.round(start.getY() + (dy * ratio));
+            int currentBackoff = 0;
+            int step = 1;
 
-            WorldPoint backoffPoint = new WorldPoint(newX, newY, target.getPlane());
+            double dx = target.getX() - start.getX();
+            double dy = target.getY() - start.getY();
 
-            // Check if there are any reachable tiles within the radius of this backoff point
-            candidates = getCandidatesInRadius(reachable, backoffPoint, radius);
-            if (!candidates.isEmpty()) {
-                log.debug("Found approximate backoff path near {} (Original: {}, Backoff: {})",
-                        backoffPoint, target, currentBackoff);
+            while (currentBackoff < totalDistance) {
+                // Increase backoff distance exponentially/incrementally (1, 3, 6, 10...)
+                currentBackoff += step;
+                step++;
 
-                // Select a random reachable tile from the candidates found
-                WorldPoint destination = candidates.get(new Random().nextInt(candidates.size()));
-                return findPath(start, destination);
-            }
-        }
+                if (currentBackoff >= totalDistance) {
+                    break;
+                }
 
-        return Collections.emptyList();
-    }
+                // Calculate the specific point along the line to check next
+                double ratio = (double) (totalDistance - currentBackoff) / totalDistance;
+                int newX = (int) Math.round(start.getX() + (dx * ratio));
+                int newY = (int) Math.round(start.getY() + (dy * ratio));
 
-    /**
-     * Helper method to filter a list of reachable points to only those within a
-     * specified square radius (Chebyshev distance) of a center point.
-     *
-     * @param reachable The list of all reachable WorldPoints.
-     * @param center    The center point to search around.
-     * @param radius    The radius distance.
-     * @return A list of WorldPoints that are within the radius of the center.
-     */
-    private List<WorldPoint> getCandidatesInRadius(List<WorldPoint> reachable, WorldPoint center, int radius) {
-        List<WorldPoint> candidates = new ArrayList<>();
-        int cX = center.getX();
-        int cY = center.getY();
-        int plane = center.getPlane();
-
-        for (WorldPoint p : reachable) {
-            if (p.getPlane() != plane) {
-                continue;
-            }
-
-            int dx = Math.abs(p.getX() - cX);
-            int dy = Math.abs(p.getY() - cY);
+                WorldPoint backoffPoint = new WorldPoint(newX, newY, target.getPlane());
 
-            if (dx <= radius && dy <= radius) {
-                candidates.add(p);
+                // Check if there are any reachable tiles within the radius of this backoff point
+                path = pathToRandomTile(search, worldView, start, backoffPoint, radius);
+                if (path != null) {
+                    log.debug("Found approximate backoff path near {} (Original: {}, Backoff: {})",
+                            backoffPoint, target, currentBackoff);
+                    return path;
+                }
             }
-        }
-        return candidates;
+
+            return Collections.emptyList();
+        });
     }
 
     /**
@@ -324,10 +314,9 @@ public class LocalPathfinder {
      * Finds an approximate path to a random reachable tile within a specified radius
      * around the target location.
      *
-     * <p>This method first calculates all reachable tiles from the start point using BFS.
-     * It then filters these tiles to find ones that lie within the specified square radius
-     * (Chebyshev distance) of the target point. Finally, it selects one of these candidates
-     * at random and computes a path to it.</p>
+     * <p>This method first searches outwards from the start point to find every reachable tile.
+     * It then selects one of the reachable tiles within the specified square radius
+     * (Chebyshev distance) of the target point at random and returns the path to it from the same search.</p>
      *
      * @param start The starting WorldPoint.
      * @param target The target WorldPoint.
@@ -335,119 +324,157 @@ public class LocalPathfinder {
      * @return A list of WorldPoints representing the path to the approximate target.
      */
     public List<WorldPoint> findApproximatePath(WorldPoint start, WorldPoint target, int radius) {
-        List<WorldPoint> reachable = reachableTiles(start);
+        return ctx.runOnClientThread(() -> {
+            WorldView worldView = ctx.getClient().getTopLevelWorldView();
+            GridSearch search = floodFrom(worldView, start);
+            if (search == null) {
+                return Collections.emptyList();
+            }
 
-        if (reachable == null || reachable.isEmpty()) {
-            return Collections.emptyList();
-        }
+            List<WorldPoint> path = pathToRandomTile(search, worldView, start, target, radius);
+            return path == null ? Collections.emptyList() : path;
+        });
+    }
 
-        List<WorldPoint> candidates = new ArrayList<>();
-        int tX = target.getX();
-        int tY = target.getY();
-        int plane = target.getPlane();
+    /**
+     * Finds an approximate path to a random reachable tile within a specified WorldArea.
+     *
+     * @param start The starting WorldPoint.
+     * @param area The WorldArea to search for reachable tiles within.
+     * @return A list of WorldPoints representing the path to a random point within the area.
+     */
+    public List<WorldPoint> findApproximatePath(WorldPoint start, WorldArea area) {
+        return ctx.runOnClientThread(() -> {
+            WorldView worldView = ctx.getClient().getTopLevelWorldView();
+            GridSearch search = floodFrom(worldView, start);
+            if (search == null || area.getPlane() != start.getPlane()) {
+                return Collections.emptyList();
+            }
 
-        for (WorldPoint p : reachable) {
-            if (p.getPlane() != plane) {
-                continue;
+            List<Integer> candidates = new ArrayList<>();
+            for (int x = area.getX(); x < area.getX() + area.getWidth(); x++) {
+                for (int y = area.getY(); y < area.getY() + area.getHeight(); y++) {
+                    int sceneX = x - worldView.getBaseX();
+                    int sceneY = y - worldView.getBaseY();
+                    if (search.distanceTo(sceneX, sceneY) >= 0) {
+                        candidates.add(sceneX * search.getHeight() + sceneY);
+                    }
+                }
             }
 
-            int dx = Math.abs(p.getX() - tX);
-            int dy = Math.abs(p.getY() - tY);
+            if (candidates.isEmpty()) {
+                return Collections.emptyList();
+            }
 
-            if (dx <= radius && dy <= radius) {
-                candidates.add(p);
+            int destination = candidates.get(new Random().nextInt(candidates.size()));
+            return toWorldPath(search, worldView, start, destination / search.getHeight(), destination % search.getHeight());
+        });
+    }
+
+    /**
+     * Picks a random tile reached by a completed search within a square radius (Chebyshev distance) of a center point
+     * and returns the path to it.
+     *
+     * @param search    A completed search from the start point.
+     * @param worldView The world view the search was run over.
+     * @param start     The start point of the search.
+     * @param center    The center point to search around.
+     * @param radius    The radius distance.
+     * @return The path to the chosen tile or null if no tile within the radius was reached.
+     */
+    private List<WorldPoint> pathToRandomTile(GridSearch search, WorldView worldView, WorldPoint start, WorldPoint center, int radius) {
+        if (center.getPlane() != start.getPlane()) {
+            return null;
+        }
+
+        int centerX = center.getX() - worldView.getBaseX();
+        int centerY = center.getY() - worldView.getBaseY();
+        List<Integer> candidates = new ArrayList<>();
+        for (int x = centerX - radius; x <= centerX + radius; x++) {
+            for (int y = centerY - radius; y <= centerY + radius; y++) {
+                if (search.distanceTo(x, y) >= 0) {
+                    candidates.add(x * search.getHeight() + y);
+                }
             }
         }
 
         if (candidates.isEmpty()) {
-            return Collections.emptyList();
+            return null;
         }
 
-        WorldPoint destination = candidates.get(new Random().nextInt(candidates.size()));
-        return findPath(start, destination);
+        int destination = candidates.get(new Random().nextInt(candidates.size()));
+        return toWorldPath(search, worldView, start, destination / search.getHeight(), destination % search.getHeight());
     }
 
     /**
-     * Finds an approximate path to a random reachable tile within a specified WorldArea.
-     *
-     * @param start The starting WorldPoint.
-     * @param area The WorldArea to search for reachable tiles within.
-     * @return A list of WorldPoints representing the path to a random point within the area.
+     * Runs a search from the start point which visits every reachable tile in the scene. This must be called on the client thread.
+     * @param worldView The world view to search
+     * @param start The point to search from
+     * @return The completed search or null if the collision data is not loaded
      */
-    public List<WorldPoint> findApproximatePath(WorldPoint start, WorldArea area) {
-        List<WorldPoint> reachable = reachableTiles(start);
-
-        if (reachable == null || reachable.isEmpty()) {
-            return Collections.emptyList();
+    private GridSearch floodFrom(WorldView worldView, WorldPoint start) {
+        int[][] flags = collisionFlags(worldView, start.getPlane());
+        if (flags == null) {
+            return null;
         }
 
-        List<WorldPoint> candidates = new ArrayList<>();
+        GridSearch search = GridSearch.get();
+        search.flood(flags, start.getX() - worldView.getBaseX(), start.getY() - worldView.getBaseY());
+        return search;
+    }
 
-        for (WorldPoint p : reachable) {
-            if (area.contains(p)) {
-                candidates.add(p);
-            }
+    /**
+     * Converts the path to a tile from a search into world points, starting with the start point.
+     * @param search The search which reached the tile
+     * @param worldView The world view the search was run over
+     * @param start The start point of the search
+     * @param sceneX The scene x coordinate of the destination
+     * @param sceneY The scene y coordinate of the destination
+     * @return Every tile of the path from the start to the destination (inclusive)
+     */
+    private List<WorldPoint> toWorldPath(GridSearch search, WorldView worldView, WorldPoint start, int sceneX, int sceneY) {
+        int[] path = search.path(sceneX, sceneY);
+        if (path == null) {
+            return null;
         }
 
-        if (candidates.isEmpty()) {
-            return Collections.emptyList();
+        int height = search.getHeight();
+        List<WorldPoint> worldPath = new ArrayList<>(path.length + 1);
+        worldPath.add(start);
+        for (int index : path) {
+            worldPath.add(new WorldPoint(worldView.getBaseX() + index / height, worldView.getBaseY() + index % height, start.getPlane()));
         }
+        return worldPath;
+    }
 
-        WorldPoint destination = candidates.get(new Random().nextInt(candidates.size()));
-        return findPath(start, destination);
+    private static int[][] collisionFlags(WorldView worldView, int plane) {
+        CollisionData[] collisionData = worldView.getCollisionMaps();
+        if (collisionData == null || plane < 0 || plane >= collisionData.length || collisionData[plane] == null) {
+            return null;
+        }
+        return collisionData[plane].getFlags();
     }
 
     /**
-     * Returns a list of all reachable tiles from the origins position using a breadth-first search algorithm.
-     * This method considers the collision data to determine which tiles can be reached.
+     * Returns a list of all reachable tiles from the origins position using a breadth-first search algorithm (see {@link com.kraken.api.service.tile.FloodFill}).
+     * This method considers the collision data to determine which tiles can be reached. The flood fill is cached by the
+     * {@link ReachabilityCache} until the collision maps change.
      *
      * @param origin The point to query from
      * @return A list of WorldPoint objects representing all reachable tiles from the origin.
      */
     public List<WorldPoint> reachableTiles(WorldPoint origin) {
         return ctx.runOnClientThread(() -> {
-            Client client = ctx.getClient();
-            boolean[][] visited = new boolean[104][104];
-            CollisionData[] collisionData = client.getTopLevelWorldView().getCollisionMaps();
-            if (collisionData == null) {
-                return new ArrayList<>();
-            }
-            WorldView worldView = client.getTopLevelWorldView();
-            int[][] flags = collisionData[worldView.getPlane()].getFlags();
-            int firstPoint = (origin.getX()-worldView.getBaseX() << 16) | origin.getY()-worldView.getBaseY();
-            ArrayDeque<Integer> queue = new ArrayDeque<>();
-            queue.add(firstPoint);
-            while (!queue.isEmpty()) {
-                int point = queue.poll();
-                short x =(short)(point >> 16);
-                short y = (short)point;
-                if (y < 0 || x < 0 || y > 104 || x > 104) {
-                    continue;
-                }
-                if ((flags[x][y] & CollisionDataFlag.BLOCK_MOVEMENT_SOUTH) == 0 && (flags[x][y - 1] & CollisionDataFlag.BLOCK_MOVEMENT_FULL) == 0 && !visited[x][y - 1]) {
-                    queue.add((x << 16) | (y - 1));
-                    visited[x][y - 1] = true;
-                }
-                if ((flags[x][y] & CollisionDataFlag.BLOCK_MOVEMENT_NORTH) == 0 && (flags[x][y + 1] & CollisionDataFlag.BLOCK_MOVEMENT_FULL) == 0 && !visited[x][y + 1]) {
-                    queue.add((x << 16) | (y + 1));
-                    visited[x][y + 1] = true;
-                }
-                if ((flags[x][y] & CollisionDataFlag.BLOCK_MOVEMENT_WEST) == 0 && (flags[x - 1][y] & CollisionDataFlag.BLOCK_MOVEMENT_FULL) == 0 && !visited[x - 1][y]) {
-                    queue.add(((x - 1) << 16) | y);
-                    visited[x - 1][y] = true;
-                }
-                if ((flags[x][y] & CollisionDataFlag.BLOCK_MOVEMENT_EAST) == 0 && (flags[x + 1][y] & CollisionDataFlag.BLOCK_MOVEMENT_FULL) == 0 && !visited[x + 1][y]) {
-                    queue.add(((x + 1) << 16) | y);
-                    visited[x + 1][y] = true;
-                }
-            }
+            WorldView worldView = ctx.getClient().getTopLevelWorldView();
             int baseX = worldView.getBaseX();
             int baseY = worldView.getBaseY();
             int plane = worldView.getPlane();
-            List<WorldPoint> finalPoints = new ArrayList<>();
-            for (int x = 0; x < 104; ++x) {
-                for (int y = 0; y < 104; ++y) {
-                    if (visited[x][y]) {
+            DistanceGrid grid = ctx.getTileService().getReachableTilesFromScene(origin.getX() - baseX, origin.getY() - baseY, Short.MAX_VALUE, false);
+
+            List<WorldPoint> finalPoints = new ArrayList<>(grid.size());
+            for (int x = 0; x < SCENE_SIZE; ++x) {
+                for (int y = 0; y < SCENE_SIZE; ++y) {
+                    if (grid.contains(x, y)) {
                         finalPoints.add(new WorldPoint(baseX + x, baseY + y, plane));
                     }
                 }
@@ -455,7 +482,14 @@ public class LocalPathfinder {
             return finalPoints;
         });
     }
-    
+
+    /**
+     * Clamps a target to the edge of the loaded scene. Use {@link WorldPathfinder} to find a full path to a target
+     * outside the loaded scene.
+     *
+     * @param target The target to clamp
+     * @return The closest point to the target within the loaded scene
+     */
     public WorldPoint findEdgeOfScene(WorldPoint target) {
         return ctx.runOnClientThread(() -> {
             WorldView wv = client.getTopLevelWorldView();
@@ -476,94 +510,20 @@ public class LocalPathfinder {
         });
     }
 
-    /**
-     * Finds the waypoints between two {@literal @}WorldPoint locations on the same plane.
-     * The method calculates the intermediate checkpoint waypoints required to navigate
-     * from the starting point to the destination point.
-     * <p>
-     * It performs computations by translating the world points into
-     * local points within the scene and traversing the path using available
-     * tiles.
-     * </p>
-     *
-     * Credit to Vitalite and TonicBox for this methods implementation. It was taken from their scene API:
-     * <a href="https://github.com/Tonic-Box/VitaLite/blob/main/api/src/main/java/com/tonic/api/game/SceneAPI.java">Link</a>
-     *
-     * @param from the starting {@literal @}WorldPoint.
-     *             Must not be {@literal null}. The {@literal @}WorldPoint
-     *             must exist on the same plane as the {@code to} point.
-     * @param to   the destination {@literal @}WorldPoint.
-     *             Must not be {@literal null}. The {@literal @}WorldPoint
-     *             must exist on the same plane as the {@code from} point.
-     *
-     * @return a {@literal @}List of {@literal @}WorldPoint objects
-     *         representing checkpoint waypoints to navigate from {@code from}
-     *         to {@code to}. If a direct path cannot be calculated, the list
-     *         may be empty. Returns {@literal null} if the points
-     *         are on different planes or if any required data is unavailable.
-     */
-    private List<WorldPoint> findWaypointsTo(WorldPoint from, WorldPoint to) {
-        return ctx.runOnClientThread(() -> {
-            if (from.getPlane() != to.getPlane()) {
-                return null;
-            }
-
-            Client client = ctx.getClient();
-            WorldView worldView = client.getTopLevelWorldView();
-            int x = from.getX();
-            int y = from.getY();
-            int plane = from.getPlane();
-
-            LocalPoint sourceLp = LocalPoint.fromWorld(worldView, x, y);
-            LocalPoint targetLp = LocalPoint.fromWorld(worldView, to.getX(), to.getY());
-            if (sourceLp == null || targetLp == null) {
-                return null;
-            }
-
-            int thisX = sourceLp.getSceneX();
-            int thisY = sourceLp.getSceneY();
-            int otherX = targetLp.getSceneX();
-            int otherY = targetLp.getSceneY();
-
-            Tile[][][] tiles = worldView.getScene().getTiles();
-            Tile sourceTile = tiles[plane][thisX][thisY];
-            Tile targetTile = tiles[plane][otherX][otherY];
-
-            if(sourceTile == null || targetTile == null)
-                return new ArrayList<>();
-
-            List<Tile> checkpointTiles = findWaypointsTo(sourceTile, targetTile);
-            if (checkpointTiles == null) {
-                return null;
-            }
-            List<WorldPoint> checkpointWPs = new ArrayList<>();
-            for (Tile checkpointTile : checkpointTiles) {
-                if (checkpointTile == null) {
-                    break;
-                }
-                checkpointWPs.add(checkpointTile.getWorldLocation());
-            }
-            return checkpointWPs;
-        });
-    }
-
-
     /**
      * Finds the waypoints needed to navigate from the starting {@code Tile} to the destination {@code Tile}.
-     * This method calculates a path using directional and distance matrices, while considering collision data
-     * within the game world. If a direct path is not possible, it searches for the closest accessible tile
-     * around the destination.
+     * The path is found with an A* search over the collision flags of the scene (using jump point search when it
+     * has been enabled). If the destination cannot be reached, the closest reachable tile within 10 tiles of the
+     * destination is used instead.
      *
      * <p>Note that both the starting and destination tiles must reside on the same plane (z-coordinate).
      * If they are not, this method will return {@code null}.</p>
      *
-     * Credit to Vitalite and TonicBox for this methods implementation. It was taken from their scene API:
-     * <a href="https://github.com/Tonic-Box/VitaLite/blob/main/api/src/main/java/com/tonic/api/game/SceneAPI.java">Link</a>
-     *
      * @param from the starting {@code Tile} from which the path needs to be calculated.
      * @param to the destination {@code Tile} to which the path needs to lead.
-     * @return a {@code List} of {@code Tile} objects representing the calculated waypoints to the destination,
-     *         or {@code null} if the path cannot be calculated (e.g., due to inaccessible areas or mismatched planes).
+     * @return a {@code List} of {@code Tile} objects representing the tiles where the path changes direction followed by
+     *         the destination (at most 25 tiles), or {@code null} if the path cannot be calculated
+     *         (e.g., due to inaccessible areas or mismatched planes).
      */
     public List<Tile> findWaypointsTo(Tile from, Tile to) {
         return ctx.runOnClientThread(() -> {
@@ -574,164 +534,41 @@ public class LocalPathfinder {
 
             Client client = ctx.getClient();
             WorldView worldView = client.getTopLevelWorldView();
-            CollisionData[] collisionData = worldView.getCollisionMaps();
-            if (collisionData == null) {
+            int[][] flags = collisionFlags(worldView, z);
+            if (flags == null) {
                 return null;
             }
 
-            int[][] directions = new int[128][128];
-            int[][] distances = new int[128][128];
-            int[] bufferX = new int[4096];
-            int[] bufferY = new int[4096];
-
-            // Initialise directions and distances
-            for (int i = 0; i < 128; ++i) {
-                for (int j = 0; j < 128; ++j) {
-                    directions[i][j] = 0;
-                    distances[i][j] = Integer.MAX_VALUE;
-                }
-            }
-
             Point p1 = from.getSceneLocation();
             Point p2 = to.getSceneLocation();
+            int destinationX = p2.getX();
+            int destinationY = p2.getY();
 
-            int middleX = p1.getX();
-            int middleY = p1.getY();
-            int currentX = middleX;
-            int currentY = middleY;
-            int offsetX = 64;
-            int offsetY = 64;
-
-            // Initialize directions and distances for the starting tile
-            directions[offsetX][offsetY] = 99;
-            distances[offsetX][offsetY] = 0;
-            int index1 = 0;
-            bufferX[0] = currentX;
-            int index2 = 1;
-            bufferY[0] = currentY;
-            int[][] collisionDataFlags = collisionData[z].getFlags();
-
-            boolean isReachable = false;
-
-            while (index1 != index2) {
-                currentX = bufferX[index1];
-                currentY = bufferY[index1];
-                index1 = index1 + 1 & 4095;
-                // currentX is for the local coordinate while currentMapX is for the index in the directions and distances arrays
-                int currentMapX = currentX - middleX + offsetX;
-                int currentMapY = currentY - middleY + offsetY;
-                if ((currentX == p2.getX()) && (currentY == p2.getY()))
-               {
-                    isReachable = true;
-                    break;
-                }
-
-                int currentDistance = distances[currentMapX][currentMapY] + 1;
-                if (currentMapX > 0 && directions[currentMapX - 1][currentMapY] == 0 && (collisionDataFlags[currentX - 1][currentY] & 19136776) == 0) {
-                    // Able to move 1 tile west
-                    bufferX[index2] = currentX - 1;
-                    bufferY[index2] = currentY;
-                    index2 = index2 + 1 & 4095;
-                    directions[currentMapX - 1][currentMapY] = 2;
-                    distances[currentMapX - 1][currentMapY] = currentDistance;
-                }
-
-                if (currentMapX < 127 && directions[currentMapX + 1][currentMapY] == 0 && (collisionDataFlags[currentX + 1][currentY] & 19136896) == 0) {
-                    // Able to move 1 tile east
-                    bufferX[index2] = currentX + 1;
-                    bufferY[index2] = currentY;
-                    index2 = index2 + 1 & 4095;
-                    directions[currentMapX + 1][currentMapY] = 8;
-                    distances[currentMapX + 1][currentMapY] = currentDistance;
-                }
-
-                if (currentMapY > 0 && directions[currentMapX][currentMapY - 1] == 0 && (collisionDataFlags[currentX][currentY - 1] & 19136770) == 0) {
-                    // Able to move 1 tile south
-                    bufferX[index2] = currentX;
-                    bufferY[index2] = currentY - 1;
-                    index2 = index2 + 1 & 4095;
-                    directions[currentMapX][currentMapY - 1] = 1;
-                    distances[currentMapX][currentMapY - 1] = currentDistance;
-                }
-
-                if (currentMapY < 127 && directions[currentMapX][currentMapY + 1] == 0 && (collisionDataFlags[currentX][currentY + 1] & 19136800) == 0) {
-                    // Able to move 1 tile north
-                    bufferX[index2] = currentX;
-                    bufferY[index2] = currentY + 1;
-                    index2 = index2 + 1 & 4095;
-                    directions[currentMapX][currentMapY + 1] = 4;
-                    distances[currentMapX][currentMapY + 1] = currentDistance;
-                }
-
-                if (currentMapX > 0 && currentMapY > 0 && directions[currentMapX - 1][currentMapY - 1] == 0 && (collisionDataFlags[currentX - 1][currentY - 1] & 19136782) == 0 && (collisionDataFlags[currentX - 1][currentY] & 19136776) == 0 && (collisionDataFlags[currentX][currentY - 1] & 19136770) == 0) {
-                    // Able to move 1 tile south-west
-                    bufferX[index2] = currentX - 1;
-                    bufferY[index2] = currentY - 1;
-                    index2 = index2 + 1 & 4095;
-                    directions[currentMapX - 1][currentMapY - 1] = 3;
-                    distances[currentMapX - 1][currentMapY - 1] = currentDistance;
-                }
-
-                if (currentMapX < 127 && currentMapY > 0 && directions[currentMapX + 1][currentMapY - 1] == 0 && (collisionDataFlags[currentX + 1][currentY - 1] & 19136899) == 0 && (collisionDataFlags[currentX + 1][currentY] & 19136896) == 0 && (collisionDataFlags[currentX][currentY - 1] & 19136770) == 0) {
-                    // Able to move 1 tile north-west
-                    bufferX[index2] = currentX + 1;
-                    bufferY[index2] = currentY - 1;
-                    index2 = index2 + 1 & 4095;
-                    directions[currentMapX + 1][currentMapY - 1] = 9;
-                    distances[currentMapX + 1][currentMapY - 1] = currentDistance;
-                }
-                if (currentMapX > 0 && currentMapY < 127 && directions[currentMapX - 1][currentMapY + 1] == 0 && (collisionDataFlags[currentX - 1][currentY + 1] & 19136824) == 0 && (collisionDataFlags[currentX - 1][currentY] & 19136776) == 0 && (collisionDataFlags[currentX][currentY + 1] & 19136800) == 0) {
-                    // Able to move 1 tile south-east
-                    bufferX[index2] = currentX - 1;
-                    bufferY[index2] = currentY + 1;
-                    index2 = index2 + 1 & 4095;
-                    directions[currentMapX - 1][currentMapY + 1] = 6;
-                    distances[currentMapX - 1][currentMapY + 1] = currentDistance;
+            GridSearch search = GridSearch.get();
+            if (!search.search(flags, p1.getX(), p1.getY(), destinationX, destinationY, jumpPointSearch)) {
+                if (!search.isComplete()) {
+                    search.flood(flags, p1.getX(), p1.getY());
                 }
 
-                if (currentMapX < 127 && currentMapY < 127 && directions[currentMapX + 1][currentMapY + 1] == 0 && (collisionDataFlags[currentX + 1][currentY + 1] & 19136992) == 0 && (collisionDataFlags[currentX + 1][currentY] & 19136896) == 0 && (collisionDataFlags[currentX][currentY + 1] & 19136800) == 0) {
-                    // Able to move 1 tile north-east
-                    bufferX[index2] = currentX + 1;
-                    bufferY[index2] = currentY + 1;
-                    index2 = index2 + 1 & 4095;
-                    directions[currentMapX + 1][currentMapY + 1] = 12;
-                    distances[currentMapX + 1][currentMapY + 1] = currentDistance;
-                }
-            }
-
-            if (!isReachable) {
                 // Try find a different reachable tile in the 21x21 area around the target tile, as close as possible to the target tile
                 int upperboundDistance = Integer.MAX_VALUE;
                 int pathLength = Integer.MAX_VALUE;
                 int checkRange = 10;
-                int approxDestinationX = p2.getX();
-                int approxDestinationY = p2.getY();
-                for (int i = approxDestinationX - checkRange; i <= checkRange + approxDestinationX; ++i) {
-                    for (int j = approxDestinationY - checkRange; j <= checkRange + approxDestinationY; ++j) {
-                        int currentMapX = i - middleX + offsetX;
-                        int currentMapY = j - middleY + offsetY;
-                        if (currentMapX >= 0 && currentMapY >= 0 && currentMapX < 128 && currentMapY < 128 && distances[currentMapX][currentMapY] < 100) {
-                            int deltaX = 0;
-                            if (i < approxDestinationX) {
-                                deltaX = approxDestinationX - i;
-                            } else if (i > approxDestinationX) {
-                                deltaX = i - (approxDestinationX);
-                            }
-
-                            int deltaY = 0;
-                            if (j < approxDestinationY) {
-                                deltaY = approxDestinationY - j;
-                            } else if (j > approxDestinationY) {
-                                deltaY = j - (approxDestinationY);
-                            }
-
-                            int distanceSquared = deltaX * deltaX + deltaY * deltaY;
-                            if (distanceSquared < upperboundDistance || distanceSquared == upperboundDistance && distances[currentMapX][currentMapY] < pathLength) {
-                                upperboundDistance = distanceSquared;
-                                pathLength = distances[currentMapX][currentMapY];
-                                currentX = i;
-                                currentY = j;
-                            }
+                for (int i = p2.getX() - checkRange; i <= checkRange + p2.getX(); ++i) {
+                    for (int j = p2.getY() - checkRange; j <= checkRange + p2.getY(); ++j) {
+                        int distance = search.distanceTo(i, j);
+                        if (distance < 0 || distance >= 100) {
+                            continue;
+                        }
+
+                        int deltaX = i - p2.getX();
+                        int deltaY = j - p2.getY();
+                        int distanceSquared = deltaX * deltaX + deltaY * deltaY;
+                        if (distanceSquared < upperboundDistance || distanceSquared == upperboundDistance && distance < pathLength) {
+                            upperboundDistance = distanceSquared;
+                            pathLength = distance;
+                            destinationX = i;
+                            destinationY = j;
                         }
                     }
                 }
@@ -742,111 +579,23 @@ public class LocalPathfinder {
                 }
             }
 
-            // Getting path from directions and distances
-            bufferX[0] = currentX;
-            bufferY[0] = currentY;
-            int index = 1;
-            int directionNew;
-            int directionOld;
-            for (directionNew = directionOld = directions[currentX - middleX + offsetX][currentY - middleY + offsetY]; p1.getX() != currentX || p1.getY() != currentY; directionNew = directions[currentX - middleX + offsetX][currentY - middleY + offsetY]) {
-                if (directionNew != directionOld) {
-                    // "Corner" of the path --> new checkpoint tile
-                    directionOld = directionNew;
-                    bufferX[index] = currentX;
-                    bufferY[index++] = currentY;
-                }
-
-                if ((directionNew & 2) != 0) {
-                    ++currentX;
-                } else if ((directionNew & 8) != 0) {
-                    --currentX;
-                }
-
-                if ((directionNew & 1) != 0) {
-                    ++currentY;
-                } else if ((directionNew & 4) != 0) {
-                    --currentY;
-                }
-            }
-
-            int checkpointTileNumber = 1;
+            int[] waypoints = search.waypoints(destinationX, destinationY);
+            int height = search.getHeight();
             Tile[][][] tiles = worldView.getScene().getTiles();
             List<Tile> checkpointTiles = new ArrayList<>();
 
-            while (index-- > 0) {
-                checkpointTiles.add(tiles[from.getPlane()][bufferX[index]][bufferY[index]]);
-                if (checkpointTileNumber == 25) {
-                    break;
-                }
-                checkpointTileNumber++;
+            if (waypoints.length == 0) {
+                checkpointTiles.add(tiles[z][destinationX][destinationY]);
+                return checkpointTiles;
+            }
+
+            for (int i = 0; i < waypoints.length && checkpointTiles.size() < 25; i++) {
+                checkpointTiles.add(tiles[z][waypoints[i] / height][waypoints[i] % height]);
             }
             return checkpointTiles;
         });
     }
 
-    /**
-     * Returns true if the source point is walkable to the target point given the constraints
-     * of collision flags.
-     * @param flags Game Collision flags
-     * @param source Source World Point
-     * @param target Target World Point
-     * @return True if there is a walkable path between the two points
-     */
-    private boolean isWalkable(int[][] flags, WorldPoint source, WorldPoint target) {
-        int sX = source.getX() - client.getTopLevelWorldView().getBaseX();
-        int sY = source.getY() - client.getTopLevelWorldView().getBaseY();
-        int tX = target.getX() - client.getTopLevelWorldView().getBaseX();
-        int tY = target.getY() - client.getTopLevelWorldView().getBaseY();
-
-        int dx = tX - sX;
-        int dy = tY - sY;
-
-        int sourceFlags = flags[sX][sY];
-        int targetFlags = flags[tX][tY];
-
-        if ((targetFlags & CollisionDataFlag.BLOCK_MOVEMENT_FULL) != 0) return false;
-
-        if (dx == 0 && dy == 0) return true;
-
-        // Cardinal
-        if (dx == 0 || dy == 0) {
-            if (dx > 0) return (sourceFlags & CollisionDataFlag.BLOCK_MOVEMENT_EAST) == 0 && (targetFlags & CollisionDataFlag.BLOCK_MOVEMENT_WEST) == 0;
-            if (dx < 0) return (sourceFlags & CollisionDataFlag.BLOCK_MOVEMENT_WEST) == 0 && (targetFlags & CollisionDataFlag.BLOCK_MOVEMENT_EAST) == 0;
-            if (dy > 0) return (sourceFlags & CollisionDataFlag.BLOCK_MOVEMENT_NORTH) == 0 && (targetFlags & CollisionDataFlag.BLOCK_MOVEMENT_SOUTH) == 0;
-            return (sourceFlags & CollisionDataFlag.BLOCK_MOVEMENT_SOUTH) == 0 && (targetFlags & CollisionDataFlag.BLOCK_MOVEMENT_NORTH) == 0;
-        }
-
-        // Diagonal
-        // dx != 0 && dy != 0 is implicitly true here
-        int xFlags = flags[sX + dx][sY];
-        int yFlags = flags[sX][sY + dy];
-
-        if ((targetFlags & CollisionDataFlag.BLOCK_MOVEMENT_FULL) != 0) return false;
-
-        if (dx > 0 && dy > 0) { // NE
-            if ((sourceFlags & CollisionDataFlag.BLOCK_MOVEMENT_EAST) != 0 || (sourceFlags & CollisionDataFlag.BLOCK_MOVEMENT_NORTH) != 0) return false;
-            if ((targetFlags & CollisionDataFlag.BLOCK_MOVEMENT_WEST) != 0 || (targetFlags & CollisionDataFlag.BLOCK_MOVEMENT_SOUTH) != 0) return false;
-            return (xFlags & CollisionDataFlag.BLOCK_MOVEMENT_FULL) == 0 && (yFlags & CollisionDataFlag.BLOCK_MOVEMENT_FULL) == 0;
-        }
-        if (dx < 0 && dy > 0) { // NW
-            if ((sourceFlags & CollisionDataFlag.BLOCK_MOVEMENT_WEST) != 0 || (sourceFlags & CollisionDataFlag.BLOCK_MOVEMENT_NORTH) != 0) return false;
-            if ((targetFlags & CollisionDataFlag.BLOCK_MOVEMENT_EAST) != 0 || (targetFlags & CollisionDataFlag.BLOCK_MOVEMENT_SOUTH) != 0) return false;
-            return (xFlags & CollisionDataFlag.BLOCK_MOVEMENT_FULL) == 0 && (yFlags & CollisionDataFlag.BLOCK_MOVEMENT_FULL) == 0;
-        }
-        if (dx > 0 && dy < 0) { // SE
-            if ((sourceFlags & CollisionDataFlag.BLOCK_MOVEMENT_EAST) != 0 || (sourceFlags & CollisionDataFlag.BLOCK_MOVEMENT_SOUTH) != 0) return false;
-            if ((targetFlags & CollisionDataFlag.BLOCK_MOVEMENT_WEST) != 0 || (targetFlags & CollisionDataFlag.BLOCK_MOVEMENT_NORTH) != 0) return false;
-            return (xFlags & CollisionDataFlag.BLOCK_MOVEMENT_FULL) == 0 && (yFlags & CollisionDataFlag.BLOCK_MOVEMENT_FULL) == 0;
-        }
-        if (dx < 0 && dy < 0) { // SW
-            if ((sourceFlags & CollisionDataFlag.BLOCK_MOVEMENT_WEST) != 0 || (sourceFlags & CollisionDataFlag.BLOCK_MOVEMENT_SOUTH) != 0) return false;
-            if ((targetFlags & CollisionDataFlag.BLOCK_MOVEMENT_EAST) != 0 || (targetFlags & CollisionDataFlag.BLOCK_MOVEMENT_NORTH) != 0) return false;
-            return (xFlags & CollisionDataFlag.BLOCK_MOVEMENT_FULL) == 0 && (yFlags & CollisionDataFlag.BLOCK_MOVEMENT_FULL) == 0;
-        }
-
-        return false;
-    }
-
     /**
      * Renders a path on the minimap.
      *
@@ -0,0 +1,585 @@
+package com.kraken.api.service.pathfinding;
+
+import com.kraken.api.sim.CollisionDumper;
+import com.kraken.api.sim.WorldCollisionStore;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.coords.WorldPoint;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.kraken.api.sim.WorldCollisionStore.*;
+
+/**
+ * <p>
+ * The {@code WorldPathfinder} finds paths between any two points whose regions have been recorded in the
+ * {@link WorldCollisionStore}, including points far outside the loaded scene where {@link LocalPathfinder} can only
+ * walk to {@link LocalPathfinder#findEdgeOfScene(WorldPoint)}.
+ * </p>
+ *
+ * <p>
+ * Paths are found hierarchically. Every 64x64 region is a cluster whose entrances are the tiles where the region's
+ * border can be crossed (one entrance per short opening, two for wide openings). An abstract graph connects every pair
+ * of entrances within a cluster by their walking distance, and each entrance to the entrance across the border. A
+ * query connects the start and target to the entrances of their own regions, runs an A* search over the abstract graph
+ * and then refines each leg of the abstract path into tiles with a search confined to a single region. The graph of a
+ * region is built the first time it is searched and rebuilt only when the region (or a neighbouring region) changes.
+ * </p>
+ *
+ * <p>
+ * The abstract path to each recent target is cached. A script walking towards the same target calls this repeatedly
+ * from different start points, when the start can reach an entrance on the cached path within its own region the rest of
+ * the cached path is reused and only the legs are refined. Paths are near optimal rather than shortest, in the same way
+ * as other hierarchical pathfinders.
+ * </p>
+ */
+@Slf4j
+@Singleton
+public class WorldPathfinder {
+    private static final int CLUSTER_SIZE = REGION_SIZE;
+    private static final int CLUSTER_TILES = CLUSTER_SIZE * CLUSTER_SIZE;
+    private static final int MAX_COORDINATE = 256 * REGION_SIZE;
+    private static final int MAX_ENTRANCE_WIDTH = 6;
+    private static final int MAX_EXPANSIONS = 200_000;
+    private static final int MAX_CACHED_PATHS = 32;
+    private static final int GOAL = 1 << 30;
+    private static final int START = -1;
+
+    // Cardinal directions first so straight runs are preferred over diagonals of the same length
+    private static final int[] DX = {-1, 1, 0, 0, -1, 1, -1, 1};
+    private static final int[] DY = {0, 0, -1, 1, -1, -1, 1, 1};
+
+    private static final ThreadLocal<RegionSearch> SEARCH = ThreadLocal.withInitial(RegionSearch::new);
+
+    private final WorldCollisionStore store;
+    private final Map<Integer, Cluster> clusters = new ConcurrentHashMap<>();
+    private final Map<Integer, CachedPath> abstractPaths = Collections.synchronizedMap(new LinkedHashMap<Integer, CachedPath>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, CachedPath> eldest) {
+            return size() > MAX_CACHED_PATHS;
+        }
+    });
+
+    @Inject
+    public WorldPathfinder(final CollisionDumper collisionDumper) {
+        this(collisionDumper.getWorldStore());
+    }
+
+    WorldPathfinder(final WorldCollisionStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Finds a path between two points anywhere in the recorded world. Tiles which have never been recorded are treated
+     * as blocked so a path is only found through regions which have been loaded at some point.
+     * <p>
+     * This does not need to be (and should not be) called on the client thread.
+     *
+     * @param start {@literal @}WorldPoint representing the starting location of the path.
+     * @param target {@literal @}WorldPoint representing the destination point of the path.
+     * @return A {@literal @}List of {@literal @}WorldPoint objects representing every tile of the path after the start,
+     *         ending with the target. The list is empty if the start is the target and null if the target can not be reached.
+     */
+    public List<WorldPoint> findPath(WorldPoint start, WorldPoint target) {
+        if (start == null || target == null || start.getPlane() != target.getPlane()) {
+            return null;
+        }
+
+        if (!inBounds(start.getX(), start.getY()) || !inBounds(target.getX(), target.getY())) {
+            return null;
+        }
+
+        int plane = start.getPlane();
+        int startNode = node(plane, start.getX(), start.getY());
+        int targetNode = node(plane, target.getX(), target.getY());
+        if (startNode == targetNode) {
+            return new ArrayList<>();
+        }
+
+        if (store.get(target.getX(), target.getY(), plane) == BLOCKED) {
+            return null;
+        }
+
+        RegionSearch search = SEARCH.get();
+        Cluster startCluster = cluster(clusterKey(startNode));
+        Cluster targetCluster = cluster(clusterKey(targetNode));
+
+        // Distances from the start to the entrances of its region and from the target's region entrances to the target
+        int[] startCosts = search.costsTo(startNode, startCluster);
+        int[] targetCosts = search.costsTo(targetNode, targetCluster);
+        int direct = startCluster == targetCluster ? search.distance(startCluster, startNode, targetNode) : -1;
+
+        long version = store.getVersion();
+        int[] abstractPath = null;
+        CachedPath cached = abstractPaths.get(targetNode);
+        if (direct < 0 && cached != null && cached.version == version) {
+            abstractPath = resume(cached.nodes, startCluster, startCosts);
+        }
+
+        if (abstractPath == null) {
+            abstractPath = search(plane, startCluster, startCosts, targetNode, targetCluster, targetCosts, direct);
+            if (abstractPath == null) {
+                return null;
+            }
+
+            if (abstractPath.length > 0) {
+                abstractPaths.put(targetNode, new CachedPath(version, abstractPath));
+            }
+        }
+
+        return refine(search, startNode, abstractPath, targetNode);
+    }
+
+    /**
+     * Discards every cached region graph and abstract path.
+     */
+    public void clearCache() {
+        clusters.clear();
+        abstractPaths.clear();
+    }
+
+    /**
+     * Reuses the suffix of a cached abstract path from the furthest entrance along it which the start can reach within
+     * its own region.
+     */
+    private static int[] resume(int[] nodes, Cluster startCluster, int[] startCosts) {
+        for (int i = nodes.length - 1; i >= 0; i--) {
+            Integer index = startCluster.index.get(nodes[i]);
+            if (index != null && startCosts[index] >= 0) {
+                return Arrays.copyOfRange(nodes, i, nodes.length);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A* search over the abstract graph between the start and target. The start and target are not nodes in the graph,
+     * they are connected to the entrances of their regions by the given costs.
+     * @return The entrances visited by the path in order, empty if the direct path within a region is best or null if
+     *         there is no path.
+     */
+    private int[] search(int plane, Cluster startCluster, int[] startCosts, int targetNode, Cluster targetCluster,
+                         int[] targetCosts, int direct) {
+        int targetX = x(targetNode);
+        int targetY = y(targetNode);
+        Map<Integer, Integer> costs = new HashMap<>();
+        Map<Integer, Integer> parents = new HashMap<>();
+        PriorityQueue<Long> open = new PriorityQueue<>();
+
+        if (direct >= 0) {
+            costs.put(GOAL, direct);
+            parents.put(GOAL, START);
+            open.add(key(direct, GOAL));
+        }
+
+        for (int i = 0; i < startCluster.nodes.length; i++) {
+            if (startCosts[i] >= 0) {
+                relax(costs, parents, open, START, startCluster.nodes[i], startCosts[i], targetX, targetY);
+            }
+        }
+
+        int expansions = 0;
+        while (!open.isEmpty() && expansions++ < MAX_EXPANSIONS) {
+            long entry = open.poll();
+            int node = (int) entry;
+            int cost = costs.get(node);
+            if (node == GOAL) {
+                return unwind(parents);
+            }
+
+            if ((int) (entry >>> 32) != cost + heuristic(node, targetX, targetY)) {
+                continue; // A stale entry for a node which has since been reached more cheaply
+            }
+
+            Cluster cluster = cluster(clusterKey(node));
+            Integer index = cluster.index.get(node);
+            if (index == null) {
+                continue; // The region was recorded again during the search and this entrance no longer exists
+            }
+
+            int[] neighbours = cluster.neighbours[index];
+            int[] edgeCosts = cluster.costs[index];
+            for (int i = 0; i < neighbours.length; i++) {
+                relax(costs, parents, open, node, neighbours[i], cost + edgeCosts[i], targetX, targetY);
+            }
+
+            if (cluster == targetCluster && targetCosts[index] >= 0) {
+                relax(costs, parents, open, node, GOAL, cost + targetCosts[index], targetX, targetY);
+            }
+        }
+
+        if (expansions >= MAX_EXPANSIONS) {
+            log.warn("World path search on plane {} to ({}, {}) gave up after {} expansions", plane, targetX, targetY, MAX_EXPANSIONS);
+        }
+        return null;
+    }
+
+    private static void relax(Map<Integer, Integer> costs, Map<Integer, Integer> parents, PriorityQueue<Long> open,
+                              int from, int to, int cost, int targetX, int targetY) {
+        Integer existing = costs.get(to);
+        if (existing != null && existing <= cost) {
+            return;
+        }
+
+        costs.put(to, cost);
+        parents.put(to, from);
+        open.add(key(cost + (to == GOAL ? 0 : heuristic(to, targetX, targetY)), to));
+    }
+
+    private static int[] unwind(Map<Integer, Integer> parents) {
+        ArrayDeque<Integer> nodes = new ArrayDeque<>();
+        for (int node = parents.get(GOAL); node != START; node = parents.get(node)) {
+            nodes.addFirst(node);
+        }
+        return nodes.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Refines an abstract path into tiles. Consecutive entrances in the same region are joined by a search within the
+     * region, consecutive entrances in different regions are a single step across the border.
+     */
+    private List<WorldPoint> refine(RegionSearch search, int startNode, int[] abstractPath, int targetNode) {
+        List<WorldPoint> path = new ArrayList<>();
+        int from = startNode;
+        for (int i = 0; i <= abstractPath.length; i++) {
+            int to = i < abstractPath.length ? abstractPath[i] : targetNode;
+            if (from == to) {
+                continue;
+            }
+
+            if (clusterKey(from) != clusterKey(to)) {
+                path.add(point(to));
+            } else if (!search.appendPath(cluster(clusterKey(from)), from, to, path)) {
+                return null;
+            }
+            from = to;
+        }
+        return path;
+    }
+
+    /**
+     * Returns the abstract graph of a region, building it if the region or one of its neighbours has been recorded
+     * since it was last built.
+     */
+    private Cluster cluster(int key) {
+        int[] versions = versions(key);
+        Cluster cluster = clusters.get(key);
+        if (cluster != null && Arrays.equals(cluster.versions, versions)) {
+            return cluster;
+        }
+
+        cluster = build(key, versions);
+        clusters.put(key, cluster);
+        return cluster;
+    }
+
+    private int[] versions(int key) {
+        int plane = key >>> 16;
+        int originX = originX(key);
+        int originY = originY(key);
+        return new int[] {
+                store.getRegionVersion(key & 0xFFFF, plane),
+                regionVersion(originX + CLUSTER_SIZE, originY, plane),
+                regionVersion(originX, originY + CLUSTER_SIZE, plane),
+                regionVersion(originX - 1, originY, plane),
+                regionVersion(originX, originY - 1, plane)
+        };
+    }
+
+    private int regionVersion(int x, int y, int plane) {
+        return inBounds(x, y) ? store.getRegionVersion(regionId(x, y), plane) : 0;
+    }
+
+    private Cluster build(int key, int[] versions) {
+        int plane = key >>> 16;
+        int originX = originX(key);
+        int originY = originY(key);
+        int maxX = originX + CLUSTER_SIZE - 1;
+        int maxY = originY + CLUSTER_SIZE - 1;
+
+        // Entrance tile -> tiles across the border it can step to
+        Map<Integer, List<Integer>> entrances = new LinkedHashMap<>();
+        for (int offset : crossings(plane, maxX, originY, true)) {
+            entrance(entrances, node(plane, maxX, originY + offset), node(plane, maxX + 1, originY + offset));
+        }
+        for (int offset : crossings(plane, originX, maxY, false)) {
+            entrance(entrances, node(plane, originX + offset, maxY), node(plane, originX + offset, maxY + 1));
+        }
+        if (originX > 0) {
+            for (int offset : crossings(plane, originX - 1, originY, true)) {
+                entrance(entrances, node(plane, originX, originY + offset), node(plane, originX - 1, originY + offset));
+            }
+        }
+        if (originY > 0) {
+            for (int offset : crossings(plane, originX, originY - 1, false)) {
+                entrance(entrances, node(plane, originX + offset, originY), node(plane, originX + offset, originY - 1));
+            }
+        }
+
+        int[] nodes = entrances.keySet().stream().mapToInt(Integer::intValue).toArray();
+        Map<Integer, Integer> index = new HashMap<>();
+        for (int i = 0; i < nodes.length; i++) {
+            index.put(nodes[i], i);
+        }
+
+        RegionSearch search = SEARCH.get();
+        byte[] moves = search.moves(store, key);
+        int[][] neighbours = new int[nodes.length][];
+        int[][] costs = new int[nodes.length][];
+        for (int i = 0; i < nodes.length; i++) {
+            search.flood(moves, local(nodes[i]), -1);
+            List<Integer> across = entrances.get(nodes[i]);
+            int[] nodeNeighbours = new int[nodes.length - 1 + across.size()];
+            int[] nodeCosts = new int[nodeNeighbours.length];
+            int count = 0;
+            for (int j = 0; j < nodes.length; j++) {
+                int distance = search.distance[local(nodes[j])];
+                if (j != i && distance >= 0) {
+                    nodeNeighbours[count] = nodes[j];
+                    nodeCosts[count++] = distance;
+                }
+            }
+            for (int node : across) {
+                nodeNeighbours[count] = node;
+                nodeCosts[count++] = 1;
+            }
+            neighbours[i] = Arrays.copyOf(nodeNeighbours, count);
+            costs[i] = Arrays.copyOf(nodeCosts, count);
+        }
+
+        return new Cluster(versions, moves, nodes, index, neighbours, costs);
+    }
+
+    private static void entrance(Map<Integer, List<Integer>> entrances, int inside, int outside) {
+        entrances.computeIfAbsent(inside, k -> new ArrayList<>(1)).add(outside);
+    }
+
+    /**
+     * Finds the crossings along a region border. The border is given by the tile on its south (vertical borders) or
+     * west (horizontal borders) side at the start of the border so both regions sharing a border pick the same tiles.
+     * @return Offsets along the border of the picked crossings, the middle of each short opening and both ends of each
+     *         wide opening.
+     */
+    private List<Integer> crossings(int plane, int x, int y, boolean vertical) {
+        List<Integer> offsets = new ArrayList<>();
+        int runStart = -1;
+        for (int i = 0; i <= CLUSTER_SIZE; i++) {
+            boolean open = i < CLUSTER_SIZE && (vertical
+                    ? store.canMove(x, y + i, plane, 1, 0) && store.canMove(x + 1, y + i, plane, -1, 0)
+                    : store.canMove(x + i, y, plane, 0, 1) && store.canMove(x + i, y + 1, plane, 0, -1));
+            if (open && runStart < 0) {
+                runStart = i;
+            } else if (!open && runStart >= 0) {
+                int runEnd = i - 1;
+                if (runEnd - runStart + 1 < MAX_ENTRANCE_WIDTH) {
+                    offsets.add((runStart + runEnd) / 2);
+                } else {
+                    offsets.add(runStart);
+                    offsets.add(runEnd);
+                }
+                runStart = -1;
+            }
+        }
+        return offsets;
+    }
+
+    private static long key(int priority, int node) {
+        return ((long) priority << 32) | node;
+    }
+
+    private static int heuristic(int node, int targetX, int targetY) {
+        return Math.max(Math.abs(x(node) - targetX), Math.abs(y(node) - targetY));
+    }
+
+    private static boolean inBounds(int x, int y) {
+        return x >= 0 && y >= 0 && x < MAX_COORDINATE && y < MAX_COORDINATE;
+    }
+
+    private static int node(int plane, int x, int y) {
+        return (plane << 28) | (x << 14) | y;
+    }
+
+    private static int x(int node) {
+        return (node >>> 14) & 0x3FFF;
+    }
+
+    private static int y(int node) {
+        return node & 0x3FFF;
+    }
+
+    private static int plane(int node) {
+        return node >>> 28;
+    }
+
+    private static WorldPoint point(int node) {
+        return new WorldPoint(x(node), y(node), plane(node));
+    }
+
+    private static int clusterKey(int node) {
+        return (plane(node) << 16) | regionId(x(node), y(node));
+    }
+
+    private static int originX(int key) {
+        return ((key >> 8) & 0xFF) * CLUSTER_SIZE;
+    }
+
+    private static int originY(int key) {
+        return (key & 0xFF) * CLUSTER_SIZE;
+    }
+
+    private static int local(int node) {
+        return ((x(node) & (CLUSTER_SIZE - 1)) << 6) | (y(node) & (CLUSTER_SIZE - 1));
+    }
+
+    /**
+     * The abstract graph of a single region.
+     */
+    private static final class Cluster {
+        private final int[] versions;
+        private final byte[] moves;
+        private final int[] nodes;
+        private final Map<Integer, Integer> index;
+        private final int[][] neighbours;
+        private final int[][] costs;
+
+        private Cluster(int[] versions, byte[] moves, int[] nodes, Map<Integer, Integer> index, int[][] neighbours, int[][] costs) {
+            this.versions = versions;
+            this.moves = moves;
+            this.nodes = nodes;
+            this.index = index;
+            this.neighbours = neighbours;
+            this.costs = costs;
+        }
+    }
+
+    private static final class CachedPath {
+        private final long version;
+        private final int[] nodes;
+
+        private CachedPath(long version, int[] nodes) {
+            this.version = version;
+            this.nodes = nodes;
+        }
+    }
+
+    /**
+     * Per thread buffers for breadth first searches confined to a single region.
+     */
+    private static final class RegionSearch {
+        private final byte[] tiles = new byte[CLUSTER_TILES];
+        private final int[] distance = new int[CLUSTER_TILES];
+        private final int[] parent = new int[CLUSTER_TILES];
+        private final int[] queue = new int[CLUSTER_TILES];
+
+        /**
+         * Reads a region from the store and works out which of the 8 directions can be stepped in from each tile
+         * without leaving the region, bit {@code d} of a tile's mask is set if the step {@code (DX[d], DY[d])} is allowed.
+         */
+        private byte[] moves(WorldCollisionStore store, int key) {
+            store.readRegion(key & 0xFFFF, key >>> 16, tiles);
+            byte[] moves = new byte[CLUSTER_TILES];
+            for (int x = 0; x < CLUSTER_SIZE; x++) {
+                for (int y = 0; y < CLUSTER_SIZE; y++) {
+                    int mask = 0;
+                    for (int d = 0; d < DX.length; d++) {
+                        if (canStep(x, y, DX[d], DY[d])) {
+                            mask |= 1 << d;
+                        }
+                    }
+                    moves[(x << 6) | y] = (byte) mask;
+                }
+            }
+            return moves;
+        }
+
+        /**
+         * Searches a region outwards from a tile, filling {@link #distance} and {@link #parent}. The search stops early
+         * once the goal has been reached, pass -1 to search the whole region.
+         */
+        private void flood(byte[] moves, int start, int goal) {
+            Arrays.fill(distance, -1);
+            distance[start] = 0;
+            parent[start] = -1;
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = start;
+            while (head < tail) {
+                int index = queue[head++];
+                if (index == goal) {
+                    return;
+                }
+
+                int mask = moves[index] & 0xFF;
+                for (int d = 0; mask != 0; d++, mask >>>= 1) {
+                    if ((mask & 1) == 0) {
+                        continue;
+                    }
+
+                    int next = index + (DX[d] << 6) + DY[d];
+                    if (distance[next] < 0) {
+                        distance[next] = distance[index] + 1;
+                        parent[next] = index;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+        }
+
+        private boolean canStep(int x, int y, int dx, int dy) {
+            int nx = x + dx;
+            int ny = y + dy;
+            if (nx < 0 || ny < 0 || nx >= CLUSTER_SIZE || ny >= CLUSTER_SIZE) {
+                return false;
+            }
+
+            int xBit = dx > 0 ? BLOCK_EAST : dx < 0 ? BLOCK_WEST : 0;
+            int yBit = dy > 0 ? BLOCK_NORTH : dy < 0 ? BLOCK_SOUTH : 0;
+            if ((tiles[(nx << 6) | ny] & (xBit | yBit)) != 0) {
+                return false;
+            }
+
+            return dx == 0 || dy == 0 || ((tiles[(nx << 6) | y] & xBit) == 0 && (tiles[(x << 6) | ny] & yBit) == 0);
+        }
+
+        /**
+         * Returns the distance between a tile and each entrance of its region within the region, -1 where unreachable.
+         * Distances are measured from the tile outwards and used in both directions.
+         */
+        private int[] costsTo(int node, Cluster cluster) {
+            flood(cluster.moves, local(node), -1);
+            int[] costs = new int[cluster.nodes.length];
+            for (int i = 0; i < costs.length; i++) {
+                costs[i] = distance[local(cluster.nodes[i])];
+            }
+            return costs;
+        }
+
+        private int distance(Cluster cluster, int from, int to) {
+            flood(cluster.moves, local(from), local(to));
+            return distance[local(to)];
+        }
+
+        /**
+         * Appends the tiles of the shortest path between two tiles of the same region, excluding the first tile.
+         * @return False if there is no path within the region
+         */
+        private boolean appendPath(Cluster cluster, int from, int to, List<WorldPoint> path) {
+            int end = local(to);
+            flood(cluster.moves, local(from), end);
+            if (distance[end] < 0) {
+                return false;
+            }
+
+            int originX = x(from) & ~(CLUSTER_SIZE - 1);
+            int originY = y(from) & ~(CLUSTER_SIZE - 1);
+            int plane = plane(from);
+            int insertAt = path.size();
+            for (int index = end; index != local(from); index = parent[index]) {
+                path.add(insertAt, new WorldPoint(originX + (index >> 6), originY + (index & (CLUSTER_SIZE - 1)), plane));
+            }
+            return true;
+        }
+    }
+}
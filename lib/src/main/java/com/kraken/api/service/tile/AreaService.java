@@ -6,9 +6,7 @@ import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Client;
 import net.runelite.api.coords.WorldPoint;
 
-import java.awt.*;
 import java.util.*;
-import java.util.List;
 
 @Slf4j
 @Singleton
@@ -27,26 +25,20 @@ public class AreaService {
      * @return GameArea the game area containing the WorldPoints within the radius
      */
     public GameArea createAreaFromRadius(WorldPoint center, int radius) {
-        Set<WorldPoint> points = new HashSet<>();
-        for (int x = -radius; x <= radius; x++) {
-            for (int y = -radius; y <= radius; y++) {
-                points.add(center.dx(x).dy(y));
-            }
-        }
-        return new GameArea(points, center);
+        return GameArea.rectangle(center.dx(-radius).dy(-radius), center.dx(radius).dy(radius), center);
     }
 
     /**
      * Creates an area based on movement reachability (BFS).
-     * Uses your existing TileService logic.
+     * Uses the {@link FloodFill} reachability from {@link TileService#getReachableTiles(WorldPoint, int, boolean)}.
      * @param center The center of the reachable area
      * @param range The range that the reachable area should extend to
      * @param ignoreCollision True if collision maps should be ignored when generating the game area
      * @return GameArea the game area containing the WorldPoints within the radius
      */
     public GameArea createReachableArea(WorldPoint center, int range, boolean ignoreCollision) {
-        Map<WorldPoint, Integer> reachableMap = tileService.getReachableTilesFromTile(center, range, ignoreCollision);
-        return new GameArea(reachableMap.keySet(), center);
+        DistanceGrid reachable = tileService.getReachableTiles(center, range, ignoreCollision);
+        return new GameArea(reachable.points(), center);
     }
 
     /**
@@ -77,32 +69,8 @@ public class AreaService {
             return new GameArea(Collections.emptySet(), vertices[0]);
         }
 
-        Polygon polygon = new Polygon();
-        int plane = vertices[0].getPlane();
-        int minX = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE;
-        int minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;
-
-        for (WorldPoint wp : vertices) {
-            polygon.addPoint(wp.getX(), wp.getY());
-            // Track bounds to optimize the loop
-            if (wp.getX() < minX) minX = wp.getX();
-            if (wp.getX() > maxX) maxX = wp.getX();
-            if (wp.getY() < minY) minY = wp.getY();
-            if (wp.getY() > maxY) maxY = wp.getY();
-        }
-
-        // Iterate through the bounding box and check which tiles are inside
-        Set<WorldPoint> points = new HashSet<>();
-        for (int x = minX; x <= maxX; x++) {
-            for (int y = minY; y <= maxY; y++) {
-                if (polygon.contains(x, y)) {
-                    points.add(new WorldPoint(x, y, plane));
-                }
-            }
-        }
-
-        // Use the first vertex as a reference center, or calculate geometric center if needed
-        return new GameArea(points, vertices[0]);
+        // Rasterized row by row from the polygon's edges, the first vertex is used as a reference center
+        return GameArea.polygon(vertices, vertices[0]);
     }
 
     /**
@@ -115,6 +83,6 @@ public class AreaService {
      * @return GameArea the game area containing the WorldPoints specified in the set.
      */
     public GameArea createFromPoints(Collection<WorldPoint> points) {
-        return new GameArea(new HashSet<>(points), points.stream().findFirst().orElse(null));
+        return new GameArea(points, points.stream().findFirst().orElse(null));
     }
 }
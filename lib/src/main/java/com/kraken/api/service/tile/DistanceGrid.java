@@ -0,0 +1,142 @@
+package com.kraken.api.service.tile;
+
+import net.runelite.api.coords.WorldPoint;
+
+import java.util.*;
+
+/**
+ * The result of a {@link FloodFill}: the walking distance from an origin to every tile of the scene which was reached.
+ * Distances are stored in a flat {@code short[]} indexed by scene coordinates so lookups are a single array read, and the
+ * reached tiles are kept in the order they were discovered (closest first). {@link WorldPoint}s are only created when one of
+ * the world point views ({@link #points()}, {@link #toMap()}) is requested.
+ */
+public final class DistanceGrid {
+
+    /**
+     * Converts a scene coordinate into a world point. This is a plain offset from the scene base for regular scenes
+     * and a chunk lookup for instances.
+     */
+    @FunctionalInterface
+    public interface SceneMapper {
+        WorldPoint toWorld(int sceneX, int sceneY);
+    }
+
+    private static final DistanceGrid EMPTY = new DistanceGrid(0, 0, new short[0], new int[0], (x, y) -> null);
+
+    private final int width;
+    private final int height;
+    private final short[] distances;
+    private final int[] order;
+    private final SceneMapper mapper;
+
+    DistanceGrid(int width, int height, short[] distances, int[] order, SceneMapper mapper) {
+        this.width = width;
+        this.height = height;
+        this.distances = distances;
+        this.order = order;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Returns a grid containing no tiles.
+     * @return An empty grid
+     */
+    public static DistanceGrid empty() {
+        return EMPTY;
+    }
+
+    /**
+     * The number of tiles which were reached.
+     * @return int number of reached tiles
+     */
+    public int size() {
+        return order.length;
+    }
+
+    /**
+     * Returns true if no tiles were reached.
+     * @return boolean
+     */
+    public boolean isEmpty() {
+        return order.length == 0;
+    }
+
+    /**
+     * Returns the distance to a tile in scene coordinates.
+     * @param sceneX The scene x coordinate
+     * @param sceneY The scene y coordinate
+     * @return The distance to the tile, or -1 if it was not reached
+     */
+    public int distanceTo(int sceneX, int sceneY) {
+        if (sceneX < 0 || sceneY < 0 || sceneX >= width || sceneY >= height) {
+            return -1;
+        }
+        return distances[sceneX * height + sceneY];
+    }
+
+    /**
+     * Returns true if the tile in scene coordinates was reached.
+     * @param sceneX The scene x coordinate
+     * @param sceneY The scene y coordinate
+     * @return True if the tile was reached
+     */
+    public boolean contains(int sceneX, int sceneY) {
+        return distanceTo(sceneX, sceneY) >= 0;
+    }
+
+    /**
+     * Returns the reached tiles as packed scene indices ({@code sceneX * height + sceneY}) in the order they were
+     * discovered.
+     * @return A copy of the reached scene indices
+     */
+    public int[] sceneIndices() {
+        return order.clone();
+    }
+
+    /**
+     * The height of the grid, used to unpack the values returned by {@link #sceneIndices()}.
+     * @return int grid height
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Converts a packed scene index returned by {@link #sceneIndices()} into a world point.
+     * @param sceneIndex The packed scene index
+     * @return The world point, or null if it cannot be mapped to the world
+     */
+    public WorldPoint toWorld(int sceneIndex) {
+        return mapper.toWorld(sceneIndex / height, sceneIndex % height);
+    }
+
+    /**
+     * Returns the reached tiles as world points in the order they were discovered.
+     * @return A list of reached world points
+     */
+    public List<WorldPoint> points() {
+        List<WorldPoint> points = new ArrayList<>(order.length);
+        for (int index : order) {
+            WorldPoint point = toWorld(index);
+            if (point != null) {
+                points.add(point);
+            }
+        }
+        return points;
+    }
+
+    /**
+     * Returns the reached tiles mapped to their distance from the origin.
+     * @return A map of world point to distance
+     */
+    public HashMap<WorldPoint, Integer> toMap() {
+        HashMap<WorldPoint, Integer> map = new HashMap<>(Math.max(16, (int) (order.length / 0.75f) + 1));
+        for (int index : order) {
+            WorldPoint point = toWorld(index);
+            if (point != null) {
+                map.put(point, (int) distances[index]);
+            }
+        }
+        return map;
+    }
+}
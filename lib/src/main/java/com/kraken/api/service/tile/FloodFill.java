@@ -0,0 +1,100 @@
+package com.kraken.api.service.tile;
+
+import net.runelite.api.CollisionDataFlag;
+
+import java.util.Arrays;
+
+/**
+ * A breadth first flood fill over a scene's collision flags. Tiles are addressed by a single {@code int} scene index and
+ * collision is checked with bitmasks directly against the flags, so a fill allocates nothing but its result. The queue is a
+ * per-thread buffer which is reused across calls.
+ * <p>
+ * Movement follows the same rules as the existing reachability checks: a tile can be left in a cardinal direction unless
+ * its own flags block movement in that direction, and a tile can be entered unless it is fully blocked (objects, floor
+ * decoration or blocked floor). When collision is ignored every tile can be entered, but directional blocks are still respected.
+ */
+public final class FloodFill {
+    private static final int BLOCKED = CollisionDataFlag.BLOCK_MOVEMENT_FULL | CollisionDataFlag.BLOCK_MOVEMENT_FLOOR;
+    private static final ThreadLocal<int[]> QUEUE = ThreadLocal.withInitial(() -> new int[104 * 104]);
+
+    private FloodFill() {
+    }
+
+    /**
+     * Flood fills outwards from a starting tile.
+     * @param flags The collision flags of the scene plane, indexed {@code [x][y]}
+     * @param startX The scene x coordinate to start from
+     * @param startY The scene y coordinate to start from
+     * @param maxDistance The maximum number of steps to walk from the start
+     * @param ignoreCollision True if fully blocked tiles may be entered
+     * @param mapper Converts scene coordinates to world points for the result's world point views
+     * @return The distance to each tile which was reached. The starting tile is always included.
+     */
+    public static DistanceGrid fill(int[][] flags, int startX, int startY, int maxDistance, boolean ignoreCollision,
+                                    DistanceGrid.SceneMapper mapper) {
+        if (flags == null || flags.length == 0) {
+            return DistanceGrid.empty();
+        }
+
+        final int width = flags.length;
+        final int height = flags[0].length;
+        if (startX < 0 || startY < 0 || startX >= width || startY >= height) {
+            return DistanceGrid.empty();
+        }
+
+        int[] queue = QUEUE.get();
+        if (queue.length < width * height) {
+            queue = new int[width * height];
+            QUEUE.set(queue);
+        }
+
+        short[] distances = new short[width * height];
+        Arrays.fill(distances, (short) -1);
+
+        final int enterMask = ignoreCollision ? 0 : BLOCKED;
+        int head = 0;
+        int tail = 0;
+        int start = startX * height + startY;
+        distances[start] = 0;
+        queue[tail++] = start;
+
+        while (head < tail) {
+            int index = queue[head++];
+            int distance = distances[index];
+            if (distance >= maxDistance) {
+                continue;
+            }
+
+            int x = index / height;
+            int y = index - x * height;
+            int tileFlags = flags[x][y];
+            short next = (short) (distance + 1);
+
+            if ((tileFlags & CollisionDataFlag.BLOCK_MOVEMENT_EAST) == 0 && x + 1 < width) {
+                tail = visit(flags, distances, queue, tail, x + 1, y, height, next, enterMask);
+            }
+            if ((tileFlags & CollisionDataFlag.BLOCK_MOVEMENT_WEST) == 0 && x > 0) {
+                tail = visit(flags, distances, queue, tail, x - 1, y, height, next, enterMask);
+            }
+            if ((tileFlags & CollisionDataFlag.BLOCK_MOVEMENT_NORTH) == 0 && y + 1 < height) {
+                tail = visit(flags, distances, queue, tail, x, y + 1, height, next, enterMask);
+            }
+            if ((tileFlags & CollisionDataFlag.BLOCK_MOVEMENT_SOUTH) == 0 && y > 0) {
+                tail = visit(flags, distances, queue, tail, x, y - 1, height, next, enterMask);
+            }
+        }
+
+        return new DistanceGrid(width, height, distances, Arrays.copyOf(queue, tail), mapper);
+    }
+
+    private static int visit(int[][] flags, short[] distances, int[] queue, int tail, int x, int y, int height, short distance, int enterMask) {
+        int index = x * height + y;
+        if (distances[index] >= 0 || (flags[x][y] & enterMask) != 0) {
+            return tail;
+        }
+
+        distances[index] = distance;
+        queue[tail] = index;
+        return tail + 1;
+    }
+}
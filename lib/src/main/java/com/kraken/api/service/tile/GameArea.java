@@ -1,35 +1,286 @@
 package com.kraken.api.service.tile;
 
-import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 import net.runelite.api.Client;
 import net.runelite.api.Perspective;
 import net.runelite.api.coords.LocalPoint;
 import net.runelite.api.coords.WorldPoint;
 
 import java.awt.*;
-import java.util.HashSet;
-import java.util.Random;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Encapsulates a set of tiles representing an area.
  * Provides helper methods for checking containment, retrieval, and visualization.
+ * <p>
+ * Tiles are stored as a bitset over the area's bounding box (one bit per tile, row by row and plane by plane) so
+ * {@link #contains(WorldPoint)} is a bounds check and a bit test, and unions, intersections and differences combine
+ * 64 tiles per operation. Areas are immutable.
  */
-@RequiredArgsConstructor
 public class GameArea {
-
-    @Getter
-    private final Set<WorldPoint> tiles;
     private final WorldPoint centerRef;
 
+    private final int minX;
+    private final int minY;
+    private final int minPlane;
+    private final int width;
+    private final int height;
+    private final int planes;
+    private final long[] words;
+    private final int size;
+
+    // Bit index of every tile, built on the first call to getRandomTile()
+    private volatile int[] members;
+
+    /**
+     * Creates an area from a collection of tiles.
+     * @param tiles The tiles in the area, null tiles are ignored
+     * @param centerRef A reference point for the area, usually the point it was created around
+     */
+    public GameArea(Collection<WorldPoint> tiles, WorldPoint centerRef) {
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, minPlane = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE, maxPlane = Integer.MIN_VALUE;
+        for (WorldPoint tile : tiles) {
+            if (tile == null) continue;
+            minX = Math.min(minX, tile.getX());
+            minY = Math.min(minY, tile.getY());
+            minPlane = Math.min(minPlane, tile.getPlane());
+            maxX = Math.max(maxX, tile.getX());
+            maxY = Math.max(maxY, tile.getY());
+            maxPlane = Math.max(maxPlane, tile.getPlane());
+        }
+
+        this.centerRef = centerRef;
+        if (minX > maxX) {
+            this.minX = this.minY = this.minPlane = 0;
+            this.width = this.height = this.planes = 0;
+            this.words = new long[0];
+            this.size = 0;
+            return;
+        }
+
+        this.minX = minX;
+        this.minY = minY;
+        this.minPlane = minPlane;
+        this.width = maxX - minX + 1;
+        this.height = maxY - minY + 1;
+        this.planes = maxPlane - minPlane + 1;
+        this.words = new long[wordCount((long) width * height * planes)];
+        for (WorldPoint tile : tiles) {
+            if (tile == null) continue;
+            long bit = index(tile.getX(), tile.getY(), tile.getPlane());
+            words[(int) (bit >>> 6)] |= 1L << bit;
+        }
+        this.size = cardinality(words);
+    }
+
+    private GameArea(WorldPoint centerRef, int minX, int minY, int minPlane, int width, int height, int planes, long[] words) {
+        this.centerRef = centerRef;
+        this.minX = minX;
+        this.minY = minY;
+        this.minPlane = minPlane;
+        this.width = width;
+        this.height = height;
+        this.planes = planes;
+        this.words = words;
+        this.size = cardinality(words);
+    }
+
+    /**
+     * Creates a rectangular area containing every tile between two corners, inclusive.
+     * @param southWest The south west corner
+     * @param northEast The north east corner, on the same plane
+     * @param centerRef A reference point for the area
+     * @return The area
+     */
+    public static GameArea rectangle(WorldPoint southWest, WorldPoint northEast, WorldPoint centerRef) {
+        int width = northEast.getX() - southWest.getX() + 1;
+        int height = northEast.getY() - southWest.getY() + 1;
+        if (width <= 0 || height <= 0) {
+            return new GameArea(Collections.emptySet(), centerRef);
+        }
+
+        long[] words = new long[wordCount((long) width * height)];
+        setRange(words, 0, (long) width * height);
+        return new GameArea(centerRef, southWest.getX(), southWest.getY(), southWest.getPlane(), width, height, 1, words);
+    }
+
+    /**
+     * Creates an area from the tiles inside a polygon. A tile is inside exactly when
+     * {@link Polygon#contains(int, int)} would return true for its coordinates, but whole runs of tiles are filled
+     * per row from the polygon's edge crossings instead of testing every tile in the bounding box.
+     * @param vertices The vertices of the polygon, the plane is taken from the first vertex
+     * @param centerRef A reference point for the area
+     * @return The area
+     */
+    public static GameArea polygon(WorldPoint[] vertices, WorldPoint centerRef) {
+        int n = vertices.length;
+        int minX = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE;
+        int minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;
+        for (WorldPoint vertex : vertices) {
+            minX = Math.min(minX, vertex.getX());
+            maxX = Math.max(maxX, vertex.getX());
+            minY = Math.min(minY, vertex.getY());
+            maxY = Math.max(maxY, vertex.getY());
+        }
+
+        // Polygon.contains excludes the maximum x and y of the bounding box
+        int width = maxX - minX;
+        int height = maxY - minY;
+        if (n < 3 || width <= 0 || height <= 0) {
+            return new GameArea(Collections.emptySet(), centerRef);
+        }
+
+        long[] words = new long[wordCount((long) width * height)];
+        int[] thresholds = new int[n];
+        for (int row = 0; row < height; row++) {
+            int y = minY + row;
+            int count = 0;
+            int lastX = vertices[n - 1].getX();
+            int lastY = vertices[n - 1].getY();
+            for (int i = 0; i < n; i++) {
+                int curX = vertices[i].getX();
+                int curY = vertices[i].getY();
+                int threshold = crossing(lastX, lastY, curX, curY, y);
+                if (threshold != Integer.MIN_VALUE) {
+                    thresholds[count++] = threshold;
+                }
+                lastX = curX;
+                lastY = curY;
+            }
+
+            // A tile is inside when an odd number of edges cross the row to its right, i.e. have a threshold above it
+            Arrays.sort(thresholds, 0, count);
+            long rowStart = (long) row * width;
+            for (int i = count % 2 == 0 ? 0 : -1; i < count; i += 2) {
+                int from = Math.max(i < 0 ? minX : thresholds[i], minX);
+                int to = Math.min(thresholds[i + 1], maxX);
+                if (from < to) {
+                    setRange(words, rowStart + from - minX, to - from);
+                }
+            }
+        }
+        return new GameArea(centerRef, minX, minY, vertices[0].getPlane(), width, height, 1, words);
+    }
+
+    /**
+     * Returns the first x at which an edge no longer counts as a crossing for {@link Polygon#contains(double, double)}
+     * on row y. Every x below the threshold is counted as crossed by the edge. This mirrors the arithmetic of
+     * {@code Polygon.contains} so rasterized areas match it tile for tile.
+     * @return The threshold, or {@link Integer#MIN_VALUE} if the edge does not span the row
+     */
+    private static int crossing(int lastX, int lastY, int curX, int curY, int y) {
+        if (curY == lastY) {
+            return Integer.MIN_VALUE;
+        }
+
+        int leftX = Math.min(curX, lastX);
+        int rightX = Math.max(curX, lastX);
+        int x0;
+        int y0;
+        if (curY < lastY) {
+            if (y < curY || y >= lastY) return Integer.MIN_VALUE;
+            x0 = curX;
+            y0 = curY;
+        } else {
+            if (y < lastY || y >= curY) return Integer.MIN_VALUE;
+            x0 = lastX;
+            y0 = lastY;
+        }
+
+        double offset = (double) (y - y0) / (lastY - curY) * (lastX - curX);
+        long threshold = x0 + (long) Math.ceil(offset);
+        return (int) Math.min(rightX, Math.max(leftX, threshold));
+    }
+
+    /**
+     * Returns the tiles in the area. The set is a read only view of the area, membership checks are constant time and
+     * iteration visits tiles plane by plane from south to north and west to east.
+     * @return The tiles in the area
+     */
+    public Set<WorldPoint> getTiles() {
+        return new AbstractSet<WorldPoint>() {
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof WorldPoint && GameArea.this.contains((WorldPoint) o);
+            }
+
+            @Override
+            public Iterator<WorldPoint> iterator() {
+                return new Iterator<WorldPoint>() {
+                    private long next = nextSetBit(0);
+
+                    @Override
+                    public boolean hasNext() {
+                        return next >= 0;
+                    }
+
+                    @Override
+                    public WorldPoint next() {
+                        if (next < 0) {
+                            throw new NoSuchElementException();
+                        }
+                        WorldPoint point = toPoint(next);
+                        next = nextSetBit(next + 1);
+                        return point;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * The number of tiles in the area.
+     * @return The number of tiles
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns true if the area has no tiles.
+     * @return True if the area is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
     /**
      * Checks if the given world point is inside this area.
      * @param point The world point to check
      * @return true if the world point is contained within the set of tiles and false otherwise.
      */
     public boolean contains(WorldPoint point) {
-        return tiles.contains(point);
+        return point != null && contains(point.getX(), point.getY(), point.getPlane());
+    }
+
+    /**
+     * Checks if the tile at the given coordinates is inside this area.
+     * @param x The world x coordinate
+     * @param y The world y coordinate
+     * @param plane The plane
+     * @return true if the tile is contained within the area and false otherwise.
+     */
+    public boolean contains(int x, int y, int plane) {
+        int dx = x - minX;
+        int dy = y - minY;
+        int dp = plane - minPlane;
+        if (dx < 0 || dx >= width || dy < 0 || dy >= height || dp < 0 || dp >= planes) {
+            return false;
+        }
+        long bit = ((long) dp * height + dy) * width + dx;
+        return (words[(int) (bit >>> 6)] & (1L << bit)) != 0;
     }
 
     /**
@@ -37,15 +288,17 @@ public class GameArea {
      * @return A random tile within the set of tiles
      */
     public WorldPoint getRandomTile() {
-        if (tiles.isEmpty()) return null;
-        int size = tiles.size();
-        int item = new Random().nextInt(size);
-        int i = 0;
-        for (WorldPoint obj : tiles) {
-            if (i == item) return obj;
-            i++;
+        if (size == 0) return null;
+        int[] indices = members;
+        if (indices == null) {
+            indices = new int[size];
+            int i = 0;
+            for (long bit = nextSetBit(0); bit >= 0; bit = nextSetBit(bit + 1)) {
+                indices[i++] = (int) bit;
+            }
+            members = indices;
         }
-        return null;
+        return toPoint(indices[ThreadLocalRandom.current().nextInt(indices.length)]);
     }
 
     /**
@@ -54,9 +307,58 @@ public class GameArea {
      * @return GameArea the union tiles of the two game areas (the tiles that overlap).
      */
     public GameArea union(GameArea other) {
-        Set<WorldPoint> newSet = new HashSet<>(this.tiles);
-        newSet.addAll(other.getTiles());
-        return new GameArea(newSet, this.centerRef);
+        if (other.size == 0) return this;
+        if (size == 0) return new GameArea(centerRef, other.minX, other.minY, other.minPlane, other.width, other.height, other.planes, other.words);
+        if (sameBounds(other)) {
+            long[] result = words.clone();
+            for (int i = 0; i < result.length; i++) {
+                result[i] |= other.words[i];
+            }
+            return withWords(result);
+        }
+
+        int minX = Math.min(this.minX, other.minX);
+        int minY = Math.min(this.minY, other.minY);
+        int minPlane = Math.min(this.minPlane, other.minPlane);
+        int width = Math.max(this.minX + this.width, other.minX + other.width) - minX;
+        int height = Math.max(this.minY + this.height, other.minY + other.height) - minY;
+        int planes = Math.max(this.minPlane + this.planes, other.minPlane + other.planes) - minPlane;
+        GameArea bounds = new GameArea(centerRef, minX, minY, minPlane, width, height, planes, new long[0]);
+        long[] result = new long[wordCount((long) width * height * planes)];
+        this.copyInto(bounds, result, false);
+        other.copyInto(bounds, result, false);
+        return new GameArea(centerRef, minX, minY, minPlane, width, height, planes, result);
+    }
+
+    /**
+     * Keeps only the tiles which are also in another area (Intersection).
+     * @param other Another game area
+     * @return GameArea the tiles which are in both game areas
+     */
+    public GameArea intersect(GameArea other) {
+        if (sameBounds(other)) {
+            long[] result = words.clone();
+            for (int i = 0; i < result.length; i++) {
+                result[i] &= other.words[i];
+            }
+            return withWords(result);
+        }
+
+        int minX = Math.max(this.minX, other.minX);
+        int minY = Math.max(this.minY, other.minY);
+        int minPlane = Math.max(this.minPlane, other.minPlane);
+        int width = Math.min(this.minX + this.width, other.minX + other.width) - minX;
+        int height = Math.min(this.minY + this.height, other.minY + other.height) - minY;
+        int planes = Math.min(this.minPlane + this.planes, other.minPlane + other.planes) - minPlane;
+        if (size == 0 || other.size == 0 || width <= 0 || height <= 0 || planes <= 0) {
+            return new GameArea(Collections.emptySet(), centerRef);
+        }
+
+        GameArea bounds = new GameArea(centerRef, minX, minY, minPlane, width, height, planes, new long[0]);
+        long[] result = new long[wordCount((long) width * height * planes)];
+        this.copyInto(bounds, result, false);
+        other.copyInto(bounds, result, true);
+        return new GameArea(centerRef, minX, minY, minPlane, width, height, planes, result);
     }
 
     /**
@@ -65,9 +367,36 @@ public class GameArea {
      * @return GameArea the tiles which are not in the other game area
      */
     public GameArea subtract(GameArea other) {
-        Set<WorldPoint> newSet = new HashSet<>(this.tiles);
-        newSet.removeAll(other.getTiles());
-        return new GameArea(newSet, this.centerRef);
+        if (sameBounds(other)) {
+            long[] result = words.clone();
+            for (int i = 0; i < result.length; i++) {
+                result[i] &= ~other.words[i];
+            }
+            return withWords(result);
+        }
+
+        if (size == 0 || other.size == 0) {
+            return this;
+        }
+
+        long[] result = words.clone();
+        int fromX = Math.max(minX, other.minX);
+        int toX = Math.min(minX + width, other.minX + other.width);
+        int fromY = Math.max(minY, other.minY);
+        int toY = Math.min(minY + height, other.minY + other.height);
+        int fromPlane = Math.max(minPlane, other.minPlane);
+        int toPlane = Math.min(minPlane + planes, other.minPlane + other.planes);
+        for (int plane = fromPlane; plane < toPlane; plane++) {
+            for (int y = fromY; y < toY; y++) {
+                long src = other.index(fromX, y, plane);
+                long dst = index(fromX, y, plane);
+                for (int done = 0; done < toX - fromX; done += 64) {
+                    int n = Math.min(64, toX - fromX - done);
+                    clearBits(result, dst + done, read(other.words, src + done, n), n);
+                }
+            }
+        }
+        return withWords(result);
     }
 
     /**
@@ -79,12 +408,14 @@ public class GameArea {
      * @param outline Whether to draw just the outline or fill the tiles
      */
     public void render(Client client, Graphics2D graphics, Color color, boolean outline) {
-        if (tiles.isEmpty()) return;
+        if (size == 0) return;
 
         // Don't render if we are on a different plane
-        if (client.getTopLevelWorldView().getPlane() != tiles.iterator().next().getPlane()) return;
+        int plane = client.getTopLevelWorldView().getPlane();
+        if (plane < minPlane || plane >= minPlane + planes) return;
 
-        for (WorldPoint wp : tiles) {
+        for (WorldPoint wp : getTiles()) {
+            if (wp.getPlane() != plane) continue;
             LocalPoint lp = LocalPoint.fromWorld(client, wp);
             if (lp == null) continue;
 
@@ -107,10 +438,10 @@ public class GameArea {
      * @param color The fill color (alpha is handled automatically if needed, but best to pass a translucent color)
      */
     public void renderMinimap(Client client, Graphics2D graphics, Color color) {
-        if (client == null || tiles.isEmpty()) return;
+        if (client == null || size == 0) return;
 
         graphics.setColor(color);
-        for (WorldPoint wp : tiles) {
+        for (WorldPoint wp : getTiles()) {
             LocalPoint lp = LocalPoint.fromWorld(client, wp);
             if (lp == null) continue;
 
@@ -120,4 +451,135 @@ public class GameArea {
             }
         }
     }
-}
\ No newline at end of file
+
+    private boolean sameBounds(GameArea other) {
+        return minX == other.minX && minY == other.minY && minPlane == other.minPlane
+                && width == other.width && height == other.height && planes == other.planes;
+    }
+
+    private GameArea withWords(long[] result) {
+        return new GameArea(centerRef, minX, minY, minPlane, width, height, planes, result);
+    }
+
+    /**
+     * Copies the rows of this area which overlap another area's bounds into a bitset laid out like that area.
+     * @param bounds The area whose bounds the bitset uses
+     * @param result The bitset to write to
+     * @param and True to clear bits which are not in this area instead of setting bits which are
+     */
+    private void copyInto(GameArea bounds, long[] result, boolean and) {
+        int fromX = Math.max(minX, bounds.minX);
+        int toX = Math.min(minX + width, bounds.minX + bounds.width);
+        for (int plane = bounds.minPlane; plane < bounds.minPlane + bounds.planes; plane++) {
+            for (int y = bounds.minY; y < bounds.minY + bounds.height; y++) {
+                boolean overlaps = fromX < toX && plane >= minPlane && plane < minPlane + planes && y >= minY && y < minY + height;
+                if (!overlaps) {
+                    if (and) {
+                        clearRange(result, bounds.index(bounds.minX, y, plane), bounds.width);
+                    }
+                    continue;
+                }
+
+                long src = index(fromX, y, plane);
+                long dst = bounds.index(fromX, y, plane);
+                for (int done = 0; done < toX - fromX; done += 64) {
+                    int n = Math.min(64, toX - fromX - done);
+                    long bits = read(words, src + done, n);
+                    if (and) {
+                        clearBits(result, dst + done, ~bits, n);
+                    } else {
+                        orBits(result, dst + done, bits, n);
+                    }
+                }
+
+                if (and) {
+                    // Tiles of the row outside this area's x range are not in the intersection
+                    clearRange(result, bounds.index(bounds.minX, y, plane), fromX - bounds.minX);
+                    clearRange(result, dst + (toX - fromX), bounds.minX + bounds.width - toX);
+                }
+            }
+        }
+    }
+
+    private long index(int x, int y, int plane) {
+        return ((long) (plane - minPlane) * height + (y - minY)) * width + (x - minX);
+    }
+
+    private WorldPoint toPoint(long bit) {
+        int x = (int) (bit % width);
+        long row = bit / width;
+        int y = (int) (row % height);
+        int plane = (int) (row / height);
+        return new WorldPoint(minX + x, minY + y, minPlane + plane);
+    }
+
+    private long nextSetBit(long from) {
+        int i = (int) (from >>> 6);
+        if (i >= words.length) return -1;
+        long word = words[i] & (-1L << from);
+        while (true) {
+            if (word != 0) return ((long) i << 6) + Long.numberOfTrailingZeros(word);
+            if (++i == words.length) return -1;
+            word = words[i];
+        }
+    }
+
+    private static int wordCount(long bits) {
+        return (int) ((bits + 63) >>> 6);
+    }
+
+    private static int cardinality(long[] words) {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Reads up to 64 bits starting at any bit offset, bits past the count are zero.
+     */
+    private static long read(long[] words, long bit, int n) {
+        int i = (int) (bit >>> 6);
+        int shift = (int) (bit & 63);
+        long value = words[i] >>> shift;
+        if (shift != 0 && shift + n > 64) {
+            value |= words[i + 1] << (64 - shift);
+        }
+        return n == 64 ? value : value & ((1L << n) - 1);
+    }
+
+    private static void orBits(long[] words, long bit, long value, int n) {
+        if (n <= 0) return;
+        value = n == 64 ? value : value & ((1L << n) - 1);
+        int i = (int) (bit >>> 6);
+        int shift = (int) (bit & 63);
+        words[i] |= value << shift;
+        if (shift != 0 && shift + n > 64) {
+            words[i + 1] |= value >>> (64 - shift);
+        }
+    }
+
+    private static void clearBits(long[] words, long bit, long value, int n) {
+        if (n <= 0) return;
+        value = n == 64 ? value : value & ((1L << n) - 1);
+        int i = (int) (bit >>> 6);
+        int shift = (int) (bit & 63);
+        words[i] &= ~(value << shift);
+        if (shift != 0 && shift + n > 64) {
+            words[i + 1] &= ~(value >>> (64 - shift));
+        }
+    }
+
+    private static void clearRange(long[] words, long bit, long n) {
+        for (long done = 0; done < n; done += 64) {
+            clearBits(words, bit + done, -1L, (int) Math.min(64, n - done));
+        }
+    }
+
+    private static void setRange(long[] words, long bit, long n) {
+        for (long done = 0; done < n; done += 64) {
+            orBits(words, bit + done, -1L, (int) Math.min(64, n - done));
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.kraken.api.service.tile;
+
+import com.google.inject.Singleton;
+import lombok.Value;
+import net.runelite.api.GameState;
+import net.runelite.api.coords.WorldPoint;
+import net.runelite.api.events.*;
+import net.runelite.client.eventbus.Subscribe;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Memoizes reachability flood fills and paths between calls so that scripts (and query filters like
+ * {@code NpcQuery.reachable()}) asking about the same origin several times per tick share a single search.
+ * <p>
+ * Every cached result is keyed by a collision version as well as its origin and parameters. The version is bumped
+ * whenever the collision maps can change: when a scene is loaded and when a game, wall or ground object spawns or
+ * despawns (doors opening, trees being cut, etc...). A result is therefore reused until the collision it was computed
+ * from changes, and results from older versions are dropped as soon as the version changes.
+ */
+@Singleton
+public class ReachabilityCache {
+    private static final int MAX_GRIDS = 16;
+    private static final int MAX_PATHS = 64;
+
+    private volatile long version = 0;
+
+    private final Map<GridKey, DistanceGrid> grids = lru(MAX_GRIDS);
+    private final Map<PathKey, Optional<List<WorldPoint>>> paths = lru(MAX_PATHS);
+
+    /**
+     * The current collision version. This increases each time the collision maps may have changed.
+     * @return long collision version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the flood fill from a scene tile, computing it only if there is no fill for the same origin and
+     * parameters at the current collision version.
+     * @param plane The plane of the collision flags
+     * @param sceneX The scene x coordinate of the origin
+     * @param sceneY The scene y coordinate of the origin
+     * @param distance The maximum distance of the fill
+     * @param ignoreCollision True if the fill ignores blocked tiles
+     * @param fill Computes the flood fill when it is not cached
+     * @return The flood fill
+     */
+    public DistanceGrid reachable(int plane, int sceneX, int sceneY, int distance, boolean ignoreCollision, Supplier<DistanceGrid> fill) {
+        long current = version;
+        GridKey key = new GridKey(current, plane, sceneX, sceneY, distance, ignoreCollision);
+        DistanceGrid grid;
+        synchronized (grids) {
+            grid = grids.get(key);
+        }
+
+        if (grid != null) {
+            return grid;
+        }
+
+        grid = fill.get();
+        if (grid != null && current == version) {
+            synchronized (grids) {
+                grids.put(key, grid);
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Returns the path between two points, searching only if there is no path for the same points and search mode at
+     * the current collision version. The returned list is a copy which the caller is free to modify.
+     * @param start The start of the path
+     * @param target The target of the path
+     * @param mode Distinguishes searches which can return different paths for the same points (i.e. search algorithm)
+     * @param search Computes the path when it is not cached, returning null if there is no path
+     * @return The path or null if there is no path
+     */
+    public List<WorldPoint> path(WorldPoint start, WorldPoint target, int mode, Supplier<List<WorldPoint>> search) {
+        long current = version;
+        PathKey key = new PathKey(current, start, target, mode);
+        Optional<List<WorldPoint>> path;
+        synchronized (paths) {
+            path = paths.get(key);
+        }
+
+        if (path == null) {
+            List<WorldPoint> found = search.get();
+            path = found == null ? Optional.empty() : Optional.of(Collections.unmodifiableList(new ArrayList<>(found)));
+            if (current == version) {
+                synchronized (paths) {
+                    paths.put(key, path);
+                }
+            }
+        }
+
+        return path.map(ArrayList::new).orElse(null);
+    }
+
+    /**
+     * Discards every cached result and bumps the collision version.
+     */
+    public void invalidate() {
+        version++;
+        synchronized (grids) {
+            grids.clear();
+        }
+        synchronized (paths) {
+            paths.clear();
+        }
+    }
+
+    @Subscribe
+    public void onGameStateChanged(GameStateChanged event) {
+        if (event.getGameState() == GameState.LOADING || event.getGameState() == GameState.LOGGED_IN) {
+            invalidate();
+        }
+    }
+
+    @Subscribe
+    public void onGameObjectSpawned(GameObjectSpawned event) {
+        invalidate();
+    }
+
+    @Subscribe
+    public void onGameObjectDespawned(GameObjectDespawned event) {
+        invalidate();
+    }
+
+    @Subscribe
+    public void onWallObjectSpawned(WallObjectSpawned event) {
+        invalidate();
+    }
+
+    @Subscribe
+    public void onWallObjectDespawned(WallObjectDespawned event) {
+        invalidate();
+    }
+
+    @Subscribe
+    public void onGroundObjectSpawned(GroundObjectSpawned event) {
+        invalidate();
+    }
+
+    @Subscribe
+    public void onGroundObjectDespawned(GroundObjectDespawned event) {
+        invalidate();
+    }
+
+    private static <K, V> Map<K, V> lru(int capacity) {
+        return new LinkedHashMap<K, V>(capacity * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    @Value
+    private static class GridKey {
+        long version;
+        int plane;
+        int sceneX;
+        int sceneY;
+        int distance;
+        boolean ignoreCollision;
+    }
+
+    @Value
+    private static class PathKey {
+        long version;
+        WorldPoint start;
+        WorldPoint target;
+        int mode;
+    }
+}
@@ -5,23 +5,20 @@ import com.google.inject.Provider;
 import com.google.inject.Singleton;
 import com.kraken.api.Context;
 import com.kraken.api.query.player.LocalPlayerEntity;
-import com.kraken.api.sim.MovementFlag;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.*;
 import net.runelite.api.coords.LocalPoint;
 import net.runelite.api.coords.WorldPoint;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 import static net.runelite.api.Constants.CHUNK_SIZE;
-import static net.runelite.api.Perspective.SCENE_SIZE;
 
 @Slf4j
 @Singleton
 public class TileService {
 
-    private static final int FLAG_DATA_SIZE = 104;
+    private static final int UNBOUNDED = Short.MAX_VALUE;
 
     @Inject
     private Provider<Context> ctxProvider;
@@ -40,19 +37,51 @@ public class TileService {
         return def;
     }
 
+    /**
+     * Calculates the walking distance from a tile to every tile reachable within the given distance using a breadth-first
+     * flood fill over the scene's collision flags (see {@link FloodFill}). Movement in a direction is blocked by the
+     * current tile's directional flags, and tiles which are fully blocked (objects or blocked floor) are never entered
+     * unless collision is ignored.
+     * <p>
+     * The result is a compact {@link DistanceGrid} in scene coordinates which can be viewed as world points with
+     * {@link DistanceGrid#points()} or {@link DistanceGrid#toMap()}.
+     *
+     * @param tile The starting tile for the distance calculation.
+     * @param distance The maximum distance to calculate to neighboring tiles.
+     * @param ignoreCollision If true, fully blocked tiles may be entered.
+     * @return The distance grid, or an empty grid if the tile is not in the scene or collision data is unavailable.
+     */
+    public DistanceGrid getReachableTiles(WorldPoint tile, int distance, boolean ignoreCollision) {
+        Client client = ctxProvider.get().getClient();
+        WorldView worldView = client.getTopLevelWorldView();
+        if (worldView == null) {
+            return DistanceGrid.empty();
+        }
+
+        LocalPoint start;
+        if (worldView.isInstance()) {
+            WorldPoint instancePoint = WorldPoint.toLocalInstance(worldView, tile).stream().findFirst().orElse(null);
+            start = instancePoint == null ? null : LocalPoint.fromWorld(worldView, instancePoint);
+        } else {
+            start = LocalPoint.fromWorld(worldView, tile);
+        }
+
+        if (start == null) {
+            return DistanceGrid.empty();
+        }
+
+        return fill(worldView, start.getSceneX(), start.getSceneY(), tile.getPlane(), distance, ignoreCollision);
+    }
+
     /**
      * This method calculates the distances to a specified tile in the game world
      * using a breadth-first search (BFS) algorithm, considering movement restrictions
      * and collision data. The distances are stored in a HashMap where the key is a
      * WorldPoint (representing a tile location), and the value is the distance
-     * from the starting tile. The method accounts for movement flags that block
-     * movement in specific directions (east, west, north, south) and removes
-     * unreachable tiles based on collision data.
+     * from the starting tile.
      * <p>
-     * The method iterates over a range of distances, progressively updating
-     * reachable tiles and adding them to the tileDistances map. It checks if a
-     * tile can be reached by verifying its collision flags and whether it’s blocked
-     * for movement in any direction.
+     * This is a {@link WorldPoint} view of {@link #getReachableTiles(WorldPoint, int, boolean)}, prefer that method
+     * when only distances or containment checks are needed.
      *
      * @param tile The starting tile for the distance calculation.
      * @param distance The maximum distance to calculate to neighboring tiles.
@@ -60,53 +89,7 @@ public class TileService {
      * @return A HashMap containing WorldPoints and their corresponding distances from the start tile.
      */
     public HashMap<WorldPoint, Integer> getReachableTilesFromTile(WorldPoint tile, int distance, boolean ignoreCollision) {
-        final HashMap<WorldPoint, Integer> tileDistances = new HashMap<>();
-        tileDistances.put(tile, 0);
-
-        for (int i = 0; i < distance + 1; i++) {
-            int dist = i;
-            for (var kvp : tileDistances.entrySet().stream().filter(x -> x.getValue() == dist).collect(Collectors.toList())) {
-                WorldPoint point = kvp.getKey();
-                LocalPoint localPoint;
-                if (ctxProvider.get().getClient().getTopLevelWorldView().isInstance()) {
-                    WorldPoint worldPoint = WorldPoint.toLocalInstance(ctxProvider.get().getClient().getTopLevelWorldView(), point).stream().findFirst().orElse(null);
-                    if (worldPoint == null) break;
-                    localPoint = LocalPoint.fromWorld(ctxProvider.get().getClient().getTopLevelWorldView(), worldPoint);
-                } else {
-                    localPoint = LocalPoint.fromWorld(ctxProvider.get().getClient().getTopLevelWorldView(), point);
-                }
-
-                CollisionData[] collisionMap = ctxProvider.get().getClient().getTopLevelWorldView().getCollisionMaps();
-                if (collisionMap != null && localPoint != null) {
-                    CollisionData collisionData = collisionMap[ctxProvider.get().getClient().getTopLevelWorldView().getPlane()];
-                    int[][] flags = collisionData.getFlags();
-                    int data = flags[localPoint.getSceneX()][localPoint.getSceneY()];
-
-                    Set<MovementFlag> movementFlags = MovementFlag.getSetFlags(data);
-
-                    if (!ignoreCollision && !tile.equals(point)) {
-                        if (movementFlags.contains(MovementFlag.BLOCK_MOVEMENT_FULL) || movementFlags.contains(MovementFlag.BLOCK_MOVEMENT_FLOOR)) {
-                            tileDistances.remove(point);
-                            continue;
-                        }
-                    }
-
-                    if (kvp.getValue() >= distance)
-                        continue;
-
-                    if (!movementFlags.contains(MovementFlag.BLOCK_MOVEMENT_EAST))
-                        tileDistances.putIfAbsent(point.dx(1), dist + 1);
-                    if (!movementFlags.contains(MovementFlag.BLOCK_MOVEMENT_WEST))
-                        tileDistances.putIfAbsent(point.dx(-1), dist + 1);
-                    if (!movementFlags.contains(MovementFlag.BLOCK_MOVEMENT_NORTH))
-                        tileDistances.putIfAbsent(point.dy(1), dist + 1);
-                    if (!movementFlags.contains(MovementFlag.BLOCK_MOVEMENT_SOUTH))
-                        tileDistances.putIfAbsent(point.dy(-1), dist + 1);
-                }
-            }
-        }
-
-        return tileDistances;
+        return getReachableTiles(tile, distance, ignoreCollision).toMap();
     }
 
     /**
@@ -124,7 +107,6 @@ public class TileService {
         LocalPoint lp = obj.getLocalLocation(); // Center of object
         if (lp == null) return false;
 
-        Client client = ctxProvider.get().getClient();
         int sceneX = lp.getSceneX();
         int sceneY = lp.getSceneY();
 
@@ -151,18 +133,16 @@ public class TileService {
         int maxX = minX + sizeX - 1;
         int maxY = minY + sizeY - 1;
 
-        // 2. Run the BFS to find all reachable tiles from player
-        boolean[][] visited = getReachableTilesMatrix();
-        if (visited == null) return false;
+        // 2. Flood fill from the player to find all reachable tiles (shared with other reachability checks this tick)
+        DistanceGrid reachable = getReachableTilesFromPlayer();
+        if (reachable.isEmpty()) return false;
 
         // 3. Check if any tile occupying the object OR adjacent to the object is reachable
         // We search from minX-1 to maxX+1 to cover the "halo" around the object.
         for (int x = minX - 1; x <= maxX + 1; x++) {
             for (int y = minY - 1; y <= maxY + 1; y++) {
-                if (x >= 0 && y >= 0 && x < SCENE_SIZE && y < SCENE_SIZE) {
-                    if (visited[x][y]) {
-                        return true;
-                    }
+                if (reachable.contains(x, y)) {
+                    return true;
                 }
             }
         }
@@ -171,81 +151,88 @@ public class TileService {
     }
 
     /**
-     * Standard BFS to map all reachable tiles from the current player position.
-     * @return A 104x104 boolean array where true = walkable from player.
+     * Flood fills the scene from the local player's tile without a distance limit.
+     * @return The tiles reachable from the player, or an empty grid if the player or collision data is unavailable.
      */
-    private boolean[][] getReachableTilesMatrix() {
+    private DistanceGrid getReachableTilesFromPlayer() {
         Client client = ctxProvider.get().getClient();
         Player localPlayer = client.getLocalPlayer();
-        if (localPlayer == null) return null;
+        if (localPlayer == null) return DistanceGrid.empty();
 
         WorldView wv = client.getTopLevelWorldView();
-        if (wv == null) return null;
+        if (wv == null) return DistanceGrid.empty();
 
         LocalPoint playerLp = localPlayer.getLocalLocation();
-        if (playerLp == null) return null;
-
-        int startX = playerLp.getSceneX();
-        int startY = playerLp.getSceneY();
-        int plane = wv.getPlane();
-
-        CollisionData[] collisionData = wv.getCollisionMaps();
-        if (collisionData == null) return null;
-        int[][] flags = collisionData[plane].getFlags();
-
-        boolean[][] visited = new boolean[SCENE_SIZE][SCENE_SIZE];
-        ArrayDeque<Integer> queue = new ArrayDeque<>();
-
-        // Start BFS
-        int startPoint = (startX << 16) | startY;
-        queue.add(startPoint);
-        visited[startX][startY] = true;
-
-        while (!queue.isEmpty()) {
-            int point = queue.poll();
-            int x = point >> 16;
-            int y = point & 0xFFFF;
-
-            // Check 4 cardinal directions
-            checkNeighbour(queue, visited, flags, x, y, -1, 0, CollisionDataFlag.BLOCK_MOVEMENT_WEST);
-            checkNeighbour(queue, visited, flags, x, y, 1, 0, CollisionDataFlag.BLOCK_MOVEMENT_EAST);
-            checkNeighbour(queue, visited, flags, x, y, 0, -1, CollisionDataFlag.BLOCK_MOVEMENT_SOUTH);
-            checkNeighbour(queue, visited, flags, x, y, 0, 1, CollisionDataFlag.BLOCK_MOVEMENT_NORTH);
+        if (playerLp == null) return DistanceGrid.empty();
+
+        return fill(wv, playerLp.getSceneX(), playerLp.getSceneY(), wv.getPlane(), UNBOUNDED, false);
+    }
+
+    /**
+     * Flood fills the current plane of the scene from a tile given in scene coordinates. This is the scene coordinate
+     * equivalent of {@link #getReachableTiles(WorldPoint, int, boolean)} for callers which already work in scene coordinates.
+     * @param sceneX The scene x coordinate to start from
+     * @param sceneY The scene y coordinate to start from
+     * @param distance The maximum distance to calculate to neighboring tiles.
+     * @param ignoreCollision If true, fully blocked tiles may be entered.
+     * @return The distance grid, or an empty grid if the tile is not in the scene or collision data is unavailable.
+     */
+    public DistanceGrid getReachableTilesFromScene(int sceneX, int sceneY, int distance, boolean ignoreCollision) {
+        WorldView worldView = ctxProvider.get().getClient().getTopLevelWorldView();
+        if (worldView == null) {
+            return DistanceGrid.empty();
         }
 
-        return visited;
+        return fill(worldView, sceneX, sceneY, worldView.getPlane(), distance, ignoreCollision);
     }
 
-    private void checkNeighbour(ArrayDeque<Integer> queue, boolean[][] visited, int[][] flags, int x, int y, int dx, int dy, int blockFlag) {
-        int nx = x + dx;
-        int ny = y + dy;
-
-        if (nx >= 0 && nx < SCENE_SIZE && ny >= 0 && ny < SCENE_SIZE) {
-            if (!visited[nx][ny]) {
-                // Check if we can leave current tile (blockFlag) AND enter next tile (BLOCK_MOVEMENT_FULL)
-                // Note: We check CollisionDataFlag.BLOCK_MOVEMENT_FULL on the *destination* to ensure we don't walk into walls
-                if ((flags[x][y] & blockFlag) == 0 && (flags[nx][ny] & CollisionDataFlag.BLOCK_MOVEMENT_FULL) == 0) {
-                    visited[nx][ny] = true;
-                    queue.add((nx << 16) | ny);
-                }
-            }
+    /**
+     * Flood fills the scene from a scene tile, reusing the fill from the {@link ReachabilityCache} when the same
+     * fill has already been computed since the collision maps last changed.
+     * @param worldView The world view to fill
+     * @param sceneX The scene x coordinate to start from
+     * @param sceneY The scene y coordinate to start from
+     * @param plane The plane reported by the resulting world points
+     * @param distance The maximum distance to fill
+     * @param ignoreCollision If true, fully blocked tiles may be entered.
+     * @return The distance grid, or an empty grid if collision data is unavailable.
+     */
+    private DistanceGrid fill(WorldView worldView, int sceneX, int sceneY, int plane, int distance, boolean ignoreCollision) {
+        CollisionData[] collisionMaps = worldView.getCollisionMaps();
+        if (collisionMaps == null) {
+            return DistanceGrid.empty();
+        }
+
+        DistanceGrid.SceneMapper mapper;
+        if (worldView.isInstance()) {
+            Client client = ctxProvider.get().getClient();
+            mapper = (x, y) -> WorldPoint.fromLocalInstance(client, new LocalPoint((x << 7) + 64, (y << 7) + 64, worldView.getId()));
+        } else {
+            int baseX = worldView.getBaseX();
+            int baseY = worldView.getBaseY();
+            mapper = (x, y) -> new WorldPoint(baseX + x, baseY + y, plane);
         }
+
+        int[][] flags = collisionMaps[worldView.getPlane()].getFlags();
+        if (plane != worldView.getPlane()) {
+            // The cache is keyed by the collision plane, don't share a fill whose world points report another plane
+            return FloodFill.fill(flags, sceneX, sceneY, distance, ignoreCollision, mapper);
+        }
+
+        return ctxProvider.get().getReachabilityCache().reachable(plane, sceneX, sceneY, distance, ignoreCollision,
+                () -> FloodFill.fill(flags, sceneX, sceneY, distance, ignoreCollision, mapper));
     }
-    
-    
+
     /**
      * This method checks if a given target tile (WorldPoint) is reachable from the
      * player's current location, considering collision data and the plane of the
-     * world. The method uses a breadth-first search (BFS) algorithm to traverse
-     * neighboring tiles while checking for movement blocks in the four cardinal
-     * directions (north, south, east, west). It ensures the target tile is within
-     * the same plane as the player and that movement between tiles is not blocked.
+     * world. Movement is checked in the four cardinal directions (north, south, east, west)
+     * using the same rules as {@link #getReachableTiles(WorldPoint, int, boolean)} and the
+     * target tile must be on the same plane as the player.
      * <p>
-     * The method initializes a queue to explore the world grid, marking visited
-     * tiles to avoid revisiting. It checks the flags for collision data to determine
-     * whether movement is allowed in each direction, and only adds neighboring tiles
-     * to the queue if they are not blocked. Finally, it verifies if the target point
-     * has been visited during the traversal and returns true if reachable, false otherwise.
+     * The flood fill from the player's tile is cached by the {@link ReachabilityCache} until
+     * the player moves or the collision maps change, so checking many targets from the same
+     * tile (i.e. a {@code reachable()} query filter) only walks the scene once.
      *
      * @param targetPoint The WorldPoint representing the target tile to check for
      *                    reachability.
@@ -261,139 +248,15 @@ public class TileService {
 
         if (targetPoint.getPlane() != playerLoc.getPlane()) return false;
 
-        final boolean[][] visited = new boolean[FLAG_DATA_SIZE][FLAG_DATA_SIZE];
-        final int[][] flags = getFlags();
-        if (flags == null) return false;
-
-        final int startX;
-        final int startY;
-        if (ctxProvider.get().getClient().getTopLevelWorldView().getScene().isInstance()) {
-            LocalPoint localPoint = player.raw().getLocalLocation();
-            startX = localPoint.getSceneX();
-            startY = localPoint.getSceneY();
-        } else {
-            startX = playerLoc.getX() - ctxProvider.get().getClient().getTopLevelWorldView().getBaseX();
-            startY = playerLoc.getY() - ctxProvider.get().getClient().getTopLevelWorldView().getBaseY();
-        }
-        final int startPoint = (startX << 16) | startY;
-
-        ArrayDeque<Integer> queue = new ArrayDeque<>();
-        queue.add(startPoint);
-        visited[startX][startY] = true;
-
-        while (!queue.isEmpty()) {
-            int point = queue.poll();
-            int x = point >> 16;
-            int y = point & 0xFFFF;
-
-            if (isWithinBounds(x, y)) {
-                checkAndAddNeighbour(queue, visited, flags, x, y, -1, 0, CollisionDataFlag.BLOCK_MOVEMENT_WEST);
-                checkAndAddNeighbour(queue, visited, flags, x, y, 1, 0, CollisionDataFlag.BLOCK_MOVEMENT_EAST);
-                checkAndAddNeighbour(queue, visited, flags, x, y, 0, -1, CollisionDataFlag.BLOCK_MOVEMENT_SOUTH);
-                checkAndAddNeighbour(queue, visited, flags, x, y, 0, 1, CollisionDataFlag.BLOCK_MOVEMENT_NORTH);
-            }
-        }
-
-        return isVisited(targetPoint, visited);
-    }
-
-    /**
-     * This method checks whether a given WorldPoint has been visited during the
-     * traversal of the game world. It calculates the tile’s local coordinates relative
-     * to the base coordinates, considering whether the client is in an instanced region
-     * or not. The method then checks if the calculated coordinates are within bounds
-     * and if the tile has been marked as visited in the provided visited array.
-     * <p>
-     * The method ensures that the given WorldPoint corresponds to a valid tile on
-     * the game map by verifying if its coordinates fall within the bounds of the
-     * world grid, and if so, it checks whether that tile has already been visited
-     * during the search or traversal process.
-     *
-     * @param worldPoint The WorldPoint representing the tile to check for visit status.
-     * @param visited A 2D boolean array tracking visited tiles during world traversal.
-     * @return True if the tile has been visited and is within bounds, otherwise false.
-     */
-    private boolean isVisited(WorldPoint worldPoint, boolean[][] visited) {
-        int baseX, baseY, x, y;
-        if (ctxProvider.get().getClient().getTopLevelWorldView().getScene().isInstance()) {
-            LocalPlayerEntity player = ctxProvider.get().players().local();
-            LocalPoint localPoint = player.raw().getLocalLocation();
-            x = localPoint.getSceneX();
-            y = localPoint.getSceneY();
-        } else {
-            baseX = ctxProvider.get().getClient().getTopLevelWorldView().getBaseX();
-            baseY = ctxProvider.get().getClient().getTopLevelWorldView().getBaseY();
-            x = worldPoint.getX() - baseX;
-            y = worldPoint.getY() - baseY;
-        }
-
-
-        return isWithinBounds(x, y) && visited[x][y];
-    }
-
-    /**
-     * This method checks a neighboring tile and adds it to the queue if it is valid
-     * and not blocked for movement. It considers both the current tile's collision
-     * data and the neighboring tile’s collision flags to determine whether movement
-     * in the specified direction (dx, dy) is possible. The method ensures the neighboring
-     * tile is within bounds, hasn't been visited, and doesn't have movement restrictions
-     * (such as full-block movement or movement in the specified direction).
-     * <p>
-     * The method performs a bitwise check on the tile’s flags to determine if movement
-     * in the given direction is allowed and ensures that the neighboring tile is not
-     * already visited before adding it to the queue.
-     *
-     * @param queue The queue that stores the coordinates of tiles to be visited.
-     * @param visited A 2D boolean array tracking which tiles have already been visited.
-     * @param flags A 2D array containing the collision flags for each tile.
-     * @param x The current tile’s x-coordinate.
-     * @param y The current tile’s y-coordinate.
-     * @param dx The change in x-coordinate for the neighboring tile.
-     * @param dy The change in y-coordinate for the neighboring tile.
-     * @param blockMovementFlag The collision flag that blocks movement in a given direction.
-     */
-    private void checkAndAddNeighbour(ArrayDeque<Integer> queue, boolean[][] visited, int[][] flags, int x, int y, int dx, int dy, int blockMovementFlag) {
-        int nx = x + dx;
-        int ny = y + dy;
-
-        if (isWithinBounds(nx, ny) && !visited[nx][ny] && (flags[x][y] & blockMovementFlag) == 0 && (flags[nx][ny] & CollisionDataFlag.BLOCK_MOVEMENT_FULL) == 0) {
-            queue.add((nx << 16) | ny);
-            visited[nx][ny] = true;
-        }
-    }
-
-    /**
-     * Returns collision flags for the current plane
-     * @return 2D array of collision flags
-     */
-    private int[][] getFlags() {
         final WorldView wv = ctxProvider.get().getClient().getTopLevelWorldView();
-        if (wv == null) return null;
+        if (wv == null) return false;
 
-        final CollisionData[] collisionData = wv.getCollisionMaps();
-        if (collisionData == null) return null;
-
-        return collisionData[wv.getPlane()].getFlags();
-    }
+        final LocalPoint target = wv.isInstance() ? fromWorldInstance(targetPoint) : LocalPoint.fromWorld(wv, targetPoint);
+        if (target == null) return false;
 
-    /**
-     * This method checks if the given coordinates (x, y) are within the valid bounds
-     * of the game world grid. It ensures that the coordinates are non-negative and
-     * within the range of the grid dimensions (0 to 103 for both x and y).
-     * <p>
-     * The method is used to prevent out-of-bounds errors when accessing world tiles
-     * by ensuring that the coordinates provided for the tile are within the valid
-     * range before performing further operations.
-     *
-     * @param x The x-coordinate of the tile to check.
-     * @param y The y-coordinate of the tile to check.
-     * @return True if the coordinates are within bounds (0 <= x, y < {@code FLAG_DATA_SIZE}), otherwise false.
-     */
-    private static boolean isWithinBounds(int x, int y) {
-        return x >= 0 && y >= 0 && x < FLAG_DATA_SIZE && y < FLAG_DATA_SIZE;
+        return getReachableTilesFromPlayer().contains(target.getSceneX(), target.getSceneY());
     }
 
-
     /**
      * This method retrieves the tile at the specified coordinates (x, y) on the current plane.
      * It first creates a WorldPoint for the given coordinates and checks if the point is within
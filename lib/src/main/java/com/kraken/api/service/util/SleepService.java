@@ -1,18 +1,24 @@
 package com.kraken.api.service.util;
 
 import com.kraken.api.Context;
-import com.kraken.api.core.script.RunnableTask;
-import lombok.SneakyThrows;
+import com.kraken.api.core.player.LocalPlayerTracker;
+import com.kraken.api.core.script.CancellationToken;
+import com.kraken.api.core.thread.WaitEngine;
 import lombok.extern.slf4j.Slf4j;
-import net.runelite.api.Player;
 import net.runelite.client.RuneLite;
 
 import javax.inject.Singleton;
 import java.util.Random;
 import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BooleanSupplier;
 import java.util.function.Supplier;
 
+/**
+ * Static helpers for pausing script threads. Condition waits are handed to the {@link WaitEngine} which evaluates the
+ * condition on the client thread every client tick and game tick and wakes the script thread once it holds, so conditions
+ * are not polled from the script thread and may read client state directly.
+ */
 @Slf4j
 @Singleton
 public class SleepService {
@@ -25,12 +31,7 @@ public class SleepService {
      * @param condition the condition to be met
      */
     public static void sleepUntil(Supplier<Boolean> condition) {
-        while(!condition.get()) {
-            if(Thread.currentThread().isInterrupted() || RunnableTask.isCanceled()) {
-                throw new RuntimeException();
-            }
-            sleep(100);
-        }
+        waitEngine().await(condition::get, WaitEngine.NO_TIMEOUT, WaitEngine.NO_TIMEOUT);
     }
 
     /**
@@ -40,19 +41,7 @@ public class SleepService {
      * @return true if the condition was met, false if the timeout was reached
      */
     public static boolean sleepUntil(Supplier<Boolean> condition, long timeoutMS) {
-        long start = System.currentTimeMillis();
-        while(!condition.get()) {
-            if(System.currentTimeMillis() - start > timeoutMS) {
-                return false;
-            }
-
-            if(Thread.currentThread().isInterrupted() || RunnableTask.isCanceled()) {
-                throw new RuntimeException();
-            }
-
-            sleep(100);
-        }
-        return true;
+        return waitEngine().await(condition::get, timeoutMS);
     }
 
     /**
@@ -62,28 +51,17 @@ public class SleepService {
      * @return true if the condition was met, false if the timeout was reached
      */
     public static boolean sleepUntil(Supplier<Boolean> condition, int ticks) {
-        int end = ctx.getClient().getTickCount() + ticks;
-        while(!condition.get()) {
-            if(ctx.getClient().getTickCount() >= end) {
-                return false;
-            }
-
-            if(Thread.currentThread().isInterrupted() || RunnableTask.isCanceled()) {
-                throw new RuntimeException();
-            }
-
-            sleep(100);
-        }
-        return true;
+        return waitEngine().awaitTicks(condition::get, ticks);
     }
 
     /**
      * Sleeps until the local player's animation is idle.
      */
     public static void sleepUntilIdle() {
-        do {
-            tick();
-        } while (!ctx.players().local().isIdle());
+        LocalPlayerTracker tracker = ctx.getLocalPlayerTracker();
+        // Wait for at least one tick, then for the first tick the player is idle
+        int start = tracker.get().getTick();
+        waitEngine().await(tracker.when(s -> s.getTick() > start && s.isIdle(), WaitEngine.NO_TIMEOUT), WaitEngine.NO_TIMEOUT);
     }
 
     /**
@@ -92,10 +70,9 @@ public class SleepService {
      * @param worldY the y-coordinate of the target tile
      */
     public static void sleepUntilTile(int worldX, int worldY) {
-        Player player = ctx.players().local().raw();
-        while((player.getWorldLocation().getX() != worldX || player.getWorldLocation().getY() != worldY)) {
-            tick();
-        }
+        waitEngine().await(ctx.getLocalPlayerTracker().when(s -> s.getWorldLocation() != null
+                && s.getWorldLocation().getX() == worldX && s.getWorldLocation().getY() == worldY, WaitEngine.NO_TIMEOUT),
+                WaitEngine.NO_TIMEOUT);
     }
 
     /**
@@ -111,26 +88,11 @@ public class SleepService {
     /**
      * Sleeps for a specified amount of time in milliseconds. This sleep is interruptible by script cancellation.
      * @param time the duration to sleep in milliseconds
+     * @throws java.util.concurrent.CancellationException if the calling script is stopped
      */
     public static void sleep(long time) {
-        if (time <= 0) {
-            return;
-        }
-        long end = System.currentTimeMillis() + time;
-        while (System.currentTimeMillis() < end) {
-            if (RunnableTask.isCanceled()) {
-                throw new RuntimeException("Script stopped during sleep");
-            }
-            try {
-                long remaining = end - System.currentTimeMillis();
-                if (remaining > 0) {
-                    Thread.sleep(Math.min(remaining, 50)); // Check for cancellation every 50ms
-                }
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new RuntimeException("Sleep interrupted", e);
-            }
-        }
+        // Wakes as soon as the script is stopped rather than polling for cancellation
+        CancellationToken.current().sleep(time);
     }
 
     /**
@@ -167,39 +129,42 @@ public class SleepService {
     }
 
     /**
-     * Repeatedly calls a method until it returns a non-null value, or a timeout is reached.
-     * @param method the method to call
+     * Calls a method on the client thread each client tick until it returns a non-null value, or a timeout is reached.
+     * <p>
+     * The method is evaluated by the {@link WaitEngine} on the client thread at every {@code ClientTick} (roughly every
+     * frame), so it must be quick and must never block, sleep or wait on the client thread itself. It may read client
+     * state directly.
+     * @param method the method to call, on the client thread
      * @param timeoutMillis the maximum time to wait in milliseconds
-     * @param sleepMillis the time to sleep between calls
+     * @param sleepMillis unused, the method is called once per client tick
      * @param <T> the return type of the method
      * @return the non-null value, or null if the timeout was reached
+     * @throws RuntimeException wrapping the exception thrown by the method, if it threw
      */
-    @SneakyThrows
     public static <T> T sleepUntilNotNull(Callable<T> method, int timeoutMillis, int sleepMillis) {
         if (ctx.getClient().isClientThread()) return null;
-        boolean done;
-        T methodResponse;
-        final long endTime = System.currentTimeMillis()+timeoutMillis;
-        do {
-            if (RunnableTask.isCanceled()) {
-                throw new RuntimeException("Script stopped");
-            }
-            methodResponse = method.call();
-            done = methodResponse != null;
-            if (!done) {
-                sleep(sleepMillis);
+        AtomicReference<T> response = new AtomicReference<>();
+        waitEngine().await(() -> {
+            try {
+                response.set(method.call());
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException(e);
             }
-        } while (!done && System.currentTimeMillis() < endTime);
-        return methodResponse;
+            return response.get() != null;
+        }, timeoutMillis);
+        return response.get();
     }
 
     /**
-     * Repeatedly calls a method until it returns a non-null value, or a timeout is reached.
-     * Sleeps 100ms between calls.
-     * @param method the method to call
+     * Calls a method on the client thread each client tick until it returns a non-null value, or a timeout is reached.
+     * See {@link #sleepUntilNotNull(Callable, int, int)}, the method must be quick and must never block.
+     * @param method the method to call, on the client thread
      * @param timeoutMillis the maximum time to wait in milliseconds
      * @param <T> the return type of the method
      * @return the non-null value, or null if the timeout was reached
+     * @throws RuntimeException wrapping the exception thrown by the method, if it threw
      */
     public static <T> T sleepUntilNotNull(Callable<T> method, int timeoutMillis) {
         return sleepUntilNotNull(method, timeoutMillis, 100);
@@ -222,18 +187,7 @@ public class SleepService {
      */
     public static boolean sleepUntil(BooleanSupplier awaitedCondition, int time) {
         if (ctx.getClient().isClientThread()) return false;
-        boolean done;
-        long startTime = System.currentTimeMillis();
-        do {
-            if (RunnableTask.isCanceled()) {
-                throw new RuntimeException("Script stopped");
-            }
-            done = awaitedCondition.getAsBoolean();
-            if (!done) {
-                sleep(100);
-            }
-        } while (!done && System.currentTimeMillis() - startTime < time);
-        return done;
+        return waitEngine().await(awaitedCondition, time);
     }
 
     /**
@@ -248,14 +202,13 @@ public class SleepService {
      * @param ticks ticks
      */
     public static void sleepFor(int ticks) {
-        int tick = ctx.getClient().getTickCount() + ticks;
         int start = ctx.getClient().getTickCount();
-        while(ctx.getClient().getTickCount() < tick && ctx.getClient().getTickCount() >= start) {
-            if(Thread.currentThread().isInterrupted() || RunnableTask.isCanceled()) {
-                throw new RuntimeException();
-            }
-            sleep(20);
-        }
+        int tick = start + ticks;
+        // The tick count resets on login, stop waiting rather than waiting for the old target
+        waitEngine().await(() -> {
+            int current = ctx.getClient().getTickCount();
+            return current >= tick || current < start;
+        }, WaitEngine.NO_TIMEOUT, WaitEngine.NO_TIMEOUT);
     }
 
     /**
@@ -268,46 +221,25 @@ public class SleepService {
     }
 
     /**
-     * Waits until the specified condition is true, checking at a given interval, until a timeout is reached.
+     * Waits until the specified condition is true or a timeout is reached.
      * @param awaitedCondition the condition to be met
-     * @param time the time to sleep between checks in milliseconds
+     * @param time unused, the condition is checked once per client tick
      * @param timeout the maximum time to wait in milliseconds
      * @return true if the condition was met, false if the timeout was reached
      */
     public static boolean sleepUntilTrue(BooleanSupplier awaitedCondition, int time, int timeout) {
-        if (ctx.getClient().isClientThread()) return false;
-        long startTime = System.currentTimeMillis();
-        do {
-            if (RunnableTask.isCanceled()) {
-                throw new RuntimeException("Script stopped");
-            }
-            if (awaitedCondition.getAsBoolean()) {
-                return true;
-            }
-            sleep(time);
-        } while (System.currentTimeMillis() - startTime < timeout);
-        return false;
+        return sleepUntilTrue(awaitedCondition, timeout);
     }
 
     /**
-     * Waits until the specified condition is true, checking every 100ms, until a timeout is reached.
+     * Waits until the specified condition is true, checking once per client tick, until a timeout is reached.
      * @param awaitedCondition the condition to be met
      * @param timeout the maximum time to wait in milliseconds
      * @return true if the condition was met, false if the timeout was reached
      */
     public static boolean sleepUntilTrue(BooleanSupplier awaitedCondition, int timeout) {
         if (ctx.getClient().isClientThread()) return false;
-        long startTime = System.currentTimeMillis();
-        do {
-            if (RunnableTask.isCanceled()) {
-                throw new RuntimeException("Script stopped");
-            }
-            if (awaitedCondition.getAsBoolean()) {
-                return true;
-            }
-            sleep(100);
-        } while (System.currentTimeMillis() - startTime < timeout);
-        return false;
+        return waitEngine().await(awaitedCondition, timeout);
     }
 
     /**
@@ -317,18 +249,10 @@ public class SleepService {
      * @return true if the condition became false, false if the timeout was reached
      */
     public static boolean sleepWhile(BooleanSupplier condition, int timeout) {
-        long start = System.currentTimeMillis();
-        while (condition.getAsBoolean()) {
-            if (System.currentTimeMillis() - start > timeout) {
-                return false;
-            }
-
-            if (Thread.currentThread().isInterrupted() || RunnableTask.isCanceled()) {
-                throw new RuntimeException();
-            }
+        return waitEngine().await(() -> !condition.getAsBoolean(), timeout);
+    }
 
-            sleep(100);
-        }
-        return true;
+    private static WaitEngine waitEngine() {
+        return ctx.getWaitEngine();
     }
-}
\ No newline at end of file
+}
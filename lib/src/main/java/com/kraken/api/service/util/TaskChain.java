@@ -1,26 +1,65 @@
 package com.kraken.api.service.util;
 
 import com.kraken.api.Context;
+import com.kraken.api.core.player.LocalPlayerTracker;
+import com.kraken.api.core.script.CancellationToken;
+import com.kraken.api.core.script.ScriptScheduler;
+import com.kraken.api.core.thread.WaitEngine;
 import com.kraken.api.service.movement.MovementService;
 import com.kraken.api.service.pathfinding.LocalPathfinder;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Client;
+import net.runelite.api.Player;
 import net.runelite.api.coords.WorldArea;
 import net.runelite.api.coords.WorldPoint;
 
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Queue;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
 import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 @Slf4j
 public class TaskChain {
 
+    // Guardrail: the number of times a walk re-paths from the player's location before giving up
+    private static final int MAX_WALK_REFRESHES = 20;
+
     private final Context ctx;
     private final Queue<Task> tasks = new LinkedList<>();
     
     private interface Task {
         boolean execute() throws InterruptedException;
+
+        /**
+         * Starts the task without blocking the calling thread. Tasks which only have a blocking form are run on the
+         * {@link ScriptScheduler}.
+         */
+        default CompletableFuture<Boolean> start(Execution execution) {
+            return execution.offload(this);
+        }
+    }
+
+    /**
+     * Creates a task with separate blocking and non-blocking forms.
+     */
+    private static Task task(Task blocking, Function<Execution, CompletableFuture<Boolean>> async) {
+        return new Task() {
+            @Override
+            public boolean execute() throws InterruptedException {
+                return blocking.execute();
+            }
+
+            @Override
+            public CompletableFuture<Boolean> start(Execution execution) {
+                return async.apply(execution);
+            }
+        };
     }
 
     private TaskChain(Context ctx) {
@@ -60,10 +99,13 @@ public class TaskChain {
      *         method chaining of additional tasks.
      */
     public TaskChain run(Runnable action) {
-        tasks.add(() -> {
+        tasks.add(task(() -> {
             ctx.runOnClientThread(action);
             return true; // Move to next step immediately
-        });
+        }, execution -> execution.track(ctx.runOnClientThreadAsync(() -> {
+            action.run();
+            return true;
+        }))));
         return this;
     }
 
@@ -80,47 +122,8 @@ public class TaskChain {
      * @return The current TaskChain instance.
      */
     public TaskChain walkTo(WorldPoint target) {
-        tasks.add(() -> {
-            MovementService movement = ctx.getService(MovementService.class);
-            LocalPathfinder pathfinder = ctx.getService(LocalPathfinder.class);
-            Client client = ctx.getClient();
-
-            // Guardrail: Prevent infinite loops if pathing fails repeatedly
-            int maxRefreshes = 20;
-
-            for (int i = 0; i < maxRefreshes; i++) {
-                WorldPoint currentLoc = client.getLocalPlayer().getWorldLocation();
-
-                // 1. Check completion condition (Are we there yet?)
-                if (currentLoc.distanceTo(target) <= 3) {
-                    return true;
-                }
-                List<WorldPoint> densePath = pathfinder.findPath(currentLoc, target);
-
-                // If path is empty but we aren't at the target, we are stuck/unreachable
-                if (densePath == null || densePath.isEmpty()) {
-                    log.warn("TaskChain: Path calculation failed or target unreachable: {}", target);
-                    return false;
-                }
-
-                // 3. Filter for variable stride (human-like steps)
-                List<WorldPoint> stridedPath = movement.applyVariableStride(densePath);
-
-                // 4. Walk this segment, this blocks the for loop until the current path is traversed
-                // If traverse returns false (timeout/stuck), we abort the whole chain
-                if (!movement.traversePath(client, stridedPath)) {
-                    return false;
-                }
-
-                // If traverse succeeded, the loop restarts.
-                // We are now at the end of the previous path (likely the scene edge).
-                // The next iteration will re-run pathfinder.findPath from the NEW location.
-            }
-
-            log.error("TaskChain: Exceeded max scene refreshes walking to {}", target);
-            return false;
-        });
-        return this;
+        return walk(target, location -> location.distanceTo(target) <= 3,
+                (pathfinder, location) -> pathfinder.findPath(location, target));
     }
 
     /**
@@ -132,32 +135,8 @@ public class TaskChain {
      * @return The current TaskChain instance.
      */
     public TaskChain walkTo(WorldPoint target, int radius) {
-        tasks.add(() -> {
-            MovementService movement = ctx.getService(MovementService.class);
-            LocalPathfinder pathfinder = ctx.getService(LocalPathfinder.class);
-            Client client = ctx.getClient();
-
-            int maxRefreshes = 20;
-
-            for (int i = 0; i < maxRefreshes; i++) {
-                WorldPoint currentLoc = client.getLocalPlayer().getWorldLocation();
-
-                // 2. Calculate path to the area
-                List<WorldPoint> densePath = pathfinder.findApproximatePath(currentLoc, target, radius);
-
-                if (densePath == null || densePath.isEmpty()) {
-                    log.warn("TaskChain: No path found to target {}", target);
-                    return false;
-                }
-
-                List<WorldPoint> stridedPath = movement.applyVariableStride(densePath);
-                if (!movement.traversePath(client, stridedPath)) {
-                    return false;
-                }
-            }
-            return false;
-        });
-        return this;
+        return walk(target, location -> location.distanceTo(target) <= radius,
+                (pathfinder, location) -> pathfinder.findApproximatePath(location, target, radius));
     }
 
     /**
@@ -167,39 +146,95 @@ public class TaskChain {
      * @return The current TaskChain instance.
      */
     public TaskChain walkTo(WorldArea area) {
-        tasks.add(() -> {
+        return walk(area, area::contains, (pathfinder, location) -> pathfinder.findApproximatePath(location, area));
+    }
+
+    /**
+     * Adds a walk to the chain. Each refresh checks whether the player has arrived, paths from the player's location
+     * and traverses the path, which usually ends at the scene edge for long walks.
+     * @param target The destination, used for logging
+     * @param arrived Whether the player has arrived given their location
+     * @param route Calculates the path from the player's location
+     * @return The current TaskChain instance.
+     */
+    private TaskChain walk(Object target, Predicate<WorldPoint> arrived, BiFunction<LocalPathfinder, WorldPoint, List<WorldPoint>> route) {
+        tasks.add(task(() -> {
             MovementService movement = ctx.getService(MovementService.class);
             LocalPathfinder pathfinder = ctx.getService(LocalPathfinder.class);
             Client client = ctx.getClient();
 
-            int maxRefreshes = 20;
-
-            for (int i = 0; i < maxRefreshes; i++) {
-                WorldPoint currentLoc = client.getLocalPlayer().getWorldLocation();
+            for (int i = 0; i < MAX_WALK_REFRESHES; i++) {
+                WorldPoint currentLoc = playerLocation();
+                if (currentLoc == null) {
+                    log.warn("TaskChain: Local player location is not known yet");
+                    return false;
+                }
 
-                // 1. Check if we are inside the area (Goal reached)
-                if (area.contains(currentLoc)) {
+                // Are we there yet?
+                if (arrived.test(currentLoc)) {
                     return true;
                 }
 
-                List<WorldPoint> densePath = pathfinder.findApproximatePath(currentLoc, area);
-
+                // If path is empty but we aren't at the target, we are stuck/unreachable
+                List<WorldPoint> densePath = route.apply(pathfinder, currentLoc);
                 if (densePath == null || densePath.isEmpty()) {
-                    log.warn("TaskChain: No path found to area {}", area);
+                    log.warn("TaskChain: Path calculation failed or target unreachable: {}", target);
                     return false;
                 }
 
+                // Filter for variable stride (human-like steps), then walk this segment. If traverse returns false
+                // (timeout/stuck) we abort the whole chain, otherwise the next iteration paths from the new location
                 List<WorldPoint> stridedPath = movement.applyVariableStride(densePath);
-
                 if (!movement.traversePath(client, stridedPath)) {
                     return false;
                 }
             }
+
+            log.error("TaskChain: Exceeded max scene refreshes walking to {}", target);
             return false;
-        });
+        }, execution -> walkAsync(execution, target, arrived, route, 0)));
         return this;
     }
 
+    /**
+     * Runs one refresh of a {@link #walk(Object, Predicate, BiFunction)} without blocking. Pathfinding runs on the
+     * {@link ScriptScheduler} and the path is traversed by chaining the arrival futures of its waypoints, so no thread
+     * is held while the player walks.
+     */
+    private CompletableFuture<Boolean> walkAsync(Execution execution, Object target, Predicate<WorldPoint> arrived,
+                                                 BiFunction<LocalPathfinder, WorldPoint, List<WorldPoint>> route, int refresh) {
+        if (refresh >= MAX_WALK_REFRESHES) {
+            log.error("TaskChain: Exceeded max scene refreshes walking to {}", target);
+            return CompletableFuture.completedFuture(false);
+        }
+
+        return execution.track(playerLocationAsync()).thenCompose(currentLoc -> {
+            if (currentLoc == null) {
+                log.warn("TaskChain: Local player location is not known yet");
+                return CompletableFuture.completedFuture(false);
+            }
+
+            if (arrived.test(currentLoc)) {
+                return CompletableFuture.completedFuture(true);
+            }
+
+            MovementService movement = ctx.getService(MovementService.class);
+            LocalPathfinder pathfinder = ctx.getService(LocalPathfinder.class);
+            // Arrivals complete on the client thread, the pathfinding itself is kept off it
+            return execution.track(ctx.getService(ScriptScheduler.class).supply(execution.token,
+                    () -> route.apply(pathfinder, currentLoc))).thenCompose(densePath -> {
+                if (densePath == null || densePath.isEmpty()) {
+                    log.warn("TaskChain: Path calculation failed or target unreachable: {}", target);
+                    return CompletableFuture.completedFuture(false);
+                }
+
+                return execution.track(movement.traversePathAsync(movement.applyVariableStride(densePath)));
+            }).thenCompose(traversed -> traversed
+                    ? walkAsync(execution, target, arrived, route, refresh + 1)
+                    : CompletableFuture.completedFuture(false));
+        });
+    }
+
     /**
      * Retries a specific action until a condition is met or the maximum number of retries is reached.
      * <p>
@@ -218,11 +253,11 @@ public class TaskChain {
      * @return The current {@link TaskChain} instance.
      */
     public TaskChain retryUntil(Runnable action, BooleanSupplier successCondition, int maxRetries, int retryDelayMs) {
-        tasks.add(() -> {
+        tasks.add(task(() -> {
             for (int attempt = 0; attempt <= maxRetries; attempt++) {
 
                 ctx.runOnClientThread(action);
-                Thread.sleep(retryDelayMs);
+                CancellationToken.current().sleep(retryDelayMs);
 
                 if (ctx.runOnClientThread(successCondition::getAsBoolean)) {
                     return true;
@@ -235,10 +270,67 @@ public class TaskChain {
 
             log.warn("TaskChain: retryUntil failed after {} attempts.", maxRetries + 1);
             return false;
-        });
+        }, execution -> retryAsync(execution, action, successCondition, 0, maxRetries, retryDelayMs)));
         return this;
     }
 
+    /**
+     * Returns the local player's location from the latest tick snapshot. Before the first tick after logging in or
+     * starting the plugin no snapshot exists yet, so the location is read from the player on the client thread.
+     */
+    private WorldPoint playerLocation() {
+        WorldPoint location = ctx.getLocalPlayerTracker().get().getWorldLocation();
+        if (location != null) {
+            return location;
+        }
+
+        return ctx.runOnClientThread(() -> {
+            Player player = ctx.getClient().getLocalPlayer();
+            return player == null ? null : player.getWorldLocation();
+        });
+    }
+
+    /**
+     * Returns the local player's location like {@link #playerLocation()} without blocking when the location has to be
+     * read on the client thread.
+     */
+    private CompletableFuture<WorldPoint> playerLocationAsync() {
+        WorldPoint location = ctx.getLocalPlayerTracker().get().getWorldLocation();
+        if (location != null) {
+            return CompletableFuture.completedFuture(location);
+        }
+
+        return ctx.runOnClientThreadAsync(() -> {
+            Player player = ctx.getClient().getLocalPlayer();
+            return player == null ? null : player.getWorldLocation();
+        });
+    }
+
+    /**
+     * Runs one attempt of a {@link #retryUntil(Runnable, BooleanSupplier, int, int)} without blocking. Rather than
+     * sleeping for the whole delay the attempt succeeds as soon as the condition holds within it.
+     */
+    private CompletableFuture<Boolean> retryAsync(Execution execution, Runnable action, BooleanSupplier successCondition,
+                                                  int attempt, int maxRetries, int retryDelayMs) {
+        return execution.track(ctx.runOnClientThreadAsync(() -> {
+            action.run();
+            return true;
+        })).thenCompose(ran -> execution.track(ctx.getWaitEngine().when(successCondition, WaitEngine.NO_TIMEOUT, retryDelayMs)))
+                .thenCompose(met -> {
+                    if (met) {
+                        return CompletableFuture.completedFuture(true);
+                    }
+
+                    if (attempt < maxRetries) {
+                        log.info("TaskChain: Condition not met, retrying... (Attempt {}/{})", attempt + 1, maxRetries);
+                        return retryAsync(execution, action, successCondition, attempt + 1, maxRetries, retryDelayMs);
+                    }
+
+                    log.warn("TaskChain: retryUntil failed after {} attempts.", maxRetries + 1);
+                    return CompletableFuture.completedFuture(false);
+                });
+    }
+
     /**
      * Retries an action until a condition is met using default settings (3 retries, 600ms delay).
      *
@@ -251,41 +343,37 @@ public class TaskChain {
     }
 
     /**
-     * Waits until the given condition is met or a timeout occurs, checking the condition
-     * periodically at the specified interval. If the condition is not met within the timeout period,
-     * the task chain will stop execution and log a warning.
+     * Waits until the given condition is met or a timeout occurs. If the condition is not met within
+     * the timeout period, the task chain will stop execution and log a warning.
      *
-     * <p>This method continuously evaluates the {@code condition} on the client thread using the
-     * {@code runOnClientThread} method provided by the {@code Context}. The evaluation is performed
-     * in a thread-safe manner, with the specified delay between checks.</p>
+     * <p>This method registers the {@code condition} with the {@code WaitEngine} provided by the
+     * {@code Context}, which evaluates it on the client thread every client tick and game tick. The
+     * chain's thread parks until the condition holds rather than polling it.</p>
      *
      * @param condition a {@literal @}BooleanSupplier representing the condition to wait for. The condition
      *                  is evaluated on the client thread. Cannot be null. A null value may result in
      *                  unexpected runtime behavior.
-     * @param checkDelayMs the delay (in milliseconds) between subsequent evaluations of the {@code condition}.
-     *                     This determines how frequently the condition is checked.
+     * @param checkDelayMs unused, the {@code condition} is evaluated once per client tick and game tick.
      * @param timeoutMs the maximum time (in milliseconds) to wait for the {@code condition} to evaluate to {@code true}.
      *                  If the condition is not met within this duration, the chain execution terminates.
      *
      * @return the current instance of {@literal @}TaskChain, allowing for further chaining of tasks.
      */
     public TaskChain waitUntil(BooleanSupplier condition, int checkDelayMs, int timeoutMs) {
-        tasks.add(() -> {
-            long start = System.currentTimeMillis();
-            while (true) {
-                if (System.currentTimeMillis() - start > timeoutMs) {
-                    log.warn("TaskChain timed out waiting for condition.");
-                    return false;
-                }
-
-                if (ctx.runOnClientThread(condition::getAsBoolean)) {
-                    return true; // Condition met, move next
-                }
-
-                // Sleep the background thread to wait for next check
-                Thread.sleep(checkDelayMs);
+        tasks.add(task(() -> {
+            // Evaluated on the client thread each client tick, the chain's thread parks until it holds
+            if (!ctx.getWaitEngine().await(condition, timeoutMs)) {
+                log.warn("TaskChain timed out waiting for condition.");
+                return false;
             }
-        });
+            return true;
+        }, execution -> execution.track(ctx.getWaitEngine().when(condition, WaitEngine.NO_TIMEOUT, timeoutMs))
+                .thenApply(met -> {
+                    if (!met) {
+                        log.warn("TaskChain timed out waiting for condition.");
+                    }
+                    return met;
+                })));
         return this;
     }
 
@@ -309,12 +397,12 @@ public class TaskChain {
 
     /**
      * Waits until the given condition is met or a timeout occurs. The condition is checked
-     * periodically at a default interval. If the condition is not met within the timeout period,
+     * once per client tick. If the condition is not met within the timeout period,
      * the task chain will stop execution and log a warning.
      *
      * <p>This method evaluates the {@code condition} on the client thread and continues to the next
      * task in the chain when the condition is satisfied. The evaluations are performed in a
-     * thread-safe manner using the {@code runOnClientThread} method of the {@code Context}.</p>
+     * thread-safe manner using the {@code WaitEngine} of the {@code Context}.</p>
      *
      * @param condition a {@literal @}BooleanSupplier representing the condition to wait for. The condition
      *                  is evaluated on the client thread. Cannot be null. A null value may result in
@@ -333,8 +421,10 @@ public class TaskChain {
      * Adds a delay to the task chain, pausing execution for the specified duration in milliseconds
      * before proceeding to the next task.
      *
-     * <p>This method schedules a task that introduces the delay by invoking {@literal Thread.sleep(ms)}.
-     * As a result, chain progression is paused during the delay duration.</p>
+     * <p>This method schedules a task that introduces the delay by sleeping on the current {@link CancellationToken},
+     * so stopping the script ends the delay early. As a result, chain progression is paused during the delay duration.
+     * When the chain is executed with {@link #executeAsync()} no thread sleeps, the delay ends on the first client tick
+     * after it has elapsed.</p>
      *
      * @param ms The duration of the delay in milliseconds. Must be a non-negative integer;
      *           a value less than 0 may result in unexpected behavior.
@@ -342,10 +432,11 @@ public class TaskChain {
      * @return The current instance of {@literal TaskChain}, allowing for method chaining of additional tasks.
      */
     public TaskChain delay(int ms) {
-        tasks.add(() -> {
-            Thread.sleep(ms);
+        tasks.add(task(() -> {
+            CancellationToken.current().sleep(ms);
             return true;
-        });
+        }, execution -> execution.track(ctx.getWaitEngine().when(() -> false, WaitEngine.NO_TIMEOUT, Math.max(ms, 0)))
+                .thenApply(met -> true)));
         return this;
     }
 
@@ -367,10 +458,17 @@ public class TaskChain {
             return this;
         }
 
-        tasks.add(() -> {
+        tasks.add(task(() -> {
             SleepService.sleepFor(ticks);
             return true;
-        });
+        }, execution -> {
+            int start = ctx.getClient().getTickCount();
+            // Same as SleepService.sleepFor, a tick count reset on login also ends the delay
+            return execution.track(ctx.getWaitEngine().when(() -> {
+                int current = ctx.getClient().getTickCount();
+                return current >= start + ticks || current < start;
+            }, WaitEngine.NO_TIMEOUT, WaitEngine.NO_TIMEOUT)).thenApply(met -> true);
+        }));
         return this;
     }
 
@@ -403,6 +501,37 @@ public class TaskChain {
         }
     }
 
+    /**
+     * Executes the task chain without blocking the calling thread.
+     *
+     * <p>The chain is run as a state machine which moves to the next task when the current one completes.
+     * Waits and delays are registered with the {@link WaitEngine} and advanced by client and game ticks,
+     * client thread actions are queued on the client thread, and walks chain the {@link LocalPlayerTracker}
+     * arrival futures of their waypoints, with only the pathfinding between them run on the shared
+     * {@link ScriptScheduler}. No thread is held while a chain waits or walks, so any number of chains can run
+     * at once. A task without a non-blocking form would hold a scheduler thread for as long as it runs, every
+     * task this class adds has one.</p>
+     *
+     * <p>The returned {@link Execution} completes with {@code true} if every task succeeded and {@code false}
+     * if any task failed or threw. Cancelling it stops the chain at the current task. If called from a
+     * script the chain is also cancelled when the script stops.</p>
+     *
+     * @return the running {@link Execution}, which also reports the time spent in each task.
+     */
+    public Execution executeAsync() {
+        List<Task> steps = new ArrayList<>(tasks);
+        tasks.clear();
+        Execution execution = new Execution(steps);
+
+        CancellationToken parent = CancellationToken.current();
+        Runnable cancel = () -> execution.cancel(false);
+        parent.onCancel(cancel);
+        execution.whenComplete((result, error) -> parent.removeOnCancel(cancel));
+
+        execution.advance();
+        return execution;
+    }
+
     /**
      * Adds all tasks from the specified {@literal @}TaskChain to the current task chain.
      *
@@ -418,7 +547,185 @@ public class TaskChain {
      * @return the current instance of {@literal @}TaskChain, allowing for method chaining of additional tasks.
      */
     public TaskChain add(TaskChain otherChain) {
-        tasks.add(otherChain::execute);
+        tasks.add(task(otherChain::execute, execution -> execution.track(otherChain.executeAsync())));
         return this;
     }
+
+    /**
+     * A chain running through {@link #executeAsync()}. Completes with the result of the chain and records how long
+     * each task took.
+     */
+    public final class Execution extends CompletableFuture<Boolean> {
+        private final List<Task> steps;
+        private final long[] stepNanos;
+        private final CancellationToken token = new CancellationToken();
+        private final List<CompletableFuture<?>> inFlight = new CopyOnWriteArrayList<>();
+
+        private volatile int step = 0;
+        private volatile long stepStart;
+
+        private Execution(List<Task> steps) {
+            this.steps = steps;
+            this.stepNanos = new long[steps.size()];
+            Arrays.fill(stepNanos, -1);
+        }
+
+        /**
+         * The number of tasks in the chain.
+         * @return The number of tasks
+         */
+        public int getStepCount() {
+            return steps.size();
+        }
+
+        /**
+         * The index of the task which is running, equal to {@link #getStepCount()} once every task has completed.
+         * @return The index of the current task
+         */
+        public int getCurrentStep() {
+            return step;
+        }
+
+        /**
+         * The time spent in a task. A task which is still running reports the time so far.
+         * @param step The index of the task
+         * @param unit The unit of the returned time
+         * @return The time spent in the task, or -1 if it has not started or the index is outside the chain, as
+         * {@link #getCurrentStep()} is once the chain has completed
+         */
+        public long getStepTime(int step, TimeUnit unit) {
+            if (step < 0 || step >= steps.size()) {
+                return -1;
+            }
+
+            if (step == this.step && !isDone()) {
+                return unit.convert(System.nanoTime() - stepStart, TimeUnit.NANOSECONDS);
+            }
+
+            long nanos = stepNanos[step];
+            return nanos < 0 ? -1 : unit.convert(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Cancels the chain. The current task is cancelled, a task running on the {@link ScriptScheduler} is woken
+         * from any sleep or wait, and no further tasks are started.
+         * @param mayInterruptIfRunning ignored, running tasks are stopped through their cancellation token
+         * @return True if the chain was cancelled by this call
+         */
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                token.cancel();
+                for (CompletableFuture<?> future : inFlight) {
+                    future.cancel(false);
+                }
+            }
+            return cancelled;
+        }
+
+        /**
+         * Registers a future the current task depends on so it is cancelled along with the chain.
+         */
+        private <T extends CompletableFuture<?>> T track(T future) {
+            inFlight.add(future);
+            if (isCancelled()) {
+                future.cancel(false);
+            }
+            return future;
+        }
+
+        /**
+         * Runs a blocking task on the {@link ScriptScheduler} with the chain's cancellation token bound.
+         */
+        private CompletableFuture<Boolean> offload(Task task) {
+            CompletableFuture<Boolean> result = new CompletableFuture<>();
+            ctx.getService(ScriptScheduler.class).submit(token, () -> {
+                try {
+                    result.complete(task.execute());
+                } catch (InterruptedException e) {
+                    log.debug("Chain interrupted");
+                    result.complete(false);
+                } catch (Exception e) {
+                    result.completeExceptionally(e);
+                }
+            });
+            return result;
+        }
+
+        /**
+         * Starts tasks until one has not completed yet, at which point its completion continues the chain. Tasks
+         * which complete immediately are looped over rather than recursed into.
+         */
+        private void advance() {
+            while (!isDone()) {
+                if (step >= steps.size()) {
+                    complete(true);
+                    return;
+                }
+
+                inFlight.clear();
+                stepStart = System.nanoTime();
+                CompletableFuture<Boolean> future;
+                try {
+                    future = steps.get(step).start(this);
+                } catch (Exception e) {
+                    finish(null, e);
+                    return;
+                }
+
+                if (!future.isDone()) {
+                    future.whenComplete((result, error) -> {
+                        if (finish(result, error)) {
+                            advance();
+                        }
+                    });
+                    return;
+                }
+
+                // A task started on the client thread may already have failed, e.g. a run action dispatched inline
+                Boolean result = null;
+                Throwable error = null;
+                try {
+                    result = future.join();
+                } catch (CompletionException | CancellationException e) {
+                    error = e;
+                }
+
+                if (!finish(result, error)) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Records the end of the current task.
+         * @return True if the chain should continue with the next task
+         */
+        private boolean finish(Boolean result, Throwable error) {
+            stepNanos[step] = System.nanoTime() - stepStart;
+            log.debug("TaskChain: step {}/{} finished in {}ms", step + 1, steps.size(),
+                    TimeUnit.NANOSECONDS.toMillis(stepNanos[step]));
+
+            if (error instanceof CompletionException && error.getCause() != null) {
+                error = error.getCause();
+            }
+
+            if (error != null) {
+                if (!(error instanceof CancellationException) || !isCancelled()) {
+                    log.error("TaskChain: step {} failed: {}", step + 1, error.getMessage(), error);
+                    complete(false);
+                }
+                return false;
+            }
+
+            if (result == null || !result) {
+                complete(false);
+                return false;
+            }
+
+            step++;
+            return true;
+        }
+    }
 }
@@ -1,75 +1,104 @@
 package com.kraken.api.service.util.price;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParseException;
-import com.google.gson.reflect.TypeToken;
-import lombok.Data;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
-import okhttp3.*;
-import org.checkerframework.checker.nullness.qual.NonNull;
+import net.runelite.client.RuneLite;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
-import java.io.IOException;
-import java.lang.reflect.Type;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.*;
 import java.util.function.Consumer;
 
+/**
+ * Looks up item prices from the OSRS Wiki real time prices API.
+ * <p>
+ * Prices are served from a local {@link PriceStore} (warmed from an on disk snapshot at startup). Each cached price
+ * is fresh for a configurable TTL, once the TTL elapses the stale price is still returned immediately while a single
+ * background request revalidates it (stale-while-revalidate). Cache misses are coalesced: concurrent lookups for the
+ * same item share one in-flight request, and misses for different items within a short window are collected so a
+ * few are fetched with one request each while a larger batch is sent as a single bulk request.
+ */
 @Slf4j
 @Singleton
 public class ItemPriceService {
 
     private static final String API_BASE = "https://prices.runescape.wiki/api/v1/osrs/latest";
-    private final OkHttpClient okHttpClient;
-    private final Gson gson;
+    private static final String SNAPSHOT_FILE = "prices.bin";
+    private static final long DEFAULT_TTL_MILLIS = 60_000L;
+    private static final long COALESCE_WINDOW_MILLIS = 25L;
+    private static final long SYNC_TIMEOUT_SECONDS = 10L;
 
-    private final Map<Integer, ItemPrice> priceCache = new ConcurrentHashMap<>();
+    private final PriceStore priceStore;
+    private final PriceFetcher fetcher;
+
+    /**
+     * The number of milliseconds a cached price is considered fresh for. Defaults to one minute.
+     */
+    @Setter
+    private volatile long ttlMillis = DEFAULT_TTL_MILLIS;
 
     @Inject
-    public ItemPriceService(OkHttpClient okHttpClient, Gson gson) {
-        this.okHttpClient = okHttpClient;
-        this.gson = gson;
+    public ItemPriceService(OkHttpClient okHttpClient) {
+        this(okHttpClient, HttpUrl.parse(API_BASE), new PriceStore(RuneLite.RUNELITE_DIR.toPath().resolve("kraken").resolve(SNAPSHOT_FILE)), COALESCE_WINDOW_MILLIS);
+    }
+
+    ItemPriceService(OkHttpClient okHttpClient, HttpUrl apiBase, PriceStore priceStore, long coalesceWindowMillis) {
+        this.priceStore = priceStore;
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "kraken-price-fetcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.fetcher = new PriceFetcher(okHttpClient, apiBase, priceStore, scheduler, coalesceWindowMillis);
     }
 
     /**
-     * Retrieves the price for a specific item.
+     * Retrieves the price for a specific item without blocking.
      * <p>
-     * 1. Checks the local cache.
-     * 2. If missing, performs a non blocking network request for that specific item. This is safe to use on or off
-     * the RuneLite client thread.
+     * 1. If the item has a fresh cached price the future is already complete.
+     * 2. If the cached price is stale the future is already complete with the stale price and the price is
+     * revalidated in the background.
+     * 3. If the item is not cached the future completes when the (possibly shared) network request completes.
      * </p>
+     * This is safe to use on or off the RuneLite client thread.
      * @param itemId The OSRS Item ID
      * @param userAgent A user agent sent to the OSRS Wiki to identify the application fetching data. This should NOT
      *                  be the basic java user agent or contain information about your plugins or client as it is sent to the Wiki and likely inspected.
-     * @param callback A functional interface for consuming the result of the asynchronous API call
-     * @throws RuntimeException if called on the main client thread (optional safety check you could add)
+     * @return A future completed with the price of the item, or null if the Wiki has no price for the item or the request failed
      */
-    public void getItemPrice(int itemId, String userAgent, Consumer<ItemPrice> callback) {
-        if (priceCache.containsKey(itemId)) {
-            callback.accept(priceCache.get(itemId));
-            return;
+    public CompletableFuture<ItemPrice> getItemPriceAsync(int itemId, String userAgent) {
+        ItemPrice cached = priceStore.get(itemId);
+        if (cached == null) {
+            return fetcher.fetch(itemId, userAgent);
         }
 
-        fetchSingleItemAsync(itemId, userAgent, callback);
-    }
-
-    public ItemPrice getItemPriceSync(int itemId, String userAgent) {
-        if (priceCache.containsKey(itemId)) {
-            return priceCache.get(itemId);
+        if (isStale(itemId)) {
+            fetcher.fetch(itemId, userAgent);
         }
+        return CompletableFuture.completedFuture(cached);
+    }
 
-        return fetchSingleItem(itemId, userAgent);
+    /**
+     * Retrieves the price for a specific item. See {@link #getItemPriceAsync(int, String)} for caching semantics.
+     * @param itemId The OSRS Item ID
+     * @param userAgent A user agent sent to the OSRS Wiki to identify the application fetching data. This should NOT
+     *                  be the basic java user agent or contain information about your plugins or client as it is sent to the Wiki and likely inspected.
+     * @param callback A functional interface for consuming the result of the asynchronous API call. The callback
+     *                 receives null if the Wiki has no price for the item or the request failed.
+     */
+    public void getItemPrice(int itemId, String userAgent, Consumer<ItemPrice> callback) {
+        getItemPriceAsync(itemId, userAgent).thenAccept(callback);
     }
 
     /**
-     * Fetches the price information for a single item by performing a blocking network request to the API. NOTE:
-     * This is safe to run in a {@link com.kraken.api.core.script.Script} loop since the loop runs on a non client thread
+     * Retrieves the price for a specific item, blocking until the network request completes if the item is not cached.
+     * NOTE: This is safe to run in a {@link com.kraken.api.core.script.Script} loop since the loop runs on a non client thread
      * however, it is NOT safe to run this on the client thread (in methods which use @Subscribe for example). Use {@link #getItemPrice(int, String, Consumer)}
      * instead if you need to get an item price while on the client thread.
      * <p>
-     * If the API call is successful, the item's price data is parsed, cached, and returned.
+     * Cached prices are returned immediately, even when stale, see {@link #getItemPriceAsync(int, String)}.
      * In case of an error (such as a network issue or unsuccessful response), this method logs the error
      * and returns {@code null}.
      * </p>
@@ -81,146 +110,48 @@ public class ItemPriceService {
      * @return An {@code ItemPrice} object representing the item's price data, or {@code null}
      * if the item has no trade data, the request fails, or a parsing error occurs.
      */
-
-    private ItemPrice fetchSingleItem(int itemId, String userAgent) {
-        HttpUrl url = HttpUrl.parse(API_BASE).newBuilder()
-                .addQueryParameter("id", String.valueOf(itemId))
-                .build();
-
-        Request request = new Request.Builder()
-                .url(url)
-                .header("User-Agent", userAgent)
-                .build();
-
-        try (Response response = okHttpClient.newCall(request).execute()) {
-            if (!response.isSuccessful()) {
-                log.warn("Failed to lookup item {}: HTTP {}", itemId, response.code());
-                return null;
-            }
-
-            if (response.body() == null) return null;
-            String jsonString = response.body().string();
-            parseAndCache(jsonString);
-            return priceCache.get(itemId);
-        } catch (IOException e) {
-            log.error("Network error looking up item {}", itemId, e);
+    public ItemPrice getItemPriceSync(int itemId, String userAgent) {
+        try {
+            return getItemPriceAsync(itemId, userAgent).get(SYNC_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException e) {
+            log.error("Failed to lookup item {}", itemId, e);
             return null;
         }
     }
 
-    private void fetchSingleItemAsync(int itemId, String userAgent, Consumer<ItemPrice> callback) {
-        HttpUrl url = HttpUrl.parse(API_BASE).newBuilder()
-                .addQueryParameter("id", String.valueOf(itemId))
-                .build();
-
-        Request request = new Request.Builder()
-                .url(url)
-                .header("User-Agent", userAgent)
-                .build();
-
-        okHttpClient.newCall(request).enqueue(new Callback() {
-            @Override
-            public void onFailure(@NonNull Call call, @NonNull IOException e) {
-                log.warn("Failed to lookup item {}", itemId, e);
-                callback.accept(null);
-            }
-
-            @Override
-            public void onResponse(@NonNull Call call, @NonNull Response response) {
-                try (response) {
-                    if (!response.isSuccessful() || response.body() == null) {
-                        log.warn("Failed to lookup item {}: HTTP {}", itemId, response.code());
-                        callback.accept(null);
-                        return;
-                    }
-
-                    String jsonString = response.body().string();
-                    parseAndCache(jsonString);
-
-                    ItemPrice price = priceCache.get(itemId);
-                    if (price != null) {
-                        callback.accept(price);
-                    }
-                } catch (IOException e) {
-                    log.error("Error reading response", e);
-                }
-            }
-        });
-    }
-
-
     /**
-     * Asynchronously fetches prices for ALL items to populate the cache.
+     * Asynchronously fetches prices for ALL items to populate the cache. The response is stream parsed into the
+     * price store and a snapshot of the store is written to the kraken directory so that the next startup has prices
+     * available without a network request. Calls made while a bulk refresh is already in flight share that refresh.
      * Useful for plugin startup.
      * @param userAgent A user agent sent to the OSRS Wiki to identify the application fetching data. This should NOT
      * be the basic java user agent or contain information about your plugins or client as it is sent to the Wiki and likely inspected.
+     * @return A future completed with the number of prices received, or 0 if the request failed
      */
-    public void refreshAllPrices(String userAgent) {
-        Request request = new Request.Builder()
-                .url(API_BASE)
-                .header("User-Agent", userAgent)
-                .build();
-
-
-        okHttpClient.newCall(request).enqueue(new Callback() {
-            @Override
-            public void onFailure(@NonNull Call call, @NonNull IOException e) {
-                log.warn("Failed to bulk fetch prices: ", e);
-            }
-
-            @Override
-            public void onResponse(@NonNull Call call, @NonNull Response response) throws IOException {
-                if (!response.isSuccessful()) {
-                    response.close();
-                    return;
-                }
-
-                try (var body = response.body()) {
-                    if (body != null) {
-                        parseAndCache(body.string());
-                        log.debug("Bulk price refresh complete. Cache size: {}", priceCache.size());
-                    }
-                }
-            }
-        });
+    public CompletableFuture<Integer> refreshAllPrices(String userAgent) {
+        return fetcher.refreshAll(userAgent);
     }
 
-    // Helper to keep parseAndCache logic the same
-    private void parseAndCache(String jsonString) {
-        try {
-            JsonObject root = gson.fromJson(jsonString, JsonObject.class);
-            if (!root.has("data")) return;
-
-            JsonObject dataObject = root.getAsJsonObject("data");
-            Type type = new TypeToken<Map<String, WikiPriceDTO>>() {}.getType();
-            Map<String, WikiPriceDTO> parsedData = gson.fromJson(dataObject, type);
-
-            if (parsedData == null) return;
-
-            parsedData.forEach((idStr, dto) -> {
-                try {
-                    int id = Integer.parseInt(idStr);
-                    ItemPrice price = ItemPrice.builder()
-                            .itemId(id)
-                            .high(dto.high)
-                            .low(dto.low)
-                            .highTimestamp(dto.highTime)
-                            .lowTimestamp(dto.lowTime)
-                            .build();
-
-                    priceCache.put(id, price);
-                } catch (NumberFormatException ignored) {}
-            });
-        } catch (JsonParseException e) {
-            log.error("Error parsing price JSON", e);
-        }
+    /**
+     * Returns the price of an item only if it is already cached (either from a previous request or from the on disk
+     * snapshot). This never performs a network request and the returned price may be stale.
+     * @param itemId The OSRS Item ID
+     * @return The cached price or null if the item has no cached price
+     */
+    public ItemPrice getCachedPrice(int itemId) {
+        return priceStore.get(itemId);
     }
 
-    @Data
-    private static class WikiPriceDTO {
-        private int high;
-        private long highTime;
-        private int low;
-        private long lowTime;
+    /**
+     * Returns true if the item has no cached price or its cached price is older than the TTL.
+     * @param itemId The OSRS Item ID
+     * @return True if the price of the item should be refetched
+     */
+    public boolean isStale(int itemId) {
+        long fetchedAt = priceStore.getFetchedAt(itemId);
+        return fetchedAt < 0 || System.currentTimeMillis() - fetchedAt >= ttlMillis;
     }
-}
\ No newline at end of file
+}
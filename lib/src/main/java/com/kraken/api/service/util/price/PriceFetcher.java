@@ -0,0 +1,181 @@
+package com.kraken.api.service.util.price;
+
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.*;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Coalesces price lookups into as few requests to the Wiki prices API as possible.
+ * <p>
+ * Every item id has at most one in-flight {@link CompletableFuture} which is shared by all callers looking up that
+ * id. Ids requested within a short window are collected and sent together: a window containing fewer than
+ * {@link #BULK_THRESHOLD} ids is sent as one {@code ?id=} request per id while a larger window is sent as one bulk
+ * {@code /latest} request (the Wiki API has no multi-id query, and past a handful of ids one bulk download is cheaper
+ * than a request per id).
+ * <p>
+ * Futures are always completed, with {@code null} when the request fails or the Wiki has no price for the item.
+ */
+@Slf4j
+class PriceFetcher {
+    /**
+     * The number of ids missed within a single window at which they are fetched with one bulk request.
+     */
+    static final int BULK_THRESHOLD = 8;
+
+    private final OkHttpClient okHttpClient;
+    private final HttpUrl apiBase;
+    private final PriceStore priceStore;
+    private final ScheduledExecutorService scheduler;
+    private final long windowMillis;
+
+    private final Map<Integer, CompletableFuture<ItemPrice>> inFlight = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    private Set<Integer> pending = new HashSet<>();
+    private String pendingUserAgent;
+    private boolean flushScheduled = false;
+    private final AtomicReference<CompletableFuture<Integer>> bulkInFlight = new AtomicReference<>();
+
+    PriceFetcher(OkHttpClient okHttpClient, HttpUrl apiBase, PriceStore priceStore, ScheduledExecutorService scheduler, long windowMillis) {
+        this.okHttpClient = okHttpClient;
+        this.apiBase = apiBase;
+        this.priceStore = priceStore;
+        this.scheduler = scheduler;
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * Returns a future for the price of an item, joining the in-flight request for the item if one exists.
+     * @param itemId The item id
+     * @param userAgent The user agent sent to the Wiki
+     * @return A future completed with the fetched price or null
+     */
+    CompletableFuture<ItemPrice> fetch(int itemId, String userAgent) {
+        return inFlight.computeIfAbsent(itemId, id -> {
+            synchronized (lock) {
+                pending.add(id);
+                pendingUserAgent = userAgent;
+                if (!flushScheduled) {
+                    flushScheduled = true;
+                    scheduler.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+                }
+            }
+            return new CompletableFuture<>();
+        });
+    }
+
+    /**
+     * Returns true if a request for the item is currently in flight.
+     * @param itemId The item id
+     * @return True if the item is being fetched
+     */
+    boolean isInFlight(int itemId) {
+        return inFlight.containsKey(itemId);
+    }
+
+    private void flush() {
+        Set<Integer> batch;
+        String userAgent;
+        synchronized (lock) {
+            batch = pending;
+            userAgent = pendingUserAgent;
+            pending = new HashSet<>();
+            flushScheduled = false;
+        }
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        if (batch.size() >= BULK_THRESHOLD) {
+            refreshAll(userAgent).whenComplete((count, e) -> complete(batch));
+            return;
+        }
+
+        for (int itemId : batch) {
+            HttpUrl url = apiBase.newBuilder()
+                    .addQueryParameter("id", String.valueOf(itemId))
+                    .build();
+
+            request(url, userAgent).whenComplete((count, e) -> complete(Collections.singleton(itemId)));
+        }
+    }
+
+    /**
+     * Fetches the prices of every item in a single bulk request and writes a snapshot of the price store once the
+     * response has been parsed. Concurrent calls share the same in-flight request.
+     * @param userAgent The user agent sent to the Wiki
+     * @return A future completed with the number of prices in the response, or 0 if the request failed
+     */
+    CompletableFuture<Integer> refreshAll(String userAgent) {
+        CompletableFuture<Integer> created = new CompletableFuture<>();
+        CompletableFuture<Integer> existing = bulkInFlight.compareAndExchange(null, created);
+        if (existing != null) {
+            return existing;
+        }
+
+        request(apiBase, userAgent).whenComplete((count, e) -> {
+            if (count > 0) {
+                priceStore.save();
+                log.debug("Bulk price refresh complete. Cache size: {}", priceStore.size());
+            }
+            bulkInFlight.set(null);
+            created.complete(count);
+        });
+        return created;
+    }
+
+    private CompletableFuture<Integer> request(HttpUrl url, String userAgent) {
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        Request request;
+        try {
+            request = new Request.Builder()
+                    .url(url)
+                    .header("User-Agent", userAgent)
+                    .build();
+        } catch (RuntimeException e) {
+            log.error("Failed to build price request", e);
+            result.complete(0);
+            return result;
+        }
+
+        okHttpClient.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(@NonNull Call call, @NonNull IOException e) {
+                log.warn("Failed to lookup prices from {}", url, e);
+                result.complete(0);
+            }
+
+            @Override
+            public void onResponse(@NonNull Call call, @NonNull Response response) {
+                int count = 0;
+                try (response) {
+                    if (!response.isSuccessful() || response.body() == null) {
+                        log.warn("Failed to lookup prices from {}: HTTP {}", url, response.code());
+                        return;
+                    }
+
+                    count = priceStore.update(response.body().charStream());
+                } catch (IOException e) {
+                    log.error("Error reading price response", e);
+                } finally {
+                    result.complete(count);
+                }
+            }
+        });
+        return result;
+    }
+
+    private void complete(Set<Integer> batch) {
+        for (int id : batch) {
+            CompletableFuture<ItemPrice> future = inFlight.remove(id);
+            if (future != null) {
+                future.complete(priceStore.get(id));
+            }
+        }
+    }
+}
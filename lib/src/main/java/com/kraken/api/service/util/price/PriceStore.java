@@ -0,0 +1,242 @@
+package com.kraken.api.service.util.price;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Holds the current {@link PriceTable} and persists it to a compact binary snapshot on disk so that prices are
+ * available immediately on startup, before (or without) a network request to the Wiki.
+ * <p>
+ * Responses from the Wiki prices API are stream parsed directly into a {@link PriceTable.Builder}, the response body is
+ * never buffered as a single string or intermediate JSON tree.
+ * <p>
+ * The snapshot is a big endian file with the layout:
+ * <pre>
+ *     int  magic ("KPRC")
+ *     int  version
+ *     long time the snapshot was saved (epoch millis)
+ *     int  item count
+ *     count * (int itemId, int high, int low, long highTime, long lowTime, long fetchedAt)
+ * </pre>
+ */
+@Slf4j
+public class PriceStore {
+    private static final int MAGIC = 0x4B505243;
+    private static final int VERSION = 2;
+
+    private final Path snapshotFile;
+    private volatile PriceTable table = PriceTable.EMPTY;
+    private volatile boolean loaded = false;
+
+    /**
+     * Creates a new price store.
+     * @param snapshotFile The file the binary snapshot is read from and written to
+     */
+    public PriceStore(Path snapshotFile) {
+        this.snapshotFile = snapshotFile;
+    }
+
+    /**
+     * Returns the price of an item from the store. The snapshot is loaded from disk the first time the store is read.
+     * @param itemId The item id
+     * @return The price of the item or null if the store has no price for the item
+     */
+    public ItemPrice get(int itemId) {
+        return table().get(itemId);
+    }
+
+    /**
+     * Returns true if the store contains a price for the item.
+     * @param itemId The item id
+     * @return True if a price exists and false otherwise
+     */
+    public boolean contains(int itemId) {
+        return table().contains(itemId);
+    }
+
+    /**
+     * The number of items with a price in the store.
+     * @return int size
+     */
+    public int size() {
+        return table().size();
+    }
+
+    /**
+     * Returns the time at which the price of an item was fetched from the Wiki. Prices loaded from the snapshot keep
+     * the time they were originally fetched.
+     * @param itemId The item id
+     * @return The fetch time in epoch millis or -1 if the store has no price for the item
+     */
+    public long getFetchedAt(int itemId) {
+        return table().fetchedAt(itemId);
+    }
+
+    /**
+     * Stream parses a Wiki {@code /latest} response and merges its prices into the store. Small responses (i.e. a
+     * single {@code ?id=} lookup) are written into the current table in place, bulk responses are merged into a new
+     * table.
+     * @param reader A reader over the response body. The reader is not closed.
+     * @return The number of prices parsed from the response
+     * @throws IOException if the response cannot be read or is malformed
+     */
+    public int update(Reader reader) throws IOException {
+        PriceTable parsed = parse(reader, System.currentTimeMillis());
+        synchronized (this) {
+            PriceTable current = table();
+            if (!current.putAll(parsed)) {
+                table = current.merge(parsed);
+            }
+        }
+        return parsed.size();
+    }
+
+    /**
+     * Writes the current prices to the snapshot file. The snapshot is written to a temporary file and moved into
+     * place so a crash mid-write never leaves a truncated snapshot behind.
+     * @return True if the snapshot was written and false otherwise
+     */
+    public boolean save() {
+        PriceTable current = table();
+        long savedAt = System.currentTimeMillis();
+        try {
+            Files.createDirectories(snapshotFile.toAbsolutePath().getParent());
+            Path tmp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(savedAt);
+                out.writeInt(current.size());
+                IOException[] failure = new IOException[1];
+                current.forEach((id, high, low, highTime, lowTime, fetchedAt) -> {
+                    if (failure[0] != null) return;
+                    try {
+                        out.writeInt(id);
+                        out.writeInt(high);
+                        out.writeInt(low);
+                        out.writeLong(highTime);
+                        out.writeLong(lowTime);
+                        out.writeLong(fetchedAt);
+                    } catch (IOException e) {
+                        failure[0] = e;
+                    }
+                });
+                if (failure[0] != null) {
+                    throw failure[0];
+                }
+            }
+            Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Saved price snapshot with {} items to {}", current.size(), snapshotFile);
+            return true;
+        } catch (IOException e) {
+            log.error("Failed to save price snapshot to {}", snapshotFile, e);
+            return false;
+        }
+    }
+
+    private PriceTable table() {
+        if (!loaded) {
+            load();
+        }
+        return table;
+    }
+
+    private synchronized void load() {
+        if (loaded) {
+            return;
+        }
+
+        loaded = true;
+        if (!Files.exists(snapshotFile)) {
+            return;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                log.warn("Ignoring price snapshot {} with an unknown format", snapshotFile);
+                return;
+            }
+
+            in.readLong();
+            int count = in.readInt();
+            PriceTable.Builder builder = new PriceTable.Builder(count);
+            for (int i = 0; i < count; i++) {
+                builder.put(in.readInt(), in.readInt(), in.readInt(), in.readLong(), in.readLong(), in.readLong());
+            }
+
+            // Prices fetched while the snapshot was loading are newer than the snapshot
+            table = builder.build().merge(table);
+            log.debug("Loaded price snapshot with {} items from {}", count, snapshotFile);
+        } catch (IOException e) {
+            log.error("Failed to load price snapshot from {}", snapshotFile, e);
+        }
+    }
+
+    /**
+     * Stream parses a Wiki prices response of the form {@code {"data": {"<id>": {"high": 1, "highTime": 1, ...}}}}.
+     * Unknown fields are skipped and null prices are stored as 0.
+     * @param reader A reader over the response body
+     * @param fetchedAt The time (epoch millis) at which the response was fetched
+     * @return A table of the parsed prices
+     * @throws IOException if the response cannot be read or is malformed
+     */
+    static PriceTable parse(Reader reader, long fetchedAt) throws IOException {
+        JsonReader json = new JsonReader(reader);
+        PriceTable.Builder builder = new PriceTable.Builder(16);
+
+        try {
+            json.beginObject();
+            while (json.hasNext()) {
+                if (!json.nextName().equals("data") || json.peek() != JsonToken.BEGIN_OBJECT) {
+                    json.skipValue();
+                    continue;
+                }
+
+                json.beginObject();
+                while (json.hasNext()) {
+                    int id;
+                    try {
+                        id = Integer.parseInt(json.nextName());
+                    } catch (NumberFormatException e) {
+                        json.skipValue();
+                        continue;
+                    }
+
+                    int high = 0, low = 0;
+                    long highTime = 0L, lowTime = 0L;
+                    json.beginObject();
+                    while (json.hasNext()) {
+                        String field = json.nextName();
+                        if (json.peek() == JsonToken.NULL) {
+                            json.nextNull();
+                            continue;
+                        }
+
+                        switch (field) {
+                            case "high": high = json.nextInt(); break;
+                            case "low": low = json.nextInt(); break;
+                            case "highTime": highTime = json.nextLong(); break;
+                            case "lowTime": lowTime = json.nextLong(); break;
+                            default: json.skipValue();
+                        }
+                    }
+                    json.endObject();
+                    builder.put(id, high, low, highTime, lowTime, fetchedAt);
+                }
+                json.endObject();
+            }
+            json.endObject();
+        } catch (IllegalStateException | NumberFormatException e) {
+            // JsonReader reports unexpected tokens as unchecked exceptions
+            throw new IOException("Malformed price response", e);
+        }
+
+        return builder.build();
+    }
+}
@@ -0,0 +1,340 @@
+package com.kraken.api.service.util.price;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * An open addressed table of item prices keyed by item id. Prices are stored column-wise in primitive arrays so a
+ * table holding every tradeable item costs a few hundred kilobytes rather than a map of boxed keys and
+ * {@link ItemPrice} objects. {@link ItemPrice} instances are only created when a price is looked up.
+ * <p>
+ * Bulk updates are applied by building a new table (see {@link #merge(PriceTable)}) and publishing it. A handful of
+ * prices (i.e. a single item response) is written into the existing table in place with {@link #putAll(PriceTable)}
+ * as long as the table has room, rather than copying every row. Lookups are optimistic reads validated against a
+ * {@link StampedLock} so they never block unless they race with one of these small writes.
+ */
+final class PriceTable {
+    static final PriceTable EMPTY = new Builder(0).build();
+
+    /**
+     * The largest update written into a table in place, larger updates are merged into a new table.
+     */
+    static final int MAX_IN_PLACE_UPDATE = 64;
+
+    private static final int FREE = -1;
+
+    private final int[] keys;
+    private final int[] high;
+    private final int[] low;
+    private final long[] highTime;
+    private final long[] lowTime;
+    private final long[] fetchedAt;
+    private final int mask;
+    private final StampedLock lock = new StampedLock();
+    private int size;
+
+    private PriceTable(Builder builder) {
+        this.keys = builder.keys;
+        this.high = builder.high;
+        this.low = builder.low;
+        this.highTime = builder.highTime;
+        this.lowTime = builder.lowTime;
+        this.fetchedAt = builder.fetchedAt;
+        this.mask = builder.keys.length - 1;
+        this.size = builder.size;
+    }
+
+    /**
+     * The number of items with a price in this table.
+     * @return int size
+     */
+    int size() {
+        long stamp = lock.tryOptimisticRead();
+        int current = size;
+        if (lock.validate(stamp)) {
+            return current;
+        }
+
+        stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns true if a price exists for the item.
+     * @param itemId The item id
+     * @return True if the table contains the item and false otherwise
+     */
+    boolean contains(int itemId) {
+        return fetchedAt(itemId) >= 0;
+    }
+
+    /**
+     * Returns the price of an item.
+     * @param itemId The item id
+     * @return The price of the item or null if the table does not contain the item
+     */
+    ItemPrice get(int itemId) {
+        long stamp = lock.tryOptimisticRead();
+        ItemPrice price = read(itemId);
+        if (lock.validate(stamp)) {
+            return price;
+        }
+
+        stamp = lock.readLock();
+        try {
+            return read(itemId);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns the time at which the price of an item was fetched from the Wiki.
+     * @param itemId The item id
+     * @return The fetch time in epoch millis or -1 if the table does not contain the item
+     */
+    long fetchedAt(int itemId) {
+        long stamp = lock.tryOptimisticRead();
+        int slot = slot(itemId);
+        long time = slot < 0 ? -1L : fetchedAt[slot];
+        if (lock.validate(stamp)) {
+            return time;
+        }
+
+        stamp = lock.readLock();
+        try {
+            slot = slot(itemId);
+            return slot < 0 ? -1L : fetchedAt[slot];
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns a new table containing every price in this table overwritten by every price in the other table.
+     * @param other The table of newer prices
+     * @return The merged table
+     */
+    PriceTable merge(PriceTable other) {
+        if (other.size() == 0) return this;
+        if (size() == 0) return other;
+
+        Builder builder = new Builder(size() + other.size());
+        forEach(builder::put);
+        other.forEach(builder::put);
+        return builder.build();
+    }
+
+    /**
+     * Writes every price in the other table into this table in place, overwriting existing prices. Nothing is written
+     * if the other table is larger than {@link #MAX_IN_PLACE_UPDATE} or this table does not have room for its new
+     * items, the caller should {@link #merge(PriceTable)} instead. Only one thread may write to a table at a time.
+     * @param other The table of newer prices
+     * @return True if the prices were written and false otherwise
+     */
+    boolean putAll(PriceTable other) {
+        if (this == EMPTY || other.size() > MAX_IN_PLACE_UPDATE) {
+            return false;
+        }
+
+        int[] added = {0};
+        other.forEach((id, h, l, ht, lt, f) -> {
+            if (slot(id) < 0) {
+                added[0]++;
+            }
+        });
+        if ((size + added[0]) * 2 > keys.length) {
+            return false;
+        }
+
+        long stamp = lock.writeLock();
+        try {
+            other.forEach(this::write);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        return true;
+    }
+
+    /**
+     * Visits every price in the table in slot order.
+     * @param visitor The visitor to receive each price
+     */
+    void forEach(Visitor visitor) {
+        long stamp = lock.readLock();
+        try {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != FREE) {
+                    visitor.visit(keys[i], high[i], low[i], highTime[i], lowTime[i], fetchedAt[i]);
+                }
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private ItemPrice read(int itemId) {
+        int slot = slot(itemId);
+        if (slot < 0) {
+            return null;
+        }
+
+        return ItemPrice.builder()
+                .itemId(itemId)
+                .high(high[slot])
+                .low(low[slot])
+                .highTimestamp(highTime[slot])
+                .lowTimestamp(lowTime[slot])
+                .build();
+    }
+
+    private void write(int itemId, int high, int low, long highTime, long lowTime, long fetchedAt) {
+        if (itemId < 0) {
+            return;
+        }
+
+        int i = hash(itemId) & mask;
+        while (keys[i] != FREE && keys[i] != itemId) {
+            i = (i + 1) & mask;
+        }
+
+        if (keys[i] == FREE) {
+            keys[i] = itemId;
+            size++;
+        }
+
+        this.high[i] = high;
+        this.low[i] = low;
+        this.highTime[i] = highTime;
+        this.lowTime[i] = lowTime;
+        this.fetchedAt[i] = fetchedAt;
+    }
+
+    private int slot(int itemId) {
+        int i = hash(itemId) & mask;
+        // Bounded so an optimistic read racing with a write can never spin, it is validated and retried afterwards
+        for (int probes = 0; probes < keys.length && keys[i] != FREE; probes++) {
+            if (keys[i] == itemId) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Receives the columns of a single price row.
+     */
+    @FunctionalInterface
+    interface Visitor {
+        void visit(int itemId, int high, int low, long highTime, long lowTime, long fetchedAt);
+    }
+
+    /**
+     * Accumulates prices for a new table. The builder grows as needed so it can be filled while streaming a response
+     * whose item count is not known up front. A builder must not be used after {@link #build()} is called.
+     */
+    static final class Builder {
+        private int[] keys;
+        private int[] high;
+        private int[] low;
+        private long[] highTime;
+        private long[] lowTime;
+        private long[] fetchedAt;
+        private int size;
+
+        Builder(int expectedSize) {
+            allocate(capacityFor(expectedSize));
+        }
+
+        /**
+         * Adds or replaces the price of an item.
+         * @param itemId The item id, must not be negative
+         * @param high The high price
+         * @param low The low price
+         * @param highTime Unix timestamp of the high price
+         * @param lowTime Unix timestamp of the low price
+         * @param fetchedAt The time (epoch millis) at which the price was fetched
+         * @return This builder
+         */
+        Builder put(int itemId, int high, int low, long highTime, long lowTime, long fetchedAt) {
+            if (itemId < 0) {
+                return this;
+            }
+
+            if ((size + 1) * 2 > keys.length) {
+                rehash(keys.length * 2);
+            }
+
+            int mask = keys.length - 1;
+            int i = hash(itemId) & mask;
+            while (keys[i] != FREE && keys[i] != itemId) {
+                i = (i + 1) & mask;
+            }
+
+            if (keys[i] == FREE) {
+                keys[i] = itemId;
+                size++;
+            }
+
+            this.high[i] = high;
+            this.low[i] = low;
+            this.highTime[i] = highTime;
+            this.lowTime[i] = lowTime;
+            this.fetchedAt[i] = fetchedAt;
+            return this;
+        }
+
+        int size() {
+            return size;
+        }
+
+        PriceTable build() {
+            return new PriceTable(this);
+        }
+
+        private void rehash(int capacity) {
+            int[] oldKeys = keys;
+            int[] oldHigh = high;
+            int[] oldLow = low;
+            long[] oldHighTime = highTime;
+            long[] oldLowTime = lowTime;
+            long[] oldFetchedAt = fetchedAt;
+
+            allocate(capacity);
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != FREE) {
+                    put(oldKeys[i], oldHigh[i], oldLow[i], oldHighTime[i], oldLowTime[i], oldFetchedAt[i]);
+                }
+            }
+        }
+
+        private void allocate(int capacity) {
+            keys = new int[capacity];
+            Arrays.fill(keys, FREE);
+            high = new int[capacity];
+            low = new int[capacity];
+            highTime = new long[capacity];
+            lowTime = new long[capacity];
+            fetchedAt = new long[capacity];
+        }
+
+        private static int capacityFor(int expectedSize) {
+            int capacity = 16;
+            while (capacity < expectedSize * 2) {
+                capacity <<= 1;
+            }
+            return capacity;
+        }
+    }
+}
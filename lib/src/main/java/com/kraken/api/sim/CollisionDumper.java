@@ -1,41 +1,80 @@
 package com.kraken.api.sim;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
 import com.google.inject.Inject;
+import com.google.inject.Provider;
 import com.google.inject.Singleton;
 import com.kraken.api.Context;
+import com.kraken.api.service.tile.DistanceGrid;
 import com.kraken.api.sim.model.AttackStyle;
 import com.kraken.api.sim.model.SimNpc;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Client;
 import net.runelite.api.CollisionData;
+import net.runelite.api.GameState;
 import net.runelite.api.NPC;
-import net.runelite.api.coords.LocalPoint;
+import net.runelite.api.WorldView;
 import net.runelite.api.coords.WorldPoint;
+import net.runelite.api.events.GameStateChanged;
 import net.runelite.client.RuneLite;
+import net.runelite.client.eventbus.Subscribe;
 
 import java.awt.*;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
  * Handles collision data dumping, loading, and conversion between different formats.
  * Supports both in-game data collection and file-based operations.
+ * <p>
+ * Loaded scenes can also be recorded into a {@link WorldCollisionStore} so collision data is available for regions
+ * outside the loaded scene (see {@link com.kraken.api.service.pathfinding.WorldPathfinder}). Recording every scene as it
+ * loads is opt in, see {@link #setRecordScenes(boolean)}.
  */
 @Slf4j
 @Singleton
 public class CollisionDumper {
 
+    private static final Path WORLD_STORE_DIRECTORY = RuneLite.RUNELITE_DIR.toPath().resolve("kraken").resolve("collision");
+
     @Inject
     private Gson gson;
 
     @Inject
-    private Context context;
+    private Provider<Context> ctxProvider;
+
+    @Getter
+    private final WorldCollisionStore worldStore = new WorldCollisionStore(WORLD_STORE_DIRECTORY);
+
+    /**
+     * When true every scene is recorded into the {@link #getWorldStore() world store} once the client has logged in
+     * after loading it. Off by default, scripts which use the {@link com.kraken.api.service.pathfinding.WorldPathfinder}
+     * should turn it on.
+     */
+    @Getter
+    @Setter
+    private volatile boolean recordScenes = false;
+
+    // One thread so recordings are written in the order the scenes loaded
+    private final ExecutorService recorder = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "kraken-collision-recorder");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     /**
      * Collects collision data from the game within default distance (104 tiles).
@@ -54,13 +93,12 @@ public class CollisionDumper {
      * @return CollisionMap containing the collision data
      */
     public CollisionMap collect(int distance) {
+        Context context = ctxProvider.get();
         Client client = RuneLite.getInjector().getInstance(Client.class);
         WorldPoint playerLocation = client.getLocalPlayer().getWorldLocation();
         List<SimNpc> simNpcs = new ArrayList<>();
         Map<WorldPoint, NPC> npcs = context.npcs().toRuneLite()
                 .collect(Collectors.toMap(NPC::getWorldLocation, Function.identity()));
-        final HashMap<WorldPoint, Integer> tileDistances = new HashMap<>();
-        tileDistances.put(playerLocation, 0);
 
         // Track bounds as we go
         int minX = playerLocation.getX();
@@ -71,38 +109,26 @@ public class CollisionDumper {
         // Store collision flags by world coordinates
         HashMap<WorldPoint, Integer> collisionFlags = new HashMap<>();
 
-        // Breadth-first search to collect collision data
-        for (int i = 0; i <= distance; i++) {
-            int currentDistance = i;
-
-            for (var entry : tileDistances.entrySet().stream()
-                    .filter(x -> x.getValue() == currentDistance)
-                    .collect(Collectors.toList())) {
-
-                WorldPoint point = entry.getKey();
-                LocalPoint localPoint = getLocalPoint(client, point);
-
-                if (localPoint != null) {
-                    CollisionData collisionData = getCollisionData(client);
-                    if (collisionData != null) {
-                        int flags = getCollisionFlags(collisionData, localPoint);
-                        Set<MovementFlag> movementFlags = MovementFlag.getSetFlags(flags);
-
-                        // Store the collision data
-                        collisionFlags.put(point, flags);
-
-                        // Update bounds
-                        minX = Math.min(minX, point.getX());
-                        minY = Math.min(minY, point.getY());
-                        maxX = Math.max(maxX, point.getX());
-                        maxY = Math.max(maxY, point.getY());
-
-                        // Add adjacent tiles for next iteration
-                        if (entry.getValue() < distance) {
-                            addAdjacentTiles(point, movementFlags, tileDistances, currentDistance + 1);
-                        }
-                    }
+        // Flood fill outwards from the player to collect collision data. Blocked tiles are entered so that their
+        // flags are recorded, directional blocks still stop the fill.
+        CollisionData collisionData = getCollisionData(client);
+        if (collisionData != null) {
+            int[][] flags = collisionData.getFlags();
+            DistanceGrid reached = context.getTileService().getReachableTiles(playerLocation, distance, true);
+            int gridHeight = reached.getHeight();
+            for (int index : reached.sceneIndices()) {
+                WorldPoint point = reached.toWorld(index);
+                if (point == null) {
+                    continue;
                 }
+
+                collisionFlags.put(point, flags[index / gridHeight][index % gridHeight]);
+
+                // Update bounds
+                minX = Math.min(minX, point.getX());
+                minY = Math.min(minY, point.getY());
+                maxX = Math.max(maxX, point.getX());
+                maxY = Math.max(maxY, point.getY());
             }
         }
 
@@ -174,15 +200,15 @@ public class CollisionDumper {
 
 
     /**
-     * Saves collision map to a JSON file.
+     * Saves collision map to a binary file (see {@link CollisionMapFile}).
      *
      * @param collisionMap The collision map to save
      * @param filePath Path to the output file
      * @return true if successful, false otherwise
      */
     public boolean saveToFile(CollisionMap collisionMap, String filePath) {
-        try (FileWriter writer = new FileWriter(filePath)) {
-            gson.toJson(collisionMap, writer);
+        try {
+            CollisionMapFile.write(collisionMap, Paths.get(filePath));
             log.info("Saved collision map ({}x{}) to {}",
                     collisionMap.getWidth(), collisionMap.getHeight(), filePath);
             return true;
@@ -193,21 +219,53 @@ public class CollisionDumper {
     }
 
     /**
-     * Loads collision map from a JSON file.
+     * Exports collision map to a JSON file. JSON exports are much larger and slower to load than the binary format
+     * but can be read by other tools.
+     *
+     * @param collisionMap The collision map to export
+     * @param filePath Path to the output file
+     * @return true if successful, false otherwise
+     */
+    public boolean exportToJson(CollisionMap collisionMap, String filePath) {
+        // File backed maps are decoded so the flags are included in the export
+        collisionMap.getData();
+        try (Writer writer = Files.newBufferedWriter(Paths.get(filePath))) {
+            gson.toJson(collisionMap, writer);
+            log.info("Exported collision map ({}x{}) to {}",
+                    collisionMap.getWidth(), collisionMap.getHeight(), filePath);
+            return true;
+        } catch (IOException e) {
+            log.error("Failed to export collision map to file: {}", filePath, e);
+            return false;
+        }
+    }
+
+    /**
+     * Loads collision map from a file. Binary files are memory mapped so large maps open without decoding every tile,
+     * files in the older JSON format are still read.
      *
      * @param filePath Path to the input file
      * @return CollisionMap, or empty map if failed
      */
     public CollisionMap loadFromFile(String filePath) {
-        try (FileReader reader = new FileReader(filePath)) {
-            CollisionMap map = gson.fromJson(reader, CollisionMap.class);
-
-            if (map != null && map.getData() != null) {
-                log.info("Loaded collision map ({}x{}) from {}",
-                        map.getWidth(), map.getHeight(), filePath);
+        Path path = Paths.get(filePath);
+        try {
+            if (CollisionMapFile.isBinary(path)) {
+                CollisionMap map = CollisionMapFile.read(path);
+                log.info("Loaded collision map ({}x{}) from {}", map.getWidth(), map.getHeight(), filePath);
                 return map;
             }
-        } catch (IOException e) {
+
+            try (Reader reader = Files.newBufferedReader(path)) {
+                CollisionMap map = gson.fromJson(reader, CollisionMap.class);
+
+                if (map != null && map.getData() != null) {
+                    log.info("Loaded collision map ({}x{}) from {}",
+                            map.getWidth(), map.getHeight(), filePath);
+                    return map;
+                }
+            }
+        } catch (IOException | JsonParseException e) {
             log.error("Failed to load collision map from file: {}", filePath, e);
         }
 
@@ -236,19 +294,75 @@ public class CollisionDumper {
         return collectAndSave(filePath, 104);
     }
 
-    private LocalPoint getLocalPoint(Client client, WorldPoint point) {
-        if (client.getTopLevelWorldView().isInstance()) {
-            WorldPoint worldPoint = WorldPoint.toLocalInstance(client.getTopLevelWorldView(), point)
-                    .stream()
-                    .findFirst()
-                    .orElse(null);
-            if (worldPoint == null) return null;
-            return LocalPoint.fromWorld(client.getTopLevelWorldView(), worldPoint);
-        } else {
-            return LocalPoint.fromWorld(client.getTopLevelWorldView(), point);
+    /**
+     * Records every plane of the loaded scene into the {@link WorldCollisionStore}. Instanced scenes are skipped since
+     * their tiles do not have real world coordinates.
+     * <p>
+     * The scene's collision flags are copied on the client thread and written to the store on a background thread, so
+     * the client thread never waits on the memory mapped store.
+     *
+     * @return A future completed with the number of tiles recorded once the scene has been written
+     */
+    public CompletableFuture<Integer> recordScene() {
+        Context context = ctxProvider.get();
+        return context.runOnClientThreadAsync(() -> captureScene(context.getClient()))
+                .thenApplyAsync(this::write, recorder);
+    }
+
+    @Subscribe
+    public void onGameStateChanged(GameStateChanged event) {
+        // Collision maps are populated by the time the client reports it is logged in after a scene load
+        if (recordScenes && event.getGameState() == GameState.LOGGED_IN) {
+            recordScene().exceptionally(e -> {
+                log.error("Failed to record scene into the world collision store", e);
+                return 0;
+            });
         }
     }
 
+    private SceneCapture captureScene(Client client) {
+        WorldView worldView = client.getTopLevelWorldView();
+        if (worldView == null || worldView.isInstance()) {
+            return null;
+        }
+
+        CollisionData[] collisionMaps = worldView.getCollisionMaps();
+        if (collisionMaps == null) {
+            return null;
+        }
+
+        // The client updates its flags in place as objects spawn and despawn, so the writer gets its own copy
+        int[][][] planes = new int[collisionMaps.length][][];
+        for (int plane = 0; plane < collisionMaps.length; plane++) {
+            if (collisionMaps[plane] == null) {
+                continue;
+            }
+
+            int[][] flags = collisionMaps[plane].getFlags();
+            planes[plane] = new int[flags.length][];
+            for (int x = 0; x < flags.length; x++) {
+                planes[plane][x] = flags[x].clone();
+            }
+        }
+        return new SceneCapture(worldView.getBaseX(), worldView.getBaseY(), planes);
+    }
+
+    private int write(SceneCapture capture) {
+        if (capture == null) {
+            return 0;
+        }
+
+        int recorded = 0;
+        for (int plane = 0; plane < capture.planes.length; plane++) {
+            if (capture.planes[plane] != null) {
+                recorded += worldStore.record(capture.baseX, capture.baseY, plane, capture.planes[plane]);
+            }
+        }
+
+        log.debug("Recorded {} tiles into the world collision store", recorded);
+        return recorded;
+    }
+
     private CollisionData getCollisionData(Client client) {
         CollisionData[] collisionMap = client.getTopLevelWorldView().getCollisionMaps();
         if (collisionMap != null) {
@@ -257,20 +371,18 @@ public class CollisionDumper {
         return null;
     }
 
-    private int getCollisionFlags(CollisionData collisionData, LocalPoint localPoint) {
-        int[][] flags = collisionData.getFlags();
-        return flags[localPoint.getSceneX()][localPoint.getSceneY()];
-    }
-
-    private void addAdjacentTiles(WorldPoint point, Set<MovementFlag> movementFlags,
-                                  HashMap<WorldPoint, Integer> tileDistances, int distance) {
-        if (!movementFlags.contains(MovementFlag.BLOCK_MOVEMENT_EAST))
-            tileDistances.putIfAbsent(point.dx(1), distance);
-        if (!movementFlags.contains(MovementFlag.BLOCK_MOVEMENT_WEST))
-            tileDistances.putIfAbsent(point.dx(-1), distance);
-        if (!movementFlags.contains(MovementFlag.BLOCK_MOVEMENT_NORTH))
-            tileDistances.putIfAbsent(point.dy(1), distance);
-        if (!movementFlags.contains(MovementFlag.BLOCK_MOVEMENT_SOUTH))
-            tileDistances.putIfAbsent(point.dy(-1), distance);
+    /**
+     * A copy of the collision flags of every plane of a scene, taken on the client thread.
+     */
+    private static final class SceneCapture {
+        private final int baseX;
+        private final int baseY;
+        private final int[][][] planes;
+
+        private SceneCapture(int baseX, int baseY, int[][][] planes) {
+            this.baseX = baseX;
+            this.baseY = baseY;
+            this.planes = planes;
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,25 +1,58 @@
 package com.kraken.api.sim;
 
 import com.kraken.api.sim.model.SimNpc;
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
 import java.util.List;
 
 /**
- * Collision map data container with all necessary information.
+ * Collision map data container with all necessary information. Maps opened with {@link CollisionMapFile#read} keep
+ * their flags in the memory mapped file and only decode them into {@link #getData()} when the full array is requested.
  */
 @Getter
 @NoArgsConstructor
-@AllArgsConstructor
 public class CollisionMap {
+    @Getter(AccessLevel.NONE)
     private int[][] data;
     private List<SimNpc> npcs;
     private int minX, minY, maxX, maxY;
     private int playerX, playerY;
     private int plane;
 
+    @Getter(AccessLevel.NONE)
+    private transient CollisionMapFile.FlagPlane flags;
+
+    public CollisionMap(int[][] data, List<SimNpc> npcs, int minX, int minY, int maxX, int maxY, int playerX, int playerY, int plane) {
+        this.data = data;
+        this.npcs = npcs;
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.playerX = playerX;
+        this.playerY = playerY;
+        this.plane = plane;
+    }
+
+    CollisionMap(CollisionMapFile.FlagPlane flags, List<SimNpc> npcs, int minX, int minY, int maxX, int maxY, int playerX, int playerY, int plane) {
+        this((int[][]) null, npcs, minX, minY, maxX, maxY, playerX, playerY, plane);
+        this.flags = flags;
+    }
+
+    /**
+     * Returns the collision flags indexed by [y][x]. Maps backed by a file are decoded the first time this is called.
+     *
+     * @return The collision flags
+     */
+    public int[][] getData() {
+        if (data == null && flags != null) {
+            data = flags.decode();
+        }
+        return data;
+    }
+
     public int getWidth() {
         return maxX - minX + 1;
     }
@@ -29,6 +62,9 @@ public class CollisionMap {
     }
 
     public boolean isEmpty() {
+        if (data == null && flags != null) {
+            return flags.height() == 0;
+        }
         return data.length == 0;
     }
 
@@ -40,6 +76,10 @@ public class CollisionMap {
      * @return Collision flags, or 0 if out of bounds
      */
     public int getCollisionAt(int x, int y) {
+        if (data == null && flags != null) {
+            return y >= 0 && y < flags.height() && x >= 0 && x < flags.width() ? flags.get(x, y) : 0;
+        }
+
         if (y >= 0 && y < data.length && x >= 0 && x < data[0].length) {
             return data[y][x];
         }
@@ -0,0 +1,319 @@
+package com.kraken.api.sim;
+
+import com.kraken.api.sim.model.AttackStyle;
+import com.kraken.api.sim.model.SimNpc;
+
+import java.awt.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes {@link CollisionMap}s in a compact binary format. Files are read by memory mapping them, the header
+ * and NPC table are decoded eagerly but the flag plane is left in the mapping and read through a {@link FlagPlane} view
+ * so large maps open without decoding every tile.
+ * <p>
+ * Each row of the flag plane is run length encoded as a list of runs which end (exclusive) at an x coordinate. Runs are
+ * sorted so a single tile is found with a binary search of its row. The file is big endian with the layout:
+ * <pre>
+ *     int   magic ("KMAP")
+ *     int   version
+ *     int   minX, minY, maxX, maxY
+ *     int   playerX, playerY, plane
+ *     int   width, height
+ *     int   run count
+ *     (height + 1) * int  index of the first run in each row, the last entry is the run count
+ *     runs * (short end x, int flags)
+ *     int   npc count
+ *     npcs * (int x, int y, int size, byte attack style, int attack range, int attack speed, byte can pathfind,
+ *             byte aggressive, int rgb color, byte has target, int target x, int target y, short name length, name)
+ * </pre>
+ */
+public final class CollisionMapFile {
+    static final int MAGIC = 0x4B4D4150;
+    static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 12 * Integer.BYTES;
+    private static final int RUN_SIZE = Short.BYTES + Integer.BYTES;
+    private static final int NPC_SIZE = 8 * Integer.BYTES + 4 + Short.BYTES;
+
+    private CollisionMapFile() {}
+
+    /**
+     * Returns true if the file starts with the binary collision map magic number.
+     * @param file The file to check
+     * @return True if the file is a binary collision map and false otherwise
+     * @throws IOException if the file cannot be read
+     */
+    public static boolean isBinary(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                // Keep reading until the magic number is filled or the file ends
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+        }
+    }
+
+    /**
+     * Writes a collision map to a file. The map is written to a temporary file and moved into place so a crash
+     * mid-write never leaves a truncated map behind.
+     * @param map The collision map to write
+     * @param file The file to write to
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(CollisionMap map, Path file) throws IOException {
+        int[][] data = map.getData() == null ? new int[0][0] : map.getData();
+        int height = data.length;
+        int width = height == 0 ? 0 : data[0].length;
+        if (width > 0xFFFF) {
+            throw new IOException("Collision map is too wide: " + width + " tiles");
+        }
+
+        // First pass counts the runs so the buffer can be sized exactly
+        int runs = 0;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (x == 0 || data[y][x] != data[y][x - 1]) {
+                    runs++;
+                }
+            }
+        }
+
+        List<SimNpc> npcs = map.getNpcs() == null ? List.of() : map.getNpcs();
+        List<byte[]> names = new ArrayList<>(npcs.size());
+        int npcBytes = Integer.BYTES;
+        for (SimNpc npc : npcs) {
+            byte[] name = npc.getName() == null ? new byte[0] : npc.getName().getBytes(StandardCharsets.UTF_8);
+            if (name.length > Short.MAX_VALUE) {
+                throw new IOException("NPC name is too long: " + npc.getName().length() + " characters");
+            }
+            names.add(name);
+            npcBytes += NPC_SIZE + name.length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + (height + 1) * Integer.BYTES + runs * RUN_SIZE + npcBytes);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(map.getMinX());
+        buffer.putInt(map.getMinY());
+        buffer.putInt(map.getMaxX());
+        buffer.putInt(map.getMaxY());
+        buffer.putInt(map.getPlayerX());
+        buffer.putInt(map.getPlayerY());
+        buffer.putInt(map.getPlane());
+        buffer.putInt(width);
+        buffer.putInt(height);
+        buffer.putInt(runs);
+
+        int run = 0;
+        for (int y = 0; y < height; y++) {
+            buffer.putInt(run);
+            for (int x = 0; x < width; x++) {
+                if (x == 0 || data[y][x] != data[y][x - 1]) {
+                    run++;
+                }
+            }
+        }
+        buffer.putInt(runs);
+
+        for (int y = 0; y < height; y++) {
+            int[] row = data[y];
+            for (int x = 0; x < width; x++) {
+                if (x == width - 1 || row[x] != row[x + 1]) {
+                    buffer.putShort((short) (x + 1));
+                    buffer.putInt(row[x]);
+                }
+            }
+        }
+
+        buffer.putInt(npcs.size());
+        for (int i = 0; i < npcs.size(); i++) {
+            SimNpc npc = npcs.get(i);
+            Point target = npc.getTarget();
+            buffer.putInt(npc.getPosition().x);
+            buffer.putInt(npc.getPosition().y);
+            buffer.putInt(npc.getSize());
+            buffer.put((byte) (npc.getAttackStyle() == null ? -1 : npc.getAttackStyle().ordinal()));
+            buffer.putInt(npc.getAttackRange());
+            buffer.putInt(npc.getAttackSpeed());
+            buffer.put((byte) (npc.isCanPathfind() ? 1 : 0));
+            buffer.put((byte) (npc.isAggressive() ? 1 : 0));
+            buffer.putInt(npc.getColor().getRGB());
+            buffer.put((byte) (target == null ? 0 : 1));
+            buffer.putInt(target == null ? 0 : target.x);
+            buffer.putInt(target == null ? 0 : target.y);
+            buffer.putShort((short) names.get(i).length);
+            buffer.put(names.get(i));
+        }
+        buffer.flip();
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Opens a binary collision map. The flag plane stays in the memory mapped file until
+     * {@link CollisionMap#getData()} is first called.
+     * @param file The file to read
+     * @return The collision map
+     * @throws IOException if the file cannot be read or is not a binary collision map
+     */
+    public static CollisionMap read(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a binary collision map: " + file);
+            }
+
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported collision map version " + version + ": " + file);
+            }
+
+            int minX = buffer.getInt();
+            int minY = buffer.getInt();
+            int maxX = buffer.getInt();
+            int maxY = buffer.getInt();
+            int playerX = buffer.getInt();
+            int playerY = buffer.getInt();
+            int plane = buffer.getInt();
+            int width = buffer.getInt();
+            int height = buffer.getInt();
+            int runs = buffer.getInt();
+            if (width < 0 || height < 0 || runs < 0) {
+                throw new IOException("Corrupt collision map header: " + file);
+            }
+
+            int rowsOffset = buffer.position();
+            int runsOffset = rowsOffset + (height + 1) * Integer.BYTES;
+            buffer.position(runsOffset + runs * RUN_SIZE);
+            FlagPlane flags = new FlagPlane(buffer.duplicate(), width, height, rowsOffset, runsOffset);
+
+            int count = buffer.getInt();
+            List<SimNpc> npcs = new ArrayList<>(count);
+            AttackStyle[] styles = AttackStyle.values();
+            for (int i = 0; i < count; i++) {
+                Point position = new Point(buffer.getInt(), buffer.getInt());
+                int size = buffer.getInt();
+                int style = buffer.get();
+                int attackRange = buffer.getInt();
+                int attackSpeed = buffer.getInt();
+                boolean canPathfind = buffer.get() != 0;
+                boolean aggressive = buffer.get() != 0;
+                Color color = new Color(buffer.getInt(), true);
+                boolean hasTarget = buffer.get() != 0;
+                Point target = new Point(buffer.getInt(), buffer.getInt());
+                byte[] name = new byte[buffer.getShort()];
+                buffer.get(name);
+
+                SimNpc npc = new SimNpc(position, color, new String(name, StandardCharsets.UTF_8));
+                npc.setSize(size);
+                npc.setAttackStyle(style >= 0 && style < styles.length ? styles[style] : null);
+                npc.setAttackRange(attackRange);
+                npc.setAttackSpeed(attackSpeed);
+                npc.setCanPathfind(canPathfind);
+                npc.setAggressive(aggressive);
+                npc.setTarget(hasTarget ? target : null);
+                npcs.add(npc);
+            }
+
+            return new CollisionMap(flags, npcs, minX, minY, maxX, maxY, playerX, playerY, plane);
+        } catch (RuntimeException e) {
+            // Buffer underflows and bad offsets from a truncated or corrupt file
+            throw new IOException("Corrupt collision map: " + file, e);
+        }
+    }
+
+    /**
+     * A read only view over the run length encoded flag plane of a memory mapped collision map.
+     */
+    static final class FlagPlane {
+        private final ByteBuffer buffer;
+        private final int width;
+        private final int height;
+        private final int rowsOffset;
+        private final int runsOffset;
+
+        FlagPlane(ByteBuffer buffer, int width, int height, int rowsOffset, int runsOffset) {
+            this.buffer = buffer;
+            this.width = width;
+            this.height = height;
+            this.rowsOffset = rowsOffset;
+            this.runsOffset = runsOffset;
+        }
+
+        int width() {
+            return width;
+        }
+
+        int height() {
+            return height;
+        }
+
+        /**
+         * Returns the flags of a single tile by binary searching the runs of its row.
+         * @param x Array x coordinate
+         * @param y Array y coordinate
+         * @return The collision flags of the tile
+         */
+        int get(int x, int y) {
+            int low = buffer.getInt(rowsOffset + y * Integer.BYTES);
+            int high = buffer.getInt(rowsOffset + (y + 1) * Integer.BYTES) - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (Short.toUnsignedInt(buffer.getShort(runsOffset + mid * RUN_SIZE)) <= x) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return buffer.getInt(runsOffset + low * RUN_SIZE + Short.BYTES);
+        }
+
+        /**
+         * Decodes the whole plane into a [y][x] array.
+         * @return The decoded collision flags
+         */
+        int[][] decode() {
+            int[][] data = new int[height][width];
+            for (int y = 0; y < height; y++) {
+                int run = buffer.getInt(rowsOffset + y * Integer.BYTES);
+                int x = 0;
+                while (x < width) {
+                    int offset = runsOffset + run++ * RUN_SIZE;
+                    int end = Short.toUnsignedInt(buffer.getShort(offset));
+                    int flags = buffer.getInt(offset + Short.BYTES);
+                    while (x < end) {
+                        data[y][x++] = flags;
+                    }
+                }
+            }
+            return data;
+        }
+    }
+}
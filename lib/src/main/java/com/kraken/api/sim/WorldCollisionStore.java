@@ -0,0 +1,521 @@
+package com.kraken.api.sim;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A region keyed store of collision data for the whole world, filled incrementally as scenes are loaded (see
+ * {@link CollisionDumper#recordScene()}). Unlike the client's collision maps, which only cover the loaded 104x104 scene,
+ * the store keeps every region which has ever been loaded so paths can be found to points outside the scene.
+ * <p>
+ * Each plane is stored in its own memory mapped file and read in place, plane files are never loaded onto the heap.
+ * Every tile is packed into 4 bits recording the directions the tile can not be entered from (see {@link #BLOCK_NORTH}
+ * etc...), a fully blocked tile has all 4 bits set. Diagonal movement is derived from the cardinal bits of the tiles involved, the
+ * same way the client checks diagonal moves. Each plane file is a big endian file with the layout:
+ * <pre>
+ *     int   magic ("KCOL")
+ *     int   version
+ *     int   plane
+ *     int   slot count
+ *     int[65536] slot table, indexed by region id, holding the region's slot + 1 (0 if the region is not stored)
+ *     slot count * (byte[2048] packed tiles, byte[512] bitset of tiles which have been recorded)
+ * </pre>
+ * Tiles which have never been recorded are treated as fully blocked.
+ * <p>
+ * Writes are made from a copy of the scene's flags off the client thread, reads may be made from any thread. Plane files may be shared by
+ * several clients running at once, so region slots are allocated while holding a lock on the file and from the slot
+ * count stored in the file, and a store remaps its file when it finds a slot allocated by another client.
+ */
+@Slf4j
+public class WorldCollisionStore implements Closeable {
+    public static final int REGION_SIZE = 64;
+
+    /**
+     * The tile can not be entered when moving north (from the tile to its south).
+     */
+    public static final int BLOCK_NORTH = 1;
+
+    /**
+     * The tile can not be entered when moving east (from the tile to its west).
+     */
+    public static final int BLOCK_EAST = 2;
+
+    /**
+     * The tile can not be entered when moving south (from the tile to its north).
+     */
+    public static final int BLOCK_SOUTH = 4;
+
+    /**
+     * The tile can not be entered when moving west (from the tile to its east).
+     */
+    public static final int BLOCK_WEST = 8;
+
+    /**
+     * The tile can not be entered at all, or has never been recorded.
+     */
+    public static final int BLOCKED = BLOCK_NORTH | BLOCK_EAST | BLOCK_SOUTH | BLOCK_WEST;
+
+    // Collision flags which block entering a tile in each direction, see CollisionDataFlag
+    private static final int FLAGS_BLOCKED = 0x1240100;
+    private static final int FLAGS_NORTH = 0x20;  // wall on the south side of the tile
+    private static final int FLAGS_EAST = 0x80;   // wall on the west side of the tile
+    private static final int FLAGS_SOUTH = 0x2;   // wall on the north side of the tile
+    private static final int FLAGS_WEST = 0x8;    // wall on the east side of the tile
+    private static final int FLAGS_UNLOADED = 0xFFFFFF;
+
+    private static final int MAGIC = 0x4B434F4C;
+    private static final int VERSION = 1;
+    private static final int PLANES = 4;
+    private static final int MAX_COORDINATE = 256 * REGION_SIZE;
+    private static final int REGIONS = 256 * 256;
+    private static final int TABLE_OFFSET = 16;
+    private static final int HEADER_SIZE = TABLE_OFFSET + REGIONS * 4;
+    private static final int TILES_SIZE = REGION_SIZE * REGION_SIZE / 2;
+    private static final int KNOWN_SIZE = REGION_SIZE * REGION_SIZE / 8;
+    private static final int SLOT_SIZE = TILES_SIZE + KNOWN_SIZE;
+    private static final int INITIAL_SLOTS = 64;
+
+    // File locks are held by the whole JVM and a second lock on the same file throws, so stores in this process which
+    // share a file also synchronize on a shared monitor before locking it
+    private static final Map<Path, Object> FILE_MONITORS = new ConcurrentHashMap<>();
+
+    private final Path directory;
+    private final PlaneFile[] planes = new PlaneFile[PLANES];
+    private final Map<Integer, Integer> regionVersions = new ConcurrentHashMap<>();
+    private volatile long version = 0;
+
+    /**
+     * Creates a new store. Files are only opened (or created) when the store is first read or written.
+     * @param directory The directory holding the plane files
+     */
+    public WorldCollisionStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Converts client collision flags into the packed 4 bit form used by the store.
+     * @param flags The collision flags of a tile, see {@link net.runelite.api.CollisionDataFlag}
+     * @return The packed tile
+     */
+    public static int pack(int flags) {
+        if ((flags & FLAGS_BLOCKED) != 0) {
+            return BLOCKED;
+        }
+
+        int packed = 0;
+        if ((flags & FLAGS_NORTH) != 0) packed |= BLOCK_NORTH;
+        if ((flags & FLAGS_EAST) != 0) packed |= BLOCK_EAST;
+        if ((flags & FLAGS_SOUTH) != 0) packed |= BLOCK_SOUTH;
+        if ((flags & FLAGS_WEST) != 0) packed |= BLOCK_WEST;
+        return packed;
+    }
+
+    /**
+     * Returns the id of the region containing a world coordinate.
+     * @param x The world x coordinate
+     * @param y The world y coordinate
+     * @return The region id
+     */
+    public static int regionId(int x, int y) {
+        return ((x >> 6) << 8) | (y >> 6);
+    }
+
+    /**
+     * Records one plane of a loaded scene. Tiles the client has not loaded (the scene border) are skipped, every other
+     * tile overwrites whatever was previously stored for it. The store and region versions only change when a tile
+     * actually changes, so recording a scene which is already stored leaves cached paths valid.
+     * @param baseX The world x coordinate of the scene's south west tile
+     * @param baseY The world y coordinate of the scene's south west tile
+     * @param plane The plane
+     * @param flags The collision flags of the plane, indexed {@code [x][y]}
+     * @return The number of tiles recorded
+     */
+    public synchronized int record(int baseX, int baseY, int plane, int[][] flags) {
+        if (plane < 0 || plane >= PLANES || flags == null) {
+            return 0;
+        }
+
+        PlaneFile file;
+        try {
+            file = open(plane, true);
+        } catch (IOException e) {
+            log.error("Failed to open collision store for plane {} in {}", plane, directory, e);
+            return 0;
+        }
+
+        int recorded = 0;
+        int lastRegion = -1;
+        int base = -1;
+        Set<Integer> changed = new HashSet<>();
+        for (int sx = 0; sx < flags.length; sx++) {
+            int x = baseX + sx;
+            for (int sy = 0; sy < flags[sx].length; sy++) {
+                int y = baseY + sy;
+                int tileFlags = flags[sx][sy];
+                if (tileFlags == FLAGS_UNLOADED || !inBounds(x, y)) {
+                    continue;
+                }
+
+                int region = regionId(x, y);
+                if (region != lastRegion) {
+                    try {
+                        base = file.slotOffset(region, true);
+                    } catch (IOException e) {
+                        log.error("Failed to grow collision store for plane {} in {}", plane, directory, e);
+                        return recorded;
+                    }
+                    lastRegion = region;
+                }
+
+                if (file.write(base, tileIndex(x, y), pack(tileFlags))) {
+                    changed.add((plane << 16) | region);
+                }
+                recorded++;
+            }
+        }
+
+        for (int key : changed) {
+            regionVersions.merge(key, 1, Integer::sum);
+        }
+        if (!changed.isEmpty()) {
+            version++;
+        }
+        return recorded;
+    }
+
+    /**
+     * Returns the packed tile at a world coordinate.
+     * @param x The world x coordinate
+     * @param y The world y coordinate
+     * @param plane The plane
+     * @return The packed tile, {@link #BLOCKED} if the tile has never been recorded
+     */
+    public int get(int x, int y, int plane) {
+        PlaneFile file = read(plane);
+        if (file == null || !inBounds(x, y)) {
+            return BLOCKED;
+        }
+
+        int base = file.slotOffset(regionId(x, y));
+        return base < 0 ? BLOCKED : file.read(base, tileIndex(x, y));
+    }
+
+    /**
+     * Returns true if a tile has been recorded.
+     * @param x The world x coordinate
+     * @param y The world y coordinate
+     * @param plane The plane
+     * @return True if the tile has been recorded and false otherwise
+     */
+    public boolean isKnown(int x, int y, int plane) {
+        PlaneFile file = read(plane);
+        if (file == null || !inBounds(x, y)) {
+            return false;
+        }
+
+        int base = file.slotOffset(regionId(x, y));
+        return base >= 0 && file.isKnown(base, tileIndex(x, y));
+    }
+
+    /**
+     * Reads every packed tile of a region into an array indexed {@code (localX << 6) | localY}.
+     * @param regionId The region id
+     * @param plane The plane
+     * @param tiles The array to read into, at least {@code REGION_SIZE * REGION_SIZE} long
+     * @return True if the region is stored, false if it is not in which case every tile is {@link #BLOCKED}
+     */
+    public boolean readRegion(int regionId, int plane, byte[] tiles) {
+        PlaneFile file = read(plane);
+        int base = file == null || regionId < 0 || regionId >= REGIONS ? -1 : file.slotOffset(regionId);
+        if (base < 0) {
+            Arrays.fill(tiles, 0, REGION_SIZE * REGION_SIZE, (byte) BLOCKED);
+            return false;
+        }
+
+        for (int index = 0; index < REGION_SIZE * REGION_SIZE; index++) {
+            tiles[index] = (byte) file.read(base, index);
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if any tile of a region has been recorded on a plane.
+     * @param regionId The region id
+     * @param plane The plane
+     * @return True if the region is stored and false otherwise
+     */
+    public boolean hasRegion(int regionId, int plane) {
+        PlaneFile file = read(plane);
+        return file != null && regionId >= 0 && regionId < REGIONS && file.slotOffset(regionId) >= 0;
+    }
+
+    /**
+     * Returns true if a single step from a tile in a direction is allowed. Diagonal steps also require both cardinal
+     * steps which make up the diagonal to be allowed.
+     * @param x The world x coordinate to step from
+     * @param y The world y coordinate to step from
+     * @param plane The plane
+     * @param dx The x direction of the step (-1, 0 or 1)
+     * @param dy The y direction of the step (-1, 0 or 1)
+     * @return True if the step is allowed and false otherwise
+     */
+    public boolean canMove(int x, int y, int plane, int dx, int dy) {
+        int xBit = dx > 0 ? BLOCK_EAST : dx < 0 ? BLOCK_WEST : 0;
+        int yBit = dy > 0 ? BLOCK_NORTH : dy < 0 ? BLOCK_SOUTH : 0;
+        if ((get(x + dx, y + dy, plane) & (xBit | yBit)) != 0) {
+            return false;
+        }
+
+        if (dx == 0 || dy == 0) {
+            return true;
+        }
+
+        return (get(x + dx, y, plane) & xBit) == 0 && (get(x, y + dy, plane) & yBit) == 0;
+    }
+
+    /**
+     * A counter which increases every time a write changes the store.
+     * @return long store version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * A counter which increases every time a write changes a region on a plane. Regions which have not changed
+     * since the store was opened have version 0.
+     * @param regionId The region id
+     * @param plane The plane
+     * @return int region version
+     */
+    public int getRegionVersion(int regionId, int plane) {
+        return regionVersions.getOrDefault((plane << 16) | regionId, 0);
+    }
+
+    /**
+     * Forces any changes to the plane files out to disk.
+     */
+    public synchronized void flush() {
+        for (PlaneFile file : planes) {
+            if (file != null) {
+                file.buffer.force();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        for (int plane = 0; plane < PLANES; plane++) {
+            PlaneFile file = planes[plane];
+            if (file == null) {
+                continue;
+            }
+
+            try {
+                file.buffer.force();
+                file.channel.close();
+            } catch (IOException e) {
+                log.error("Failed to close collision store for plane {} in {}", plane, directory, e);
+            }
+            planes[plane] = null;
+        }
+    }
+
+    private PlaneFile read(int plane) {
+        if (plane < 0 || plane >= PLANES) {
+            return null;
+        }
+
+        PlaneFile file = planes[plane];
+        if (file != null) {
+            return file;
+        }
+
+        synchronized (this) {
+            try {
+                return open(plane, false);
+            } catch (IOException e) {
+                log.error("Failed to open collision store for plane {} in {}", plane, directory, e);
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Opens (and optionally creates) the file for a plane. A file with an unknown format is replaced.
+     */
+    private PlaneFile open(int plane, boolean create) throws IOException {
+        if (planes[plane] != null) {
+            return planes[plane];
+        }
+
+        Path path = directory.resolve("plane-" + plane + ".dat");
+        if (!create && !Files.exists(path)) {
+            return null;
+        }
+
+        Files.createDirectories(directory);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        PlaneFile file = new PlaneFile(channel, FILE_MONITORS.computeIfAbsent(path.toAbsolutePath().normalize(), p -> new Object()));
+
+        // Locked so a file being created by another client is not mistaken for one with an unknown format
+        synchronized (file.monitor) {
+            try (FileLock ignored = channel.lock()) {
+                if (channel.size() >= HEADER_SIZE) {
+                    ByteBuffer header = ByteBuffer.allocate(TABLE_OFFSET);
+                    channel.read(header, 0);
+                    if (header.getInt(0) == MAGIC && header.getInt(4) == VERSION && header.getInt(8) == plane) {
+                        file.map((int) ((channel.size() - HEADER_SIZE) / SLOT_SIZE));
+                        planes[plane] = file;
+                        log.debug("Opened collision store for plane {} with {} regions", plane, header.getInt(12));
+                        return file;
+                    }
+                    log.warn("Replacing collision store {} with an unknown format", path);
+                }
+
+                channel.truncate(0);
+                file.map(INITIAL_SLOTS);
+                file.buffer.putInt(0, MAGIC);
+                file.buffer.putInt(4, VERSION);
+                file.buffer.putInt(8, plane);
+                file.buffer.putInt(12, 0);
+            }
+        }
+        planes[plane] = file;
+        return file;
+    }
+
+    private static boolean inBounds(int x, int y) {
+        return x >= 0 && y >= 0 && x < MAX_COORDINATE && y < MAX_COORDINATE;
+    }
+
+    private static int tileIndex(int x, int y) {
+        return ((x & (REGION_SIZE - 1)) << 6) | (y & (REGION_SIZE - 1));
+    }
+
+    /**
+     * A memory mapped plane file. The mapping is replaced with a larger one when the file runs out of slots, or when
+     * another store sharing the file has grown it.
+     */
+    private static final class PlaneFile {
+        private final FileChannel channel;
+        private final Object monitor;
+        private volatile MappedByteBuffer buffer;
+        private volatile int capacity;
+
+        private PlaneFile(FileChannel channel, Object monitor) {
+            this.channel = channel;
+            this.monitor = monitor;
+        }
+
+        private synchronized void map(int capacity) throws IOException {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) Math.max(capacity, 1) * SLOT_SIZE);
+            buffer = mapped;
+            this.capacity = Math.max(capacity, 1);
+        }
+
+        private int slotOffset(int region) {
+            int slot = buffer.getInt(TABLE_OFFSET + region * 4);
+            if (slot == 0 || (slot > capacity && !remap(slot))) {
+                return -1;
+            }
+            return HEADER_SIZE + (slot - 1) * SLOT_SIZE;
+        }
+
+        private int slotOffset(int region, boolean create) throws IOException {
+            int offset = slotOffset(region);
+            if (offset >= 0 || !create) {
+                return offset;
+            }
+
+            // Another client may be allocating from the same file, the slot count in the file is the only one to trust
+            synchronized (monitor) {
+                try (FileLock ignored = channel.lock()) {
+                    offset = slotOffset(region);
+                    if (offset >= 0) {
+                        return offset;
+                    }
+
+                    int slots = buffer.getInt(12);
+                    if (slots >= capacity) {
+                        map(Math.max(capacity * 2, slots + 1));
+                    }
+
+                    slots++;
+                    buffer.putInt(TABLE_OFFSET + region * 4, slots);
+                    buffer.putInt(12, slots);
+                    return HEADER_SIZE + (slots - 1) * SLOT_SIZE;
+                }
+            }
+        }
+
+        /**
+         * Maps the whole file after finding a slot beyond the current mapping, which another store allocated after
+         * growing the file.
+         * @return True if the slot is now mapped
+         */
+        private synchronized boolean remap(int slot) {
+            if (slot <= capacity) {
+                return true;
+            }
+
+            try {
+                int fileSlots = (int) ((channel.size() - HEADER_SIZE) / SLOT_SIZE);
+                if (fileSlots < slot) {
+                    return false;
+                }
+                map(fileSlots);
+                return true;
+            } catch (IOException e) {
+                log.error("Failed to remap collision store", e);
+                return false;
+            }
+        }
+
+        private int read(int base, int index) {
+            if (!isKnown(base, index)) {
+                return BLOCKED;
+            }
+            return (buffer.get(base + (index >> 1)) >> ((index & 1) << 2)) & 0xF;
+        }
+
+        private boolean isKnown(int base, int index) {
+            return (buffer.get(base + TILES_SIZE + (index >> 3)) & (1 << (index & 7))) != 0;
+        }
+
+        /**
+         * Writes a packed tile, leaving the mapping untouched if the tile is already stored with the same value.
+         * @return True if the tile changed
+         */
+        private boolean write(int base, int index, int packed) {
+            MappedByteBuffer current = buffer;
+            int offset = base + (index >> 1);
+            int shift = (index & 1) << 2;
+            int knownOffset = base + TILES_SIZE + (index >> 3);
+            int knownBit = 1 << (index & 7);
+            byte tiles = current.get(offset);
+            byte known = current.get(knownOffset);
+            if ((known & knownBit) != 0 && ((tiles >> shift) & 0xF) == packed) {
+                return false;
+            }
+
+            current.put(offset, (byte) ((tiles & ~(0xF << shift)) | (packed << shift)));
+            current.put(knownOffset, (byte) (known | knownBit));
+            return true;
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.kraken.api.sim.engine;
+
+import net.runelite.api.CollisionDataFlag;
+
+import java.util.Arrays;
+
+/**
+ * A flow field for NPCs of a single size. A reverse breadth first search from the goal tiles stores the number of
+ * steps from every tile to the nearest goal so each NPC chasing the same target reads its next step in constant time
+ * instead of running its own search.
+ * <p>
+ * Tiles are indexed by {@code y * width + x} over collision data stored as [y][x]. Positions are the southwest tile of
+ * the NPC and the NPC occupies the tiles {@code x .. x + size - 1} and {@code y - size + 1 .. y}.
+ */
+final class FlowField {
+    // Same neighbour order as the breadth first search in SimulationEngine so ties are broken identically
+    private static final int[] DX = {1, -1, 0, 0, 1, 1, -1, -1};
+    private static final int[] DY = {0, 0, 1, -1, 1, -1, 1, -1};
+
+    // Maps the single tile moves allowed from every tile of a footprint to the moves the whole NPC can make, diagonal
+    // moves also need both of their cardinal moves
+    private static final int[] LEGAL = new int[256];
+
+    static {
+        for (int mask = 0; mask < LEGAL.length; mask++) {
+            int legal = mask & 0xF;
+            for (int i = 4; i < DX.length; i++) {
+                int horizontal = DX[i] > 0 ? 0 : 1;
+                int vertical = DY[i] > 0 ? 2 : 3;
+                if ((mask >> i & 1) != 0 && (mask >> horizontal & 1) != 0 && (mask >> vertical & 1) != 0) {
+                    legal |= 1 << i;
+                }
+            }
+            LEGAL[mask] = legal;
+        }
+    }
+
+    private final int size;
+    private int width;
+    private int height;
+    private int[] distance = new int[0];
+    private int[] queue = new int[0];
+    private byte[] moves;
+    private boolean valid = false;
+
+    FlowField(int size) {
+        this.size = size;
+    }
+
+    boolean isValid() {
+        return valid;
+    }
+
+    /**
+     * Marks the field as stale, it must be recomputed before it is read again.
+     */
+    void invalidate() {
+        valid = false;
+    }
+
+    /**
+     * Computes the single tile moves out of every tile, each direction is a bit in neighbour order. The moves only
+     * depend on the collision data so they are shared by the fields of every NPC size.
+     * @param data Collision data indexed by [y][x]
+     * @param buffer An array from a previous call which is reused if it is the right size, may be null
+     * @return The moves indexed by {@code y * width + x}
+     */
+    static byte[] moves(int[][] data, byte[] buffer) {
+        int height = data.length;
+        int width = height == 0 ? 0 : data[0].length;
+        byte[] moves = buffer != null && buffer.length == width * height ? buffer : new byte[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int mask = 0;
+                for (int i = 0; i < DX.length; i++) {
+                    if (canStep(data, x, y, x + DX[i], y + DY[i])) {
+                        mask |= 1 << i;
+                    }
+                }
+                moves[y * width + x] = (byte) mask;
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Computes the distance from every tile to the nearest goal tile.
+     * @param data Collision data indexed by [y][x]
+     * @param moves The single tile moves of the collision data from {@link #moves(int[][], byte[])}
+     * @param goals The goal tiles as {@code y * width + x}
+     * @param goalCount The number of goals in the array
+     */
+    void compute(int[][] data, byte[] moves, int[] goals, int goalCount) {
+        height = data.length;
+        width = height == 0 ? 0 : data[0].length;
+        this.moves = moves;
+        if (distance.length != width * height) {
+            distance = new int[width * height];
+            queue = new int[width * height];
+        }
+        Arrays.fill(distance, -1);
+
+        int head = 0;
+        int tail = 0;
+        for (int i = 0; i < goalCount; i++) {
+            int goal = goals[i];
+            if (inBounds(goal % width, goal / width) && distance[goal] < 0) {
+                distance[goal] = 0;
+                queue[tail++] = goal;
+            }
+        }
+
+        while (head < tail) {
+            int current = queue[head++];
+            int x = current % width;
+            int y = current / width;
+            int next = distance[current] + 1;
+
+            // Expand every tile which can step onto the current tile
+            for (int i = 0; i < DX.length; i++) {
+                int px = x - DX[i];
+                int py = y - DY[i];
+                if (!inBounds(px, py) || distance[py * width + px] >= 0 || (legalMoves(px, py) >> i & 1) == 0) {
+                    continue;
+                }
+
+                distance[py * width + px] = next;
+                queue[tail++] = py * width + px;
+            }
+        }
+
+        valid = true;
+    }
+
+    /**
+     * Returns true if the NPC footprint with its southwest tile at the position lies within the field.
+     * @param x The x position
+     * @param y The y position
+     * @return True if every tile of the footprint is in bounds
+     */
+    boolean inBounds(int x, int y) {
+        return x >= 0 && x + size - 1 < width && y - size + 1 >= 0 && y < height;
+    }
+
+    /**
+     * Returns the number of steps from a position to the nearest goal.
+     * @param x The x position
+     * @param y The y position
+     * @return The number of steps or -1 if no goal can be reached
+     */
+    int distance(int x, int y) {
+        return inBounds(x, y) ? distance[y * width + x] : -1;
+    }
+
+    /**
+     * Returns the first step of a shortest path from a position towards the nearest goal. Where several steps are
+     * equally short the first in neighbour order is taken, matching a forward breadth first search from the position.
+     * @param x The x position
+     * @param y The y position
+     * @return The next tile as {@code y * width + x} or -1 if the position is a goal or no goal can be reached
+     */
+    int nextStep(int x, int y) {
+        int current = distance(x, y);
+        if (current <= 0) {
+            return -1;
+        }
+
+        int legal = legalMoves(x, y);
+        for (int i = 0; i < DX.length; i++) {
+            int nx = x + DX[i];
+            int ny = y + DY[i];
+            if ((legal >> i & 1) != 0 && distance(nx, ny) == current - 1) {
+                return ny * width + nx;
+            }
+        }
+        return -1;
+    }
+
+    int getWidth() {
+        return width;
+    }
+
+    private int legalMoves(int x, int y) {
+        int mask = 0xFF;
+        for (int fy = 0; fy < size; fy++) {
+            int row = (y - fy) * width + x;
+            for (int fx = 0; fx < size; fx++) {
+                mask &= moves[row + fx];
+            }
+        }
+        return LEGAL[mask];
+    }
+
+    /**
+     * Returns true if every tile of an NPC footprint can step by the offset.
+     * @param data Collision data indexed by [y][x]
+     * @param x The southwest x position of the NPC
+     * @param y The southwest y position of the NPC
+     * @param dx The x offset
+     * @param dy The y offset
+     * @param size The size of the NPC
+     * @return True if the move is valid for every tile the NPC occupies
+     */
+    static boolean canMove(int[][] data, int x, int y, int dx, int dy, int size) {
+        for (int fx = 0; fx < size; fx++) {
+            for (int fy = 0; fy < size; fy++) {
+                if (!canStep(data, x + fx, y - fy, x + fx + dx, y - fy + dy)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if a single tile can step from one tile to another given collision flags. The starting tile may lie
+     * outside the collision data, the destination may not.
+     * @param data Collision data indexed by [y][x]
+     * @param fromX The starting x
+     * @param fromY The starting y
+     * @param toX The destination x
+     * @param toY The destination y
+     * @return True if the step is valid
+     */
+    static boolean canStep(int[][] data, int fromX, int fromY, int toX, int toY) {
+        if (toX < 0 || toX >= data[0].length || toY < 0 || toY >= data.length) {
+            return false;
+        }
+
+        int toFlags = data[toY][toX];
+        if ((toFlags & CollisionDataFlag.BLOCK_MOVEMENT_FULL) != 0 ||
+                (toFlags & CollisionDataFlag.BLOCK_MOVEMENT_OBJECT) != 0) {
+            return false;
+        }
+
+        int dx = toX - fromX;
+        int dy = toY - fromY;
+        if (dx > 0 && (toFlags & CollisionDataFlag.BLOCK_MOVEMENT_WEST) != 0) return false;
+        if (dx < 0 && (toFlags & CollisionDataFlag.BLOCK_MOVEMENT_EAST) != 0) return false;
+        if (dy > 0 && (toFlags & CollisionDataFlag.BLOCK_MOVEMENT_NORTH) != 0) return false;
+        if (dy < 0 && (toFlags & CollisionDataFlag.BLOCK_MOVEMENT_SOUTH) != 0) return false;
+
+        // Part of a large NPC's footprint can hang over the edge of the map, there is nothing there to block it
+        if (fromX < 0 || fromX >= data[0].length || fromY < 0 || fromY >= data.length) {
+            return true;
+        }
+
+        int fromFlags = data[fromY][fromX];
+        if (dx > 0 && (fromFlags & CollisionDataFlag.BLOCK_MOVEMENT_EAST) != 0) return false;
+        if (dx < 0 && (fromFlags & CollisionDataFlag.BLOCK_MOVEMENT_WEST) != 0) return false;
+        if (dy > 0 && (fromFlags & CollisionDataFlag.BLOCK_MOVEMENT_SOUTH) != 0) return false;
+        return dy >= 0 || (fromFlags & CollisionDataFlag.BLOCK_MOVEMENT_NORTH) == 0;
+    }
+}
@@ -69,6 +69,15 @@ public class SimulationEngine {
     @Getter
     private List<Point> playerCurrentPath = new ArrayList<>();
 
+    // Pathfinding NPCs share one flow field per NPC size each tick instead of each running their own search
+    @Getter
+    @Setter
+    private boolean flowFieldPathing = true;
+
+    private final Map<Integer, FlowField> flowFields = new HashMap<>();
+    private byte[] flowFieldMoves;
+    private boolean flowFieldMovesValid = false;
+
     private final List<SimulationObserver> observers = new ArrayList<>();
     private Timer timer;
     int tick = 0;
@@ -229,14 +238,19 @@ public class SimulationEngine {
         saveCurrentState();
 
         if(tick > 0) {
+            // Collision data can be edited between ticks and the player may have moved
+            for (FlowField field : flowFields.values()) {
+                field.invalidate();
+            }
+            flowFieldMovesValid = false;
+
             for (SimNpc npc : npcs) {
                 Point npcPos = npc.getPosition();
                 Point playerPos = player.getPosition();
 
                 if(npc.isCanPathfind()) {
-                    List<Point> route = findPath(npcPos, playerPos, npc);
-                    if(!route.isEmpty()) {
-                        Point nextMove = route.get(0);
+                    Point nextMove = nextPathMove(npcPos, playerPos, npc);
+                    if(nextMove != null) {
                         // Check for collisions with other entities
                         if(!isOccupiedByNPC(nextMove, npc) && !isOccupiedByPlayer(nextMove, npc)) {
                             addNPCPathPoint(npc, new Point(npcPos));
@@ -285,6 +299,61 @@ public class SimulationEngine {
         tick += 1;
     }
 
+    /**
+     * Returns the first step of the shortest path for an NPC towards a tile adjacent to the player. In flow field mode
+     * the step is read from a field shared by every NPC of the same size, otherwise a search is run for this NPC alone.
+     * Both give the same step.
+     * @param npcPos The position of the NPC
+     * @param playerPos The position of the player
+     * @param npc The NPC which is moving
+     * @return The next position of the NPC or null if it is already adjacent to the player or cannot reach the player
+     */
+    Point nextPathMove(Point npcPos, Point playerPos, SimNpc npc) {
+        if (flowFieldPathing && !npcPos.equals(playerPos)) {
+            FlowField field = flowField(npc.getSize(), playerPos);
+            if (field.inBounds(npcPos.x, npcPos.y)) {
+                int next = field.nextStep(npcPos.x, npcPos.y);
+                return next < 0 ? null : new Point(next % field.getWidth(), next / field.getWidth());
+            }
+        }
+
+        List<Point> route = findPath(npcPos, playerPos, npc);
+        return route.isEmpty() ? null : route.get(0);
+    }
+
+    /**
+     * Returns the flow field towards the player for NPCs of a given size, computing it if it is stale.
+     * @param size The size of the NPCs
+     * @param playerPos The position of the player
+     * @return The flow field
+     */
+    private FlowField flowField(int size, Point playerPos) {
+        FlowField field = flowFields.computeIfAbsent(size, FlowField::new);
+        if (field.isValid()) {
+            return field;
+        }
+
+        int width = collisionData.length == 0 ? 0 : collisionData[0].length;
+        int[] goals = new int[8];
+        int goalCount = 0;
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                Point adjacent = new Point(playerPos.x + dx, playerPos.y + dy);
+                if ((dx != 0 || dy != 0) && inBounds(adjacent) && isTouchingButNotOverlapping(adjacent, size, playerPos, 1)) {
+                    goals[goalCount++] = adjacent.y * width + adjacent.x;
+                }
+            }
+        }
+
+        if (!flowFieldMovesValid) {
+            flowFieldMoves = FlowField.moves(collisionData, flowFieldMoves);
+            flowFieldMovesValid = true;
+        }
+
+        field.compute(collisionData, flowFieldMoves, goals, goalCount);
+        return field;
+    }
+
     /**
      * Sets the target point for a player to move towards and runs a BFS
      * calculation to determine the shortest path.
@@ -305,34 +374,7 @@ public class SimulationEngine {
      * @return True if the movement between the 2 points is valid and false otherwise.
      */
     private boolean isValidMove(Point from, Point to) {
-        if (to.x < 0 || to.x >= collisionData[0].length || to.y < 0 || to.y >= collisionData.length) {
-            return false;
-        }
-
-        // Check collision flags
-        int toFlags = collisionData[to.y][to.x];
-
-        // Check if destination is blocked
-        if ((toFlags & CollisionDataFlag.BLOCK_MOVEMENT_FULL) != 0 ||
-                (toFlags & CollisionDataFlag.BLOCK_MOVEMENT_OBJECT) != 0) {
-            return false;
-        }
-
-        // Check directional blocks
-        int dx = to.x - from.x;
-        int dy = to.y - from.y;
-
-        if (dx > 0 && (toFlags & CollisionDataFlag.BLOCK_MOVEMENT_WEST) != 0) return false;
-        if (dx < 0 && (toFlags & CollisionDataFlag.BLOCK_MOVEMENT_EAST) != 0) return false;
-        if (dy > 0 && (toFlags & CollisionDataFlag.BLOCK_MOVEMENT_NORTH) != 0) return false;
-        if (dy < 0 && (toFlags & CollisionDataFlag.BLOCK_MOVEMENT_SOUTH) != 0) return false;
-
-        // Check if leaving current tile is blocked
-        int fromFlags = collisionData[from.y][from.x];
-        if (dx > 0 && (fromFlags & CollisionDataFlag.BLOCK_MOVEMENT_EAST) != 0) return false;
-        if (dx < 0 && (fromFlags & CollisionDataFlag.BLOCK_MOVEMENT_WEST) != 0) return false;
-        if (dy > 0 && (fromFlags & CollisionDataFlag.BLOCK_MOVEMENT_SOUTH) != 0) return false;
-        return dy >= 0 || (fromFlags & CollisionDataFlag.BLOCK_MOVEMENT_NORTH) == 0;
+        return FlowField.canStep(collisionData, from.x, from.y, to.x, to.y);
     }
 
     public List<Point> getNpcLineOfSight(SimNpc simNpc) {
@@ -479,19 +521,7 @@ public class SimulationEngine {
      * @return True if the movement is valid for all tiles the NPC occupies
      */
     private boolean isValidMoveForNPC(Point from, Point to, int npcSize) {
-        // Check all tiles that the NPC will occupy at the destination
-        for (int dx = 0; dx < npcSize; dx++) {
-            for (int dy = 0; dy < npcSize; dy++) {
-                Point currentTile = new Point(from.x + dx, from.y - dy);
-                Point destinationTile = new Point(to.x + dx, to.y - dy);
-
-                // Check if this specific tile movement is valid
-                if (!isValidMove(currentTile, destinationTile)) {
-                    return false;
-                }
-            }
-        }
-        return true;
+        return FlowField.canMove(collisionData, from.x, from.y, to.x - from.x, to.y - from.y, npcSize);
     }
 
     /**
@@ -595,7 +625,7 @@ public class SimulationEngine {
      * @param npc SimNpc the NPC that is pathfinding (null for player)
      * @return A list of path points to the destination (excluding start position)
      */
-    private List<Point> findPath(Point start, Point goal, SimNpc npc) {
+    List<Point> findPath(Point start, Point goal, SimNpc npc) {
         if (start.equals(goal)) {
             return Collections.emptyList();
         }
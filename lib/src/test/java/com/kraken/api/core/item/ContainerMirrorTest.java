@@ -0,0 +1,102 @@
+package com.kraken.api.core.item;
+
+import net.runelite.api.Client;
+import net.runelite.api.GameState;
+import net.runelite.api.Item;
+import net.runelite.api.ItemContainer;
+import net.runelite.api.events.GameStateChanged;
+import net.runelite.api.events.ItemContainerChanged;
+import net.runelite.api.gameval.InventoryID;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Feeds container events from a fake client, whose calls all happen on the client thread, through the mirror.
+ */
+public class ContainerMirrorTest {
+    private static final int COINS = 995;
+    private static final int LOBSTER = 379;
+
+    private Item[] items = new Item[28];
+    private GameState gameState = GameState.LOGGED_IN;
+    private ContainerMirror mirror;
+    private final List<ContainerDelta> deltas = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        items[0] = new Item(COINS, 1000);
+        ItemContainer container = (ItemContainer) Proxy.newProxyInstance(ItemContainer.class.getClassLoader(),
+                new Class<?>[]{ItemContainer.class}, (proxy, method, args) -> "getItems".equals(method.getName()) ? items : null);
+        Client client = (Client) Proxy.newProxyInstance(Client.class.getClassLoader(), new Class<?>[]{Client.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "isClientThread": return true;
+                        case "getGameState": return gameState;
+                        case "getItemContainer": return container;
+                        case "getTickCount": return 0;
+                        default: return null;
+                    }
+                });
+        mirror = new ContainerMirror(client, () -> null);
+    }
+
+    private void change(Item[] next) {
+        items = next.clone();
+        ItemContainer container = (ItemContainer) Proxy.newProxyInstance(ItemContainer.class.getClassLoader(),
+                new Class<?>[]{ItemContainer.class}, (proxy, method, args) -> "getItems".equals(method.getName()) ? items : null);
+        mirror.onItemContainerChanged(new ItemContainerChanged(InventoryID.INV, container));
+    }
+
+    @Test
+    public void loginLoadIsNotReportedAsAdditions() {
+        // Subscribed before login, so there is nothing to seed the mirror from and the next event is the client loading the inventory
+        gameState = GameState.LOGIN_SCREEN;
+        mirror.subscribe(InventoryID.INV, deltas::add);
+        gameState = GameState.LOGGED_IN;
+
+        change(items);
+        assertTrue(deltas.isEmpty());
+        assertTrue(mirror.get(InventoryID.INV).contains(COINS));
+
+        Item[] next = items.clone();
+        next[0] = null;
+        change(next);
+        assertEquals(1, deltas.size());
+        assertTrue(deltas.get(0).lost(COINS));
+    }
+
+    @Test
+    public void reloginLoadIsNotReportedAsAdditions() {
+        mirror.subscribe(InventoryID.INV, deltas::add);
+
+        GameStateChanged loginScreen = new GameStateChanged();
+        loginScreen.setGameState(GameState.LOGIN_SCREEN);
+        mirror.onGameStateChanged(loginScreen);
+
+        change(items);
+        assertTrue(deltas.isEmpty());
+    }
+
+    @Test
+    public void firstChangeIsDiffedAgainstClientContents() {
+        mirror.subscribe(InventoryID.INV, deltas::add);
+        assertEquals(1, mirror.get(InventoryID.INV).getVersion());
+
+        Item[] next = items.clone();
+        next[1] = new Item(LOBSTER, 1);
+        change(next);
+
+        assertEquals(1, deltas.size());
+        ContainerDelta delta = deltas.get(0);
+        assertArrayEquals(new int[]{1}, delta.getChangedSlots());
+        assertTrue(delta.gained(LOBSTER));
+        assertEquals(0, delta.quantityChange(COINS));
+        assertEquals(2, delta.getCurrent().getVersion());
+    }
+}
@@ -0,0 +1,123 @@
+package com.kraken.api.core.player;
+
+import net.runelite.api.Client;
+import net.runelite.api.GameState;
+import net.runelite.api.Player;
+import net.runelite.api.coords.WorldPoint;
+import net.runelite.api.events.GameStateChanged;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.*;
+
+/**
+ * Drives the tracker with game ticks of a fake local player to check snapshots and arrival futures.
+ */
+public class LocalPlayerTrackerTest {
+    private int tick = 0;
+    private WorldPoint location = new WorldPoint(3200, 3200, 0);
+    private int animation = -1;
+    private int energy = 10000;
+    private int runVarp = 1;
+
+    private LocalPlayerTracker tracker;
+
+    @Before
+    public void setUp() {
+        Player player = (Player) Proxy.newProxyInstance(Player.class.getClassLoader(), new Class<?>[]{Player.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getWorldLocation": return location;
+                        case "getAnimation": return animation;
+                        case "getPoseAnimation":
+                        case "getIdlePoseAnimation": return 808;
+                        default: return null;
+                    }
+                });
+        Client client = (Client) Proxy.newProxyInstance(Client.class.getClassLoader(), new Class<?>[]{Client.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getLocalPlayer": return player;
+                        case "getTickCount": return tick;
+                        case "getEnergy": return energy;
+                        case "getVarpValue": return runVarp;
+                        default: return null;
+                    }
+                });
+        tracker = new LocalPlayerTracker(client);
+    }
+
+    private void tick(WorldPoint next) {
+        tick++;
+        location = next;
+        tracker.onGameTick(null);
+    }
+
+    @Test
+    public void publishesSnapshotEachTick() {
+        assertSame(LocalPlayerSnapshot.EMPTY, tracker.get());
+
+        animation = 827;
+        tick(location);
+        LocalPlayerSnapshot snapshot = tracker.get();
+        assertEquals(1, snapshot.getTick());
+        assertEquals(new WorldPoint(3200, 3200, 0), snapshot.getWorldLocation());
+        assertEquals(100, snapshot.getRunEnergy());
+        assertTrue(snapshot.isRunning());
+        assertFalse(snapshot.isIdle());
+    }
+
+    @Test
+    public void arrivalCompletesOnTheTickThePlayerArrives() {
+        tick(location);
+        WorldPoint target = new WorldPoint(3210, 3200, 0);
+        CompletableFuture<Boolean> arrival = tracker.arrival(target, 2, 10);
+
+        for (int x = 3202; x < 3208; x += 2) {
+            tick(new WorldPoint(x, 3200, 0));
+            assertFalse(arrival.isDone());
+        }
+
+        tick(new WorldPoint(3208, 3200, 0));
+        assertTrue(arrival.getNow(false));
+    }
+
+    @Test
+    public void arrivalTimesOutAfterTicks() {
+        tick(location);
+        CompletableFuture<Boolean> arrival = tracker.arrival(new WorldPoint(3250, 3200, 0), 0, 2);
+
+        tick(location);
+        assertFalse(arrival.isDone());
+        tick(location);
+        assertFalse(arrival.getNow(true));
+    }
+
+    @Test
+    public void estimatesTicksFromRunState() {
+        tick(location);
+        WorldPoint target = new WorldPoint(3209, 3200, 0);
+        assertEquals(5, tracker.estimateTicks(target));
+
+        runVarp = 0;
+        tick(location);
+        assertEquals(9, tracker.estimateTicks(target));
+        assertEquals(-1, tracker.estimateTicks(new WorldPoint(3209, 3200, 1)));
+    }
+
+    @Test
+    public void logoutFailsOutstandingWaits() {
+        tick(location);
+        CompletableFuture<Boolean> arrival = tracker.arrival(new WorldPoint(3250, 3200, 0), 0, -1);
+
+        GameStateChanged event = new GameStateChanged();
+        event.setGameState(GameState.LOGIN_SCREEN);
+        tracker.onGameStateChanged(event);
+
+        assertFalse(arrival.getNow(true));
+        assertSame(LocalPlayerSnapshot.EMPTY, tracker.get());
+    }
+}
@@ -0,0 +1,187 @@
+package com.kraken.api.core.script;
+
+import org.junit.Test;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Exercises per script cancellation on the shared script scheduler.
+ */
+public class ScriptSchedulerTest {
+    private final ScriptScheduler scheduler = new ScriptScheduler();
+
+    @Test
+    public void cancelWakesSleepingTask() throws Exception {
+        CancellationToken token = new CancellationToken();
+        CountDownLatch sleeping = new CountDownLatch(1);
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+
+        CompletableFuture<Void> future = scheduler.submit(token, () -> {
+            sleeping.countDown();
+            try {
+                CancellationToken.current().sleep(60_000);
+            } catch (CancellationException e) {
+                thrown.set(e);
+            }
+        });
+
+        assertTrue(sleeping.await(5, TimeUnit.SECONDS));
+        long start = System.nanoTime();
+        token.cancel();
+        future.get(5, TimeUnit.SECONDS);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+        assertTrue(thrown.get() instanceof CancellationException);
+    }
+
+    @Test
+    public void cancellingOneScriptLeavesOthersRunning() throws Exception {
+        CancellationToken first = new CancellationToken();
+        CancellationToken second = new CancellationToken();
+        CountDownLatch started = new CountDownLatch(2);
+        AtomicReference<Boolean> secondCancelled = new AtomicReference<>();
+
+        CompletableFuture<Void> a = scheduler.submit(first, () -> {
+            started.countDown();
+            try {
+                CancellationToken.current().sleep(60_000);
+            } catch (CancellationException ignored) {
+                // Expected when the first token is cancelled
+            }
+        });
+        CompletableFuture<Void> b = scheduler.submit(second, () -> {
+            started.countDown();
+            CancellationToken.current().sleep(200);
+            secondCancelled.set(RunnableTask.isCanceled());
+        });
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        first.cancel();
+        a.get(5, TimeUnit.SECONDS);
+        b.get(5, TimeUnit.SECONDS);
+        assertFalse(secondCancelled.get());
+        assertFalse(second.isCancelled());
+    }
+
+    @Test
+    public void blockingLoopsDoNotStarveOtherScripts() throws Exception {
+        // More sleeping loops than the pool has threads, the pool starts spare threads while they sleep
+        int scripts = Runtime.getRuntime().availableProcessors() * 2 + 8;
+        CountDownLatch started = new CountDownLatch(scripts);
+        CancellationToken[] tokens = new CancellationToken[scripts];
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[scripts];
+
+        for (int i = 0; i < scripts; i++) {
+            tokens[i] = new CancellationToken();
+            futures[i] = scheduler.submit(tokens[i], () -> {
+                started.countDown();
+                try {
+                    CancellationToken.current().sleep(60_000);
+                } catch (CancellationException ignored) {
+                    // Expected once the test releases the loops
+                }
+            });
+        }
+
+        try {
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+        } finally {
+            for (CancellationToken token : tokens) {
+                token.cancel();
+            }
+        }
+        CompletableFuture.allOf(futures).get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void loopDelayHoldsNoThread() throws Exception {
+        int scripts = Runtime.getRuntime().availableProcessors() * 4 + 8;
+        CountDownLatch ran = new CountDownLatch(scripts);
+        CancellationToken[] tokens = new CancellationToken[scripts];
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[scripts];
+
+        for (int i = 0; i < scripts; i++) {
+            tokens[i] = new CancellationToken();
+            futures[i] = scheduler.submitLoop(tokens[i], () -> {
+                ran.countDown();
+                return 60_000;
+            });
+        }
+
+        // Every loop has run and is waiting out its delay, none of them is on a pool thread
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertEquals(0, scheduler.getActiveCount());
+        assertTrue(scheduler.getPoolSize() <= Runtime.getRuntime().availableProcessors());
+        for (CompletableFuture<?> future : futures) {
+            assertFalse(future.isDone());
+        }
+
+        for (CancellationToken token : tokens) {
+            token.cancel();
+        }
+        CompletableFuture.allOf(futures).get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void loopDelayEndsAfterDelay() throws Exception {
+        long start = System.nanoTime();
+        scheduler.submitLoop(new CancellationToken(), () -> 200).get(5, TimeUnit.SECONDS);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 200);
+    }
+
+    @Test
+    public void cancelEndsLoopDelay() throws Exception {
+        CancellationToken token = new CancellationToken();
+        CountDownLatch ran = new CountDownLatch(1);
+        CompletableFuture<Void> future = scheduler.submitLoop(token, () -> {
+            ran.countDown();
+            return 60_000;
+        });
+
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+        long start = System.nanoTime();
+        token.cancel();
+        future.get(5, TimeUnit.SECONDS);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+    }
+
+    @Test
+    public void loopExceptionCompletesFuture() throws Exception {
+        CompletableFuture<Void> future = scheduler.submitLoop(new CancellationToken(), () -> {
+            throw new IllegalStateException("broken loop");
+        });
+
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("Expected the loop's exception");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void bindsTokenOnlyWhileTaskRuns() throws Exception {
+        CancellationToken token = new CancellationToken();
+        token.cancel();
+        AtomicReference<Boolean> cancelled = new AtomicReference<>();
+        scheduler.submit(token, () -> cancelled.set(RunnableTask.isCanceled())).get(5, TimeUnit.SECONDS);
+
+        assertTrue(cancelled.get());
+        assertSame(CancellationToken.NONE, CancellationToken.current());
+        assertFalse(RunnableTask.isCanceled());
+    }
+
+    @Test
+    public void noneTokenCannotBeCancelled() {
+        CancellationToken.NONE.cancel();
+        assertFalse(CancellationToken.NONE.isCancelled());
+        CancellationToken.NONE.sleep(1);
+    }
+}
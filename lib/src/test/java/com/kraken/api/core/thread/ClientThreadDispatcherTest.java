@@ -0,0 +1,184 @@
+package com.kraken.api.core.thread;
+
+import com.kraken.api.Context;
+import com.kraken.api.core.item.ContainerMirror;
+import com.kraken.api.core.item.ItemDefinitionCache;
+import com.kraken.api.core.packet.debug.PacketSpy;
+import com.kraken.api.core.player.LocalPlayerTracker;
+import com.kraken.api.core.varbit.VarMirror;
+import com.kraken.api.query.scene.SceneCache;
+import com.kraken.api.query.scene.TileObjectRegistry;
+import com.kraken.api.query.widget.WidgetIndex;
+import com.kraken.api.service.bank.BankService;
+import com.kraken.api.service.tile.ReachabilityCache;
+import com.kraken.api.sim.CollisionDumper;
+import net.runelite.api.Client;
+import net.runelite.client.callback.ClientThread;
+import net.runelite.client.eventbus.EventBus;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Drives the dispatcher's client thread side by hand to check how submissions are run and coalesced into hops.
+ */
+public class ClientThreadDispatcherTest {
+    private final AtomicBoolean onClientThread = new AtomicBoolean();
+    private final List<Runnable> invoked = new ArrayList<>();
+    private final List<String> calls = new ArrayList<>();
+    private ClientThreadDispatcher dispatcher;
+    private Context ctx;
+
+    @Before
+    public void setUp() {
+        Client client = (Client) Proxy.newProxyInstance(Client.class.getClassLoader(), new Class<?>[]{Client.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "isClientThread": return onClientThread.get();
+                        case "getTickCount": return 0;
+                        default: return null;
+                    }
+                });
+        // Queues work handed to the client thread so tests decide when it runs
+        ClientThread clientThread = new ClientThread() {
+            @Override
+            public void invoke(Runnable r) {
+                invoked.add(r);
+            }
+        };
+        dispatcher = new ClientThreadDispatcher(client, clientThread);
+
+        Context[] context = new Context[1];
+        EventBus eventBus = new EventBus();
+        context[0] = new Context(client, clientThread, null, eventBus, null, null, null, null,
+                new BankService(), new PacketSpy(), new SceneCache(), new TileObjectRegistry(client),
+                new VarMirror(client, () -> context[0]), new ItemDefinitionCache(client, null, () -> context[0]),
+                new ContainerMirror(client, () -> context[0]), new WidgetIndex(client), new ReachabilityCache(),
+                new CollisionDumper(), new WaitEngine(client, clientThread, eventBus), new LocalPlayerTracker(client));
+        ctx = context[0];
+    }
+
+    // Runs every hop handed to the client thread so far, as the client would on its next frame
+    private void runClientThread() {
+        onClientThread.set(true);
+        try {
+            List<Runnable> hops = new ArrayList<>(invoked);
+            invoked.clear();
+            hops.forEach(Runnable::run);
+        } finally {
+            onClientThread.set(false);
+        }
+    }
+
+    private CompletableFuture<String> call(String name) {
+        return dispatcher.submit(() -> {
+            assertTrue(onClientThread.get());
+            calls.add(name);
+            return name;
+        });
+    }
+
+    @Test
+    public void runsInlineOnClientThread() {
+        onClientThread.set(true);
+        CompletableFuture<String> result = call("inline");
+
+        assertTrue(result.isDone());
+        assertEquals("inline", result.getNow(null));
+        assertTrue(invoked.isEmpty());
+    }
+
+    @Test
+    public void coalescesSubmissionsIntoOneHopInOrder() {
+        CompletableFuture<String> first = call("first");
+        CompletableFuture<String> second = call("second");
+        CompletableFuture<String> third = call("third");
+
+        assertEquals(1, invoked.size());
+        assertFalse(first.isDone());
+        assertTrue(calls.isEmpty());
+
+        runClientThread();
+        assertEquals(Arrays.asList("first", "second", "third"), calls);
+        assertEquals("first", first.getNow(null));
+        assertEquals("second", second.getNow(null));
+        assertEquals("third", third.getNow(null));
+
+        // The queue was drained, so the next submission needs a hop of its own
+        call("fourth");
+        assertEquals(1, invoked.size());
+        runClientThread();
+        assertEquals("fourth", calls.get(3));
+    }
+
+    @Test
+    public void exceptionFailsOnlyItsOwnSubmission() {
+        CompletableFuture<String> before = call("before");
+        CompletableFuture<String> failing = dispatcher.submit(() -> {
+            throw new IllegalStateException("boom");
+        });
+        CompletableFuture<String> after = call("after");
+        assertEquals(1, invoked.size());
+
+        runClientThread();
+        assertEquals("before", before.getNow(null));
+        assertEquals("after", after.getNow(null));
+        assertTrue(failing.isCompletedExceptionally());
+        try {
+            failing.get();
+            fail("Expected the failing submission to throw");
+        } catch (ExecutionException | InterruptedException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+            assertEquals("boom", e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void batchRunsReadsInOneHopInOrder() {
+        ClientBatch batch = ctx.batch();
+        ClientBatch.Key<String> first = batch.add(() -> {
+            calls.add("first");
+            return "first";
+        });
+        ClientBatch.Key<String> failing = batch.add(() -> {
+            calls.add("failing");
+            throw new IllegalStateException("boom");
+        });
+        ClientBatch.Key<String> last = batch.add(() -> {
+            calls.add("last");
+            return "last";
+        });
+
+        CompletableFuture<BatchResults> future = batch.executeAsync();
+        // A second batch queued before the client thread runs shares the same hop
+        ClientBatch other = ctx.batch();
+        ClientBatch.Key<Integer> value = other.add(() -> 7);
+        CompletableFuture<BatchResults> otherFuture = other.executeAsync();
+        assertEquals(1, invoked.size());
+
+        runClientThread();
+        assertEquals(Arrays.asList("first", "failing", "last"), calls);
+        BatchResults results = future.getNow(null);
+        assertNotNull(results);
+        assertEquals("first", results.get(first));
+        assertEquals("last", results.get(last));
+
+        // A read which threw does not fail the rest of the batch
+        assertTrue(results.failed(failing));
+        assertNull(results.get(failing));
+        assertTrue(results.error(failing) instanceof IllegalStateException);
+        assertEquals("boom", results.error(failing).getMessage());
+        assertFalse(results.failed(first));
+
+        assertEquals(Integer.valueOf(7), otherFuture.getNow(null).get(value));
+    }
+}
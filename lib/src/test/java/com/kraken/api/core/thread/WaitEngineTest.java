@@ -0,0 +1,150 @@
+package com.kraken.api.core.thread;
+
+import com.kraken.api.core.script.CancellationToken;
+import com.kraken.api.core.script.ScriptScheduler;
+import net.runelite.api.Client;
+import net.runelite.client.callback.ClientThread;
+import net.runelite.client.eventbus.EventBus;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Drives the wait engine's client thread side by hand to check when waits complete.
+ */
+public class WaitEngineTest {
+    private final AtomicInteger tickCount = new AtomicInteger();
+    private final EventBus eventBus = new EventBus();
+    private final List<Runnable> invoked = new ArrayList<>();
+    private WaitEngine engine;
+
+    @Before
+    public void setUp() {
+        Client client = (Client) Proxy.newProxyInstance(Client.class.getClassLoader(), new Class<?>[]{Client.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getTickCount": return tickCount.get();
+                        case "isClientThread": return false;
+                        default: return null;
+                    }
+                });
+        // Queues work handed to the client thread so tests decide when it runs
+        ClientThread clientThread = new ClientThread() {
+            @Override
+            public void invoke(Runnable r) {
+                invoked.add(r);
+            }
+        };
+        engine = new WaitEngine(client, clientThread, eventBus);
+    }
+
+    @Test
+    public void completesOnceConditionHoldsAtClientTick() throws Exception {
+        AtomicBoolean ready = new AtomicBoolean();
+        CompletableFuture<Boolean> result = engine.when(ready::get, WaitEngine.NO_TIMEOUT, WaitEngine.NO_TIMEOUT);
+
+        engine.onClientTick(null);
+        assertFalse(result.isDone());
+
+        ready.set(true);
+        engine.onClientTick(null);
+        assertTrue(result.getNow(false));
+        assertEquals(0, engine.getWaitingCount());
+    }
+
+    @Test
+    public void timesOutAfterTicks() {
+        CompletableFuture<Boolean> result = engine.when(() -> false, 2, WaitEngine.NO_TIMEOUT);
+
+        tickCount.incrementAndGet();
+        engine.onGameTick(null);
+        assertFalse(result.isDone());
+
+        tickCount.incrementAndGet();
+        engine.onGameTick(null);
+        assertFalse(result.getNow(true));
+    }
+
+    @Test
+    public void namedEventOnlyEvaluatesItsWaiters() {
+        AtomicInteger evaluations = new AtomicInteger();
+        CompletableFuture<Boolean> named = engine.when(() -> evaluations.incrementAndGet() > 0,
+                WaitEngine.NO_TIMEOUT, WaitEngine.NO_TIMEOUT, String.class);
+        AtomicBoolean otherEvaluated = new AtomicBoolean();
+        CompletableFuture<Boolean> other = engine.when(() -> {
+            otherEvaluated.set(true);
+            return false;
+        }, WaitEngine.NO_TIMEOUT, WaitEngine.NO_TIMEOUT);
+
+        // Posted off the client thread, so evaluation is handed to it rather than run here
+        eventBus.post("event");
+        assertFalse(named.isDone());
+        assertEquals(1, invoked.size());
+
+        invoked.forEach(Runnable::run);
+        assertTrue(named.getNow(false));
+        assertFalse(other.isDone());
+        assertEquals(1, engine.getWaitingCount());
+        assertFalse(otherEvaluated.get());
+    }
+
+    @Test
+    public void throwingConditionFailsWait() {
+        CompletableFuture<Boolean> result = engine.when(() -> {
+            throw new IllegalStateException("boom");
+        }, WaitEngine.NO_TIMEOUT, WaitEngine.NO_TIMEOUT);
+
+        engine.onClientTick(null);
+        assertTrue(result.isCompletedExceptionally());
+        assertEquals(0, engine.getWaitingCount());
+
+        // A blocking wait rethrows the condition's exception rather than reporting a timeout
+        try {
+            engine.await(result, WaitEngine.NO_TIMEOUT);
+            fail("Expected the condition's exception");
+        } catch (RuntimeException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+            assertEquals("boom", e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void awaitTimesOutWithoutClientTicks() {
+        long start = System.nanoTime();
+        assertFalse(engine.await(() -> false, 50));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 50);
+    }
+
+    @Test
+    public void cancellingScriptWakesAwait() throws Exception {
+        CancellationToken token = new CancellationToken();
+        CountDownLatch waiting = new CountDownLatch(1);
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+
+        CompletableFuture<Void> future = new ScriptScheduler().submit(token, () -> {
+            waiting.countDown();
+            try {
+                engine.await(() -> false, WaitEngine.NO_TIMEOUT, WaitEngine.NO_TIMEOUT);
+            } catch (CancellationException e) {
+                thrown.set(e);
+            }
+        });
+
+        assertTrue(waiting.await(5, TimeUnit.SECONDS));
+        token.cancel();
+        future.get(5, TimeUnit.SECONDS);
+        assertTrue(thrown.get() instanceof CancellationException);
+    }
+}
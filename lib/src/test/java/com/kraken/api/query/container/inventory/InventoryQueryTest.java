@@ -0,0 +1,126 @@
+package com.kraken.api.query.container.inventory;
+
+import com.kraken.api.Context;
+import com.kraken.api.core.item.ContainerMirror;
+import com.kraken.api.core.item.ItemDefinition;
+import com.kraken.api.core.item.ItemDefinitionCache;
+import com.kraken.api.core.packet.debug.PacketSpy;
+import com.kraken.api.core.player.LocalPlayerTracker;
+import com.kraken.api.core.thread.WaitEngine;
+import com.kraken.api.core.varbit.VarMirror;
+import com.kraken.api.query.scene.SceneCache;
+import com.kraken.api.query.scene.TileObjectRegistry;
+import com.kraken.api.query.widget.WidgetIndex;
+import com.kraken.api.service.bank.BankService;
+import com.kraken.api.service.tile.ReachabilityCache;
+import com.kraken.api.sim.CollisionDumper;
+import net.runelite.api.Client;
+import net.runelite.api.GameState;
+import net.runelite.api.Item;
+import net.runelite.api.ItemContainer;
+import net.runelite.api.events.ItemContainerChanged;
+import net.runelite.api.gameval.InventoryID;
+import net.runelite.client.callback.ClientThread;
+import net.runelite.client.eventbus.EventBus;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that item presence checks are answered from the mirrored inventory without dispatching to the client thread.
+ */
+public class InventoryQueryTest {
+    private static final int COINS = 995;
+    private static final int LOBSTER = 379;
+    private static final int SHARK = 385;
+
+    private final AtomicInteger clientThreadCalls = new AtomicInteger();
+    private final Map<Integer, String> names = new HashMap<>();
+    private Context ctx;
+
+    @Before
+    public void setUp() {
+        names.put(COINS, "Coins");
+        names.put(LOBSTER, "Lobster");
+        names.put(SHARK, "Shark");
+
+        Client client = (Client) Proxy.newProxyInstance(Client.class.getClassLoader(), new Class<?>[]{Client.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "isClientThread": return false;
+                        case "getGameState": return GameState.LOGGED_IN;
+                        case "getTickCount": return 0;
+                        default: return null;
+                    }
+                });
+        // Runs inline so a client thread hop shows up as a count rather than a timeout
+        ClientThread clientThread = new ClientThread() {
+            @Override
+            public void invoke(Runnable r) {
+                clientThreadCalls.incrementAndGet();
+                r.run();
+            }
+        };
+
+        Context[] context = new Context[1];
+        ItemDefinitionCache definitions = new ItemDefinitionCache(client, null, () -> context[0]) {
+            @Override
+            public ItemDefinition get(int itemId) {
+                String name = names.get(itemId);
+                return name == null ? null : ItemDefinition.builder().id(itemId).name(name).build();
+            }
+        };
+        ContainerMirror containers = new ContainerMirror(client, () -> context[0]);
+
+        EventBus eventBus = new EventBus();
+        context[0] = new Context(client, clientThread, null, eventBus, null, null, null, null,
+                new BankService(), new PacketSpy(), new SceneCache(), new TileObjectRegistry(client),
+                new VarMirror(client, () -> context[0]), definitions, containers, new WidgetIndex(client),
+                new ReachabilityCache(), new CollisionDumper(), new WaitEngine(client, clientThread, eventBus),
+                new LocalPlayerTracker(client));
+        ctx = context[0];
+
+        Item[] items = new Item[28];
+        Arrays.fill(items, new Item(-1, 0));
+        items[0] = new Item(COINS, 1000);
+        items[5] = new Item(LOBSTER, 1);
+        ItemContainer inventory = (ItemContainer) Proxy.newProxyInstance(ItemContainer.class.getClassLoader(),
+                new Class<?>[]{ItemContainer.class}, (proxy, method, args) -> "getItems".equals(method.getName()) ? items : null);
+        containers.onItemContainerChanged(new ItemContainerChanged(InventoryID.INV, inventory));
+    }
+
+    @Test
+    public void hasItemByIdReadsSnapshot() {
+        assertTrue(ctx.inventory().hasItem(COINS));
+        assertTrue(ctx.inventory().hasItem(LOBSTER));
+        assertFalse(ctx.inventory().hasItem(SHARK));
+        assertEquals(0, clientThreadCalls.get());
+    }
+
+    @Test
+    public void hasItemByNameReadsSnapshot() {
+        assertTrue(ctx.inventory().hasItem("coins"));
+        assertTrue(ctx.inventory().hasItem("LOBSTER"));
+        assertFalse(ctx.inventory().hasItem("Shark"));
+        assertFalse(ctx.inventory().hasItem((String) null));
+        assertEquals(0, clientThreadCalls.get());
+    }
+
+    @Test
+    public void hasItemsReadsSnapshot() {
+        assertTrue(ctx.inventory().hasItems(COINS, LOBSTER));
+        assertFalse(ctx.inventory().hasItems(COINS, SHARK));
+        assertTrue(ctx.inventory().hasItems(Arrays.asList(COINS, LOBSTER)));
+        assertTrue(ctx.inventory().hasItems("Coins", "Lobster"));
+        assertFalse(ctx.inventory().hasItems("Coins", "Shark"));
+        assertTrue(ctx.inventory().hasItems(new int[0]));
+        assertEquals(0, clientThreadCalls.get());
+    }
+}
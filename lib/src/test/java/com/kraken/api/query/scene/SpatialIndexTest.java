@@ -0,0 +1,176 @@
+package com.kraken.api.query.scene;
+
+import net.runelite.api.coords.WorldPoint;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the bucketed lookups against a linear scan (and nearest lookups against a brute force sort) over randomly
+ * placed entities, including entities located by their south-west tile and measured from their centre the way NPC's
+ * are.
+ */
+public class SpatialIndexTest {
+    private static final int LOCAL_TILE_SIZE = 128;
+
+    private static List<WorldPoint> randomPoints(Random random, int count) {
+        List<WorldPoint> points = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            points.add(new WorldPoint(3200 + random.nextInt(80), 3200 + random.nextInt(80), random.nextInt(2)));
+        }
+        return points;
+    }
+
+    @Test
+    public void withinMatchesLinearScan() {
+        Random random = new Random(7);
+        for (int trial = 0; trial < 300; trial++) {
+            List<WorldPoint> points = randomPoints(random, random.nextInt(60));
+            SpatialIndex<WorldPoint> index = new SpatialIndex<>(points, p -> p);
+
+            WorldPoint anchor = new WorldPoint(3190 + random.nextInt(100), 3190 + random.nextInt(100), random.nextInt(2));
+            int radius = random.nextInt(20);
+
+            List<WorldPoint> expected = points.stream()
+                    .filter(p -> p.getPlane() == anchor.getPlane() && p.distanceTo(anchor) <= radius)
+                    .collect(Collectors.toList());
+            assertEquals("trial " + trial, expected, index.within(anchor, radius));
+        }
+    }
+
+    @Test
+    public void inAreaMatchesLinearScan() {
+        Random random = new Random(9);
+        for (int trial = 0; trial < 300; trial++) {
+            List<WorldPoint> points = randomPoints(random, random.nextInt(60));
+            SpatialIndex<WorldPoint> index = new SpatialIndex<>(points, p -> p);
+
+            WorldPoint a = new WorldPoint(3190 + random.nextInt(100), 3190 + random.nextInt(100), 0);
+            WorldPoint b = new WorldPoint(3190 + random.nextInt(100), 3190 + random.nextInt(100), 0);
+
+            List<WorldPoint> expected = points.stream()
+                    .filter(p -> p.getX() >= Math.min(a.getX(), b.getX()) && p.getX() <= Math.max(a.getX(), b.getX())
+                            && p.getY() >= Math.min(a.getY(), b.getY()) && p.getY() <= Math.max(a.getY(), b.getY()))
+                    .collect(Collectors.toList());
+            assertEquals("trial " + trial, expected, index.inArea(a, b));
+        }
+    }
+
+    @Test
+    public void nearestMatchesBruteForce() {
+        Random random = new Random(11);
+        for (int trial = 0; trial < 300; trial++) {
+            List<WorldPoint> points = randomPoints(random, 1 + random.nextInt(60));
+            SpatialIndex<WorldPoint> index = new SpatialIndex<>(points, p -> p);
+
+            WorldPoint origin = new WorldPoint(3190 + random.nextInt(100), 3190 + random.nextInt(100), 0);
+            ToIntFunction<WorldPoint> distance = p -> p.distanceTo(origin);
+            int k = 1 + random.nextInt(3);
+
+            List<Integer> expected = sortedOrdinals(points, distance, k);
+            List<Integer> actual = index.nearest(origin, k, p -> true, distance, 1, 0).stream()
+                    .map(p -> indexOfIdentity(points, p))
+                    .collect(Collectors.toList());
+            assertEquals("trial " + trial, expected, actual);
+        }
+    }
+
+    private static final class Actor {
+        private final WorldPoint southWest;
+        private final int size;
+        // Offset of the measured (interpolated) centre from the true centre in local units
+        private final int lagX;
+        private final int lagY;
+
+        Actor(WorldPoint southWest, int size, int lagX, int lagY) {
+            this.southWest = southWest;
+            this.size = size;
+            this.lagX = lagX;
+            this.lagY = lagY;
+        }
+
+        int localX() {
+            return southWest.getX() * LOCAL_TILE_SIZE + (size - 1) * LOCAL_TILE_SIZE / 2 + lagX;
+        }
+
+        int localY() {
+            return southWest.getY() * LOCAL_TILE_SIZE + (size - 1) * LOCAL_TILE_SIZE / 2 + lagY;
+        }
+    }
+
+    private static ToIntFunction<Actor> distanceFrom(int localX, int localY) {
+        return a -> (int) Math.hypot(a.localX() - localX, a.localY() - localY);
+    }
+
+    @Test
+    public void findsLargeNpcJustOutsideTheFirstRing() {
+        List<Actor> actors = Arrays.asList(
+                new Actor(new WorldPoint(3200, 3200, 0), 1, 0, 0),
+                new Actor(new WorldPoint(3207, 3197, 0), 7, 0, 0),
+                new Actor(new WorldPoint(3222, 3202, 0), 1, 0, 0));
+        SpatialIndex<Actor> index = new SpatialIndex<>(actors, a -> a.southWest, a -> a.size);
+
+        // The small actor shares the origin's bucket, the size 7 actor is two buckets away but its centre is closer
+        WorldPoint origin = new WorldPoint(3216, 3200, 0);
+        List<Actor> nearest = index.nearest(origin, 1, a -> true,
+                distanceFrom(origin.getX() * LOCAL_TILE_SIZE, origin.getY() * LOCAL_TILE_SIZE), LOCAL_TILE_SIZE, 0);
+
+        assertEquals(1, nearest.size());
+        assertSame(actors.get(1), nearest.get(0));
+    }
+
+    @Test
+    public void nearestMovingActorsMatchBruteForce() {
+        Random random = new Random(11);
+        int maxLag = LOCAL_TILE_SIZE * SpatialIndex.MOVEMENT_SLACK_TILES / 4;
+        for (int trial = 0; trial < 300; trial++) {
+            List<Actor> actors = new ArrayList<>();
+            int count = 1 + random.nextInt(60);
+            for (int i = 0; i < count; i++) {
+                actors.add(new Actor(new WorldPoint(3200 + random.nextInt(80), 3200 + random.nextInt(80), 0),
+                        1 + random.nextInt(7), random.nextInt(2 * maxLag + 1) - maxLag, random.nextInt(2 * maxLag + 1) - maxLag));
+            }
+            SpatialIndex<Actor> index = new SpatialIndex<>(actors, a -> a.southWest, a -> a.size);
+
+            WorldPoint origin = new WorldPoint(3190 + random.nextInt(100), 3190 + random.nextInt(100), 0);
+            ToIntFunction<Actor> distance = distanceFrom(origin.getX() * LOCAL_TILE_SIZE + random.nextInt(2 * maxLag + 1) - maxLag,
+                    origin.getY() * LOCAL_TILE_SIZE + random.nextInt(2 * maxLag + 1) - maxLag);
+            int k = 1 + random.nextInt(3);
+
+            List<Actor> expected = actors.stream()
+                    .sorted(Comparator.comparingInt(distance).thenComparingInt(actors::indexOf))
+                    .limit(k)
+                    .collect(Collectors.toList());
+            assertEquals("trial " + trial, expected,
+                    index.nearest(origin, k, a -> true, distance, LOCAL_TILE_SIZE, SpatialIndex.MOVEMENT_SLACK_TILES));
+        }
+    }
+
+    private static List<Integer> sortedOrdinals(List<WorldPoint> points, ToIntFunction<WorldPoint> distance, int k) {
+        List<Integer> ordinals = new ArrayList<>();
+        for (int i = 0; i < points.size(); i++) {
+            ordinals.add(i);
+        }
+        return ordinals.stream()
+                .sorted(Comparator.<Integer>comparingInt(i -> distance.applyAsInt(points.get(i))).thenComparingInt(i -> i))
+                .limit(k)
+                .collect(Collectors.toList());
+    }
+
+    private static int indexOfIdentity(List<WorldPoint> points, WorldPoint point) {
+        for (int i = 0; i < points.size(); i++) {
+            if (points.get(i) == point) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,204 @@
+package com.kraken.api.service.pathfinding;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks A* and jump point search against a reference breadth first search over random grids of blocked tiles and
+ * directional walls, including the flood the backoff searches fall back to when a target cannot be reached.
+ */
+public class GridSearchTest {
+    private static final int GRIDS = 400;
+    private static final int SEARCHES_PER_GRID = 20;
+    private static final int BLOCKED = 0x100;
+
+    private static final int[] DX = {-1, 1, 0, 0, -1, 1, -1, 1};
+    private static final int[] DY = {0, 0, -1, 1, -1, -1, 1, 1};
+
+    @Test
+    public void matchesReferenceSearch() {
+        Random random = new Random(16);
+        for (int grid = 0; grid < GRIDS; grid++) {
+            int[][] flags = randomGrid(random);
+            for (int i = 0; i < SEARCHES_PER_GRID; i++) {
+                int startX = random.nextInt(flags.length);
+                int startY = random.nextInt(flags[0].length);
+                int targetX = random.nextInt(flags.length);
+                int targetY = random.nextInt(flags[0].length);
+                int[][] reference = bfs(flags, startX, startY);
+
+                for (boolean jump : new boolean[]{false, true}) {
+                    String label = "grid " + grid + " search " + i + (jump ? " (jps)" : " (a*)");
+                    GridSearch search = GridSearch.get();
+                    boolean found = search.search(flags, startX, startY, targetX, targetY, jump);
+                    assertEquals(label, reference[targetX][targetY] >= 0, found);
+
+                    if (found) {
+                        assertEquals(label, reference[targetX][targetY], search.distanceTo(targetX, targetY));
+                        assertLegalPath(label, flags, search, startX, startY, targetX, targetY, reference[targetX][targetY]);
+                        continue;
+                    }
+
+                    // A failed plain search has visited every reachable tile, a failed jump point search needs a flood
+                    assertEquals(label, !jump, search.isComplete());
+                    if (!search.isComplete()) {
+                        search.flood(flags, startX, startY);
+                    }
+                    assertTrue(label, search.isComplete());
+                    assertFloodMatches(label, search, reference);
+                    assertBackoffMatches(label, flags, search, reference, startX, startY, targetX, targetY);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void floodMatchesReferenceSearch() {
+        Random random = new Random(61);
+        for (int grid = 0; grid < GRIDS; grid++) {
+            int[][] flags = randomGrid(random);
+            int startX = random.nextInt(flags.length);
+            int startY = random.nextInt(flags[0].length);
+
+            GridSearch search = GridSearch.get();
+            search.flood(flags, startX, startY);
+            assertFloodMatches("grid " + grid, search, bfs(flags, startX, startY));
+        }
+    }
+
+    @Test
+    public void wallBlocksOnlyItsSide() {
+        int[][] flags = new int[5][5];
+        // A wall on the east side of (1, 2), the tile to its east has the matching west wall
+        flags[1][2] = 0x8;
+        flags[2][2] = 0x80;
+
+        assertFalse(GridSearch.canMove(flags, 1, 2, 1, 0));
+        assertFalse(GridSearch.canMove(flags, 2, 2, -1, 0));
+        assertTrue(GridSearch.canMove(flags, 1, 2, 0, 1));
+
+        // Diagonals cannot cut past the wall so the way around takes three steps
+        for (boolean jump : new boolean[]{false, true}) {
+            GridSearch search = GridSearch.get();
+            assertTrue(search.search(flags, 1, 2, 2, 2, jump));
+            assertEquals(3, search.distanceTo(2, 2));
+        }
+    }
+
+    @Test
+    public void outOfBoundsStartIsNotFound() {
+        int[][] flags = new int[8][8];
+        GridSearch search = GridSearch.get();
+        assertFalse(search.search(flags, -1, 0, 3, 3, false));
+        assertFalse(search.search(flags, 0, 0, 8, 3, true));
+        assertEquals(-1, search.distanceTo(3, 3));
+        assertNull(search.path(3, 3));
+    }
+
+    private static void assertLegalPath(String label, int[][] flags, GridSearch search, int startX, int startY,
+                                        int targetX, int targetY, int distance) {
+        int height = search.getHeight();
+        int[] path = search.path(targetX, targetY);
+        assertNotNull(label, path);
+        assertEquals(label, distance, path.length);
+
+        int x = startX;
+        int y = startY;
+        for (int node : path) {
+            int nx = node / height;
+            int ny = node % height;
+            assertTrue(label + " step to " + nx + "," + ny, GridSearch.canMove(flags, x, y, nx - x, ny - y));
+            x = nx;
+            y = ny;
+        }
+        assertEquals(label, targetX, x);
+        assertEquals(label, targetY, y);
+
+        int[] waypoints = search.waypoints(targetX, targetY);
+        if (path.length > 0) {
+            assertEquals(label, path[path.length - 1], waypoints[waypoints.length - 1]);
+        }
+    }
+
+    private static void assertFloodMatches(String label, GridSearch search, int[][] reference) {
+        for (int x = 0; x < reference.length; x++) {
+            for (int y = 0; y < reference[x].length; y++) {
+                assertEquals(label + " tile " + x + "," + y, reference[x][y], search.distanceTo(x, y));
+            }
+        }
+    }
+
+    // Follows the same 1, 3, 6, 10... backoff along the line to the target as LocalPathfinder.findPathWithBackoff
+    private static void assertBackoffMatches(String label, int[][] flags, GridSearch search, int[][] reference,
+                                             int startX, int startY, int targetX, int targetY) {
+        int totalDistance = Math.max(Math.abs(targetX - startX), Math.abs(targetY - startY));
+        double dx = targetX - startX;
+        double dy = targetY - startY;
+        int backoff = 0;
+        int step = 1;
+        while (backoff < totalDistance) {
+            backoff += step++;
+            if (backoff >= totalDistance) {
+                return;
+            }
+
+            double ratio = (double) (totalDistance - backoff) / totalDistance;
+            int x = (int) Math.round(startX + dx * ratio);
+            int y = (int) Math.round(startY + dy * ratio);
+            if (reference[x][y] >= 0) {
+                assertEquals(label + " backoff " + backoff, reference[x][y], search.distanceTo(x, y));
+                assertLegalPath(label + " backoff " + backoff, flags, search, startX, startY, x, y, reference[x][y]);
+                return;
+            }
+            assertEquals(label + " backoff " + backoff, -1, search.distanceTo(x, y));
+        }
+    }
+
+    private static int[][] randomGrid(Random random) {
+        int width = 16 + random.nextInt(48);
+        int height = 16 + random.nextInt(48);
+        double density = 0.05 + random.nextDouble() * 0.35;
+        int[][] flags = new int[width][height];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                if (x == 0 || y == 0 || x == width - 1 || y == height - 1) {
+                    // Some edge tiles are blocked, the rest leave the search free to run along the bounds
+                    flags[x][y] = random.nextInt(4) == 0 ? BLOCKED : 0;
+                } else if (random.nextDouble() < density) {
+                    flags[x][y] = BLOCKED;
+                } else if (random.nextInt(12) == 0) {
+                    flags[x][y] = 1 << random.nextInt(8);
+                }
+            }
+        }
+        return flags;
+    }
+
+    private static int[][] bfs(int[][] flags, int startX, int startY) {
+        int[][] distance = new int[flags.length][flags[0].length];
+        for (int[] column : distance) {
+            Arrays.fill(column, -1);
+        }
+
+        ArrayDeque<int[]> queue = new ArrayDeque<>();
+        distance[startX][startY] = 0;
+        queue.add(new int[]{startX, startY});
+        while (!queue.isEmpty()) {
+            int[] tile = queue.poll();
+            for (int d = 0; d < 8; d++) {
+                int nx = tile[0] + DX[d];
+                int ny = tile[1] + DY[d];
+                if (GridSearch.canMove(flags, tile[0], tile[1], DX[d], DY[d]) && distance[nx][ny] == -1) {
+                    distance[nx][ny] = distance[tile[0]][tile[1]] + 1;
+                    queue.add(new int[]{nx, ny});
+                }
+            }
+        }
+        return distance;
+    }
+}
@@ -0,0 +1,219 @@
+package com.kraken.api.service.pathfinding;
+
+import com.kraken.api.sim.WorldCollisionStore;
+import net.runelite.api.coords.WorldPoint;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Exercises the hierarchical world pathfinder against synthetic collision data covering a 3x3 block of regions.
+ */
+public class WorldPathfinderTest {
+    private static final int BASE_X = 3136;
+    private static final int BASE_Y = 3136;
+    private static final int SIZE = 192;
+    private static final int BLOCKED = 0x100;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private WorldCollisionStore store;
+    private WorldPathfinder pathfinder;
+    private int[][] flags;
+
+    @Before
+    public void setUp() throws IOException {
+        store = new WorldCollisionStore(folder.newFolder("collision").toPath());
+        pathfinder = new WorldPathfinder(store);
+        flags = new int[SIZE][SIZE];
+
+        // A wall along the border between the first two columns of regions with a single gap
+        for (int y = 0; y < SIZE; y++) {
+            if (y != 150) {
+                flags[64][y] = BLOCKED;
+            }
+        }
+
+        // A room with no way in
+        for (int i = 100; i <= 110; i++) {
+            flags[i][100] = BLOCKED;
+            flags[i][110] = BLOCKED;
+            flags[100][i] = BLOCKED;
+            flags[110][i] = BLOCKED;
+        }
+
+        store.record(BASE_X, BASE_Y, 0, flags);
+    }
+
+    @After
+    public void tearDown() {
+        store.close();
+    }
+
+    @Test
+    public void findsPathThroughGap() {
+        WorldPoint start = point(10, 10);
+        WorldPoint target = point(150, 20);
+        List<WorldPoint> path = pathfinder.findPath(start, target);
+
+        assertValid(start, target, path);
+        assertTrue(path.contains(point(64, 150)));
+        int shortest = shortest(10, 10, 150, 20);
+        assertTrue("path of " + path.size() + " should be near " + shortest, path.size() <= shortest * 1.25);
+    }
+
+    @Test
+    public void findsPathWithinRegion() {
+        WorldPoint start = point(10, 10);
+        WorldPoint target = point(40, 20);
+        List<WorldPoint> path = pathfinder.findPath(start, target);
+
+        assertValid(start, target, path);
+        assertEquals(30, path.size());
+    }
+
+    @Test
+    public void returnsEmptyPathToStart() {
+        assertTrue(pathfinder.findPath(point(10, 10), point(10, 10)).isEmpty());
+    }
+
+    @Test
+    public void returnsNullWhenUnreachable() {
+        assertNull(pathfinder.findPath(point(10, 10), point(105, 105)));
+        assertNull(pathfinder.findPath(point(10, 10), point(64, 20)));
+        assertNull(pathfinder.findPath(point(10, 10), new WorldPoint(BASE_X + 500, BASE_Y, 0)));
+        assertNull(pathfinder.findPath(point(10, 10), new WorldPoint(BASE_X + 10, BASE_Y + 10, 1)));
+    }
+
+    @Test
+    public void reusesCachedPathAlongTheWay() {
+        WorldPoint target = point(180, 20);
+        List<WorldPoint> first = pathfinder.findPath(point(10, 10), target);
+        assertValid(point(10, 10), target, first);
+
+        // Walk part of the way and search again from a point on the path
+        WorldPoint midway = first.get(first.size() / 3);
+        List<WorldPoint> second = pathfinder.findPath(midway, target);
+        assertValid(midway, target, second);
+        assertTrue(second.size() < first.size());
+    }
+
+    @Test
+    public void rebuildsWhenRegionIsRecordedAgain() {
+        WorldPoint start = point(10, 10);
+        WorldPoint target = point(150, 20);
+        assertNotNull(pathfinder.findPath(start, target));
+
+        // Close the gap, the regions either side of the wall are now disconnected
+        flags[64][150] = BLOCKED;
+        store.record(BASE_X, BASE_Y, 0, flags);
+        assertNull(pathfinder.findPath(start, target));
+
+        // Open a new gap further south
+        flags[64][30] = 0;
+        store.record(BASE_X, BASE_Y, 0, flags);
+        List<WorldPoint> path = pathfinder.findPath(start, target);
+        assertValid(start, target, path);
+        assertTrue(path.contains(point(64, 30)));
+    }
+
+    @Test
+    public void matchesReachabilityOnRandomMap() {
+        Random random = new Random(3);
+        int[][] randomFlags = new int[SIZE][SIZE];
+        for (int[] column : randomFlags) {
+            for (int y = 0; y < SIZE; y++) {
+                column[y] = random.nextDouble() < 0.25 ? BLOCKED : 0;
+            }
+        }
+        store.record(BASE_X, BASE_Y, 1, randomFlags);
+
+        for (int i = 0; i < 50; i++) {
+            int sx = random.nextInt(SIZE);
+            int sy = random.nextInt(SIZE);
+            int tx = random.nextInt(SIZE);
+            int ty = random.nextInt(SIZE);
+            if (randomFlags[sx][sy] != 0 || randomFlags[tx][ty] != 0) {
+                continue;
+            }
+
+            WorldPoint start = new WorldPoint(BASE_X + sx, BASE_Y + sy, 1);
+            WorldPoint target = new WorldPoint(BASE_X + tx, BASE_Y + ty, 1);
+            List<WorldPoint> path = pathfinder.findPath(start, target);
+            int shortest = shortest(randomFlags, sx, sy, tx, ty);
+            if (shortest < 0) {
+                assertNull(path);
+            } else {
+                assertValid(start, target, path);
+                assertTrue(path.size() >= shortest);
+            }
+        }
+    }
+
+    private void assertValid(WorldPoint start, WorldPoint target, List<WorldPoint> path) {
+        assertNotNull(path);
+        assertFalse(path.isEmpty());
+        assertEquals(target, path.get(path.size() - 1));
+        WorldPoint previous = start;
+        for (WorldPoint next : path) {
+            int dx = next.getX() - previous.getX();
+            int dy = next.getY() - previous.getY();
+            assertTrue("step from " + previous + " to " + next, Math.abs(dx) <= 1 && Math.abs(dy) <= 1 && (dx != 0 || dy != 0));
+            assertTrue("step from " + previous + " to " + next, store.canMove(previous.getX(), previous.getY(), previous.getPlane(), dx, dy));
+            previous = next;
+        }
+    }
+
+    private int shortest(int sx, int sy, int tx, int ty) {
+        return shortest(flags, sx, sy, tx, ty);
+    }
+
+    /**
+     * Breadth first search over the whole synthetic map with the same movement rules as the store.
+     */
+    private static int shortest(int[][] map, int sx, int sy, int tx, int ty) {
+        int[][] distance = new int[SIZE][SIZE];
+        for (int[] column : distance) {
+            Arrays.fill(column, -1);
+        }
+
+        ArrayDeque<int[]> queue = new ArrayDeque<>();
+        distance[sx][sy] = 0;
+        queue.add(new int[] {sx, sy});
+        while (!queue.isEmpty()) {
+            int[] tile = queue.poll();
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    int nx = tile[0] + dx;
+                    int ny = tile[1] + dy;
+                    if ((dx == 0 && dy == 0) || nx < 0 || ny < 0 || nx >= SIZE || ny >= SIZE || distance[nx][ny] >= 0) {
+                        continue;
+                    }
+
+                    if (map[nx][ny] != 0 || map[nx][tile[1]] != 0 || map[tile[0]][ny] != 0) {
+                        continue;
+                    }
+
+                    distance[nx][ny] = distance[tile[0]][tile[1]] + 1;
+                    queue.add(new int[] {nx, ny});
+                }
+            }
+        }
+        return distance[tx][ty];
+    }
+
+    private static WorldPoint point(int x, int y) {
+        return new WorldPoint(BASE_X + x, BASE_Y + y, 0);
+    }
+}
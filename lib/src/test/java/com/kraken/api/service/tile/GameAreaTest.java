@@ -0,0 +1,93 @@
+package com.kraken.api.service.tile;
+
+import net.runelite.api.coords.WorldPoint;
+import org.junit.Test;
+
+import java.awt.*;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the bitset backed area against plain sets of tiles and {@link Polygon#contains(int, int)}.
+ */
+public class GameAreaTest {
+
+    private static Set<WorldPoint> randomTiles(Random random, int baseX, int baseY, int span, int count) {
+        Set<WorldPoint> tiles = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            tiles.add(new WorldPoint(baseX + random.nextInt(span), baseY + random.nextInt(span), random.nextInt(2)));
+        }
+        return tiles;
+    }
+
+    @Test
+    public void setAlgebraMatchesHashSets() {
+        Random random = new Random(7);
+        for (int trial = 0; trial < 200; trial++) {
+            // Overlapping, offset and disjoint bounds, with rows wider than a word
+            Set<WorldPoint> a = randomTiles(random, 3200, 3200, 1 + random.nextInt(150), random.nextInt(400));
+            Set<WorldPoint> b = randomTiles(random, 3200 + random.nextInt(200) - 100, 3200 + random.nextInt(200) - 100,
+                    1 + random.nextInt(150), random.nextInt(400));
+            GameArea areaA = new GameArea(a, null);
+            GameArea areaB = new GameArea(b, null);
+
+            Set<WorldPoint> union = new HashSet<>(a);
+            union.addAll(b);
+            Set<WorldPoint> intersection = new HashSet<>(a);
+            intersection.retainAll(b);
+            Set<WorldPoint> difference = new HashSet<>(a);
+            difference.removeAll(b);
+
+            assertEquals(a, areaA.getTiles());
+            assertEquals(union, areaA.union(areaB).getTiles());
+            assertEquals(intersection, areaA.intersect(areaB).getTiles());
+            assertEquals(difference, areaA.subtract(areaB).getTiles());
+            assertEquals(difference.size(), areaA.subtract(areaB).size());
+        }
+    }
+
+    @Test
+    public void polygonMatchesAwtPolygon() {
+        Random random = new Random(3);
+        for (int trial = 0; trial < 300; trial++) {
+            int n = 3 + random.nextInt(8);
+            WorldPoint[] vertices = new WorldPoint[n];
+            Polygon polygon = new Polygon();
+            for (int i = 0; i < n; i++) {
+                vertices[i] = new WorldPoint(3200 + random.nextInt(90), 3200 + random.nextInt(90), 0);
+                polygon.addPoint(vertices[i].getX(), vertices[i].getY());
+            }
+
+            GameArea area = GameArea.polygon(vertices, vertices[0]);
+            int count = 0;
+            for (int x = 3190; x < 3300; x++) {
+                for (int y = 3190; y < 3300; y++) {
+                    boolean expected = polygon.contains(x, y);
+                    assertEquals("tile " + x + "," + y + " of trial " + trial, expected, area.contains(new WorldPoint(x, y, 0)));
+                    if (expected) count++;
+                }
+            }
+            assertEquals(count, area.size());
+            assertFalse(area.contains(new WorldPoint(vertices[0].getX(), vertices[0].getY(), 1)));
+        }
+    }
+
+    @Test
+    public void rectangleAndRandomTile() {
+        WorldPoint center = new WorldPoint(3222, 3218, 0);
+        GameArea area = GameArea.rectangle(center.dx(-5).dy(-5), center.dx(5).dy(5), center);
+        assertEquals(121, area.size());
+        assertTrue(area.contains(center.dx(5).dy(-5)));
+        assertFalse(area.contains(center.dx(6)));
+
+        for (int i = 0; i < 500; i++) {
+            WorldPoint tile = area.getRandomTile();
+            assertTrue(area.contains(tile));
+        }
+
+        assertNull(new GameArea(new HashSet<>(), center).getRandomTile());
+    }
+}
@@ -0,0 +1,178 @@
+package com.kraken.api.service.util;
+
+import com.kraken.api.Context;
+import com.kraken.api.core.item.ContainerMirror;
+import com.kraken.api.core.item.ItemDefinitionCache;
+import com.kraken.api.core.packet.debug.PacketSpy;
+import com.kraken.api.core.player.LocalPlayerTracker;
+import com.kraken.api.core.thread.WaitEngine;
+import com.kraken.api.core.varbit.VarMirror;
+import com.kraken.api.query.scene.SceneCache;
+import com.kraken.api.query.scene.TileObjectRegistry;
+import com.kraken.api.query.widget.WidgetIndex;
+import com.kraken.api.service.bank.BankService;
+import com.kraken.api.service.tile.ReachabilityCache;
+import com.kraken.api.sim.CollisionDumper;
+import net.runelite.api.Client;
+import net.runelite.api.Player;
+import net.runelite.api.coords.WorldArea;
+import net.runelite.api.coords.WorldPoint;
+import net.runelite.client.callback.ClientThread;
+import net.runelite.client.eventbus.EventBus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs chains asynchronously against a fake client whose client thread is a single scheduled thread producing a
+ * client tick every few milliseconds.
+ */
+public class TaskChainTest {
+    private static final WorldPoint PLAYER_LOCATION = new WorldPoint(3202, 3200, 0);
+
+    private final AtomicReference<Thread> clientThreadRef = new AtomicReference<>();
+    private ScheduledExecutorService clientExecutor;
+    private Context ctx;
+
+    @Before
+    public void setUp() {
+        clientExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "client");
+            clientThreadRef.set(thread);
+            return thread;
+        });
+
+        Player player = (Player) Proxy.newProxyInstance(Player.class.getClassLoader(), new Class<?>[]{Player.class},
+                (proxy, method, args) -> {
+                    if ("getWorldLocation".equals(method.getName())) return PLAYER_LOCATION;
+                    return method.getReturnType() == int.class ? -1 : null;
+                });
+        Client client = (Client) Proxy.newProxyInstance(Client.class.getClassLoader(), new Class<?>[]{Client.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "isClientThread": return Thread.currentThread() == clientThreadRef.get();
+                        case "getTickCount": return 0;
+                        case "getLocalPlayer": return player;
+                        default: return method.getReturnType() == int.class ? 0 : null;
+                    }
+                });
+        ClientThread clientThread = new ClientThread() {
+            @Override
+            public void invoke(Runnable r) {
+                clientExecutor.execute(r);
+            }
+        };
+
+        EventBus eventBus = new EventBus();
+        WaitEngine waitEngine = new WaitEngine(client, clientThread, eventBus);
+        Context[] context = new Context[1];
+        context[0] = new Context(client, clientThread, null, eventBus, null, null, null, null,
+                new BankService(), new PacketSpy(), new SceneCache(), new TileObjectRegistry(client),
+                new VarMirror(client, () -> context[0]), new ItemDefinitionCache(client, null, () -> context[0]),
+                new ContainerMirror(client, () -> context[0]), new WidgetIndex(client), new ReachabilityCache(),
+                new CollisionDumper(), waitEngine, new LocalPlayerTracker(client));
+        ctx = context[0];
+
+        clientExecutor.scheduleAtFixedRate(() -> waitEngine.onClientTick(null), 5, 5, TimeUnit.MILLISECONDS);
+    }
+
+    @After
+    public void tearDown() {
+        clientExecutor.shutdownNow();
+    }
+
+    @Test
+    public void runsStepsInOrder() throws Exception {
+        List<String> order = new CopyOnWriteArrayList<>();
+        AtomicBoolean ready = new AtomicBoolean();
+
+        TaskChain.Execution execution = TaskChain.builder(ctx)
+                .run(() -> order.add("first"))
+                .run(() -> ready.set(true))
+                .waitUntil(ready::get, 1000)
+                .run(() -> order.add("last"))
+                .executeAsync();
+
+        assertTrue(execution.get(5, TimeUnit.SECONDS));
+        assertEquals(4, execution.getCurrentStep());
+        assertEquals(-1, execution.getStepTime(execution.getCurrentStep(), TimeUnit.MILLISECONDS));
+        assertEquals("[first, last]", order.toString());
+    }
+
+    @Test
+    public void throwingStepAfterWaitFailsChain() throws Exception {
+        AtomicBoolean ready = new AtomicBoolean();
+
+        // The wait completes on the client thread, so the throwing step is started and fails inline there
+        TaskChain.Execution execution = TaskChain.builder(ctx)
+                .waitUntil(ready::get, 1000)
+                .run(() -> {
+                    throw new IllegalStateException("boom");
+                })
+                .executeAsync();
+
+        ready.set(true);
+        assertFalse(execution.get(5, TimeUnit.SECONDS));
+        assertEquals(1, execution.getCurrentStep());
+    }
+
+    @Test
+    public void retryUntilRetriesUntilConditionHolds() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+
+        TaskChain.Execution execution = TaskChain.builder(ctx)
+                .retryUntil(attempts::incrementAndGet, () -> attempts.get() >= 3, 5, 20)
+                .executeAsync();
+
+        assertTrue(execution.get(5, TimeUnit.SECONDS));
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    public void retryUntilFailsAfterMaxRetries() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+
+        TaskChain.Execution execution = TaskChain.builder(ctx)
+                .retryUntil(attempts::incrementAndGet, () -> false, 2, 10)
+                .executeAsync();
+
+        assertFalse(execution.get(5, TimeUnit.SECONDS));
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    public void timedOutWaitFailsChain() throws Exception {
+        TaskChain.Execution execution = TaskChain.builder(ctx)
+                .waitUntil(() -> false, 50)
+                .executeAsync();
+
+        assertFalse(execution.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void walkEndsWhenAlreadyWithinRadius() throws Exception {
+        ctx.getLocalPlayerTracker().onGameTick(null);
+
+        // The player is 2 tiles from the target, so no path is calculated and nothing is clicked
+        TaskChain.Execution execution = TaskChain.builder(ctx)
+                .walkTo(new WorldPoint(3200, 3200, 0), 3)
+                .walkTo(new WorldArea(3200, 3198, 5, 5, 0))
+                .walkTo(new WorldPoint(3203, 3201, 0))
+                .executeAsync();
+
+        assertTrue(execution.get(5, TimeUnit.SECONDS));
+        assertEquals(3, execution.getCurrentStep());
+    }
+}
@@ -0,0 +1,250 @@
+package com.kraken.api.service.util.price;
+
+import com.sun.net.httpserver.HttpServer;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Exercises the price service against a local HTTP server standing in for the Wiki prices API.
+ */
+public class ItemPriceServiceTest {
+    private static final String LATEST = "{\"data\":{"
+            + "\"2\":{\"high\":180,\"highTime\":1700000000,\"low\":175,\"lowTime\":1700000100},"
+            + "\"4151\":{\"high\":1500000,\"highTime\":1700000200,\"low\":1450000,\"lowTime\":1700000300},"
+            + "\"0\":{\"high\":null,\"highTime\":null,\"low\":5,\"lowTime\":1700000400,\"extra\":[1,2]}"
+            + "}}";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger bulkRequests = new AtomicInteger();
+    private OkHttpClient okHttpClient;
+    private HttpUrl apiBase;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/latest", exchange -> {
+            requests.incrementAndGet();
+            String query = exchange.getRequestURI().getQuery();
+            if (query == null) {
+                bulkRequests.incrementAndGet();
+            }
+            String response = query != null && query.equals("id=4151")
+                    ? "{\"data\":{\"4151\":{\"high\":1600000,\"highTime\":1,\"low\":1550000,\"lowTime\":2}}}"
+                    : LATEST;
+            byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.start();
+
+        okHttpClient = new OkHttpClient();
+        apiBase = HttpUrl.parse("http://127.0.0.1:" + server.getAddress().getPort() + "/latest");
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        okHttpClient.dispatcher().executorService().shutdown();
+    }
+
+    @Test
+    public void bulkRefreshPopulatesStoreAndSnapshot() throws Exception {
+        Path snapshot = folder.getRoot().toPath().resolve("kraken").resolve("prices.bin");
+        PriceStore store = new PriceStore(snapshot);
+        ItemPriceService service = new ItemPriceService(okHttpClient, apiBase, store, 25);
+
+        assertEquals(3, (int) service.refreshAllPrices("kraken-test").get(5, TimeUnit.SECONDS));
+        assertTrue(snapshot.toFile().exists());
+
+        assertEquals(3, store.size());
+        ItemPrice whip = service.getCachedPrice(4151);
+        assertEquals(1500000, whip.getHigh());
+        assertEquals(1450000, whip.getLow());
+        assertEquals(1700000300L, whip.getLowTimestamp());
+        assertEquals(0, service.getCachedPrice(0).getHigh());
+        assertEquals(5, service.getCachedPrice(0).getLow());
+
+        // A new store over the same snapshot has warm prices without touching the network
+        int before = requests.get();
+        ItemPriceService warm = new ItemPriceService(okHttpClient, apiBase, new PriceStore(snapshot), 25);
+        assertEquals(180, warm.getItemPriceSync(2, "kraken-test").getHigh());
+        assertEquals(1700000000L, warm.getCachedPrice(2).getHighTimestamp());
+        assertEquals(before, requests.get());
+    }
+
+    @Test
+    public void singleItemLookupMergesIntoStore() throws Exception {
+        PriceStore store = new PriceStore(folder.getRoot().toPath().resolve("prices.bin"));
+        store.update(new StringReader("{\"data\":{\"2\":{\"high\":1,\"low\":1}}}"));
+        ItemPriceService service = new ItemPriceService(okHttpClient, apiBase, store, 25);
+        assertNull(service.getCachedPrice(4151));
+
+        assertEquals(1600000, service.getItemPriceSync(4151, "kraken-test").getHigh());
+        assertEquals(1, requests.get());
+        assertEquals(2, store.size());
+        assertEquals(1, store.get(2).getHigh());
+
+        CountDownLatch latch = new CountDownLatch(1);
+        ItemPrice[] result = new ItemPrice[1];
+        service.getItemPrice(4151, "kraken-test", price -> {
+            result[0] = price;
+            latch.countDown();
+        });
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(1550000, result[0].getLow());
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    public void concurrentLookupsShareOneRequest() throws Exception {
+        ItemPriceService service = new ItemPriceService(okHttpClient, apiBase, new PriceStore(folder.getRoot().toPath().resolve("prices.bin")), 100);
+
+        List<CompletableFuture<ItemPrice>> futures = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            futures.add(service.getItemPriceAsync(4151, "kraken-test"));
+        }
+        for (CompletableFuture<ItemPrice> future : futures) {
+            assertEquals(1600000, future.get(5, TimeUnit.SECONDS).getHigh());
+        }
+        assertEquals(1, requests.get());
+        assertEquals(1, new HashSet<>(futures).size());
+    }
+
+    @Test
+    public void fewMissesWithinWindowAreFetchedById() throws Exception {
+        ItemPriceService service = new ItemPriceService(okHttpClient, apiBase, new PriceStore(folder.getRoot().toPath().resolve("prices.bin")), 100);
+
+        CompletableFuture<ItemPrice> a = service.getItemPriceAsync(2, "kraken-test");
+        CompletableFuture<ItemPrice> b = service.getItemPriceAsync(0, "kraken-test");
+        CompletableFuture<ItemPrice> missing = service.getItemPriceAsync(99999, "kraken-test");
+
+        assertEquals(180, a.get(5, TimeUnit.SECONDS).getHigh());
+        assertEquals(5, b.get(5, TimeUnit.SECONDS).getLow());
+        assertNull(missing.get(5, TimeUnit.SECONDS));
+        assertEquals(3, requests.get());
+        assertEquals(0, bulkRequests.get());
+    }
+
+    @Test
+    public void manyMissesWithinWindowShareOneBulkRequest() throws Exception {
+        ItemPriceService service = new ItemPriceService(okHttpClient, apiBase, new PriceStore(folder.getRoot().toPath().resolve("prices.bin")), 100);
+
+        List<CompletableFuture<ItemPrice>> futures = new ArrayList<>();
+        futures.add(service.getItemPriceAsync(2, "kraken-test"));
+        for (int i = 1; i < PriceFetcher.BULK_THRESHOLD; i++) {
+            futures.add(service.getItemPriceAsync(90000 + i, "kraken-test"));
+        }
+
+        assertEquals(180, futures.get(0).get(5, TimeUnit.SECONDS).getHigh());
+        for (int i = 1; i < futures.size(); i++) {
+            assertNull(futures.get(i).get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, requests.get());
+        assertEquals(1, bulkRequests.get());
+    }
+
+    @Test
+    public void stalePricesAreServedWhileRevalidating() throws Exception {
+        PriceStore store = new PriceStore(folder.getRoot().toPath().resolve("prices.bin"));
+        store.update(new StringReader("{\"data\":{\"4151\":{\"high\":1,\"low\":1}}}"));
+        ItemPriceService service = new ItemPriceService(okHttpClient, apiBase, store, 25);
+
+        assertFalse(service.isStale(4151));
+        assertEquals(1, service.getItemPriceSync(4151, "kraken-test").getHigh());
+        assertEquals(0, requests.get());
+
+        service.setTtlMillis(0);
+        assertTrue(service.isStale(4151));
+        assertEquals(1, service.getItemPriceSync(4151, "kraken-test").getHigh());
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (store.get(4151).getHigh() == 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1600000, service.getCachedPrice(4151).getHigh());
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    public void tableGrowsAndMerges() {
+        PriceTable.Builder builder = new PriceTable.Builder(0);
+        for (int id = 0; id < 30000; id += 3) {
+            builder.put(id, id, id / 2, id, id, id);
+        }
+        PriceTable table = builder.build();
+        assertEquals(10000, table.size());
+        assertEquals(2997, table.get(2997).getHigh());
+        assertNull(table.get(2998));
+
+        PriceTable merged = table.merge(new PriceTable.Builder(1).put(2998, 7, 7, 0, 0, 0).put(3, 9, 9, 0, 0, 0).build());
+        assertEquals(10001, merged.size());
+        assertEquals(7, merged.get(2998).getHigh());
+        assertEquals(9, merged.get(3).getHigh());
+        assertEquals(3, table.get(3).getHigh());
+    }
+
+    @Test
+    public void smallUpdatesAreWrittenInPlace() {
+        PriceTable.Builder builder = new PriceTable.Builder(0);
+        for (int id = 0; id < 100; id++) {
+            builder.put(id, id, id, 0, 0, 0);
+        }
+        PriceTable table = builder.build();
+
+        assertTrue(table.putAll(new PriceTable.Builder(1).put(5, 50, 51, 1, 2, 3).put(500, 7, 7, 0, 0, 0).build()));
+        assertEquals(101, table.size());
+        assertEquals(50, table.get(5).getHigh());
+        assertEquals(51, table.get(5).getLow());
+        assertEquals(3, table.fetchedAt(5));
+        assertEquals(7, table.get(500).getHigh());
+
+        // An update which would overfill the table, or is too large to write in place, is left to merge()
+        PriceTable.Builder many = new PriceTable.Builder(0);
+        for (int id = 1000; id < 1000 + PriceTable.MAX_IN_PLACE_UPDATE + 1; id++) {
+            many.put(id, 1, 1, 0, 0, 0);
+        }
+        assertFalse(table.putAll(many.build()));
+        assertEquals(101, table.size());
+
+        PriceTable small = new PriceTable.Builder(0).put(1, 1, 1, 0, 0, 0).build();
+        PriceTable.Builder overfill = new PriceTable.Builder(0);
+        for (int id = 2; id < 10; id++) {
+            overfill.put(id, 1, 1, 0, 0, 0);
+        }
+        assertFalse(small.putAll(overfill.build()));
+        assertEquals(1, small.size());
+        assertFalse(PriceTable.EMPTY.putAll(new PriceTable.Builder(0).put(1, 1, 1, 0, 0, 0).build()));
+    }
+
+    @Test(expected = IOException.class)
+    public void malformedResponseIsRejected() throws IOException {
+        PriceStore.parse(new StringReader("{\"data\":{\"2\":[1,2,3]}}"), 0L);
+    }
+}
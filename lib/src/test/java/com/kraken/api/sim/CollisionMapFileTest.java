@@ -0,0 +1,110 @@
+package com.kraken.api.sim;
+
+import com.kraken.api.sim.model.AttackStyle;
+import com.kraken.api.sim.model.SimNpc;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Round trips collision maps through the binary format.
+ */
+public class CollisionMapFileTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void roundTripsFlagsAndNpcs() throws IOException {
+        int[][] data = new int[60][80];
+        Random random = new Random(11);
+        for (int[] row : data) {
+            for (int x = 0; x < row.length; x++) {
+                // Mostly open tiles with clusters of walls like a real scene
+                row[x] = random.nextInt(10) == 0 ? 0x100 : (x > 0 && random.nextBoolean() ? row[x - 1] : 0);
+            }
+        }
+
+        SimNpc guard = new SimNpc(new Point(4, 5), Color.RED, "Guard");
+        guard.setSize(2);
+        guard.setAttackStyle(AttackStyle.RANGE);
+        guard.setAttackRange(7);
+        guard.setAttackSpeed(5);
+        guard.setCanPathfind(true);
+        guard.setTarget(new Point(9, 9));
+        SimNpc rat = new SimNpc(new Point(1, 2), Color.WHITE, "Giant rät");
+
+        CollisionMap map = new CollisionMap(data, List.of(guard, rat), 3200, 3100, 3279, 3159, 10, 20, 1);
+        Path file = folder.getRoot().toPath().resolve("maps").resolve("scene.kmap");
+        CollisionMapFile.write(map, file);
+        assertTrue(CollisionMapFile.isBinary(file));
+        assertTrue(Files.size(file) < 60 * 80 * Integer.BYTES);
+
+        CollisionMap read = CollisionMapFile.read(file);
+        assertEquals(3200, read.getMinX());
+        assertEquals(3100, read.getMinY());
+        assertEquals(80, read.getWidth());
+        assertEquals(60, read.getHeight());
+        assertEquals(10, read.getPlayerX());
+        assertEquals(20, read.getPlayerY());
+        assertEquals(1, read.getPlane());
+        assertFalse(read.isEmpty());
+
+        // Single tile reads go through the mapped view before the array is decoded
+        for (int y = 0; y < 60; y++) {
+            for (int x = 0; x < 80; x++) {
+                assertEquals(data[y][x], read.getCollisionAt(x, y));
+            }
+        }
+        assertEquals(0, read.getCollisionAt(80, 0));
+        assertArrayEquals(data, read.getData());
+
+        assertEquals(2, read.getNpcs().size());
+        assertEquals(guard, read.getNpcs().get(0));
+        assertEquals(rat, read.getNpcs().get(1));
+    }
+
+    @Test
+    public void roundTripsEmptyMap() throws IOException {
+        Path file = folder.newFile().toPath();
+        CollisionMapFile.write(new CollisionMap(new int[0][0], List.of(), 0, 0, -1, -1, 0, 0, 0), file);
+
+        CollisionMap read = CollisionMapFile.read(file);
+        assertTrue(read.isEmpty());
+        assertTrue(read.getNpcs().isEmpty());
+        assertEquals(0, read.getData().length);
+    }
+
+    @Test
+    public void rejectsOtherFiles() throws IOException {
+        Path json = folder.newFile("map.json").toPath();
+        Files.write(json, "{\"data\": [[0]]}".getBytes());
+        assertFalse(CollisionMapFile.isBinary(json));
+        assertUnreadable(json);
+
+        Path truncated = folder.newFile().toPath();
+        CollisionMapFile.write(new CollisionMap(new int[10][10], List.of(), 0, 0, 9, 9, 0, 0, 0), truncated);
+        byte[] bytes = Files.readAllBytes(truncated);
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 20));
+        assertUnreadable(truncated);
+    }
+
+    private static void assertUnreadable(Path file) {
+        try {
+            CollisionMapFile.read(file);
+            fail("Expected " + file + " to be rejected");
+        } catch (IOException expected) {
+            // Rejected as expected
+        }
+    }
+}
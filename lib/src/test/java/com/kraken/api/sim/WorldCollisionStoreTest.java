@@ -0,0 +1,173 @@
+package com.kraken.api.sim;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static com.kraken.api.sim.WorldCollisionStore.*;
+import static org.junit.Assert.*;
+
+/**
+ * Exercises the world collision store against synthetic scenes written to a temporary directory.
+ */
+public class WorldCollisionStoreTest {
+    private static final int BASE_X = 3200;
+    private static final int BASE_Y = 3200;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void packsCollisionFlags() {
+        assertEquals(0, pack(0));
+        assertEquals(BLOCKED, pack(0x100));
+        assertEquals(BLOCKED, pack(0x200000));
+        assertEquals(BLOCK_NORTH, pack(0x20));
+        assertEquals(BLOCK_EAST, pack(0x80));
+        assertEquals(BLOCK_SOUTH, pack(0x2));
+        assertEquals(BLOCK_WEST, pack(0x8));
+        assertEquals(BLOCK_NORTH | BLOCK_WEST, pack(0x20 | 0x8));
+    }
+
+    @Test
+    public void recordsAndReadsScene() throws IOException {
+        Path directory = folder.newFolder("collision").toPath();
+        int[][] flags = new int[104][104];
+        flags[10][10] = 0x100;
+        flags[20][20] = 0x20;
+        flags[0][0] = 0xFFFFFF;
+
+        try (WorldCollisionStore store = new WorldCollisionStore(directory)) {
+            assertEquals(104 * 104 - 1, store.record(BASE_X, BASE_Y, 0, flags));
+            assertEquals(BLOCKED, store.get(BASE_X + 10, BASE_Y + 10, 0));
+            assertEquals(BLOCK_NORTH, store.get(BASE_X + 20, BASE_Y + 20, 0));
+            assertEquals(0, store.get(BASE_X + 30, BASE_Y + 30, 0));
+
+            assertFalse(store.isKnown(BASE_X, BASE_Y, 0));
+            assertEquals(BLOCKED, store.get(BASE_X, BASE_Y, 0));
+            assertFalse(store.isKnown(BASE_X + 30, BASE_Y + 30, 1));
+            assertEquals(BLOCKED, store.get(BASE_X + 200, BASE_Y, 0));
+            assertTrue(store.hasRegion(regionId(BASE_X, BASE_Y), 0));
+            assertFalse(store.hasRegion(regionId(BASE_X, BASE_Y), 1));
+        }
+
+        assertTrue(Files.exists(directory.resolve("plane-0.dat")));
+        assertFalse(Files.exists(directory.resolve("plane-1.dat")));
+    }
+
+    @Test
+    public void checksMovement() throws IOException {
+        int[][] flags = new int[104][104];
+        flags[10][11] = 0x20;   // wall on the south side of (10, 11)
+        flags[21][20] = 0x100;  // blocked tile east of (20, 20)
+
+        try (WorldCollisionStore store = new WorldCollisionStore(folder.newFolder().toPath())) {
+            store.record(BASE_X, BASE_Y, 0, flags);
+            assertFalse(store.canMove(BASE_X + 10, BASE_Y + 10, 0, 0, 1));
+            assertTrue(store.canMove(BASE_X + 10, BASE_Y + 10, 0, 1, 0));
+            assertFalse(store.canMove(BASE_X + 9, BASE_Y + 10, 0, 1, 1));
+
+            assertFalse(store.canMove(BASE_X + 20, BASE_Y + 20, 0, 1, 0));
+            assertFalse(store.canMove(BASE_X + 20, BASE_Y + 19, 0, 1, 1));
+            assertTrue(store.canMove(BASE_X + 20, BASE_Y + 20, 0, 0, 1));
+        }
+    }
+
+    @Test
+    public void persistsAcrossReopenAndGrows() throws IOException {
+        Path directory = folder.newFolder("collision").toPath();
+        int[][] tile = new int[1][1];
+        tile[0][0] = 0x80;
+
+        // More regions than the initial mapping holds so the file is grown and remapped
+        try (WorldCollisionStore store = new WorldCollisionStore(directory)) {
+            for (int region = 0; region < 100; region++) {
+                store.record(region * REGION_SIZE, BASE_Y, 2, tile);
+            }
+            assertEquals(100, store.getVersion());
+        }
+
+        try (WorldCollisionStore store = new WorldCollisionStore(directory)) {
+            for (int region = 0; region < 100; region++) {
+                assertEquals(BLOCK_EAST, store.get(region * REGION_SIZE, BASE_Y, 2));
+                assertEquals(BLOCKED, store.get(region * REGION_SIZE + 1, BASE_Y, 2));
+            }
+
+            byte[] tiles = new byte[REGION_SIZE * REGION_SIZE];
+            assertTrue(store.readRegion(regionId(REGION_SIZE, BASE_Y), 2, tiles));
+            assertEquals(BLOCK_EAST, tiles[(BASE_Y & (REGION_SIZE - 1))]);
+            assertFalse(store.readRegion(regionId(BASE_X, 0), 2, tiles));
+            assertEquals(BLOCKED, tiles[0]);
+        }
+    }
+
+    @Test
+    public void storesSharingADirectoryAllocateDistinctSlots() throws IOException {
+        Path directory = folder.newFolder("collision").toPath();
+        int[][] open = new int[1][1];
+        int[][] wall = new int[1][1];
+        wall[0][0] = 0x80;
+
+        // Interleaved writes to different regions, past the initial mapping so both stores grow and remap the file
+        try (WorldCollisionStore first = new WorldCollisionStore(directory);
+             WorldCollisionStore second = new WorldCollisionStore(directory)) {
+            for (int region = 0; region < 100; region++) {
+                first.record(region * REGION_SIZE, BASE_Y, 0, open);
+                second.record(region * REGION_SIZE, BASE_Y + REGION_SIZE, 0, wall);
+            }
+
+            for (int region = 0; region < 100; region++) {
+                assertEquals(0, second.get(region * REGION_SIZE, BASE_Y, 0));
+                assertEquals(BLOCK_EAST, first.get(region * REGION_SIZE, BASE_Y + REGION_SIZE, 0));
+            }
+        }
+
+        try (WorldCollisionStore store = new WorldCollisionStore(directory)) {
+            for (int region = 0; region < 100; region++) {
+                assertEquals(0, store.get(region * REGION_SIZE, BASE_Y, 0));
+                assertEquals(BLOCK_EAST, store.get(region * REGION_SIZE, BASE_Y + REGION_SIZE, 0));
+                assertFalse(store.isKnown(region * REGION_SIZE + 1, BASE_Y, 0));
+            }
+        }
+    }
+
+    @Test
+    public void tracksRegionVersions() throws IOException {
+        try (WorldCollisionStore store = new WorldCollisionStore(folder.newFolder().toPath())) {
+            int region = regionId(BASE_X, BASE_Y);
+            assertEquals(0, store.getRegionVersion(region, 0));
+            store.record(BASE_X, BASE_Y, 0, new int[8][8]);
+            int version = store.getRegionVersion(region, 0);
+            assertTrue(version > 0);
+            assertEquals(0, store.getRegionVersion(region, 1));
+
+            // Recording the same tiles again changes nothing so cached paths stay valid
+            long storeVersion = store.getVersion();
+            store.record(BASE_X, BASE_Y, 0, new int[8][8]);
+            assertEquals(version, store.getRegionVersion(region, 0));
+            assertEquals(storeVersion, store.getVersion());
+
+            int[][] flags = new int[8][8];
+            flags[3][3] = 0x100;
+            store.record(BASE_X, BASE_Y, 0, flags);
+            assertTrue(store.getRegionVersion(region, 0) > version);
+            assertTrue(store.getVersion() > storeVersion);
+        }
+    }
+
+    @Test
+    public void replacesUnknownFormat() throws IOException {
+        Path directory = folder.newFolder("collision").toPath();
+        Files.write(directory.resolve("plane-0.dat"), new byte[300_000]);
+
+        try (WorldCollisionStore store = new WorldCollisionStore(directory)) {
+            assertEquals(BLOCKED, store.get(BASE_X, BASE_Y, 0));
+            store.record(BASE_X, BASE_Y, 0, new int[4][4]);
+            assertEquals(0, store.get(BASE_X, BASE_Y, 0));
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.kraken.api.sim.engine;
+
+import com.kraken.api.sim.model.SimNpc;
+import org.junit.Test;
+
+import java.awt.*;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Walks NPCs of every size towards the player with flow fields and checks each step against the breadth first search
+ * the simulation used before, over random maps of blocked tiles and directional walls.
+ */
+public class FlowFieldTest {
+    private static final int MAPS = 300;
+    private static final int NPCS_PER_MAP = 8;
+    private static final int BLOCKED = 0x100;
+    private static final int[] WALLS = {0x2, 0x8, 0x20, 0x80};
+
+    @Test
+    public void stepsMatchFindPath() {
+        Random random = new Random(20);
+        int fallbacks = 0;
+        for (int map = 0; map < MAPS; map++) {
+            int[][] data = randomMap(random);
+            int height = data.length;
+            int width = data[0].length;
+
+            // A new engine per map so no field is carried over from a previous map
+            SimulationEngine engine = engine(data);
+            Point player = new Point(random.nextInt(width), random.nextInt(height));
+            for (int i = 0; i < NPCS_PER_MAP; i++) {
+                int size = 1 + random.nextInt(3);
+                SimNpc npc = npc(new Point(random.nextInt(width), random.nextInt(height)), size);
+                if (npc.getPosition().x + size > width || npc.getPosition().y - size + 1 < 0) {
+                    fallbacks++;
+                }
+
+                assertWalk("map " + map + " npc " + i, engine, npc, player);
+            }
+        }
+
+        // Some footprints hang over the edge of the map and are moved by findPath itself
+        assertTrue(fallbacks > 0);
+    }
+
+    @Test
+    public void tiesAreBrokenInNeighbourOrder() {
+        int[][] data = new int[9][9];
+        SimulationEngine engine = engine(data);
+        Point player = new Point(7, 4);
+        SimNpc npc = npc(new Point(1, 4), 1);
+
+        // East, south east and north east all start a shortest path, east comes first
+        assertEquals(new Point(2, 4), engine.nextPathMove(npc.getPosition(), player, npc));
+        assertWalk("east", engine, npc, player);
+
+        // South and south east both start a shortest path, cardinal steps come before diagonal ones. Fields are only
+        // rebuilt each tick so the player moving needs a new engine
+        engine = engine(data);
+        npc = npc(new Point(1, 1), 1);
+        player = new Point(5, 8);
+        assertEquals(new Point(1, 2), engine.nextPathMove(npc.getPosition(), player, npc));
+        assertWalk("south", engine, npc, player);
+    }
+
+    @Test
+    public void footprintOverEdgeFallsBackToFindPath() {
+        int[][] data = new int[12][12];
+        data[3][4] = BLOCKED;
+        SimulationEngine engine = engine(data);
+        Point player = new Point(3, 8);
+
+        // The northern row of a 2x2 NPC at y = 0 lies outside the map
+        SimNpc npc = npc(new Point(3, 0), 2);
+        FlowField field = new FlowField(2);
+        field.compute(data, FlowField.moves(data, null), new int[0], 0);
+        assertFalse(field.inBounds(3, 0));
+
+        assertNotNull(engine.nextPathMove(npc.getPosition(), player, npc));
+        assertWalk("edge", engine, npc, player);
+
+        // A 3x3 NPC hanging over the eastern edge
+        npc = npc(new Point(10, 6), 3);
+        assertNotNull(engine.nextPathMove(npc.getPosition(), player, npc));
+        assertWalk("east edge", engine, npc, player);
+    }
+
+    @Test
+    public void unreachablePlayerHasNoStep() {
+        int[][] data = new int[10][10];
+        for (int i = 3; i <= 7; i++) {
+            data[3][i] = BLOCKED;
+            data[7][i] = BLOCKED;
+            data[i][3] = BLOCKED;
+            data[i][7] = BLOCKED;
+        }
+        SimulationEngine engine = engine(data);
+        SimNpc npc = npc(new Point(0, 0), 1);
+        assertNull(engine.nextPathMove(npc.getPosition(), new Point(5, 5), npc));
+        assertTrue(engine.findPath(npc.getPosition(), new Point(5, 5), npc).isEmpty());
+    }
+
+    // Follows the flow field one step at a time, from every position along the way the step must be the first step of
+    // the route findPath finds from that position
+    private static void assertWalk(String label, SimulationEngine engine, SimNpc npc, Point player) {
+        int[][] data = engine.getCollisionData();
+        Point position = npc.getPosition();
+        for (int step = 0; step <= data.length * data[0].length; step++) {
+            List<Point> route = engine.findPath(position, player, npc);
+            Point next = engine.nextPathMove(position, player, npc);
+            assertEquals(label + " step " + step + " from " + position, route.isEmpty() ? null : route.get(0), next);
+            if (next == null) {
+                return;
+            }
+            position = next;
+        }
+        fail(label + " did not reach the player");
+    }
+
+    private static SimulationEngine engine(int[][] data) {
+        SimulationEngine engine = new SimulationEngine();
+        engine.setCollisionData(data);
+        engine.setFlowFieldPathing(true);
+        return engine;
+    }
+
+    private static SimNpc npc(Point position, int size) {
+        SimNpc npc = new SimNpc(position, Color.RED, "npc");
+        npc.setSize(size);
+        npc.setCanPathfind(true);
+        return npc;
+    }
+
+    private static int[][] randomMap(Random random) {
+        int width = 12 + random.nextInt(28);
+        int height = 12 + random.nextInt(28);
+        double density = random.nextDouble() * 0.3;
+        int[][] data = new int[height][width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (random.nextDouble() < density) {
+                    data[y][x] = BLOCKED;
+                } else if (random.nextInt(10) == 0) {
+                    data[y][x] = WALLS[random.nextInt(WALLS.length)];
+                }
+            }
+        }
+        return data;
+    }
+}